@@ -0,0 +1,108 @@
+package com.github.zachcloud.benchmarks;
+
+import com.github.zachcloud.frost.BatchCipher;
+import com.github.zachcloud.frost.FrostSecurity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encrypts 16 MB of independent segments, each with its own key: one
+ * encryptBytes call per segment, one in-place encryptBytes range call
+ * per segment, and one BatchCipher call on a single thread and on the
+ * common pool. 68 byte segments are the size of a sector offset table.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchCryptBenchmark {
+
+    private static final int DATA_SIZE = 16 * 1024 * 1024;
+
+    @Param({"68", "4096"})
+    private int segmentSize;
+
+    private FrostSecurity frostSecurity;
+    private ForkJoinPool singleThread;
+    private BatchCipher singleThreadCipher;
+    private BatchCipher commonPoolCipher;
+    private byte[] data;
+    private byte[] output;
+    private int[] offsets;
+    private int[] lengths;
+    private int[] keys;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        frostSecurity = FrostSecurity.getInstance();
+        singleThread = new ForkJoinPool(1);
+        singleThreadCipher = new BatchCipher(ByteOrder.LITTLE_ENDIAN, singleThread);
+        commonPoolCipher = new BatchCipher();
+        int count = DATA_SIZE / segmentSize;
+        data = new byte[count * segmentSize];
+        new Random(42).nextBytes(data);
+        output = new byte[data.length];
+        offsets = new int[count];
+        lengths = new int[count];
+        keys = new int[count];
+        for (int i = 0; i < count; i++) {
+            offsets[i] = i * segmentSize;
+            lengths[i] = segmentSize;
+            keys[i] = -326913117 + i;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        singleThread.shutdown();
+    }
+
+    @Benchmark
+    public byte[] encryptBytesLoop() {
+        for (int i = 0; i < keys.length; i++) {
+            byte[] segment = frostSecurity.encryptBytes(
+                    Arrays.copyOfRange(data, offsets[i], offsets[i] + lengths[i]), keys[i]);
+            System.arraycopy(segment, 0, output, offsets[i], segment.length);
+        }
+        return output;
+    }
+
+    @Benchmark
+    public byte[] encryptBytesInPlaceLoop() {
+        for (int i = 0; i < keys.length; i++) {
+            frostSecurity.encryptBytes(data, offsets[i], lengths[i], data, offsets[i], keys[i]);
+        }
+        return data;
+    }
+
+    @Benchmark
+    public byte[] batchSingleThread() {
+        singleThreadCipher.encrypt(data, offsets, lengths, keys);
+        return data;
+    }
+
+    @Benchmark
+    public byte[] batchCommonPool() {
+        commonPoolCipher.encrypt(data, offsets, lengths, keys);
+        return data;
+    }
+}
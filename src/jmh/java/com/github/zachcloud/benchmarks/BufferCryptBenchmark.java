@@ -0,0 +1,72 @@
+package com.github.zachcloud.benchmarks;
+
+import com.github.zachcloud.frost.FrostSecurity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+/**
+ * Compares the copying buffer/byte array decryption path with
+ * in-place decryption of heap and direct buffers.
+ */
+@BenchmarkMode(Mode.Throughput)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BufferCryptBenchmark {
+
+    private static final int KEY = -326913117;
+
+    @Param({"4096", "1048576"})
+    private int size;
+
+    private FrostSecurity frostSecurity;
+    private byte[] bytes;
+    private ByteBuffer heapBuffer;
+    private ByteBuffer directBuffer;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        frostSecurity = new FrostSecurity();
+        bytes = new byte[size];
+        new Random(42).nextBytes(bytes);
+        heapBuffer = ByteBuffer.wrap(bytes.clone()).order(ByteOrder.LITTLE_ENDIAN);
+        directBuffer = ByteBuffer.allocateDirect(size).order(ByteOrder.LITTLE_ENDIAN);
+        directBuffer.duplicate().put(bytes);
+    }
+
+    @Benchmark
+    public byte[] decryptBytes() {
+        return frostSecurity.decryptBytes(bytes, KEY);
+    }
+
+    @Benchmark
+    public ByteBuffer decryptBufferCopy() {
+        return frostSecurity.decryptBuffer(heapBuffer, KEY);
+    }
+
+    @Benchmark
+    public ByteBuffer decryptInPlaceHeap() {
+        frostSecurity.decryptBufferInPlace(heapBuffer, KEY);
+        return heapBuffer;
+    }
+
+    @Benchmark
+    public ByteBuffer decryptInPlaceDirect() {
+        frostSecurity.decryptBufferInPlace(directBuffer, KEY);
+        return directBuffer;
+    }
+}
@@ -0,0 +1,69 @@
+package com.github.zachcloud.benchmarks;
+
+import com.github.zachcloud.frost.FrostSecurity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.github.zachcloud.frost.SecurityConstants.MPQ_HASH_NAME_A;
+
+/**
+ * Hashing a listfile one name at a time against hashStrings, which
+ * uses vector lanes on Java 17 and later.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BulkHashBenchmark {
+
+    @Param({"10000"})
+    private int names;
+
+    private FrostSecurity frostSecurity;
+    private String[] listfile;
+    private int[] hashes;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        frostSecurity = FrostSecurity.getInstance();
+        listfile = Workloads.listfile(names);
+        hashes = new int[names];
+    }
+
+    @Benchmark
+    public long hashString() {
+        long sum = 0;
+        for (String name : listfile) {
+            sum += frostSecurity.hashString(name, MPQ_HASH_NAME_A);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int[] hashAsInt() {
+        for (int i = 0; i < listfile.length; i++) {
+            hashes[i] = frostSecurity.hashAsInt(listfile[i], MPQ_HASH_NAME_A);
+        }
+        return hashes;
+    }
+
+    @Benchmark
+    public int[] hashStrings() {
+        frostSecurity.hashStrings(listfile, MPQ_HASH_NAME_A, hashes);
+        return hashes;
+    }
+}
@@ -0,0 +1,119 @@
+package com.github.zachcloud.benchmarks;
+
+import com.github.zachcloud.frost.FrostSecurity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+/**
+ * Throughput of every encrypt/decrypt operation on int[], byte[] and
+ * ByteBuffer, from 16 bytes to 64 MB, in both byte orders.
+ * Throughput is reported in operations per second; multiply by size
+ * for bytes per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class CryptBenchmark {
+
+    private static final int KEY = -326913117;
+
+    @Param({"16", "4096", "1048576", "67108864"})
+    private int size;
+
+    @Param({"LITTLE_ENDIAN", "BIG_ENDIAN"})
+    private String order;
+
+    private FrostSecurity frostSecurity;
+    private int[] ints;
+    private byte[] bytes;
+    private ByteBuffer heapBuffer;
+    private ByteBuffer directBuffer;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ByteOrder byteOrder = "BIG_ENDIAN".equals(order) ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+        frostSecurity = FrostSecurity.getInstance(byteOrder);
+        bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        ints = new int[size / 4];
+        ByteBuffer.wrap(bytes).order(byteOrder).asIntBuffer().get(ints);
+        heapBuffer = ByteBuffer.wrap(bytes.clone()).order(byteOrder);
+        directBuffer = ByteBuffer.allocateDirect(size).order(byteOrder);
+        directBuffer.duplicate().put(bytes);
+    }
+
+    @Benchmark
+    public int[] encryptInts() {
+        return frostSecurity.encrypt(ints, KEY);
+    }
+
+    @Benchmark
+    public int[] decryptInts() {
+        return frostSecurity.decrypt(ints, KEY);
+    }
+
+    @Benchmark
+    public byte[] encryptBytes() {
+        return frostSecurity.encryptBytes(bytes, KEY);
+    }
+
+    @Benchmark
+    public byte[] decryptBytes() {
+        return frostSecurity.decryptBytes(bytes, KEY);
+    }
+
+    @Benchmark
+    public byte[] encryptBytesInPlace() {
+        frostSecurity.encryptBytes(bytes, 0, bytes.length, bytes, 0, KEY);
+        return bytes;
+    }
+
+    @Benchmark
+    public byte[] decryptBytesInPlace() {
+        frostSecurity.decryptBytes(bytes, 0, bytes.length, bytes, 0, KEY);
+        return bytes;
+    }
+
+    @Benchmark
+    public ByteBuffer encryptBuffer() {
+        return frostSecurity.encryptBuffer(heapBuffer, KEY);
+    }
+
+    @Benchmark
+    public ByteBuffer decryptBuffer() {
+        return frostSecurity.decryptBuffer(heapBuffer, KEY);
+    }
+
+    @Benchmark
+    public ByteBuffer decryptHeapBufferInPlace() {
+        frostSecurity.decryptBufferInPlace(heapBuffer, KEY);
+        return heapBuffer;
+    }
+
+    @Benchmark
+    public ByteBuffer decryptDirectBufferInPlace() {
+        frostSecurity.decryptBufferInPlace(directBuffer, KEY);
+        return directBuffer;
+    }
+
+    @Benchmark
+    public ByteBuffer encryptDirectBufferInPlace() {
+        frostSecurity.encryptBufferInPlace(directBuffer, KEY);
+        return directBuffer;
+    }
+}
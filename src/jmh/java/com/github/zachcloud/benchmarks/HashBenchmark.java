@@ -0,0 +1,102 @@
+package com.github.zachcloud.benchmarks;
+
+import com.github.zachcloud.frost.FrostSecurity;
+import com.github.zachcloud.frost.SecurityConstants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the allocation-free name hashing overloads with the
+ * original toUpperCase/toCharArray implementation over a long table.
+ * Run with -prof gc to see the allocation rate of each.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HashBenchmark {
+
+    @Param({"war3map.j", "Units\\Human\\Footman\\Footman_portrait.mdx"})
+    private String name;
+
+    private FrostSecurity frostSecurity;
+    private StringBuilder chars;
+    private byte[] bytes;
+    private ByteBuffer directBuffer;
+    private long[] legacyTable;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        frostSecurity = new FrostSecurity();
+        chars = new StringBuilder(name);
+        bytes = name.getBytes(StandardCharsets.ISO_8859_1);
+        directBuffer = ByteBuffer.allocateDirect(bytes.length);
+        directBuffer.duplicate().put(bytes);
+        legacyTable = buildLegacyTable();
+    }
+
+    @Benchmark
+    public long legacyHashString() {
+        long seed1 = 0x7FED7FEDL;
+        long seed2 = 0xEEEEEEEEL;
+        int ch;
+        String s = name.toUpperCase();
+        for (char c : s.toCharArray()) {
+            ch = Byte.toUnsignedInt((byte) c);
+            seed1 = legacyTable[(SecurityConstants.MPQ_HASH_NAME_A * 0x100) + ch] ^ (seed1 + seed2);
+            seed2 = ch + seed1 + seed2 + (seed2 << 5) + 3;
+        }
+        return seed1;
+    }
+
+    @Benchmark
+    public long hashString() {
+        return frostSecurity.hashString(name, SecurityConstants.MPQ_HASH_NAME_A);
+    }
+
+    @Benchmark
+    public int hashChars() {
+        return frostSecurity.hashAsInt(chars, SecurityConstants.MPQ_HASH_NAME_A);
+    }
+
+    @Benchmark
+    public int hashBytes() {
+        return frostSecurity.hashAsInt(bytes, 0, bytes.length, SecurityConstants.MPQ_HASH_NAME_A);
+    }
+
+    @Benchmark
+    public int hashDirectBuffer() {
+        return frostSecurity.hashAsInt(directBuffer, SecurityConstants.MPQ_HASH_NAME_A);
+    }
+
+    private static long[] buildLegacyTable() {
+        long[] table = new long[0x500];
+        long seed = 0x00100001;
+        for (int index1 = 0; index1 < 0x100; index1++) {
+            for (int index2 = index1, i = 0; i < 5; i++, index2 += 0x100) {
+                seed = (seed * 125 + 3) % 0x2AAAAB;
+                long temp1 = (seed & 0xFFFF) << 0x10;
+                seed = (seed * 125 + 3) % 0x2AAAAB;
+                long temp2 = (seed & 0xFFFF);
+                table[index2] = (temp1 | temp2);
+            }
+        }
+        return table;
+    }
+}
@@ -0,0 +1,77 @@
+package com.github.zachcloud.benchmarks;
+
+import com.github.zachcloud.frost.FrostSecurity;
+import com.github.zachcloud.frost.InstrumentedFrostSecurity;
+import com.github.zachcloud.interfaces.IFrostSecurity;
+import com.github.zachcloud.metrics.SimpleFrostMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.zachcloud.frost.SecurityConstants.MPQ_HASH_NAME_A;
+
+/**
+ * Cost of InstrumentedFrostSecurity over the plain FrostSecurity,
+ * with instrumentation off, counting only, and timing every call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InstrumentationBenchmark {
+
+    @Param({"plain", "disabled", "counting", "timing"})
+    private String mode;
+
+    private IFrostSecurity frostSecurity;
+    private ByteBuffer buffer;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        FrostSecurity plain = FrostSecurity.getInstance();
+        switch (mode) {
+            case "plain":
+                frostSecurity = plain;
+                break;
+            case "disabled":
+                InstrumentedFrostSecurity disabled = new InstrumentedFrostSecurity(plain, new SimpleFrostMetrics());
+                disabled.setEnabled(false);
+                frostSecurity = disabled;
+                break;
+            case "counting":
+                frostSecurity = new InstrumentedFrostSecurity(plain, new SimpleFrostMetrics(), 0,
+                        Integer.MAX_VALUE);
+                break;
+            default:
+                frostSecurity = new InstrumentedFrostSecurity(plain, new SimpleFrostMetrics(), 1,
+                        Integer.MAX_VALUE);
+                break;
+        }
+        buffer = ByteBuffer.allocate(4096);
+    }
+
+    @Benchmark
+    public int hashAsInt() {
+        return frostSecurity.hashAsInt("Units\\Human\\Footman.mdx", MPQ_HASH_NAME_A);
+    }
+
+    @Benchmark
+    public ByteBuffer decryptBufferInPlace() {
+        frostSecurity.decryptBufferInPlace(buffer, 0x1A2B3C4D);
+        return buffer;
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.zachcloud.benchmarks;
+
+import com.github.zachcloud.frost.FrostSecurity;
+import com.github.zachcloud.frost.KeyRecovery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures key recovery from exactly known plaintext and from a first
+ * plaintext integer that is only known to lie in a range of rangeBits.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyRecoveryBenchmark {
+
+    private static final int KEY = -326913117;
+
+    @Param({"20", "28"})
+    private int rangeBits;
+
+    private KeyRecovery keyRecovery;
+    private int[] plaintext;
+    private int[] encrypted;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        keyRecovery = new KeyRecovery();
+        plaintext = new Random(42).ints(4).toArray();
+        plaintext[0] &= (1 << rangeBits) - 1;
+        encrypted = new FrostSecurity().encrypt(plaintext, KEY);
+    }
+
+    @Benchmark
+    public int[] recoverKnownPlaintext() {
+        return keyRecovery.recoverKeys(encrypted, plaintext);
+    }
+
+    @Benchmark
+    public int[] recoverFirstInRange() {
+        return keyRecovery.recoverKeys(Arrays.copyOf(encrypted, 4), 0, (1L << rangeBits) - 1,
+                (index, word) -> index == 0 || word == plaintext[index]);
+    }
+}
@@ -0,0 +1,87 @@
+package com.github.zachcloud.benchmarks;
+
+import com.github.zachcloud.frost.FrostSecurity;
+import com.github.zachcloud.frost.SecurityConstants;
+import com.github.zachcloud.helpers.LongHashSet;
+import com.github.zachcloud.mpq.DictionaryMatcher;
+import com.github.zachcloud.mpq.MeetInTheMiddleMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recovers "Units\" + unknown characters + ".mdx" names for 16
+ * hashA/hashB pairs: 4 unknown characters by trying every name with
+ * DictionaryMatcher and meeting in the middle, and 6 unknown
+ * characters meeting in the middle only.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 1, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class MeetInTheMiddleBenchmark {
+
+    private static final String PREFIX = "Units\\";
+    private static final String SUFFIX = ".mdx";
+    private static final String CHARSET = "abcdefghijklmnopqrstuvwxyz0123456789_";
+    private static final int TARGETS = 16;
+
+    private List<String> stems;
+    private DictionaryMatcher dictionaryMatcher;
+    private MeetInTheMiddleMatcher matcher;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        FrostSecurity frostSecurity = FrostSecurity.getInstance();
+        stems = Collections.singletonList("");
+        for (int i = 0; i < 4; i++) {
+            List<String> longer = new ArrayList<>(stems.size() * CHARSET.length());
+            for (String stem : stems) {
+                for (int c = 0; c < CHARSET.length(); c++) {
+                    longer.add(stem + CHARSET.charAt(c));
+                }
+            }
+            stems = longer;
+        }
+        LongHashSet targetSet = new LongHashSet(TARGETS);
+        long[] targets = new long[TARGETS];
+        for (int i = 0; i < TARGETS; i++) {
+            String name = PREFIX + (i % 2 == 0 ? "gro" : "ghoul") + Integer.toString(i, 36) + SUFFIX;
+            targets[i] = DictionaryMatcher.pack(frostSecurity.hashAsInt(name, SecurityConstants.MPQ_HASH_NAME_A),
+                    frostSecurity.hashAsInt(name, SecurityConstants.MPQ_HASH_NAME_B));
+            targetSet.add(targets[i]);
+        }
+        dictionaryMatcher = new DictionaryMatcher(targetSet);
+        matcher = new MeetInTheMiddleMatcher(targets);
+    }
+
+    @Benchmark
+    public List<String> dictionaryMatcherFourCharacters() {
+        return dictionaryMatcher.match(Collections.singletonList(PREFIX), stems, Collections.singletonList(SUFFIX));
+    }
+
+    @Benchmark
+    public List<String> meetInTheMiddleFourCharacters() {
+        return matcher.match(PREFIX, CHARSET, 4, SUFFIX);
+    }
+
+    @Benchmark
+    public List<String> meetInTheMiddleSixCharacters() {
+        return matcher.match(PREFIX, CHARSET, 6, SUFFIX);
+    }
+}
@@ -0,0 +1,62 @@
+package com.github.zachcloud.benchmarks;
+
+import com.github.zachcloud.frost.FrostSecurity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of hashing one name, across name lengths and hash types.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NameHashBenchmark {
+
+    @Param({"8", "32", "128"})
+    private int nameLength;
+
+    @Param({"0", "1", "2", "3"})
+    private int hashType;
+
+    private FrostSecurity frostSecurity;
+    private String name;
+    private byte[] bytes;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        frostSecurity = FrostSecurity.getInstance();
+        name = Workloads.name(nameLength, nameLength);
+        bytes = name.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    @Benchmark
+    public long hashString() {
+        return frostSecurity.hashString(name, hashType);
+    }
+
+    @Benchmark
+    public int hashAsInt() {
+        return frostSecurity.hashAsInt(name, hashType);
+    }
+
+    @Benchmark
+    public int hashBytes() {
+        return frostSecurity.hashAsInt(bytes, 0, bytes.length, hashType);
+    }
+}
@@ -0,0 +1,86 @@
+package com.github.zachcloud.benchmarks;
+
+import com.github.zachcloud.frost.FrostSecurity;
+import com.github.zachcloud.frost.SecurityConstants;
+import com.github.zachcloud.mpq.NameHashDictionary;
+import com.github.zachcloud.mpq.NameHashDictionaryBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Measures mapping a precomputed name hash dictionary and looking up
+ * hash pairs in it, against hashing the names again.
+ */
+@BenchmarkMode(Mode.Throughput)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NameHashDictionaryBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int names;
+
+    private Path file;
+    private NameHashDictionary dictionary;
+    private int[] pairs;
+    private String[] listfile;
+    private int[] hashes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        FrostSecurity frostSecurity = new FrostSecurity();
+        NameHashDictionaryBuilder builder = new NameHashDictionaryBuilder(frostSecurity);
+        listfile = new String[names];
+        pairs = new int[names * 2];
+        for (int i = 0; i < names; i++) {
+            listfile[i] = "Units\\Dir" + (i % 500) + "\\File" + i + ".mdx";
+            builder.add(listfile[i]);
+            pairs[i * 2] = frostSecurity.hashAsInt(listfile[i], SecurityConstants.MPQ_HASH_NAME_A);
+            pairs[i * 2 + 1] = frostSecurity.hashAsInt(listfile[i], SecurityConstants.MPQ_HASH_NAME_B);
+        }
+        file = Files.createTempFile("frost", ".dict");
+        builder.write(file);
+        dictionary = NameHashDictionary.open(file);
+        hashes = new int[names * 4];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        file.toFile().deleteOnExit();
+    }
+
+    @Benchmark
+    public NameHashDictionary open() throws IOException {
+        return NameHashDictionary.open(file);
+    }
+
+    @Benchmark
+    public int find() {
+        int i = next;
+        next = i + 1 == names ? 0 : i + 1;
+        return dictionary.find(pairs[i * 2], pairs[i * 2 + 1]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    public int[] hashListfile() {
+        FrostSecurity.getInstance().hashAll(listfile, SecurityConstants.MPQ_HASH_ALL_TYPES, hashes);
+        return hashes;
+    }
+}
@@ -0,0 +1,92 @@
+package com.github.zachcloud.benchmarks;
+
+import com.github.zachcloud.frost.FrostSecurity;
+import com.github.zachcloud.frost.SecurityConstants;
+import com.github.zachcloud.helpers.LongHashSet;
+import com.github.zachcloud.mpq.DictionaryMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matches 1M directory x stem x extension candidates against 4096
+ * hashA/hashB pairs: hashing each whole candidate String into a
+ * HashSet of Longs, and with DictionaryMatcher.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NameRecoveryBenchmark {
+
+    private static final int TARGETS = 4096;
+
+    private FrostSecurity frostSecurity;
+    private List<String> directories;
+    private List<String> stems;
+    private List<String> extensions;
+    private Set<Long> boxedTargets;
+    private DictionaryMatcher matcher;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        frostSecurity = FrostSecurity.getInstance();
+        directories = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            directories.add("Units\\Directory" + i + "\\");
+        }
+        stems = Arrays.asList(Workloads.listfile(4000));
+        extensions = Arrays.asList(".mdx", ".mdl", ".blp", ".tga", ".wav", ".mp3", ".txt", ".slk",
+                ".j", ".ai", ".w3e", ".w3i", ".doo", ".shd", ".mmp", ".toc");
+        boxedTargets = new HashSet<>();
+        LongHashSet targets = new LongHashSet(TARGETS);
+        for (String name : Workloads.listfile(TARGETS)) {
+            long pair = DictionaryMatcher.pack(frostSecurity.hashAsInt(name, SecurityConstants.MPQ_HASH_NAME_A),
+                    frostSecurity.hashAsInt(name, SecurityConstants.MPQ_HASH_NAME_B));
+            boxedTargets.add(pair);
+            targets.add(pair);
+        }
+        matcher = new DictionaryMatcher(targets);
+    }
+
+    @Benchmark
+    public int hashWholeNames() {
+        int found = 0;
+        for (String directory : directories) {
+            for (String stem : stems) {
+                for (String extension : extensions) {
+                    String name = directory + stem + extension;
+                    long pair = DictionaryMatcher.pack(
+                            frostSecurity.hashAsInt(name, SecurityConstants.MPQ_HASH_NAME_A),
+                            frostSecurity.hashAsInt(name, SecurityConstants.MPQ_HASH_NAME_B));
+                    if (boxedTargets.contains(pair)) {
+                        found++;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public List<String> dictionaryMatcher() {
+        return matcher.match(directories, stems, extensions);
+    }
+}
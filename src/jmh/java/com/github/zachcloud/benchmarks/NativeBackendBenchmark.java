@@ -0,0 +1,73 @@
+package com.github.zachcloud.benchmarks;
+
+import com.github.zachcloud.frost.FrostSecurity;
+import com.github.zachcloud.frost.NativeFrostSecurity;
+import com.github.zachcloud.interfaces.IFrostSecurity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+/**
+ * Compares the pure Java and native backends on in-place decryption
+ * of direct buffers and on bulk hashing. Build with -Pnative as well;
+ * without the native library the native runs fail in setup.
+ */
+@BenchmarkMode(Mode.Throughput)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NativeBackendBenchmark {
+
+    private static final int KEY = -326913117;
+    private static final int NAMES = 4096;
+
+    @Param({"java", "native"})
+    private String backend;
+
+    @Param({"65536", "4194304"})
+    private int size;
+
+    private IFrostSecurity frostSecurity;
+    private ByteBuffer directBuffer;
+    private String[] names;
+    private int[] hashes;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        frostSecurity = "native".equals(backend) ? new NativeFrostSecurity() : new FrostSecurity();
+        byte[] bytes = new byte[size];
+        new Random(42).nextBytes(bytes);
+        directBuffer = ByteBuffer.allocateDirect(size).order(ByteOrder.LITTLE_ENDIAN);
+        directBuffer.duplicate().put(bytes);
+        names = new String[NAMES];
+        for (int i = 0; i < NAMES; i++) {
+            names[i] = "Units\\Human\\Footman" + i + ".mdx";
+        }
+        hashes = new int[NAMES];
+    }
+
+    @Benchmark
+    public ByteBuffer decryptInPlaceDirect() {
+        frostSecurity.decryptBufferInPlace(directBuffer, KEY);
+        return directBuffer;
+    }
+
+    @Benchmark
+    public int[] hashStrings() {
+        frostSecurity.hashStrings(names, 1, hashes);
+        return hashes;
+    }
+}
@@ -0,0 +1,72 @@
+package com.github.zachcloud.benchmarks;
+
+import com.github.zachcloud.frost.FrostSecurity;
+import com.github.zachcloud.frost.OffHeapRegion;
+import com.github.zachcloud.frost.OffHeapRegions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decrypting a direct ByteBuffer in place against an off-heap region
+ * (Java 22 and later only; the region benchmark fails on older JDKs).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OffHeapCryptBenchmark {
+
+    private static final int KEY = -326913117;
+
+    @Param({"4096", "1048576", "67108864"})
+    private int size;
+
+    private FrostSecurity frostSecurity;
+    private ByteBuffer directBuffer;
+    private OffHeapRegion region;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        frostSecurity = FrostSecurity.getInstance();
+        directBuffer = ByteBuffer.allocateDirect(size).order(ByteOrder.LITTLE_ENDIAN);
+        if (OffHeapRegions.isAvailable()) {
+            region = OffHeapRegions.allocate(size);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (region != null) {
+            region.close();
+        }
+    }
+
+    @Benchmark
+    public ByteBuffer directBuffer() {
+        frostSecurity.decryptBufferInPlace(directBuffer, KEY);
+        return directBuffer;
+    }
+
+    @Benchmark
+    public OffHeapRegion offHeapRegion() {
+        region.decrypt(0, size, KEY);
+        return region;
+    }
+}
@@ -0,0 +1,74 @@
+package com.github.zachcloud.benchmarks;
+
+import com.github.zachcloud.frost.FrostSecurity;
+import com.github.zachcloud.mpq.SectorDecryptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decrypts every sector of a 64 MB file one decryptBytes call at a time
+ * and with SectorDecryptor on the common pool.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SectorDecryptBenchmark {
+
+    private static final int FILE_SIZE = 64 * 1024 * 1024;
+    private static final int KEY = -326913117;
+
+    @Param({"4096", "65536"})
+    private int sectorSize;
+
+    private FrostSecurity frostSecurity;
+    private SectorDecryptor sectorDecryptor;
+    private byte[] file;
+    private byte[] output;
+    private int[] sectorOffsets;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        frostSecurity = FrostSecurity.getInstance();
+        sectorDecryptor = new SectorDecryptor(frostSecurity);
+        file = new byte[FILE_SIZE];
+        new Random(42).nextBytes(file);
+        output = new byte[FILE_SIZE];
+        sectorOffsets = new int[FILE_SIZE / sectorSize + 1];
+        for (int i = 0; i < sectorOffsets.length; i++) {
+            sectorOffsets[i] = i * sectorSize;
+        }
+    }
+
+    @Benchmark
+    public byte[] decryptSectorsSequentially() {
+        for (int i = 0; i + 1 < sectorOffsets.length; i++) {
+            byte[] sector = frostSecurity.decryptBytes(
+                    Arrays.copyOfRange(file, sectorOffsets[i], sectorOffsets[i + 1]), KEY + i);
+            System.arraycopy(sector, 0, output, sectorOffsets[i], sector.length);
+        }
+        return output;
+    }
+
+    @Benchmark
+    public byte[] decryptSectorsInParallel() {
+        sectorDecryptor.decrypt(file, 0, sectorOffsets, KEY, output, 0);
+        return output;
+    }
+}
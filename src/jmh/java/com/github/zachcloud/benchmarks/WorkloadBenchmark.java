@@ -0,0 +1,128 @@
+package com.github.zachcloud.benchmarks;
+
+import com.github.zachcloud.frost.CachingFrostSecurity;
+import com.github.zachcloud.frost.FrostSecurity;
+import com.github.zachcloud.frost.SecurityConstants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Realistic archive workloads: decrypting a 4096-entry hash table and
+ * resolving every name of a 100k-name listfile, and resolving a small
+ * set of hot names over and over with and without the hash cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorkloadBenchmark {
+
+    private static final int HASH_TABLE_ENTRIES = 4096;
+    private static final int LISTFILE_NAMES = 100_000;
+    private static final int HOT_NAMES = 2048;
+
+    private FrostSecurity frostSecurity;
+    private int hashTableKey;
+    private byte[] encryptedHashTable;
+    private ByteBuffer encryptedHashTableBuffer;
+    private ByteBuffer scratchBuffer;
+    private String[] listfile;
+    private int[] listfileHashes;
+    private String[] hotNames;
+    private CachingFrostSecurity cachingSecurity;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        frostSecurity = FrostSecurity.getInstance();
+        hashTableKey = frostSecurity.hashAsInt("(hash table)", SecurityConstants.MPQ_HASH_FILE_KEY);
+        encryptedHashTable = frostSecurity.encryptBytes(Workloads.hashTable(HASH_TABLE_ENTRIES), hashTableKey);
+        encryptedHashTableBuffer = ByteBuffer.allocateDirect(encryptedHashTable.length)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        scratchBuffer = ByteBuffer.allocateDirect(encryptedHashTable.length).order(ByteOrder.LITTLE_ENDIAN);
+        encryptedHashTableBuffer.duplicate().put(encryptedHashTable);
+        listfile = Workloads.listfile(LISTFILE_NAMES);
+        listfileHashes = new int[LISTFILE_NAMES * 4];
+        hotNames = Workloads.listfile(HOT_NAMES);
+        cachingSecurity = new CachingFrostSecurity(frostSecurity, HOT_NAMES * 2);
+    }
+
+    @Benchmark
+    public byte[] decryptHashTableBytes() {
+        return frostSecurity.decryptBytes(encryptedHashTable, hashTableKey);
+    }
+
+    @Benchmark
+    public ByteBuffer decryptHashTableInPlace() {
+        scratchBuffer.duplicate().put(encryptedHashTableBuffer.duplicate());
+        frostSecurity.decryptBufferInPlace(scratchBuffer, hashTableKey);
+        return scratchBuffer;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void hashListfileLookup(Blackhole blackhole) {
+        for (String name : listfile) {
+            blackhole.consume(frostSecurity.hashAsInt(name, SecurityConstants.MPQ_HASH_TABLE_OFFSET));
+            blackhole.consume(frostSecurity.hashAsInt(name, SecurityConstants.MPQ_HASH_NAME_A));
+            blackhole.consume(frostSecurity.hashAsInt(name, SecurityConstants.MPQ_HASH_NAME_B));
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int[] hashListfileLookupSinglePass() {
+        frostSecurity.hashAll(listfile, SecurityConstants.MPQ_HASH_LOOKUP_TYPES, listfileHashes);
+        return listfileHashes;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void hashListfileAllTypes(Blackhole blackhole) {
+        for (String name : listfile) {
+            for (int type = 0; type < 4; type++) {
+                blackhole.consume(frostSecurity.hashAsInt(name, type));
+            }
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int[] hashListfileAllTypesSinglePass() {
+        frostSecurity.hashAll(listfile, SecurityConstants.MPQ_HASH_ALL_TYPES, listfileHashes);
+        return listfileHashes;
+    }
+
+    @Benchmark
+    public void hashHotNamesLookup(Blackhole blackhole) {
+        for (String name : hotNames) {
+            blackhole.consume(frostSecurity.hashAsInt(name, SecurityConstants.MPQ_HASH_TABLE_OFFSET));
+            blackhole.consume(frostSecurity.hashAsInt(name, SecurityConstants.MPQ_HASH_NAME_A));
+            blackhole.consume(frostSecurity.hashAsInt(name, SecurityConstants.MPQ_HASH_NAME_B));
+        }
+    }
+
+    @Benchmark
+    public void hashHotNamesLookupCached(Blackhole blackhole) {
+        for (String name : hotNames) {
+            blackhole.consume(cachingSecurity.hashAsInt(name, SecurityConstants.MPQ_HASH_TABLE_OFFSET));
+            blackhole.consume(cachingSecurity.hashAsInt(name, SecurityConstants.MPQ_HASH_NAME_A));
+            blackhole.consume(cachingSecurity.hashAsInt(name, SecurityConstants.MPQ_HASH_NAME_B));
+        }
+    }
+}
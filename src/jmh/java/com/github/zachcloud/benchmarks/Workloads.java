@@ -0,0 +1,82 @@
+package com.github.zachcloud.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+/**
+ * Deterministic inputs shared by the benchmarks.
+ */
+final class Workloads {
+
+    private static final String[] DIRECTORIES = {
+            "Units\\Human\\", "Units\\Orc\\", "Abilities\\Spells\\Human\\", "ReplaceableTextures\\CommandButtons\\",
+            "UI\\Widgets\\Glues\\", "Sound\\Music\\mp3Music\\", "Doodads\\Terrain\\", "Textures\\"
+    };
+    private static final String[] EXTENSIONS = {".mdx", ".blp", ".mp3", ".wav", ".slk", ".txt", ".j", ".w3u"};
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz0123456789_";
+
+    private Workloads() {
+    }
+
+    /**
+     * Builds a listfile-like name of exactly the specified length.
+     *
+     * @param length Length of the name
+     * @param seed   Random seed
+     * @return Name
+     */
+    static String name(int length, long seed) {
+        Random random = new Random(seed);
+        StringBuilder builder = new StringBuilder(length);
+        builder.append(DIRECTORIES[random.nextInt(DIRECTORIES.length)]);
+        while (builder.length() < length) {
+            builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        builder.setLength(length);
+        return builder.toString();
+    }
+
+    /**
+     * Builds a listfile of realistic names (directory, stem, extension).
+     *
+     * @param count Number of names
+     * @return Names
+     */
+    static String[] listfile(int count) {
+        Random random = new Random(count);
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            StringBuilder builder = new StringBuilder(48);
+            builder.append(DIRECTORIES[random.nextInt(DIRECTORIES.length)]);
+            int stemLength = 4 + random.nextInt(16);
+            for (int j = 0; j < stemLength; j++) {
+                builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            builder.append(EXTENSIONS[random.nextInt(EXTENSIONS.length)]);
+            names[i] = builder.toString();
+        }
+        return names;
+    }
+
+    /**
+     * Builds a plaintext hash table with the specified number of 16-byte
+     * entries, about half of them in use.
+     *
+     * @param entries Number of entries
+     * @return Little endian hash table bytes
+     */
+    static byte[] hashTable(int entries) {
+        Random random = new Random(entries);
+        ByteBuffer table = ByteBuffer.allocate(entries * 16).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < entries; i++) {
+            boolean used = random.nextBoolean();
+            table.putInt(used ? random.nextInt() : -1);
+            table.putInt(used ? random.nextInt() : -1);
+            table.putShort((short) (used ? 0 : -1));
+            table.putShort((short) (used ? 0 : -1));
+            table.putInt(used ? random.nextInt(entries) : -1);
+        }
+        return table.array();
+    }
+}
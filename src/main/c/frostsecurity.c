@@ -0,0 +1,108 @@
+/*
+ * Native backend of NativeFrostSecurity.
+ *
+ * Encrypts and decrypts direct buffers and hashes packed names with
+ * the Storm algorithm. The tables are copied from StormTables by
+ * init, so both backends always share the same constants.
+ */
+#include <jni.h>
+#include <stdint.h>
+#include <string.h>
+
+#define ENCRYPTION_TABLE_SIZE 0x500
+#define CRYPT_TABLE_OFFSET 0x400
+
+static uint32_t encryption_table[ENCRYPTION_TABLE_SIZE];
+static uint8_t hash_character_table[256];
+
+static inline uint32_t load32(const uint8_t *p, int swap) {
+    uint32_t value;
+    memcpy(&value, p, 4);
+    return swap ? __builtin_bswap32(value) : value;
+}
+
+static inline void store32(uint8_t *p, uint32_t value, int swap) {
+    if (swap) {
+        value = __builtin_bswap32(value);
+    }
+    memcpy(p, &value, 4);
+}
+
+static void encrypt_words(uint8_t *p, size_t words, uint32_t key, int swap) {
+    uint32_t seed = 0xEEEEEEEEu;
+    for (size_t i = 0; i < words; i++, p += 4) {
+        seed += encryption_table[CRYPT_TABLE_OFFSET + (key & 0xFF)];
+        uint32_t current = load32(p, swap);
+        uint32_t result = current ^ (key + seed);
+        key = ((~key << 21) + 0x11111111u) | (key >> 11);
+        seed = current + seed + (seed << 5) + 3;
+        store32(p, result, swap);
+    }
+}
+
+static void decrypt_words(uint8_t *p, size_t words, uint32_t key, int swap) {
+    uint32_t seed = 0xEEEEEEEEu;
+    for (size_t i = 0; i < words; i++, p += 4) {
+        seed += encryption_table[CRYPT_TABLE_OFFSET + (key & 0xFF)];
+        uint32_t result = load32(p, swap) ^ (key + seed);
+        key = ((~key << 21) + 0x11111111u) | (key >> 11);
+        seed = result + seed + (seed << 5) + 3;
+        store32(p, result, swap);
+    }
+}
+
+static inline uint32_t hash_bytes(const uint8_t *p, size_t length, uint32_t table_offset) {
+    uint32_t seed1 = 0x7FED7FEDu;
+    uint32_t seed2 = 0xEEEEEEEEu;
+    for (size_t i = 0; i < length; i++) {
+        uint32_t ch = hash_character_table[p[i]];
+        seed1 = encryption_table[table_offset + ch] ^ (seed1 + seed2);
+        seed2 = ch + seed1 + seed2 + (seed2 << 5) + 3;
+    }
+    return seed1;
+}
+
+JNIEXPORT void JNICALL Java_com_github_zachcloud_frost_NativeFrostSecurity_init(
+        JNIEnv *env, jclass cls, jintArray encryptionTable, jintArray hashCharacterTable) {
+    jint characters[256];
+    (*env)->GetIntArrayRegion(env, encryptionTable, 0, ENCRYPTION_TABLE_SIZE, (jint *) encryption_table);
+    (*env)->GetIntArrayRegion(env, hashCharacterTable, 0, 256, characters);
+    for (int i = 0; i < 256; i++) {
+        hash_character_table[i] = (uint8_t) characters[i];
+    }
+}
+
+JNIEXPORT void JNICALL Java_com_github_zachcloud_frost_NativeFrostSecurity_crypt(
+        JNIEnv *env, jclass cls, jobject buffer, jint offset, jint length, jint key,
+        jboolean decrypt, jboolean swap) {
+    uint8_t *p = (uint8_t *) (*env)->GetDirectBufferAddress(env, buffer) + offset;
+    if (decrypt) {
+        decrypt_words(p, (size_t) length >> 2, (uint32_t) key, swap);
+    } else {
+        encrypt_words(p, (size_t) length >> 2, (uint32_t) key, swap);
+    }
+}
+
+JNIEXPORT void JNICALL Java_com_github_zachcloud_frost_NativeFrostSecurity_hash(
+        JNIEnv *env, jclass cls, jobject names, jint offset, jintArray ends, jint count,
+        jint tableOffset, jintArray dst, jint dstOffset) {
+    const uint8_t *p = (const uint8_t *) (*env)->GetDirectBufferAddress(env, names) + offset;
+    jint *nameEnds = (*env)->GetPrimitiveArrayCritical(env, ends, NULL);
+    if (nameEnds == NULL) {
+        /* An OutOfMemoryError is pending */
+        return;
+    }
+    jint *hashes = (*env)->GetPrimitiveArrayCritical(env, dst, NULL);
+    if (hashes == NULL) {
+        (*env)->ReleasePrimitiveArrayCritical(env, ends, nameEnds, JNI_ABORT);
+        return;
+    }
+    jint start = 0;
+    for (jint i = 0; i < count; i++) {
+        hashes[dstOffset + i] = (jint) hash_bytes(p + start, (size_t) (nameEnds[i] - start),
+                (uint32_t) tableOffset);
+        start = nameEnds[i];
+    }
+    (*env)->ReleasePrimitiveArrayCritical(env, dst, hashes, 0);
+    (*env)->ReleasePrimitiveArrayCritical(env, ends, nameEnds, JNI_ABORT);
+}
@@ -0,0 +1,89 @@
+package com.github.zachcloud.cli;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Command line arguments of one command: options that take a value
+ * (--name value), flags (--name) and positional arguments.
+ * A lone "-" is positional; "--" ends the options.
+ */
+final class Arguments {
+
+    private final Map<String, String> options = new HashMap<>();
+    private final Set<String> flags = new HashSet<>();
+    private final List<String> positionals = new ArrayList<>();
+
+    /**
+     * Parses arguments.
+     *
+     * @param args         Arguments after the command name
+     * @param valueOptions Options that take a value
+     * @param flagOptions  Options that do not
+     * @throws IllegalArgumentException If an option is unknown or has no value
+     */
+    Arguments(String[] args, Set<String> valueOptions, Set<String> flagOptions) {
+        boolean optionsEnded = false;
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (optionsEnded || !arg.startsWith("--")) {
+                positionals.add(arg);
+            } else if (arg.equals("--")) {
+                optionsEnded = true;
+            } else if (flagOptions.contains(arg)) {
+                flags.add(arg);
+            } else if (valueOptions.contains(arg)) {
+                if (i + 1 == args.length) {
+                    throw new IllegalArgumentException("Missing value for " + arg);
+                }
+                options.put(arg, args[++i]);
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+    }
+
+    boolean has(String option) {
+        return flags.contains(option) || options.containsKey(option);
+    }
+
+    String get(String option) {
+        return options.get(option);
+    }
+
+    /**
+     * Gets an option as a long. Accepts decimal, 0x hexadecimal and
+     * negative numbers.
+     */
+    long getLong(String option, long defaultValue) {
+        String value = options.get(option);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.decode(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a number for " + option + ": " + value);
+        }
+    }
+
+    /**
+     * Gets an option as a positive int.
+     */
+    int getPositiveInt(String option, int defaultValue) {
+        long value = getLong(option, defaultValue);
+        if (value <= 0 || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(option + " must be a positive int: " + value);
+        }
+        return (int) value;
+    }
+
+    List<String> positionals() {
+        return Collections.unmodifiableList(positionals);
+    }
+}
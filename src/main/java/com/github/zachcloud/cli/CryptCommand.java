@@ -0,0 +1,198 @@
+package com.github.zachcloud.cli;
+
+import com.github.zachcloud.frost.FrostSecurity;
+import com.github.zachcloud.frost.StormCipher;
+import com.github.zachcloud.io.StormWritableByteChannel;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static com.github.zachcloud.frost.SecurityConstants.MPQ_FILE_FIX_KEY;
+
+/**
+ * Encrypts or decrypts a file, or a byte range of it, as one region.
+ * <p>
+ * The input is streamed through two fixed buffers, so memory stays
+ * constant for inputs of any size. As with encryptBytes, the 1-3
+ * trailing bytes of the region are written unchanged.
+ */
+final class CryptCommand {
+
+    static final String USAGE =
+            "encrypt|decrypt (--key KEY | --name NAME [--fix-key --block-offset N --file-size N])\n" +
+            "        [--offset N] [--length N] [--big-endian] [--buffer N] [--stats] INPUT OUTPUT\n" +
+            "    Encrypts or decrypts LENGTH bytes (default: the rest of INPUT) starting at\n" +
+            "    OFFSET of INPUT and writes them to OUTPUT. Either may be - for standard\n" +
+            "    input or output. The key is KEY, or the file key of NAME.";
+
+    private static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
+    private final boolean decrypt;
+
+    CryptCommand(boolean decrypt) {
+        this.decrypt = decrypt;
+    }
+
+    void run(String[] args, InputStream in, OutputStream out, PrintStream err) throws IOException {
+        Arguments arguments = new Arguments(args,
+                new HashSet<>(Arrays.asList("--key", "--name", "--block-offset", "--file-size",
+                        "--offset", "--length", "--buffer")),
+                new HashSet<>(Arrays.asList("--fix-key", "--big-endian", "--stats")));
+        List<String> files = arguments.positionals();
+        if (files.size() != 2) {
+            throw new IllegalArgumentException("Expected INPUT and OUTPUT");
+        }
+        long offset = arguments.getLong("--offset", 0);
+        long length = arguments.getLong("--length", -1);
+        if (offset < 0 || (arguments.has("--length") && length < 0)) {
+            throw new IllegalArgumentException("Offset and length cannot be negative");
+        }
+        int bufferSize = arguments.getPositiveInt("--buffer", DEFAULT_BUFFER_SIZE);
+        if (bufferSize < 8) {
+            throw new IllegalArgumentException("--buffer must be at least 8: " + bufferSize);
+        }
+        FrostSecurity frostSecurity = FrostSecurity.getInstance(arguments.has("--big-endian") ?
+                ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+        int key = key(arguments, frostSecurity);
+        StormCipher cipher = decrypt ? frostSecurity.createDecryptor(key) : frostSecurity.createEncryptor(key);
+
+        Throughput throughput = new Throughput();
+        long processed;
+        try (ReadableByteChannel input = openInput(files.get(0), in, offset, bufferSize);
+             WritableByteChannel output = new StormWritableByteChannel(openOutput(files.get(1), out), cipher,
+                     ByteBuffer.allocateDirect(bufferSize))) {
+            processed = copy(input, output, length < 0 ? Long.MAX_VALUE : length, bufferSize);
+        }
+        if (length >= 0 && processed < length) {
+            throw new IOException("Input ended after " + processed + " of " + length + " bytes");
+        }
+        if (arguments.has("--stats")) {
+            throughput.report(err, decrypt ? "Decrypted" : "Encrypted", -1, null, processed);
+        }
+    }
+
+    private static int key(Arguments arguments, FrostSecurity frostSecurity) {
+        if (arguments.has("--key") == arguments.has("--name")) {
+            throw new IllegalArgumentException("Specify exactly one of --key and --name");
+        }
+        if (arguments.has("--key")) {
+            return (int) arguments.getLong("--key", 0);
+        }
+        String name = arguments.get("--name");
+        if (arguments.has("--fix-key")) {
+            if (!arguments.has("--block-offset") || !arguments.has("--file-size")) {
+                throw new IllegalArgumentException("--fix-key needs --block-offset and --file-size");
+            }
+            return frostSecurity.getFileKey(name, arguments.getLong("--block-offset", 0),
+                    arguments.getLong("--file-size", 0), MPQ_FILE_FIX_KEY);
+        }
+        return frostSecurity.getFileKey(name);
+    }
+
+    private static long copy(ReadableByteChannel input, WritableByteChannel output, long length,
+                             int bufferSize) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+        long done = 0;
+        while (done < length) {
+            ((Buffer) buffer).clear();
+            if (length - done < bufferSize) {
+                ((Buffer) buffer).limit((int) (length - done));
+            }
+            int read = input.read(buffer);
+            if (read < 0) {
+                break;
+            }
+            done += read;
+            ((Buffer) buffer).flip();
+            output.write(buffer);
+        }
+        return done;
+    }
+
+    private static ReadableByteChannel openInput(String file, InputStream in, long offset,
+                                                 int bufferSize) throws IOException {
+        if (file.equals("-")) {
+            ReadableByteChannel channel = Channels.newChannel(new NonClosingInputStream(in));
+            ByteBuffer skipped = ByteBuffer.allocate((int) Math.min(bufferSize, Math.max(1, offset)));
+            for (long left = offset; left > 0; ) {
+                ((Buffer) skipped).clear();
+                if (left < skipped.capacity()) {
+                    ((Buffer) skipped).limit((int) left);
+                }
+                int read = channel.read(skipped);
+                if (read < 0) {
+                    throw new IOException("Input ended before offset " + offset);
+                }
+                left -= read;
+            }
+            return channel;
+        }
+        FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ);
+        if (offset > channel.size()) {
+            channel.close();
+            throw new IOException("Offset " + offset + " is past the end of " + file +
+                    " (size = " + channel.size() + ")");
+        }
+        channel.position(offset);
+        return channel;
+    }
+
+    private static WritableByteChannel openOutput(String file, OutputStream out) throws IOException {
+        if (file.equals("-")) {
+            return Channels.newChannel(new NonClosingOutputStream(out));
+        }
+        return FileChannel.open(Paths.get(file), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * Standard input that stays open when the channel over it is closed.
+     */
+    private static final class NonClosingInputStream extends FilterInputStream {
+
+        private NonClosingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Standard output that is only flushed when the channel over it is
+     * closed.
+     */
+    private static final class NonClosingOutputStream extends FilterOutputStream {
+
+        private NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
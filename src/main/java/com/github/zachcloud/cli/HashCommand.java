@@ -0,0 +1,171 @@
+package com.github.zachcloud.cli;
+
+import com.github.zachcloud.interfaces.IFrostSecurity;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.github.zachcloud.frost.SecurityConstants.MPQ_HASH_FILE_KEY;
+import static com.github.zachcloud.frost.SecurityConstants.MPQ_HASH_LOOKUP_TYPES;
+
+/**
+ * Hashes every name of a listfile for the three lookup hash types and
+ * gets its file key.
+ * <p>
+ * The listfile is read as ISO-8859-1, so every byte of a name is one
+ * character. Names are trimmed and blank lines are skipped, as
+ * NameHashDictionaryBuilder.addListfile does. Names are read in batches
+ * that are hashed and formatted on a thread pool; at most two batches
+ * per thread are in flight, so memory stays constant however long the
+ * listfile is. Batches are written in the order they were read, one
+ * line per name: the name, its table offset, name A and name B hashes
+ * and its file key (getFileKey, from the base name) as 8 hex digits,
+ * separated by tabs.
+ */
+final class HashCommand {
+
+    static final String USAGE =
+            "hash [--threads N] [--batch N] [--stats] [LISTFILE | -]\n" +
+            "    Hashes every line of LISTFILE (default: standard input) and writes\n" +
+            "    NAME<TAB>OFFSET<TAB>NAME_A<TAB>NAME_B<TAB>FILE_KEY per name, where\n" +
+            "    FILE_KEY is the key a file of that name is encrypted with.";
+
+    private static final int DEFAULT_BATCH_SIZE = 4096;
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private final IFrostSecurity frostSecurity;
+
+    HashCommand(IFrostSecurity frostSecurity) {
+        this.frostSecurity = frostSecurity;
+    }
+
+    void run(String[] args, InputStream in, OutputStream out, PrintStream err) throws IOException {
+        Arguments arguments = new Arguments(args,
+                new HashSet<>(Arrays.asList("--threads", "--batch")),
+                new HashSet<>(Arrays.asList("--stats")));
+        int threads = arguments.getPositiveInt("--threads", Runtime.getRuntime().availableProcessors());
+        int batchSize = arguments.getPositiveInt("--batch", DEFAULT_BATCH_SIZE);
+        List<String> files = arguments.positionals();
+        if (files.size() > 1) {
+            throw new IllegalArgumentException("hash takes at most one listfile");
+        }
+        Throughput throughput = new Throughput();
+        long[] counts;
+        if (files.isEmpty() || files.get(0).equals("-")) {
+            counts = hash(in, out, threads, batchSize);
+        } else {
+            try (InputStream listfile = Files.newInputStream(Paths.get(files.get(0)))) {
+                counts = hash(listfile, out, threads, batchSize);
+            }
+        }
+        if (arguments.has("--stats")) {
+            throughput.report(err, "Hashed", counts[0], "names", counts[1]);
+        }
+    }
+
+    /**
+     * @return Number of names hashed and number of bytes read
+     */
+    private long[] hash(InputStream in, OutputStream out, int threads, int batchSize) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.ISO_8859_1));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.ISO_8859_1));
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        ArrayDeque<Future<String>> pending = new ArrayDeque<>();
+        long names = 0;
+        long bytes = 0;
+        try {
+            List<String> batch = new ArrayList<>(batchSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                bytes += line.length() + 1;
+                String name = line.trim();
+                if (name.isEmpty()) {
+                    continue;
+                }
+                batch.add(name);
+                if (batch.size() == batchSize) {
+                    names += batch.size();
+                    submit(pool, pending, batch, threads, writer);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                names += batch.size();
+                submit(pool, pending, batch, threads, writer);
+            }
+            while (!pending.isEmpty()) {
+                writer.write(take(pending));
+            }
+            writer.flush();
+        } finally {
+            pool.shutdownNow();
+        }
+        return new long[]{names, bytes};
+    }
+
+    private void submit(ExecutorService pool, ArrayDeque<Future<String>> pending, List<String> batch,
+                        int threads, Writer writer) throws IOException {
+        if (pending.size() >= threads * 2) {
+            writer.write(take(pending));
+        }
+        CharSequence[] names = batch.toArray(new CharSequence[0]);
+        pending.add(pool.submit(() -> format(names)));
+    }
+
+    private String format(CharSequence[] names) {
+        int[] hashes = new int[names.length * 4];
+        frostSecurity.hashAll(names, MPQ_HASH_LOOKUP_TYPES, hashes);
+        for (int i = 0; i < names.length; i++) {
+            hashes[i * 4 + MPQ_HASH_FILE_KEY] = frostSecurity.getFileKey(names[i]);
+        }
+        StringBuilder lines = new StringBuilder(names.length * 64);
+        for (int i = 0; i < names.length; i++) {
+            lines.append(names[i]);
+            for (int type = 0; type < 4; type++) {
+                lines.append('\t');
+                appendHex(lines, hashes[i * 4 + type]);
+            }
+            lines.append('\n');
+        }
+        return lines.toString();
+    }
+
+    private static String take(ArrayDeque<Future<String>> pending) throws IOException {
+        try {
+            return pending.poll().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException("Hashing failed", e.getCause());
+        }
+    }
+
+    private static void appendHex(StringBuilder sb, int value) {
+        for (int shift = 28; shift >= 0; shift -= 4) {
+            sb.append(HEX[(value >>> shift) & 0xF]);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.github.zachcloud.cli;
+
+import com.github.zachcloud.exceptions.EncryptionException;
+import com.github.zachcloud.exceptions.HashingException;
+import com.github.zachcloud.frost.FrostSecurity;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+
+/**
+ * Command line entry point of the runnable jar.
+ * <p>
+ * java -jar FrostSecurity.jar COMMAND [OPTIONS], where COMMAND is
+ * hash, encrypt or decrypt. Exits with 0 on success, 1 if the command
+ * failed and 2 if the arguments were wrong.
+ */
+public final class Launcher {
+
+    private static final String USAGE = "Usage: java -jar FrostSecurity.jar COMMAND [OPTIONS]\n\n" +
+            HashCommand.USAGE + "\n\n" + CryptCommand.USAGE + "\n\n" +
+            "Numbers may be decimal or 0x hexadecimal. --stats reports throughput on standard error.";
+
+    private Launcher() {
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.in, System.out, System.err));
+    }
+
+    /**
+     * Runs one command.
+     *
+     * @param args Command and its arguments
+     * @param in   Standard input
+     * @param out  Standard output
+     * @param err  Standard error
+     * @return Exit status
+     */
+    public static int run(String[] args, InputStream in, OutputStream out, PrintStream err) {
+        if (args.length == 0 || args[0].equals("help") || args[0].equals("--help")) {
+            err.println(USAGE);
+            return args.length == 0 ? 2 : 0;
+        }
+        String[] commandArgs = Arrays.copyOfRange(args, 1, args.length);
+        try {
+            switch (args[0]) {
+                case "hash":
+                    new HashCommand(FrostSecurity.getInstance()).run(commandArgs, in, out, err);
+                    break;
+                case "encrypt":
+                    new CryptCommand(false).run(commandArgs, in, out, err);
+                    break;
+                case "decrypt":
+                    new CryptCommand(true).run(commandArgs, in, out, err);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown command: " + args[0]);
+            }
+            out.flush();
+            return 0;
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            err.println();
+            err.println(USAGE);
+            return 2;
+        } catch (IOException | EncryptionException | HashingException e) {
+            err.println(args[0] + " failed: " + e.getMessage());
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.github.zachcloud.cli;
+
+import java.io.PrintStream;
+import java.util.Locale;
+
+/**
+ * Measures how fast a command processes its input.
+ */
+final class Throughput {
+
+    private final long start = System.nanoTime();
+
+    /**
+     * Prints the elapsed time and the rates since this was created.
+     *
+     * @param err   Stream to print to
+     * @param verb  What was done, for example "Hashed"
+     * @param units Number of items processed, or -1 to only report bytes
+     * @param unit  Name of the items, for example "names"
+     * @param bytes Number of bytes processed
+     */
+    void report(PrintStream err, String verb, long units, String unit, long bytes) {
+        double seconds = Math.max(1, System.nanoTime() - start) / 1e9;
+        double megabytes = bytes / (1024.0 * 1024.0);
+        if (units < 0) {
+            err.println(String.format(Locale.ROOT, "%s %d bytes in %.3f s: %.1f MB/s",
+                    verb, bytes, seconds, megabytes / seconds));
+        } else {
+            err.println(String.format(Locale.ROOT, "%s %d %s (%d bytes) in %.3f s: %.0f %s/s, %.1f MB/s",
+                    verb, units, unit, bytes, seconds, units / seconds, unit, megabytes / seconds));
+        }
+    }
+}
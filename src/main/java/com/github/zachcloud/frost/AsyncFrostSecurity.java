@@ -0,0 +1,314 @@
+package com.github.zachcloud.frost;
+
+import com.github.zachcloud.exceptions.EncryptionException;
+import com.github.zachcloud.exceptions.HashingException;
+import com.github.zachcloud.interfaces.IFrostSecurity;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs IFrostSecurity work on an executor and returns CompletableFutures.
+ * <p>
+ * Large inputs are cut into chunks: groups of sectors of about
+ * TASK_SIZE bytes, or batches of BATCH_SIZE names. A job never has more
+ * than parallelism chunks queued or running; each finished chunk
+ * submits the next one to the back of the executor's queue. On a FIFO
+ * executor, such as the internal thread pool or a virtual thread per
+ * task executor, chunks of concurrent jobs therefore take turns and a
+ * huge archive cannot starve small jobs. A single buffer under one key
+ * is one cipher stream and cannot be cut, so it runs as one chunk.
+ * <p>
+ * Cancelling a returned future stops the job before its next chunk.
+ * A job whose chunk throws completes exceptionally with that exception.
+ * <p>
+ * Thread safe if the security is.
+ */
+public final class AsyncFrostSecurity implements AutoCloseable {
+
+    /* Bytes of sector data in one chunk */
+    private static final int TASK_SIZE = 256 * 1024;
+
+    /* Names hashed in one chunk */
+    private static final int BATCH_SIZE = 4096;
+
+    private final IFrostSecurity frostSecurity;
+    private final Executor executor;
+    private final int parallelism;
+    private final boolean ownsExecutor;
+
+    /**
+     * Creates a new AsyncFrostSecurity with an internal pool of one
+     * thread per processor.
+     *
+     * @param frostSecurity Security to run
+     */
+    public AsyncFrostSecurity(IFrostSecurity frostSecurity) {
+        this(frostSecurity, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a new AsyncFrostSecurity with an internal pool of daemon
+     * threads. close shuts the pool down.
+     *
+     * @param frostSecurity Security to run
+     * @param threads       Number of threads
+     */
+    public AsyncFrostSecurity(IFrostSecurity frostSecurity, int threads) {
+        this(frostSecurity, newPool(threads), threads, true);
+    }
+
+    /**
+     * Creates a new AsyncFrostSecurity that runs on any executor.
+     * close does not shut the executor down.
+     *
+     * @param frostSecurity Security to run
+     * @param executor      Executor to run on
+     * @param parallelism   Most chunks of one job to queue or run at once
+     */
+    public AsyncFrostSecurity(IFrostSecurity frostSecurity, Executor executor, int parallelism) {
+        this(frostSecurity, executor, parallelism, false);
+    }
+
+    private AsyncFrostSecurity(IFrostSecurity frostSecurity, Executor executor, int parallelism,
+                               boolean ownsExecutor) {
+        if (frostSecurity == null || executor == null) {
+            throw new IllegalArgumentException("Security and executor cannot be null");
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.frostSecurity = frostSecurity;
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    /**
+     * Decrypts a bytes array (see IFrostSecurity.decryptBytes).
+     *
+     * @param src Source bytes array
+     * @param key Key to decrypt with
+     * @return Future of the decrypted bytes array
+     */
+    public CompletableFuture<byte[]> decryptBytesAsync(byte[] src, int key) {
+        byte[][] result = new byte[1][];
+        return run(1, chunk -> result[0] = frostSecurity.decryptBytes(src, key), () -> result[0]);
+    }
+
+    /**
+     * Encrypts a bytes array (see IFrostSecurity.encryptBytes).
+     *
+     * @param src Source bytes array
+     * @param key Key to encrypt with
+     * @return Future of the encrypted bytes array
+     */
+    public CompletableFuture<byte[]> encryptBytesAsync(byte[] src, int key) {
+        byte[][] result = new byte[1][];
+        return run(1, chunk -> result[0] = frostSecurity.encryptBytes(src, key), () -> result[0]);
+    }
+
+    /**
+     * Decrypts every sector of a file into a new array.
+     * Sector i spans [sectorOffsets[i], sectorOffsets[i + 1]) of the
+     * file and is decrypted with the sector key of key and i.
+     *
+     * @param file          Encrypted file
+     * @param sectorOffsets Sector offsets; one more than the number of sectors
+     * @param key           Key of the file
+     * @return Future of the decrypted file, as long as the last sector end
+     */
+    public CompletableFuture<byte[]> decryptSectorsAsync(byte[] file, int[] sectorOffsets, int key) {
+        return modifySectors(file, sectorOffsets, key, true);
+    }
+
+    /**
+     * Encrypts every sector of a file into a new array.
+     * Sector i spans [sectorOffsets[i], sectorOffsets[i + 1]) of the
+     * file and is encrypted with the sector key of key and i.
+     *
+     * @param file          Plain file
+     * @param sectorOffsets Sector offsets; one more than the number of sectors
+     * @param key           Key of the file
+     * @return Future of the encrypted file, as long as the last sector end
+     */
+    public CompletableFuture<byte[]> encryptSectorsAsync(byte[] file, int[] sectorOffsets, int key) {
+        return modifySectors(file, sectorOffsets, key, false);
+    }
+
+    /**
+     * Hashes every name for several hash types together
+     * (see IFrostSecurity.hashAll). The hash of type t for names[i]
+     * is at index i * 4 + t of the result; slots of types that are not
+     * requested are 0.
+     *
+     * @param names     Names to hash; each character must be in 0x00-0xFF
+     * @param hashTypes Mask of hash types, for example MPQ_HASH_LOOKUP_TYPES
+     * @return Future of the hashes, names.length * 4 long
+     */
+    public CompletableFuture<int[]> hashAllAsync(CharSequence[] names, int hashTypes) {
+        if (names == null) {
+            throw new HashingException("Cannot hash null names");
+        }
+        int[] hashes = new int[names.length * 4];
+        return run(chunks(names.length, BATCH_SIZE), chunk -> {
+            int from = chunk * BATCH_SIZE;
+            int to = Math.min(names.length, from + BATCH_SIZE);
+            int[] batch = new int[(to - from) * 4];
+            frostSecurity.hashAll(Arrays.copyOfRange(names, from, to), hashTypes, batch);
+            System.arraycopy(batch, 0, hashes, from * 4, batch.length);
+        }, () -> hashes);
+    }
+
+    /**
+     * Hashes every name for one hash type (see IFrostSecurity.hashStrings).
+     * Hash i of the result is the hash of names[i].
+     *
+     * @param names    Names to hash; each character must be in 0x00-0xFF
+     * @param hashType Hash type (see SecurityConstants; 0-3)
+     * @return Future of the hashes, names.length long
+     */
+    public CompletableFuture<int[]> hashStringsAsync(CharSequence[] names, int hashType) {
+        if (names == null) {
+            throw new HashingException("Cannot hash null names");
+        }
+        int[] hashes = new int[names.length];
+        return run(chunks(names.length, BATCH_SIZE), chunk -> {
+            int from = chunk * BATCH_SIZE;
+            int to = Math.min(names.length, from + BATCH_SIZE);
+            int[] batch = new int[to - from];
+            frostSecurity.hashStrings(Arrays.copyOfRange(names, from, to), hashType, batch);
+            System.arraycopy(batch, 0, hashes, from, batch.length);
+        }, () -> hashes);
+    }
+
+    /**
+     * Shuts down the internal pool, letting queued chunks finish.
+     * Does nothing if the executor was supplied by the caller.
+     */
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            ((ExecutorService) executor).shutdown();
+        }
+    }
+
+    private CompletableFuture<byte[]> modifySectors(byte[] file, int[] sectorOffsets, int key, boolean decrypt) {
+        if (file == null) {
+            throw new EncryptionException("Cannot modify sectors of a null file");
+        }
+        int end = Sectors.checkSectorOffsets(sectorOffsets);
+        if (end > file.length) {
+            throw new EncryptionException("File holds " + file.length + " bytes, sectors end at " + end);
+        }
+        int[] groups = groupSectors(sectorOffsets);
+        byte[] result = new byte[end];
+        return run(groups.length - 1, chunk -> Sectors.modify(frostSecurity, file, 0, sectorOffsets,
+                groups[chunk], groups[chunk + 1], key, result, 0, decrypt), () -> result);
+    }
+
+    /**
+     * Runs chunks [0, chunks) with at most parallelism of them
+     * submitted at once, then completes with the result.
+     */
+    private <T> CompletableFuture<T> run(int chunks, IntConsumer chunk, Supplier<T> result) {
+        Job<T> job = new Job<>(chunks, chunk, result);
+        if (chunks == 0) {
+            job.future.complete(result.get());
+            return job.future;
+        }
+        for (int i = Math.min(parallelism, chunks); i > 0; i--) {
+            job.submit();
+        }
+        return job.future;
+    }
+
+    private final class Job<T> implements Runnable {
+
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicInteger remaining;
+        private final int chunks;
+        private final IntConsumer chunk;
+        private final Supplier<T> result;
+
+        private Job(int chunks, IntConsumer chunk, Supplier<T> result) {
+            this.remaining = new AtomicInteger(chunks);
+            this.chunks = chunks;
+            this.chunk = chunk;
+            this.result = result;
+        }
+
+        private void submit() {
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                future.completeExceptionally(e);
+            }
+        }
+
+        @Override
+        public void run() {
+            if (future.isDone()) {
+                return;
+            }
+            int c = next.getAndIncrement();
+            if (c >= chunks) {
+                return;
+            }
+            try {
+                chunk.accept(c);
+                if (remaining.decrementAndGet() == 0) {
+                    future.complete(result.get());
+                    return;
+                }
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+                return;
+            }
+            if (next.get() < chunks) {
+                submit();
+            }
+        }
+    }
+
+    /**
+     * Groups consecutive sectors into chunks of about TASK_SIZE bytes.
+     *
+     * @return Index of the first sector of each group, then the number of sectors
+     */
+    private static int[] groupSectors(int[] sectorOffsets) {
+        int sectors = sectorOffsets.length - 1;
+        int[] groups = new int[sectors + 1];
+        int count = 0;
+        for (int i = 0; i < sectors; i++) {
+            if (count == 0 || sectorOffsets[i] - sectorOffsets[groups[count - 1]] >= TASK_SIZE) {
+                groups[count++] = i;
+            }
+        }
+        groups[count++] = sectors;
+        return Arrays.copyOf(groups, count);
+    }
+
+    private static int chunks(int length, int chunkSize) {
+        return (length + chunkSize - 1) / chunkSize;
+    }
+
+    private static ExecutorService newPool(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Threads must be positive: " + threads);
+        }
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "frost-async");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,186 @@
+package com.github.zachcloud.frost;
+
+import com.github.zachcloud.exceptions.EncryptionException;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Encrypts or decrypts many independent segments of one array in a
+ * single call, each with its own key.
+ * <p>
+ * Segment i spans [offsets[i], offsets[i] + lengths[i]) and uses
+ * keys[i]. Like encryptBytes, whole integers are processed and the 1-3
+ * trailing bytes of a segment are left as they are. The segments are
+ * processed in place.
+ * <p>
+ * One call checks every segment, then runs them through an int view
+ * of the array: there is no copy, result array or cipher object per
+ * segment. The key chain of a segment does not depend on its data, so
+ * the CPU already overlaps the table loads of one segment with its
+ * arithmetic, and segments are processed one after another.
+ * <p>
+ * Batches of more than TASK_SIZE bytes are split on a ForkJoinPool
+ * (the common pool by default). Segments must not overlap.
+ * Thread safe.
+ */
+public final class BatchCipher {
+
+    /* Fewest segments a task splits */
+    private static final int MIN_SPLIT = 4;
+
+    /* Bytes of segment data a single task processes before splitting */
+    private static final int TASK_SIZE = 256 * 1024;
+
+    private final ByteOrder byteOrder;
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a new BatchCipher for little endian integers that runs
+     * on the common pool.
+     */
+    public BatchCipher() {
+        this(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Creates a new BatchCipher that runs on the common pool.
+     *
+     * @param byteOrder Byte order of integers in the segments
+     */
+    public BatchCipher(ByteOrder byteOrder) {
+        this(byteOrder, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a new BatchCipher.
+     *
+     * @param byteOrder Byte order of integers in the segments
+     * @param pool      Pool to split large batches on
+     */
+    public BatchCipher(ByteOrder byteOrder, ForkJoinPool pool) {
+        if (byteOrder == null || pool == null) {
+            throw new IllegalArgumentException("Byte order and pool cannot be null");
+        }
+        this.byteOrder = byteOrder;
+        this.pool = pool;
+    }
+
+    /**
+     * @return Byte order of integers in the segments
+     */
+    public ByteOrder getByteOrder() {
+        return byteOrder;
+    }
+
+    /**
+     * Encrypts every segment in place.
+     *
+     * @param data    Array holding the segments
+     * @param offsets Offset of each segment in data
+     * @param lengths Length of each segment
+     * @param keys    Key of each segment
+     */
+    public void encrypt(byte[] data, int[] offsets, int[] lengths, int[] keys) {
+        run(data, offsets, lengths, keys, false);
+    }
+
+    /**
+     * Decrypts every segment in place.
+     *
+     * @param data    Array holding the segments
+     * @param offsets Offset of each segment in data
+     * @param lengths Length of each segment
+     * @param keys    Key of each segment
+     */
+    public void decrypt(byte[] data, int[] offsets, int[] lengths, int[] keys) {
+        run(data, offsets, lengths, keys, true);
+    }
+
+    private void run(byte[] data, int[] offsets, int[] lengths, int[] keys, boolean decrypt) {
+        long total = checkSegments(data, offsets, lengths, keys);
+        int count = keys.length;
+        if (total <= TASK_SIZE || count <= MIN_SPLIT) {
+            cryptRange(data, offsets, lengths, keys, 0, count, decrypt);
+            return;
+        }
+        long[] ends = new long[count + 1];
+        for (int i = 0; i < count; i++) {
+            ends[i + 1] = ends[i] + lengths[i];
+        }
+        pool.invoke(new BatchTask(data, offsets, lengths, keys, ends, 0, count, decrypt));
+    }
+
+    /**
+     * Processes segments [from, to) through one int view of data.
+     */
+    private void cryptRange(byte[] data, int[] offsets, int[] lengths, int[] keys, int from, int to,
+                            boolean decrypt) {
+        ByteBuffer view = ByteBuffer.wrap(data).order(byteOrder);
+        for (int i = from; i < to; i++) {
+            FrostSecurity.modifyRange(view, offsets[i], lengths[i] & ~3, keys[i], decrypt);
+        }
+    }
+
+    private final class BatchTask extends RecursiveAction {
+
+        private final byte[] data;
+        private final int[] offsets;
+        private final int[] lengths;
+        private final int[] keys;
+        private final long[] ends;
+        private final int from;
+        private final int to;
+        private final boolean decrypt;
+
+        private BatchTask(byte[] data, int[] offsets, int[] lengths, int[] keys, long[] ends,
+                          int from, int to, boolean decrypt) {
+            this.data = data;
+            this.offsets = offsets;
+            this.lengths = lengths;
+            this.keys = keys;
+            this.ends = ends;
+            this.from = from;
+            this.to = to;
+            this.decrypt = decrypt;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= MIN_SPLIT || ends[to] - ends[from] <= TASK_SIZE) {
+                cryptRange(data, offsets, lengths, keys, from, to, decrypt);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new BatchTask(data, offsets, lengths, keys, ends, from, middle, decrypt),
+                    new BatchTask(data, offsets, lengths, keys, ends, middle, to, decrypt));
+        }
+    }
+
+    /**
+     * Checks that the arrays describe the same number of segments and
+     * that every segment lies inside data.
+     *
+     * @return Total length of the segments
+     */
+    private static long checkSegments(byte[] data, int[] offsets, int[] lengths, int[] keys) {
+        if (data == null || offsets == null || lengths == null || keys == null) {
+            throw new EncryptionException("Data, offsets, lengths and keys cannot be null");
+        }
+        if (offsets.length != keys.length || lengths.length != keys.length) {
+            throw new EncryptionException("Got " + offsets.length + " offsets, " + lengths.length +
+                    " lengths and " + keys.length + " keys");
+        }
+        long total = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (offsets[i] < 0 || lengths[i] < 0 || offsets[i] > data.length - lengths[i]) {
+                throw new EncryptionException("Segment " + i + " [" + offsets[i] + ", " + offsets[i] + "+" +
+                        lengths[i] + ") is out of bounds for length " + data.length);
+            }
+            total += lengths[i];
+        }
+        return total;
+    }
+}
@@ -0,0 +1,21 @@
+package com.github.zachcloud.frost;
+
+/**
+ * Hashes many names for one hash type.
+ * The scalar implementation is always available; on Java 17 and later
+ * a Vector API implementation is loaded from the multi-release part of
+ * the jar when the jdk.incubator.vector module is present.
+ */
+interface BulkHasher {
+
+    /**
+     * Hashes names[from, to) and stores hash i at dst[i].
+     *
+     * @param names       Names to hash; each character must be in 0x00-0xFF
+     * @param from        Index of the first name
+     * @param to          Index after the last name
+     * @param tableOffset Offset of the hash type in the encryption table
+     * @param dst         Destination, indexed like names
+     */
+    void hash(CharSequence[] names, int from, int to, int tableOffset, int[] dst);
+}
@@ -0,0 +1,223 @@
+package com.github.zachcloud.frost;
+
+import com.github.zachcloud.interfaces.IFrostSecurity;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.github.zachcloud.frost.SecurityConstants.MPQ_HASH_ALL_TYPES;
+import static com.github.zachcloud.frost.SecurityConstants.MPQ_HASH_FILE_KEY;
+
+/**
+ * IFrostSecurity that caches the hashes of String names.
+ * <p>
+ * The first time a name is hashed all four hash types are computed in
+ * one pass and kept, so later calls for any type are a map lookup.
+ * Names are cached as given; names that differ only in case or slash
+ * direction hash the same but take separate entries. File keys of
+ * names without a path come from the cache as well. Other
+ * CharSequences, byte and buffer names, and all encryption calls go
+ * straight to the delegate.
+ * <p>
+ * The cache holds at most maximumSize names. When it is full, names
+ * are evicted with the CLOCK algorithm: an approximation of least
+ * recently used where a hit only sets a flag on the entry. Hits do not
+ * lock; misses lock only to insert.
+ * <p>
+ * Thread safe if the delegate is.
+ */
+public final class CachingFrostSecurity extends ForwardingFrostSecurity {
+
+    private static final class Entry {
+
+        private final String name;
+        private final int[] values;
+        private volatile boolean referenced;
+
+        private Entry(String name, int[] values) {
+            this.name = name;
+            this.values = values;
+        }
+    }
+
+    private final ConcurrentHashMap<String, Entry> cache;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /* Guarded by this; only used when inserting */
+    private final Entry[] clock;
+    private int clockSize;
+    private int hand;
+
+    /**
+     * Creates a new CachingFrostSecurity.
+     *
+     * @param delegate    Security to compute hashes and encrypt with
+     * @param maximumSize Most names to keep
+     */
+    public CachingFrostSecurity(IFrostSecurity delegate, int maximumSize) {
+        super(delegate);
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum size must be positive: " + maximumSize);
+        }
+        this.cache = new ConcurrentHashMap<>(Math.min(maximumSize, 1 << 16) * 4 / 3 + 1);
+        this.clock = new Entry[maximumSize];
+    }
+
+    @Override
+    public long hashString(String s, int hashType) {
+        return hashAsInt(s, hashType) & 0xFFFFFFFFL;
+    }
+
+    @Override
+    public long hashString(CharSequence s, int hashType) {
+        return hashAsInt(s, hashType) & 0xFFFFFFFFL;
+    }
+
+    @Override
+    public int hashAsInt(String s, int hashType) {
+        if (s == null || hashType < 0 || hashType > 3) {
+            return delegate.hashAsInt(s, hashType);
+        }
+        return lookup(s).values[hashType];
+    }
+
+    @Override
+    public int hashAsInt(CharSequence s, int hashType) {
+        if (s instanceof String) {
+            return hashAsInt((String) s, hashType);
+        }
+        return delegate.hashAsInt(s, hashType);
+    }
+
+    @Override
+    public NameHashes hashAll(CharSequence s, int hashTypes, NameHashes dst) {
+        if (!(s instanceof String) || hashTypes == 0 || (hashTypes & ~MPQ_HASH_ALL_TYPES) != 0) {
+            return super.hashAll(s, hashTypes, dst);
+        }
+        copy(lookup((String) s).values, hashTypes, dst.values, 0);
+        return dst;
+    }
+
+    @Override
+    public void hashAll(CharSequence[] names, int hashTypes, int[] dst) {
+        if (names == null || dst == null || dst.length / 4 < names.length ||
+                hashTypes == 0 || (hashTypes & ~MPQ_HASH_ALL_TYPES) != 0) {
+            delegate.hashAll(names, hashTypes, dst);
+            return;
+        }
+        NameHashes uncached = null;
+        for (int i = 0; i < names.length; i++) {
+            CharSequence name = names[i];
+            if (name instanceof String) {
+                copy(lookup((String) name).values, hashTypes, dst, i * 4);
+            } else {
+                if (uncached == null) {
+                    uncached = new NameHashes();
+                }
+                copy(super.hashAll(name, hashTypes, uncached).values, hashTypes, dst, i * 4);
+            }
+        }
+    }
+
+    @Override
+    public int getFileKey(CharSequence name) {
+        if (name instanceof String && FrostSecurity.getBaseNameStart(name) == 0) {
+            return lookup((String) name).values[MPQ_HASH_FILE_KEY];
+        }
+        return delegate.getFileKey(name);
+    }
+
+    @Override
+    public int getFileKey(CharSequence name, long blockOffset, long fileSize, int flags) {
+        return FrostSecurity.fixFileKey(getFileKey(name), blockOffset, fileSize, flags);
+    }
+
+    /**
+     * @return Number of hash calls answered from the cache
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return Number of hash calls that had to compute the hashes
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return Number of names evicted to make room for others
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return Hits divided by all cached hash calls, or 0 if none
+     */
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * @return Number of names currently cached
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * @return Most names the cache will hold
+     */
+    public int getMaximumSize() {
+        return clock.length;
+    }
+
+    private Entry lookup(String name) {
+        Entry entry = cache.get(name);
+        if (entry != null) {
+            hits.increment();
+            if (!entry.referenced) {
+                entry.referenced = true;
+            }
+            return entry;
+        }
+        misses.increment();
+        NameHashes hashes = super.hashAll(name, MPQ_HASH_ALL_TYPES, new NameHashes());
+        return insert(new Entry(name, hashes.values));
+    }
+
+    private synchronized Entry insert(Entry entry) {
+        Entry existing = cache.get(entry.name);
+        if (existing != null) {
+            return existing;
+        }
+        if (clockSize < clock.length) {
+            clock[clockSize++] = entry;
+        } else {
+            while (clock[hand].referenced) {
+                clock[hand].referenced = false;
+                hand = (hand + 1) % clock.length;
+            }
+            cache.remove(clock[hand].name);
+            evictions.increment();
+            clock[hand] = entry;
+            hand = (hand + 1) % clock.length;
+        }
+        cache.put(entry.name, entry);
+        return entry;
+    }
+
+    private static void copy(int[] values, int hashTypes, int[] dst, int dstOffset) {
+        for (int type = 0; type < 4; type++) {
+            if ((hashTypes & (1 << type)) != 0) {
+                dst[dstOffset + type] = values[type];
+            }
+        }
+    }
+}
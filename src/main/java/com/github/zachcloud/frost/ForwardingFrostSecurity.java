@@ -0,0 +1,209 @@
+package com.github.zachcloud.frost;
+
+import com.github.zachcloud.exceptions.HashingException;
+import com.github.zachcloud.interfaces.IFrostSecurity;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static com.github.zachcloud.frost.SecurityConstants.MPQ_HASH_ALL_TYPES;
+
+/**
+ * StormSecurity that forwards every call to another instance.
+ * Decorators extend this class and override only the methods
+ * they change.
+ * <p>
+ * Any IFrostSecurity can be the delegate. If it is not a StormSecurity,
+ * hashAll with a NameHashes holder calls hashAsInt once per type, and
+ * ciphers are created by the FrostSecurity with the byte order the
+ * delegate's encryptBytes uses.
+ */
+public abstract class ForwardingFrostSecurity implements StormSecurity {
+
+    protected final IFrostSecurity delegate;
+
+    /**
+     * Creates a new ForwardingFrostSecurity.
+     *
+     * @param delegate Security to forward calls to
+     */
+    protected ForwardingFrostSecurity(IFrostSecurity delegate) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Delegate cannot be null");
+        }
+        this.delegate = delegate;
+    }
+
+    @Override
+    public int[] decrypt(int[] src, int key) {
+        return delegate.decrypt(src, key);
+    }
+
+    @Override
+    public byte[] decryptBytes(byte[] src, int key) {
+        return delegate.decryptBytes(src, key);
+    }
+
+    @Override
+    public int[] encrypt(int[] src, int key) {
+        return delegate.encrypt(src, key);
+    }
+
+    @Override
+    public ByteBuffer decryptBuffer(ByteBuffer src, int key) {
+        return delegate.decryptBuffer(src, key);
+    }
+
+    @Override
+    public ByteBuffer encryptBuffer(ByteBuffer src, int key) {
+        return delegate.encryptBuffer(src, key);
+    }
+
+    @Override
+    public void decryptBufferInPlace(ByteBuffer buffer, int key) {
+        delegate.decryptBufferInPlace(buffer, key);
+    }
+
+    @Override
+    public void encryptBufferInPlace(ByteBuffer buffer, int key) {
+        delegate.encryptBufferInPlace(buffer, key);
+    }
+
+    @Override
+    public StormCipher createEncryptor(int key) {
+        return cipherSecurity().createEncryptor(key);
+    }
+
+    @Override
+    public StormCipher createDecryptor(int key) {
+        return cipherSecurity().createDecryptor(key);
+    }
+
+    @Override
+    public StormCipher createEncryptor(StormCipher.Checkpoint checkpoint) {
+        return cipherSecurity().createEncryptor(checkpoint);
+    }
+
+    @Override
+    public StormCipher createDecryptor(StormCipher.Checkpoint checkpoint) {
+        return cipherSecurity().createDecryptor(checkpoint);
+    }
+
+    @Override
+    public byte[] encryptBytes(byte[] src, int key) {
+        return delegate.encryptBytes(src, key);
+    }
+
+    @Override
+    public void decryptBytes(byte[] src, int srcOffset, int length, byte[] dst, int dstOffset, int key) {
+        delegate.decryptBytes(src, srcOffset, length, dst, dstOffset, key);
+    }
+
+    @Override
+    public void encryptBytes(byte[] src, int srcOffset, int length, byte[] dst, int dstOffset, int key) {
+        delegate.encryptBytes(src, srcOffset, length, dst, dstOffset, key);
+    }
+
+    @Override
+    public long hashString(String s, int hashType) {
+        return delegate.hashString(s, hashType);
+    }
+
+    @Override
+    public long hashString(CharSequence s, int hashType) {
+        return delegate.hashString(s, hashType);
+    }
+
+    @Override
+    public int hashAsInt(CharSequence s, int hashType) {
+        return delegate.hashAsInt(s, hashType);
+    }
+
+    @Override
+    public int hashAsInt(byte[] src, int offset, int length, int hashType) {
+        return delegate.hashAsInt(src, offset, length, hashType);
+    }
+
+    @Override
+    public int hashAsInt(ByteBuffer src, int hashType) {
+        return delegate.hashAsInt(src, hashType);
+    }
+
+    @Override
+    public NameHashes hashAll(CharSequence s, int hashTypes, NameHashes dst) {
+        if (delegate instanceof StormSecurity) {
+            return ((StormSecurity) delegate).hashAll(s, hashTypes, dst);
+        }
+        if (hashTypes == 0 || (hashTypes & ~MPQ_HASH_ALL_TYPES) != 0) {
+            throw new HashingException("Invalid hash type mask: " + hashTypes);
+        }
+        for (int hashType = 0; hashType < 4; hashType++) {
+            if ((hashTypes & (1 << hashType)) != 0) {
+                dst.values[hashType] = delegate.hashAsInt(s, hashType);
+            }
+        }
+        return dst;
+    }
+
+    @Override
+    public void hashAll(CharSequence[] names, int hashTypes, int[] dst) {
+        delegate.hashAll(names, hashTypes, dst);
+    }
+
+    @Override
+    public void hashStrings(CharSequence[] names, int hashType, int[] dst) {
+        delegate.hashStrings(names, hashType, dst);
+    }
+
+    @Override
+    public int decrypt(int src, int key) {
+        return delegate.decrypt(src, key);
+    }
+
+    @Override
+    public int encrypt(int src, int key) {
+        return delegate.encrypt(src, key);
+    }
+
+    @Override
+    public int hashAsInt(String s, int hashType) {
+        return delegate.hashAsInt(s, hashType);
+    }
+
+    @Override
+    public int getFileKey(CharSequence name) {
+        return delegate.getFileKey(name);
+    }
+
+    @Override
+    public int getFileKey(CharSequence name, long blockOffset, long fileSize, int flags) {
+        return delegate.getFileKey(name, blockOffset, fileSize, flags);
+    }
+
+    @Override
+    public int getSectorKey(int fileKey, int sector) {
+        return delegate.getSectorKey(fileKey, sector);
+    }
+
+    @Override
+    public int getSectorOffsetTableKey(int fileKey) {
+        return delegate.getSectorOffsetTableKey(fileKey);
+    }
+
+    /**
+     * Gets the security to create ciphers with: the delegate itself,
+     * or the FrostSecurity that writes integers in the same byte order
+     * as the delegate's encryptBytes.
+     *
+     * @return Security to create ciphers with
+     */
+    private StormSecurity cipherSecurity() {
+        if (delegate instanceof StormSecurity) {
+            return (StormSecurity) delegate;
+        }
+        int encrypted = delegate.encrypt(new int[]{0x01020304}, 0)[0];
+        byte[] bytes = delegate.encryptBytes(new byte[]{4, 3, 2, 1}, 0);
+        boolean littleEndian = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).getInt() == encrypted;
+        return FrostSecurity.getInstance(littleEndian ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+    }
+}
@@ -2,15 +2,15 @@ package com.github.zachcloud.frost;
 
 import com.github.zachcloud.exceptions.EncryptionException;
 import com.github.zachcloud.exceptions.HashingException;
-import com.github.zachcloud.helpers.ByteHelper;
-import com.github.zachcloud.interfaces.IFrostSecurity;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 
+import static com.github.zachcloud.frost.SecurityConstants.MPQ_FILE_FIX_KEY;
 import static com.github.zachcloud.frost.SecurityConstants.MPQ_HASH_FILE_KEY;
+import static com.github.zachcloud.frost.SecurityConstants.MPQ_HASH_NAME_A;
+import static com.github.zachcloud.frost.SecurityConstants.MPQ_HASH_NAME_B;
 import static com.github.zachcloud.frost.SecurityConstants.MPQ_HASH_TABLE_OFFSET;
-import static com.github.zachcloud.helpers.ByteHelper.extractBytes;
 
 /**
  * MPQ Security
@@ -22,23 +22,33 @@ import static com.github.zachcloud.helpers.ByteHelper.extractBytes;
  * <p>
  * This is intended to ONLY be used to interface with the
  * MPQ file format which uses these algorithms internally.
+ * <p>
+ * Instances are immutable and thread safe: all of them share one
+ * encryption table that is built once per JVM, and no method keeps
+ * state between calls. Use getInstance to share a single instance per
+ * byte order. StormCipher objects created from an instance hold
+ * running state and are not thread safe.
  */
-public final class FrostSecurity implements IFrostSecurity {
+public final class FrostSecurity implements StormSecurity {
 
     private enum OperationType {
         ENCRYPT,
         DECRYPT
     }
 
-    /* Defaults to little endian */
-    private ByteOrder byteOrder;
+    private static final int INITIAL_ENCRYPT_SEED = 0xEEEEEEEE;
+
+    /* Vector API hasher on Java 17+ with jdk.incubator.vector, scalar otherwise */
+    private static final BulkHasher BULK_HASHER = loadBulkHasher();
 
-    private int ENCRYPTION_TABLE_SIZE = 0x500;
-    private long SEED_INITIAL_VALUE = 0x00100001;
-    private int INITIAL_ENCRYPT_SEED = 0xEEEEEEEE;
+    private static final FrostSecurity LITTLE_ENDIAN_INSTANCE = new FrostSecurity(ByteOrder.LITTLE_ENDIAN);
+    private static final FrostSecurity BIG_ENDIAN_INSTANCE = new FrostSecurity(ByteOrder.BIG_ENDIAN);
+
+    /* Defaults to little endian */
+    private final ByteOrder byteOrder;
 
-    /* FrostSecurity table that is set on class startup. */
-    private long[] encryptionTable;
+    /* FrostSecurity table shared by all instances. */
+    private final int[] encryptionTable = StormTables.ENCRYPTION_TABLE;
 
     /**
      * Creates a new FrostSecurity with default parameters
@@ -55,34 +65,41 @@ public final class FrostSecurity implements IFrostSecurity {
      * @param byteOrder Byte order to use (little or big)
      */
     public FrostSecurity(ByteOrder byteOrder) {
-        this.encryptionTable = new long[ENCRYPTION_TABLE_SIZE];
-        this.initializeEncryptionTable();
+        if (byteOrder == null) {
+            throw new IllegalArgumentException("Byte order cannot be null");
+        }
         this.byteOrder = byteOrder;
     }
 
     /**
-     * Saves numbers into the seed table for future use.
-     * See Storm documentation.
+     * Gets the shared little endian FrostSecurity.
+     *
+     * @return Shared thread safe instance
      */
-    private void initializeEncryptionTable() {
-        long seed = SEED_INITIAL_VALUE;
-        int index1;
-        int index2;
-        int i;
-        for (index1 = 0; index1 < 0x100; index1++) {
-            for (index2 = index1, i = 0; i < 5; i++, index2 += 0x100) {
-                long temp1;
-                long temp2;
-
-                seed = (seed * 125 + 3) % 0x2AAAAB;
-                temp1 = (seed & 0xFFFF) << 0x10;
-
-                seed = (seed * 125 + 3) % 0x2AAAAB;
-                temp2 = (seed & 0xFFFF);
+    public static FrostSecurity getInstance() {
+        return LITTLE_ENDIAN_INSTANCE;
+    }
 
-                encryptionTable[index2] = (temp1 | temp2);
-            }
+    /**
+     * Gets the shared FrostSecurity for the specified byte order.
+     *
+     * @param byteOrder Byte order to use (little or big)
+     * @return Shared thread safe instance
+     */
+    public static FrostSecurity getInstance(ByteOrder byteOrder) {
+        if (byteOrder == ByteOrder.LITTLE_ENDIAN) {
+            return LITTLE_ENDIAN_INSTANCE;
+        } else if (byteOrder == ByteOrder.BIG_ENDIAN) {
+            return BIG_ENDIAN_INSTANCE;
         }
+        throw new IllegalArgumentException("Byte order cannot be null");
+    }
+
+    /**
+     * @return Byte order used by this instance
+     */
+    public ByteOrder getByteOrder() {
+        return byteOrder;
     }
 
     /**
@@ -93,8 +110,9 @@ public final class FrostSecurity implements IFrostSecurity {
      * @param hashType Hash type (see constants of this class; 0-3)
      * @return Hash value as int
      */
+    @Override
     public int hashAsInt(String s, int hashType) {
-        return (int) (hashString(s, hashType));
+        return hashAsInt((CharSequence) s, hashType);
     }
 
     /**
@@ -105,42 +123,375 @@ public final class FrostSecurity implements IFrostSecurity {
      * @param hashType Hash type (see constants of this class; 0-3)
      * @return Hash value as long
      */
+    @Override
     public long hashString(String s, int hashType) {
+        return hashString((CharSequence) s, hashType);
+    }
+
+    /**
+     * Hashes the characters using Storm algorithm and returns the key
+     * as an long (the unsigned 32-bit hash value).
+     * Does not allocate.
+     *
+     * @param s        Characters to hash; each must be in 0x00-0xFF
+     * @param hashType Hash type (see constants of this class; 0-3)
+     * @return Hash value as long
+     */
+    @Override
+    public long hashString(CharSequence s, int hashType) {
+        return hashAsInt(s, hashType) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Hashes the characters using Storm algorithm and returns the key
+     * as an integer.
+     * ASCII letters are upper-cased and '/' is treated as '\' without
+     * regard to locale. Characters above 0xFF cannot be hashed; use the
+     * byte[] overload with the archive's encoding instead.
+     * Does not allocate.
+     *
+     * @param s        Characters to hash; each must be in 0x00-0xFF
+     * @param hashType Hash type (see constants of this class; 0-3)
+     * @return Hash value as int
+     */
+    @Override
+    public int hashAsInt(CharSequence s, int hashType) {
         if (s == null) {
             throw new HashingException("Cannot hash a null String");
         }
-        if (hashType > MPQ_HASH_FILE_KEY || hashType < MPQ_HASH_TABLE_OFFSET) {
-            throw new HashingException("Invalid hash type: " + hashType);
+        return hashChars(s, 0, hashType);
+    }
+
+    /**
+     * Hashes the characters from start to the end of s.
+     *
+     * @param s        Characters to hash; each must be in 0x00-0xFF
+     * @param start    Index of the first character to hash
+     * @param hashType Hash type (see constants of this class; 0-3)
+     * @return Hash value as int
+     */
+    private int hashChars(CharSequence s, int start, int hashType) {
+        int tableOffset = getHashTableOffset(hashType);
+        int seed1 = 0x7FED7FED;
+        int seed2 = 0xEEEEEEEE;
+        for (int i = start, len = s.length(); i < len; i++) {
+            char c = s.charAt(i);
+            if (c > 0xFF) {
+                throw new HashingException("Cannot hash character " + (int) c +
+                        " at index " + i + "; hash the encoded bytes instead");
+            }
+            int ch = StormTables.HASH_CHARACTER_TABLE[c];
+            seed1 = encryptionTable[tableOffset + ch] ^ (seed1 + seed2);
+            seed2 = ch + seed1 + seed2 + (seed2 << 5) + 3;
+        }
+        return seed1;
+    }
+
+    /**
+     * Hashes a range of bytes using Storm algorithm and returns the key
+     * as an integer. Each byte is hashed as one character, with ASCII
+     * letters upper-cased and '/' treated as '\'.
+     * Does not allocate.
+     *
+     * @param src      Source bytes
+     * @param offset   Offset of the name in src
+     * @param length   Length of the name
+     * @param hashType Hash type (see constants of this class; 0-3)
+     * @return Hash value as int
+     */
+    @Override
+    public int hashAsInt(byte[] src, int offset, int length, int hashType) {
+        if (src == null) {
+            throw new HashingException("Cannot hash a null array");
+        }
+        if (offset < 0 || length < 0 || offset > src.length - length) {
+            throw new HashingException("Range [" + offset + ", " + offset + "+" + length +
+                    ") is out of bounds for length " + src.length);
+        }
+        int tableOffset = getHashTableOffset(hashType);
+        int seed1 = 0x7FED7FED;
+        int seed2 = 0xEEEEEEEE;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            int ch = StormTables.HASH_CHARACTER_TABLE[src[i] & 0xFF];
+            seed1 = encryptionTable[tableOffset + ch] ^ (seed1 + seed2);
+            seed2 = ch + seed1 + seed2 + (seed2 << 5) + 3;
         }
-        long seed1 = 0x7FED7FEDL;
-        long seed2 = 0xEEEEEEEEL;
-        int ch;
+        return seed1;
+    }
 
-        s = s.toUpperCase();
-        for (char c : s.toCharArray()) {
-            ch = Byte.toUnsignedInt((byte) c);
-            seed1 = encryptionTable[(hashType * 0x100) + ch] ^ (seed1 + seed2);
+    /**
+     * Hashes the remaining bytes of the buffer using Storm algorithm
+     * and returns the key as an integer. Each byte is hashed as one
+     * character, with ASCII letters upper-cased and '/' treated as '\'.
+     * The buffer's position is not changed.
+     * Does not allocate.
+     *
+     * @param src      Source buffer
+     * @param hashType Hash type (see constants of this class; 0-3)
+     * @return Hash value as int
+     */
+    @Override
+    public int hashAsInt(ByteBuffer src, int hashType) {
+        if (src == null) {
+            throw new HashingException("Cannot hash a null buffer");
+        }
+        int tableOffset = getHashTableOffset(hashType);
+        int seed1 = 0x7FED7FED;
+        int seed2 = 0xEEEEEEEE;
+        for (int i = src.position(), end = src.limit(); i < end; i++) {
+            int ch = StormTables.HASH_CHARACTER_TABLE[src.get(i) & 0xFF];
+            seed1 = encryptionTable[tableOffset + ch] ^ (seed1 + seed2);
             seed2 = ch + seed1 + seed2 + (seed2 << 5) + 3;
         }
         return seed1;
     }
 
     /**
-     * Transforms a byte array with length divisible by 4 into an array
-     * Converts each integer contained in the byte array into an int
-     * For example bytes 0-3, 4-7, etc.
+     * Hashes the name once for several hash types together and stores
+     * the results in the holder. Walks the characters a single time,
+     * so it is cheaper than one hashAsInt call per type.
+     * Types that are not requested keep their previous values.
+     * Does not allocate.
+     *
+     * @param s         Characters to hash; each must be in 0x00-0xFF
+     * @param hashTypes Mask of hash types, for example MPQ_HASH_LOOKUP_TYPES
+     * @param dst       Holder to store the hashes in
+     * @return The dst holder
+     */
+    @Override
+    public NameHashes hashAll(CharSequence s, int hashTypes, NameHashes dst) {
+        hashAllInto(s, hashTypes, dst.values, 0);
+        return dst;
+    }
+
+    /**
+     * Hashes every name once for several hash types together.
+     * The hash of type t for names[i] is stored at dst[i * 4 + t];
+     * slots of types that are not requested are left as they are.
+     * Does not allocate.
+     *
+     * @param names     Names to hash; each character must be in 0x00-0xFF
+     * @param hashTypes Mask of hash types, for example MPQ_HASH_LOOKUP_TYPES
+     * @param dst       Destination, at least names.length * 4 long
+     */
+    @Override
+    public void hashAll(CharSequence[] names, int hashTypes, int[] dst) {
+        if (names == null || dst == null) {
+            throw new HashingException("Cannot hash null names or into a null array");
+        }
+        if (dst.length / 4 < names.length) {
+            throw new HashingException("Destination holds " + dst.length / 4 +
+                    " names, need " + names.length);
+        }
+        for (int i = 0; i < names.length; i++) {
+            hashAllInto(names[i], hashTypes, dst, i * 4);
+        }
+    }
+
+    /**
+     * Hashes every name for one hash type and stores hash i at dst[i].
+     * On Java 17 and later, with the jdk.incubator.vector module added,
+     * several names are hashed at once in vector lanes; otherwise the
+     * names are hashed one at a time. The results are the same.
+     *
+     * @param names    Names to hash; each character must be in 0x00-0xFF
+     * @param hashType Hash type (see constants of this class; 0-3)
+     * @param dst      Destination, at least names.length long
+     */
+    @Override
+    public void hashStrings(CharSequence[] names, int hashType, int[] dst) {
+        if (names == null || dst == null) {
+            throw new HashingException("Cannot hash null names or into a null array");
+        }
+        if (dst.length < names.length) {
+            throw new HashingException("Destination holds " + dst.length +
+                    " hashes, need " + names.length);
+        }
+        BULK_HASHER.hash(names, 0, names.length, getHashTableOffset(hashType), dst);
+    }
+
+    /**
+     * @return True if hashStrings uses the Vector API
+     */
+    public static boolean isVectorHashingEnabled() {
+        return !(BULK_HASHER instanceof ScalarBulkHasher);
+    }
+
+    /**
+     * Loads the Vector API hasher if this is Java 17 or later running
+     * from the multi-release jar with jdk.incubator.vector, otherwise
+     * the scalar hasher.
+     *
+     * @return Bulk hasher to use
+     */
+    private static BulkHasher loadBulkHasher() {
+        try {
+            Class<?> vectorClass = Class.forName("com.github.zachcloud.frost.VectorBulkHasher");
+            return (BulkHasher) vectorClass.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return new ScalarBulkHasher();
+        }
+    }
+
+    /**
+     * Computes the offset, name A and name B hashes (and the file key
+     * hash when requested) in one pass, as independent chains.
+     *
+     * @param s         Characters to hash
+     * @param hashTypes Mask of hash types
+     * @param dst       Destination, indexed by dstOffset + hash type
+     * @param dstOffset Offset of the first hash type in dst
+     */
+    private void hashAllInto(CharSequence s, int hashTypes, int[] dst, int dstOffset) {
+        if (s == null) {
+            throw new HashingException("Cannot hash a null String");
+        }
+        if (hashTypes == 0 || (hashTypes & ~SecurityConstants.MPQ_HASH_ALL_TYPES) != 0) {
+            throw new HashingException("Invalid hash type mask: " + hashTypes);
+        }
+        boolean fileKey = (hashTypes & (1 << MPQ_HASH_FILE_KEY)) != 0;
+        int[] table = encryptionTable;
+        int offset1 = 0x7FED7FED;
+        int offset2 = 0xEEEEEEEE;
+        int nameA1 = 0x7FED7FED;
+        int nameA2 = 0xEEEEEEEE;
+        int nameB1 = 0x7FED7FED;
+        int nameB2 = 0xEEEEEEEE;
+        int key1 = 0x7FED7FED;
+        int key2 = 0xEEEEEEEE;
+        for (int i = 0, len = s.length(); i < len; i++) {
+            char c = s.charAt(i);
+            if (c > 0xFF) {
+                throw new HashingException("Cannot hash character " + (int) c +
+                        " at index " + i + "; hash the encoded bytes instead");
+            }
+            int ch = StormTables.HASH_CHARACTER_TABLE[c];
+            offset1 = table[ch] ^ (offset1 + offset2);
+            offset2 = ch + offset1 + offset2 + (offset2 << 5) + 3;
+            nameA1 = table[0x100 + ch] ^ (nameA1 + nameA2);
+            nameA2 = ch + nameA1 + nameA2 + (nameA2 << 5) + 3;
+            nameB1 = table[0x200 + ch] ^ (nameB1 + nameB2);
+            nameB2 = ch + nameB1 + nameB2 + (nameB2 << 5) + 3;
+            if (fileKey) {
+                key1 = table[0x300 + ch] ^ (key1 + key2);
+                key2 = ch + key1 + key2 + (key2 << 5) + 3;
+            }
+        }
+        if ((hashTypes & (1 << MPQ_HASH_TABLE_OFFSET)) != 0) {
+            dst[dstOffset + MPQ_HASH_TABLE_OFFSET] = offset1;
+        }
+        if ((hashTypes & (1 << MPQ_HASH_NAME_A)) != 0) {
+            dst[dstOffset + MPQ_HASH_NAME_A] = nameA1;
+        }
+        if ((hashTypes & (1 << MPQ_HASH_NAME_B)) != 0) {
+            dst[dstOffset + MPQ_HASH_NAME_B] = nameB1;
+        }
+        if (fileKey) {
+            dst[dstOffset + MPQ_HASH_FILE_KEY] = key1;
+        }
+    }
+
+    /**
+     * Gets the key of a file from its name.
+     * Only the part after the last '\' or '/' is hashed, with
+     * MPQ_HASH_FILE_KEY.
+     * Does not allocate.
+     *
+     * @param name File name, with or without its path
+     * @return File key
+     */
+    @Override
+    public int getFileKey(CharSequence name) {
+        if (name == null) {
+            throw new HashingException("Cannot hash a null String");
+        }
+        return hashChars(name, getBaseNameStart(name), MPQ_HASH_FILE_KEY);
+    }
+
+    /**
+     * Gets the key of a file from its name and block table entry.
+     * When the MPQ_FILE_FIX_KEY flag is set the key is adjusted by
+     * the position and size of the file.
+     * Does not allocate.
      *
-     * @param src Source byte array
-     * @return Converted integer array
+     * @param name        File name, with or without its path
+     * @param blockOffset Offset of the file from the start of the archive
+     * @param fileSize    Uncompressed size of the file
+     * @param flags       Block table flags of the file
+     * @return File key
      */
-    private int[] transform(byte[] src) {
-        int convertedLength = src.length / 4;
-        int[] converted = new int[convertedLength];
-        for (int i = 0; i < convertedLength; i++) {
-            byte[] extracted = extractBytes(src, i * 4, 4);
-            converted[i] = java.nio.ByteBuffer.wrap(extracted).order(byteOrder).getInt();
+    @Override
+    public int getFileKey(CharSequence name, long blockOffset, long fileSize, int flags) {
+        return fixFileKey(getFileKey(name), blockOffset, fileSize, flags);
+    }
+
+    /**
+     * Gets the key of one sector of a file.
+     *
+     * @param fileKey Key of the file
+     * @param sector  Sector number, from 0
+     * @return Sector key
+     */
+    @Override
+    public int getSectorKey(int fileKey, int sector) {
+        return fileKey + sector;
+    }
+
+    /**
+     * Gets the key of the sector offset table of a file.
+     *
+     * @param fileKey Key of the file
+     * @return Sector offset table key
+     */
+    @Override
+    public int getSectorOffsetTableKey(int fileKey) {
+        return fileKey - 1;
+    }
+
+    /**
+     * Applies the MPQ_FILE_FIX_KEY adjustment if the flag is set.
+     *
+     * @param key         Key hashed from the file name
+     * @param blockOffset Offset of the file from the start of the archive
+     * @param fileSize    Uncompressed size of the file
+     * @param flags       Block table flags of the file
+     * @return File key
+     */
+    static int fixFileKey(int key, long blockOffset, long fileSize, int flags) {
+        if ((flags & MPQ_FILE_FIX_KEY) != 0) {
+            return (key + (int) blockOffset) ^ (int) fileSize;
+        }
+        return key;
+    }
+
+    /**
+     * Finds where the file name starts, after its path.
+     *
+     * @param name File name, with or without its path
+     * @return Index of the first character after the last '\' or '/'
+     */
+    static int getBaseNameStart(CharSequence name) {
+        for (int i = name.length() - 1; i >= 0; i--) {
+            char c = name.charAt(i);
+            if (c == '\\' || c == '/') {
+                return i + 1;
+            }
         }
-        return converted;
+        return 0;
+    }
+
+    /**
+     * Validates the hash type and gets where its part of the
+     * encryption table starts.
+     *
+     * @param hashType Hash type (see constants of this class; 0-3)
+     * @return Offset into the encryption table
+     */
+    static int getHashTableOffset(int hashType) {
+        if (hashType > MPQ_HASH_FILE_KEY || hashType < MPQ_HASH_TABLE_OFFSET) {
+            throw new HashingException("Invalid hash type: " + hashType);
+        }
+        return hashType << 8;
     }
 
     /**
@@ -225,58 +576,57 @@ public final class FrostSecurity implements IFrostSecurity {
     }
 
     /**
-     * Converts integer array into byte equivalent
-     * With the byte array length = ints len * 4
+     * Generically encrypts/decrypts bytes into a new array.
      *
-     * @param ar Origin int array
-     * @return Result bytes array
+     * @param src           Source bytes array
+     * @param key           Key to decrypt with
+     * @param operationType Encrypt or decrypt
+     * @return Modified bytes array
      */
-    private byte[] intArrayToBytes(int[] ar) {
-        int len = ar.length * 4; // 32 bit ints
-        byte[] data = new byte[len];
-        for (int i = 0; i < len; i += 4) {
-            byte[] bytes = ByteBuffer.allocate(4).putInt(ar[i / 4]).order(byteOrder).array();
-            for (int j = 3; j >= 0; j--) {
-                data[i + (3 - j)] = bytes[j];
-            }
+    private byte[] modifyBytes(byte[] src, int key, OperationType operationType) {
+        if (src == null) {
+            return null;
         }
-        return data;
+        byte[] dst = new byte[src.length];
+        modifyBytes(src, 0, src.length, dst, 0, key, operationType);
+        return dst;
     }
 
     /**
-     * Generically encrypts/decrypts bytes.
+     * Generically encrypts/decrypts a range of bytes into dst.
+     * Whole integers are processed and the 1-3 trailing bytes that do
+     * not form an integer are copied unchanged.
      *
      * @param src           Source bytes array
-     * @param key           Key to decrypt with
+     * @param srcOffset     Offset of the range in src
+     * @param length        Length of the range
+     * @param dst           Destination bytes array; may be src
+     * @param dstOffset     Offset to write to in dst
+     * @param key           Key to use
      * @param operationType Encrypt or decrypt
-     * @return Modified bytes array
      */
-    private byte[] modifyBytes(byte[] src, int key, OperationType operationType) {
-        // Perform some checks...
-        if (src == null) {
-            return null;
+    private void modifyBytes(byte[] src, int srcOffset, int length, byte[] dst, int dstOffset,
+                             int key, OperationType operationType) {
+        if (src == null || dst == null) {
+            throw new EncryptionException("Source and destination cannot be null");
         }
-        byte[] endBuffer;
-        // Grab whatever cannot fit into ints
-        int endBufferLength = src.length % 4;
-        endBuffer = new byte[endBufferLength];
-        for (int i = 0; i < endBufferLength; i++) {
-            endBuffer[i] = src[src.length - (i + 1)];
+        Sectors.checkRange(src.length, srcOffset, length);
+        Sectors.checkRange(dst.length, dstOffset, length);
+        boolean decrypt = operationType == OperationType.DECRYPT;
+        boolean bigEndian = byteOrder == ByteOrder.BIG_ENDIAN;
+        int whole = length & ~3;
+        int seed = INITIAL_ENCRYPT_SEED;
+        for (int i = 0; i < whole; i += 4) {
+            seed += encryptionTable[getLookupIndexEncrypt(key)];
+            int current = StormCipher.getInt(src, srcOffset + i, bigEndian);
+            int result = current ^ (key + seed);
+            key = (~key << 21) + 0x11111111 | key >>> 11;
+            seed = ((decrypt ? result : current) + seed + (seed << 5) + 3);
+            StormCipher.putInt(dst, dstOffset + i, result, bigEndian);
         }
-
-        // First, convert the byte array into an integer array that can
-        // be used for the interface of Storm crypto
-        int[] convertedNumericValues = transform(src);
-        int[] modified = null;
-        if (operationType == OperationType.ENCRYPT) {
-            modified = encrypt(convertedNumericValues, key);
-        } else if (operationType == OperationType.DECRYPT) {
-            modified = decrypt(convertedNumericValues, key);
-        } else {
-            throw new EncryptionException("Unknown hash type: " + operationType.name());
+        if (src != dst || srcOffset != dstOffset) {
+            System.arraycopy(src, srcOffset + whole, dst, dstOffset + whole, length - whole);
         }
-        // Cast back into byte array
-        return ByteHelper.combineBytes(intArrayToBytes(modified), endBuffer);
     }
 
     /**
@@ -310,6 +660,48 @@ public final class FrostSecurity implements IFrostSecurity {
         return modifyBytes(src, key, OperationType.ENCRYPT);
     }
 
+    /**
+     * Decrypts a range of bytes into the destination array.
+     * Uses the Storm algorithm
+     * Integers are read from each four position of the range (0-3,
+     * 4-7, etc) and the 1-3 trailing bytes that do not form an integer
+     * are copied unchanged, like decryptBytes. src and dst may be the
+     * same array at the same offset to decrypt in place.
+     * Does not allocate.
+     *
+     * @param src       Source bytes array
+     * @param srcOffset Offset of the range in src
+     * @param length    Length of the range
+     * @param dst       Destination bytes array
+     * @param dstOffset Offset to write to in dst
+     * @param key       Key to decrypt with
+     */
+    @Override
+    public void decryptBytes(byte[] src, int srcOffset, int length, byte[] dst, int dstOffset, int key) {
+        modifyBytes(src, srcOffset, length, dst, dstOffset, key, OperationType.DECRYPT);
+    }
+
+    /**
+     * Encrypts a range of bytes into the destination array.
+     * Uses the Storm algorithm
+     * Integers are read from each four position of the range (0-3,
+     * 4-7, etc) and the 1-3 trailing bytes that do not form an integer
+     * are copied unchanged, like encryptBytes. src and dst may be the
+     * same array at the same offset to encrypt in place.
+     * Does not allocate.
+     *
+     * @param src       Source bytes array
+     * @param srcOffset Offset of the range in src
+     * @param length    Length of the range
+     * @param dst       Destination bytes array
+     * @param dstOffset Offset to write to in dst
+     * @param key       Key to encrypt with
+     */
+    @Override
+    public void encryptBytes(byte[] src, int srcOffset, int length, byte[] dst, int dstOffset, int key) {
+        modifyBytes(src, srcOffset, length, dst, dstOffset, key, OperationType.ENCRYPT);
+    }
+
     /**
      * Decrypts the specified byte buffer
      * Uses the Storm algorithm
@@ -323,7 +715,7 @@ public final class FrostSecurity implements IFrostSecurity {
      */
     @Override
     public ByteBuffer decryptBuffer(ByteBuffer src, int key) {
-        return ByteBuffer.wrap(decryptBytes(src.array(), key)).order(byteOrder);
+        return modifyBufferCopy(src, key, OperationType.DECRYPT);
     }
 
     /**
@@ -339,7 +731,157 @@ public final class FrostSecurity implements IFrostSecurity {
      */
     @Override
     public ByteBuffer encryptBuffer(ByteBuffer src, int key) {
-        return ByteBuffer.wrap(encryptBytes(src.array(), key)).order(byteOrder);
+        return modifyBufferCopy(src, key, OperationType.ENCRYPT);
+    }
+
+    /**
+     * Decrypts the remaining bytes of the specified buffer in place.
+     * Uses the Storm algorithm
+     * Works the same for heap and direct buffers. Integers are read
+     * and written in the buffer's own byte order, and 1-3 trailing
+     * bytes that do not form an integer are left untouched.
+     * Position and limit are not changed.
+     * If a null buffer is provided, nothing is done.
+     *
+     * @param buffer Buffer to decrypt
+     * @param key    Key to decrypt with
+     */
+    @Override
+    public void decryptBufferInPlace(ByteBuffer buffer, int key) {
+        modifyBufferInPlace(buffer, key, OperationType.DECRYPT);
+    }
+
+    /**
+     * Encrypts the remaining bytes of the specified buffer in place.
+     * Uses the Storm algorithm
+     * Works the same for heap and direct buffers. Integers are read
+     * and written in the buffer's own byte order, and 1-3 trailing
+     * bytes that do not form an integer are left untouched.
+     * Position and limit are not changed.
+     * If a null buffer is provided, nothing is done.
+     *
+     * @param buffer Buffer to encrypt
+     * @param key    Key to encrypt with
+     */
+    @Override
+    public void encryptBufferInPlace(ByteBuffer buffer, int key) {
+        modifyBufferInPlace(buffer, key, OperationType.ENCRYPT);
+    }
+
+    /**
+     * Copies the remaining bytes of the source buffer into a new heap
+     * buffer using this instance's byte order, and encrypts/decrypts
+     * the copy in place. The source buffer is not modified.
+     *
+     * @param src           Source buffer
+     * @param key           Key to use
+     * @param operationType Encrypt or decrypt
+     * @return New buffer holding the result, or null if src is null
+     */
+    private ByteBuffer modifyBufferCopy(ByteBuffer src, int key, OperationType operationType) {
+        if (src == null) {
+            return null;
+        }
+        byte[] copy = new byte[src.remaining()];
+        src.duplicate().get(copy);
+        ByteBuffer result = ByteBuffer.wrap(copy).order(byteOrder);
+        modifyBufferInPlace(result, key, operationType);
+        return result;
+    }
+
+    /**
+     * Generically encrypts/decrypts the remaining bytes of a buffer
+     * in place, using absolute int access so that no intermediate
+     * arrays are created.
+     *
+     * @param buffer        Buffer to modify
+     * @param key           Key to use
+     * @param operationType Encrypt or decrypt
+     */
+    private void modifyBufferInPlace(ByteBuffer buffer, int key, OperationType operationType) {
+        if (buffer == null) {
+            return;
+        }
+        if (buffer.isReadOnly()) {
+            throw new EncryptionException("Cannot modify a read-only buffer in place");
+        }
+        modifyRange(buffer, buffer.position(), buffer.remaining() & ~3, key,
+                operationType == OperationType.DECRYPT);
+    }
+
+    /**
+     * Encrypts/decrypts whole integers of a buffer range in place,
+     * using absolute int access in the buffer's byte order. Position
+     * and limit are not used or changed.
+     * Used for buffers here and for segments by BatchCipher.
+     *
+     * @param buffer  Buffer to modify
+     * @param start   Index of the first byte
+     * @param length  Number of bytes; a multiple of 4
+     * @param key     Key to use
+     * @param decrypt True to decrypt, false to encrypt
+     */
+    static void modifyRange(ByteBuffer buffer, int start, int length, int key, boolean decrypt) {
+        int[] table = StormTables.ENCRYPTION_TABLE;
+        int seed = INITIAL_ENCRYPT_SEED;
+        for (int i = start, end = start + length; i < end; i += 4) {
+            seed += table[getLookupIndexEncrypt(key)];
+            int current = buffer.getInt(i);
+            int result = current ^ (key + seed);
+            key = (~key << 21) + 0x11111111 | key >>> 11;
+            seed = ((decrypt ? result : current) + seed + (seed << 5) + 3);
+            buffer.putInt(i, result);
+        }
+    }
+
+    /**
+     * Creates a cipher state that encrypts a region in chunks,
+     * starting with the specified key.
+     *
+     * @param key Key to encrypt with
+     * @return New encrypting cipher state
+     */
+    @Override
+    public StormCipher createEncryptor(int key) {
+        return new StormCipher(encryptionTable, byteOrder, false, key, INITIAL_ENCRYPT_SEED, 0);
+    }
+
+    /**
+     * Creates a cipher state that decrypts a region in chunks,
+     * starting with the specified key.
+     *
+     * @param key Key to decrypt with
+     * @return New decrypting cipher state
+     */
+    @Override
+    public StormCipher createDecryptor(int key) {
+        return new StormCipher(encryptionTable, byteOrder, true, key, INITIAL_ENCRYPT_SEED, 0);
+    }
+
+    /**
+     * Creates a cipher state that continues encrypting a region
+     * from a saved checkpoint.
+     *
+     * @param checkpoint Checkpoint to resume from
+     * @return New encrypting cipher state
+     */
+    @Override
+    public StormCipher createEncryptor(StormCipher.Checkpoint checkpoint) {
+        return new StormCipher(encryptionTable, byteOrder, false, checkpoint.getKey(),
+                checkpoint.getSeed(), checkpoint.getOffset());
+    }
+
+    /**
+     * Creates a cipher state that continues decrypting a region
+     * from a saved checkpoint.
+     *
+     * @param checkpoint Checkpoint to resume from
+     * @return New decrypting cipher state
+     */
+    @Override
+    public StormCipher createDecryptor(StormCipher.Checkpoint checkpoint) {
+        return new StormCipher(encryptionTable, byteOrder, true, checkpoint.getKey(),
+                checkpoint.getSeed(), checkpoint.getOffset());
     }
 
     /**
@@ -348,7 +890,7 @@ public final class FrostSecurity implements IFrostSecurity {
      * @param key Key value
      * @return Array index to lookup
      */
-    private int getLookupIndexEncrypt(int key) {
-        return (0x400 + (key & 0xFF)) % encryptionTable.length;
+    private static int getLookupIndexEncrypt(int key) {
+        return 0x400 + (key & 0xFF);
     }
 }
@@ -0,0 +1,125 @@
+package com.github.zachcloud.frost;
+
+import com.github.zachcloud.interfaces.FrostSecurityProvider;
+import com.github.zachcloud.interfaces.IFrostSecurity;
+
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * Finds IFrostSecurity backends with ServiceLoader and picks one.
+ * <p>
+ * The default is the available provider with the highest priority,
+ * so the native backend is used whenever its library loads and the
+ * pure Java FrostSecurity otherwise. Set the system property
+ * frostsecurity.provider to a provider name to choose one instead.
+ */
+public final class FrostSecurityProviders {
+
+    /* System property that names the provider to use by default */
+    public static final String PROVIDER_PROPERTY = "frostsecurity.provider";
+
+    /* Available providers, highest priority first */
+    private static final List<FrostSecurityProvider> PROVIDERS = loadProviders();
+
+    private FrostSecurityProviders() {
+    }
+
+    /**
+     * @return Available providers, highest priority first
+     */
+    public static List<FrostSecurityProvider> getProviders() {
+        return PROVIDERS;
+    }
+
+    /**
+     * Gets an available provider by name.
+     *
+     * @param name Provider name
+     * @return Provider
+     * @throws IllegalArgumentException If no available provider has the name
+     */
+    public static FrostSecurityProvider getProvider(String name) {
+        for (FrostSecurityProvider provider : PROVIDERS) {
+            if (provider.getName().equals(name)) {
+                return provider;
+            }
+        }
+        throw new IllegalArgumentException("No available security provider named " + name);
+    }
+
+    /**
+     * @return Provider named by frostsecurity.provider, or else the
+     * available provider with the highest priority
+     */
+    public static FrostSecurityProvider getDefaultProvider() {
+        String name = System.getProperty(PROVIDER_PROPERTY);
+        if (name != null && !name.isEmpty()) {
+            return getProvider(name);
+        }
+        return PROVIDERS.get(0);
+    }
+
+    /**
+     * Creates a little endian security with the default provider.
+     *
+     * @return Security instance
+     */
+    public static IFrostSecurity create() {
+        return create(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Creates a security with the default provider.
+     *
+     * @param byteOrder Byte order for bytes to integers conversion
+     * @return Security instance
+     */
+    public static IFrostSecurity create(ByteOrder byteOrder) {
+        if (byteOrder == null) {
+            throw new IllegalArgumentException("Byte order cannot be null");
+        }
+        return getDefaultProvider().create(byteOrder);
+    }
+
+    /**
+     * Loads every provider on the class path that is available.
+     * Providers that fail to load are skipped. The pure Java provider
+     * is always included, even if the service file is missing.
+     *
+     * @return Available providers, highest priority first
+     */
+    private static List<FrostSecurityProvider> loadProviders() {
+        List<FrostSecurityProvider> providers = new ArrayList<>();
+        Iterator<FrostSecurityProvider> iterator = ServiceLoader.load(FrostSecurityProvider.class,
+                FrostSecurityProviders.class.getClassLoader()).iterator();
+        while (true) {
+            try {
+                if (!iterator.hasNext()) {
+                    break;
+                }
+                FrostSecurityProvider provider = iterator.next();
+                if (provider.isAvailable()) {
+                    providers.add(provider);
+                }
+            } catch (ServiceConfigurationError | LinkageError e) {
+                // A broken provider must not hide the others
+            }
+        }
+        boolean hasJava = false;
+        for (FrostSecurityProvider provider : providers) {
+            hasJava |= provider.getName().equals(JavaFrostSecurityProvider.NAME);
+        }
+        if (!hasJava) {
+            providers.add(new JavaFrostSecurityProvider());
+        }
+        providers.sort(Comparator.comparingInt(FrostSecurityProvider::getPriority).reversed());
+        return Collections.unmodifiableList(providers);
+    }
+}
@@ -0,0 +1,459 @@
+package com.github.zachcloud.frost;
+
+import com.github.zachcloud.interfaces.IFrostSecurity;
+import com.github.zachcloud.metrics.FrostMetrics;
+import com.github.zachcloud.metrics.FrostOperation;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * IFrostSecurity that reports what its delegate does to a FrostMetrics.
+ * <p>
+ * Every encrypt and decrypt call adds its size to the byte counters,
+ * and every hash call adds to the counter of its hash type. One in
+ * latencySampleRate calls is timed and its duration reported. On
+ * Java 17 and later, encrypt and decrypt calls of at least
+ * eventThreshold bytes are also recorded as JDK Flight Recorder events
+ * (com.github.zachcloud.LargeCryptOperation) while a recording has
+ * them enabled. StormCipher objects are not instrumented, and calls
+ * that throw are not counted.
+ * <p>
+ * While disabled, calls go straight to the delegate after one flag
+ * check. To pay nothing at all, use instrument, which does not wrap
+ * when there are no metrics.
+ * <p>
+ * Thread safe if the delegate and the metrics are.
+ */
+public final class InstrumentedFrostSecurity extends ForwardingFrostSecurity {
+
+    /**
+     * Default number of calls per timed call.
+     */
+    public static final int DEFAULT_LATENCY_SAMPLE_RATE = 64;
+
+    /**
+     * Default smallest call, in bytes, to record an event for.
+     */
+    public static final int DEFAULT_EVENT_THRESHOLD = 1 << 16;
+
+    /* Start time of a call that is not timed */
+    private static final long NOT_SAMPLED = Long.MIN_VALUE;
+
+    /* Flight Recorder events on Java 17+, nothing otherwise */
+    private static final LargeOperationRecorder RECORDER = loadRecorder();
+
+    private final FrostMetrics metrics;
+    private final int latencySampleRate;
+    private final int eventThreshold;
+    private volatile boolean enabled = true;
+
+    /**
+     * Creates a new InstrumentedFrostSecurity with the default sample
+     * rate and event threshold.
+     *
+     * @param delegate Security to instrument
+     * @param metrics  Metrics to report to
+     */
+    public InstrumentedFrostSecurity(IFrostSecurity delegate, FrostMetrics metrics) {
+        this(delegate, metrics, DEFAULT_LATENCY_SAMPLE_RATE, DEFAULT_EVENT_THRESHOLD);
+    }
+
+    /**
+     * Creates a new InstrumentedFrostSecurity.
+     *
+     * @param delegate          Security to instrument
+     * @param metrics           Metrics to report to
+     * @param latencySampleRate Time one in this many calls; 1 times every
+     *                          call and 0 none
+     * @param eventThreshold    Smallest encrypt or decrypt call, in bytes,
+     *                          to record a Flight Recorder event for
+     */
+    public InstrumentedFrostSecurity(IFrostSecurity delegate, FrostMetrics metrics,
+                                     int latencySampleRate, int eventThreshold) {
+        super(delegate);
+        if (metrics == null) {
+            throw new IllegalArgumentException("Metrics cannot be null");
+        }
+        if (latencySampleRate < 0) {
+            throw new IllegalArgumentException("Sample rate cannot be negative: " + latencySampleRate);
+        }
+        if (eventThreshold < 0) {
+            throw new IllegalArgumentException("Event threshold cannot be negative: " + eventThreshold);
+        }
+        this.metrics = metrics;
+        this.latencySampleRate = latencySampleRate;
+        this.eventThreshold = eventThreshold;
+    }
+
+    /**
+     * Instruments a security only when there is something to report to.
+     *
+     * @param delegate Security to instrument
+     * @param metrics  Metrics to report to; null or FrostMetrics.NONE
+     *                 to not instrument
+     * @return The delegate itself, or an InstrumentedFrostSecurity
+     */
+    public static IFrostSecurity instrument(IFrostSecurity delegate, FrostMetrics metrics) {
+        if (metrics == null || metrics == FrostMetrics.NONE) {
+            if (delegate == null) {
+                throw new IllegalArgumentException("Delegate cannot be null");
+            }
+            return delegate;
+        }
+        return new InstrumentedFrostSecurity(delegate, metrics);
+    }
+
+    /**
+     * @return True if calls are being reported
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turns reporting on or off. Calls in progress may still report.
+     *
+     * @param enabled True to report calls
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return True if large calls are recorded as Flight Recorder events
+     */
+    public static boolean isEventRecordingAvailable() {
+        return RECORDER != LargeOperationRecorder.NONE;
+    }
+
+    @Override
+    public int[] decrypt(int[] src, int key) {
+        if (!enabled) {
+            return delegate.decrypt(src, key);
+        }
+        long bytes = src == null ? 0 : src.length * 4L;
+        Object event = beginEvent(bytes);
+        long start = startTimer();
+        int[] result = delegate.decrypt(src, key);
+        decrypted("decrypt", bytes, start, event);
+        return result;
+    }
+
+    @Override
+    public byte[] decryptBytes(byte[] src, int key) {
+        if (!enabled) {
+            return delegate.decryptBytes(src, key);
+        }
+        long bytes = src == null ? 0 : src.length;
+        Object event = beginEvent(bytes);
+        long start = startTimer();
+        byte[] result = delegate.decryptBytes(src, key);
+        decrypted("decryptBytes", bytes, start, event);
+        return result;
+    }
+
+    @Override
+    public int[] encrypt(int[] src, int key) {
+        if (!enabled) {
+            return delegate.encrypt(src, key);
+        }
+        long bytes = src == null ? 0 : src.length * 4L;
+        Object event = beginEvent(bytes);
+        long start = startTimer();
+        int[] result = delegate.encrypt(src, key);
+        encrypted("encrypt", bytes, start, event);
+        return result;
+    }
+
+    @Override
+    public ByteBuffer decryptBuffer(ByteBuffer src, int key) {
+        if (!enabled) {
+            return delegate.decryptBuffer(src, key);
+        }
+        long bytes = src == null ? 0 : src.remaining();
+        Object event = beginEvent(bytes);
+        long start = startTimer();
+        ByteBuffer result = delegate.decryptBuffer(src, key);
+        decrypted("decryptBuffer", bytes, start, event);
+        return result;
+    }
+
+    @Override
+    public ByteBuffer encryptBuffer(ByteBuffer src, int key) {
+        if (!enabled) {
+            return delegate.encryptBuffer(src, key);
+        }
+        long bytes = src == null ? 0 : src.remaining();
+        Object event = beginEvent(bytes);
+        long start = startTimer();
+        ByteBuffer result = delegate.encryptBuffer(src, key);
+        encrypted("encryptBuffer", bytes, start, event);
+        return result;
+    }
+
+    @Override
+    public void decryptBufferInPlace(ByteBuffer buffer, int key) {
+        if (!enabled) {
+            delegate.decryptBufferInPlace(buffer, key);
+            return;
+        }
+        long bytes = buffer == null ? 0 : buffer.remaining();
+        Object event = beginEvent(bytes);
+        long start = startTimer();
+        delegate.decryptBufferInPlace(buffer, key);
+        decrypted("decryptBufferInPlace", bytes, start, event);
+    }
+
+    @Override
+    public void encryptBufferInPlace(ByteBuffer buffer, int key) {
+        if (!enabled) {
+            delegate.encryptBufferInPlace(buffer, key);
+            return;
+        }
+        long bytes = buffer == null ? 0 : buffer.remaining();
+        Object event = beginEvent(bytes);
+        long start = startTimer();
+        delegate.encryptBufferInPlace(buffer, key);
+        encrypted("encryptBufferInPlace", bytes, start, event);
+    }
+
+    @Override
+    public byte[] encryptBytes(byte[] src, int key) {
+        if (!enabled) {
+            return delegate.encryptBytes(src, key);
+        }
+        long bytes = src == null ? 0 : src.length;
+        Object event = beginEvent(bytes);
+        long start = startTimer();
+        byte[] result = delegate.encryptBytes(src, key);
+        encrypted("encryptBytes", bytes, start, event);
+        return result;
+    }
+
+    @Override
+    public void decryptBytes(byte[] src, int srcOffset, int length, byte[] dst, int dstOffset, int key) {
+        if (!enabled) {
+            delegate.decryptBytes(src, srcOffset, length, dst, dstOffset, key);
+            return;
+        }
+        Object event = beginEvent(length);
+        long start = startTimer();
+        delegate.decryptBytes(src, srcOffset, length, dst, dstOffset, key);
+        decrypted("decryptBytes", length, start, event);
+    }
+
+    @Override
+    public void encryptBytes(byte[] src, int srcOffset, int length, byte[] dst, int dstOffset, int key) {
+        if (!enabled) {
+            delegate.encryptBytes(src, srcOffset, length, dst, dstOffset, key);
+            return;
+        }
+        Object event = beginEvent(length);
+        long start = startTimer();
+        delegate.encryptBytes(src, srcOffset, length, dst, dstOffset, key);
+        encrypted("encryptBytes", length, start, event);
+    }
+
+    @Override
+    public int decrypt(int src, int key) {
+        int result = delegate.decrypt(src, key);
+        if (enabled) {
+            metrics.bytesDecrypted(4);
+        }
+        return result;
+    }
+
+    @Override
+    public int encrypt(int src, int key) {
+        int result = delegate.encrypt(src, key);
+        if (enabled) {
+            metrics.bytesEncrypted(4);
+        }
+        return result;
+    }
+
+    @Override
+    public long hashString(String s, int hashType) {
+        if (!enabled) {
+            return delegate.hashString(s, hashType);
+        }
+        long start = startTimer();
+        long hash = delegate.hashString(s, hashType);
+        hashed(hashType, 1, start);
+        return hash;
+    }
+
+    @Override
+    public long hashString(CharSequence s, int hashType) {
+        if (!enabled) {
+            return delegate.hashString(s, hashType);
+        }
+        long start = startTimer();
+        long hash = delegate.hashString(s, hashType);
+        hashed(hashType, 1, start);
+        return hash;
+    }
+
+    @Override
+    public int hashAsInt(String s, int hashType) {
+        if (!enabled) {
+            return delegate.hashAsInt(s, hashType);
+        }
+        long start = startTimer();
+        int hash = delegate.hashAsInt(s, hashType);
+        hashed(hashType, 1, start);
+        return hash;
+    }
+
+    @Override
+    public int hashAsInt(CharSequence s, int hashType) {
+        if (!enabled) {
+            return delegate.hashAsInt(s, hashType);
+        }
+        long start = startTimer();
+        int hash = delegate.hashAsInt(s, hashType);
+        hashed(hashType, 1, start);
+        return hash;
+    }
+
+    @Override
+    public int hashAsInt(byte[] src, int offset, int length, int hashType) {
+        if (!enabled) {
+            return delegate.hashAsInt(src, offset, length, hashType);
+        }
+        long start = startTimer();
+        int hash = delegate.hashAsInt(src, offset, length, hashType);
+        hashed(hashType, 1, start);
+        return hash;
+    }
+
+    @Override
+    public int hashAsInt(ByteBuffer src, int hashType) {
+        if (!enabled) {
+            return delegate.hashAsInt(src, hashType);
+        }
+        long start = startTimer();
+        int hash = delegate.hashAsInt(src, hashType);
+        hashed(hashType, 1, start);
+        return hash;
+    }
+
+    @Override
+    public NameHashes hashAll(CharSequence s, int hashTypes, NameHashes dst) {
+        if (!enabled) {
+            return super.hashAll(s, hashTypes, dst);
+        }
+        long start = startTimer();
+        NameHashes result = super.hashAll(s, hashTypes, dst);
+        hashedTypes(hashTypes, 1, start);
+        return result;
+    }
+
+    @Override
+    public void hashAll(CharSequence[] names, int hashTypes, int[] dst) {
+        if (!enabled) {
+            delegate.hashAll(names, hashTypes, dst);
+            return;
+        }
+        long start = startTimer();
+        delegate.hashAll(names, hashTypes, dst);
+        hashedTypes(hashTypes, names.length, start);
+    }
+
+    @Override
+    public void hashStrings(CharSequence[] names, int hashType, int[] dst) {
+        if (!enabled) {
+            delegate.hashStrings(names, hashType, dst);
+            return;
+        }
+        long start = startTimer();
+        delegate.hashStrings(names, hashType, dst);
+        hashed(hashType, names.length, start);
+    }
+
+    @Override
+    public int getFileKey(CharSequence name) {
+        if (!enabled) {
+            return delegate.getFileKey(name);
+        }
+        long start = startTimer();
+        int key = delegate.getFileKey(name);
+        hashed(SecurityConstants.MPQ_HASH_FILE_KEY, 1, start);
+        return key;
+    }
+
+    @Override
+    public int getFileKey(CharSequence name, long blockOffset, long fileSize, int flags) {
+        if (!enabled) {
+            return delegate.getFileKey(name, blockOffset, fileSize, flags);
+        }
+        long start = startTimer();
+        int key = delegate.getFileKey(name, blockOffset, fileSize, flags);
+        hashed(SecurityConstants.MPQ_HASH_FILE_KEY, 1, start);
+        return key;
+    }
+
+    /**
+     * @return Current time if this call is sampled, otherwise NOT_SAMPLED
+     */
+    private long startTimer() {
+        if (latencySampleRate == 0 ||
+                (latencySampleRate > 1 && ThreadLocalRandom.current().nextInt(latencySampleRate) != 0)) {
+            return NOT_SAMPLED;
+        }
+        return System.nanoTime();
+    }
+
+    private void stopTimer(FrostOperation operation, long start) {
+        if (start != NOT_SAMPLED) {
+            metrics.latency(operation, System.nanoTime() - start);
+        }
+    }
+
+    private Object beginEvent(long bytes) {
+        return bytes >= eventThreshold ? RECORDER.begin() : null;
+    }
+
+    private void encrypted(String operation, long bytes, long start, Object event) {
+        stopTimer(FrostOperation.ENCRYPT, start);
+        RECORDER.end(event, operation, bytes);
+        metrics.bytesEncrypted(bytes);
+    }
+
+    private void decrypted(String operation, long bytes, long start, Object event) {
+        stopTimer(FrostOperation.DECRYPT, start);
+        RECORDER.end(event, operation, bytes);
+        metrics.bytesDecrypted(bytes);
+    }
+
+    private void hashed(int hashType, long count, long start) {
+        stopTimer(FrostOperation.HASH, start);
+        metrics.hashesComputed(hashType, count);
+    }
+
+    private void hashedTypes(int hashTypes, long count, long start) {
+        stopTimer(FrostOperation.HASH, start);
+        for (int type = 0; type < 4; type++) {
+            if ((hashTypes & (1 << type)) != 0) {
+                metrics.hashesComputed(type, count);
+            }
+        }
+    }
+
+    /**
+     * Loads the Flight Recorder recorder if this is Java 17 or later
+     * running from the multi-release jar, otherwise a recorder that
+     * records nothing.
+     *
+     * @return Recorder to use
+     */
+    private static LargeOperationRecorder loadRecorder() {
+        try {
+            Class<?> recorderClass = Class.forName("com.github.zachcloud.frost.JfrLargeOperationRecorder");
+            return (LargeOperationRecorder) recorderClass.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return LargeOperationRecorder.NONE;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.github.zachcloud.frost;
+
+import com.github.zachcloud.interfaces.FrostSecurityProvider;
+import com.github.zachcloud.interfaces.IFrostSecurity;
+
+import java.nio.ByteOrder;
+
+/**
+ * Provides the pure Java FrostSecurity. Always available, so it is the
+ * default whenever no faster backend can be loaded.
+ */
+public final class JavaFrostSecurityProvider implements FrostSecurityProvider {
+
+    public static final String NAME = "java";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public int getPriority() {
+        return 0;
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    public IFrostSecurity create(ByteOrder byteOrder) {
+        return FrostSecurity.getInstance(byteOrder);
+    }
+}
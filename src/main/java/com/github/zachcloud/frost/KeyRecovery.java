@@ -0,0 +1,287 @@
+package com.github.zachcloud.frost;
+
+import com.github.zachcloud.exceptions.EncryptionException;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Recovers Storm keys from encrypted data and known plaintext.
+ * <p>
+ * The first encrypted integer E0 and its plaintext P0 fix the sum of
+ * the key and the first seed: E0 ^ P0 = key + 0xEEEEEEEE + T[0x400 +
+ * (key &amp; 0xFF)]. For each of the 256 possible low key bytes this
+ * gives exactly one key, and it only fits if its low byte is the one
+ * that was guessed. Turned around, each low key byte fixes the low
+ * byte of P0, so only 1 in 256 plaintext values needs to be tried.
+ * <p>
+ * When P0 is only known to lie in a range, the range is split across
+ * a ForkJoinPool. Every candidate key is checked by decrypting the
+ * following integers one at a time and stopping at the first that
+ * does not match, so wrong keys usually cost a single step.
+ */
+public final class KeyRecovery {
+
+    /**
+     * Tells whether a decrypted integer can be the plaintext at the
+     * given index.
+     */
+    public interface WordPredicate {
+
+        /**
+         * @param index Index of the integer in the encrypted data
+         * @param word  Decrypted integer
+         * @return True if the word is acceptable
+         */
+        boolean test(int index, int word);
+    }
+
+    /* Plaintext candidates searched by one task before it stops splitting */
+    private static final long SPLIT_THRESHOLD = 1 << 16;
+
+    private static final int[] NO_KEYS = new int[0];
+
+    private final int[] encryptionTable = StormTables.ENCRYPTION_TABLE;
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a new KeyRecovery that searches on the common pool.
+     */
+    public KeyRecovery() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a new KeyRecovery.
+     *
+     * @param pool Pool to search on
+     */
+    public KeyRecovery(ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool cannot be null");
+        }
+        this.pool = pool;
+    }
+
+    /**
+     * Finds every key that decrypts the data to the known plaintext.
+     * Only the first plaintext.length integers are checked.
+     *
+     * @param encrypted Encrypted integers
+     * @param plaintext Known plaintext of the first integers; at least 2
+     *                  are needed to rule out most false keys
+     * @return Matching keys, in ascending unsigned order
+     */
+    public int[] recoverKeys(int[] encrypted, final int[] plaintext) {
+        if (plaintext == null || plaintext.length == 0 || plaintext.length > encrypted.length) {
+            throw new EncryptionException("Need between 1 and " + encrypted.length + " plaintext integers");
+        }
+        int[] known = Arrays.copyOf(encrypted, plaintext.length);
+        long first = plaintext[0] & 0xFFFFFFFFL;
+        return recoverKeys(known, first, first, (index, word) -> word == plaintext[index]);
+    }
+
+    /**
+     * Finds every key for which the first decrypted integer lies in
+     * [firstMin, firstMax] and every decrypted integer is accepted by
+     * the predicate. The predicate is also asked about index 0.
+     *
+     * @param encrypted Encrypted integers to check
+     * @param firstMin  Smallest possible first plaintext, as unsigned
+     * @param firstMax  Largest possible first plaintext, as unsigned
+     * @param predicate Test for every decrypted integer
+     * @return Matching keys, in ascending unsigned order
+     */
+    public int[] recoverKeys(int[] encrypted, long firstMin, long firstMax, WordPredicate predicate) {
+        if (encrypted == null || encrypted.length == 0) {
+            throw new EncryptionException("Need at least one encrypted integer");
+        }
+        if (firstMin < 0 || firstMax > 0xFFFFFFFFL || firstMin > firstMax) {
+            throw new EncryptionException("Invalid plaintext range [" + firstMin + ", " + firstMax + "]");
+        }
+        int[] keys = pool.invoke(new SearchTask(encrypted.clone(), predicate, firstMin, firstMax,
+                0, 0x100, 0, 0xFFFFFFL));
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] ^= Integer.MIN_VALUE;
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] ^= Integer.MIN_VALUE;
+        }
+        return keys;
+    }
+
+    /**
+     * Finds the possible file keys of a file from its encrypted sector
+     * offset table. The table is encrypted with the file key minus 1.
+     * Its first entry is the table's own size in bytes, which follows
+     * from the number of sectors (plus one entry if sector checksums
+     * are stored), and each entry is at most one sector past the
+     * previous one.
+     *
+     * @param encryptedTable First integers of the encrypted table; at
+     *                       least 2, more rule out more false keys
+     * @param sectorSize     Size of a sector in bytes
+     * @param fileSize       Uncompressed size of the file in bytes
+     * @param compressedSize Stored size of the file in bytes
+     * @return Possible file keys
+     */
+    public int[] recoverFileKeysFromSectorTable(int[] encryptedTable, int sectorSize, long fileSize,
+                                                long compressedSize) {
+        if (encryptedTable == null || encryptedTable.length < 2) {
+            throw new EncryptionException("Need at least 2 sector offset table integers");
+        }
+        if (sectorSize <= 0 || fileSize < 0 || compressedSize < 0) {
+            throw new EncryptionException("Invalid sector size or file size");
+        }
+        long tableSize = ((fileSize + sectorSize - 1) / sectorSize + 1) * 4;
+        if (tableSize + 4 > 0xFFFFFFFFL) {
+            return NO_KEYS;
+        }
+        int[] keys = recoverKeys(encryptedTable, tableSize, tableSize + 4,
+                (index, word) -> index == 0 ? (word & 3) == 0 : (word & 0xFFFFFFFFL) <= compressedSize);
+        int[] fileKeys = new int[keys.length];
+        int count = 0;
+        for (int key : keys) {
+            if (isSectorTable(decrypt(encryptedTable, key), sectorSize, compressedSize)) {
+                fileKeys[count++] = key + 1;
+            }
+        }
+        return count == 0 ? NO_KEYS : Arrays.copyOf(fileKeys, count);
+    }
+
+    private static boolean isSectorTable(int[] offsets, int sectorSize, long compressedSize) {
+        for (int i = 0; i < offsets.length; i++) {
+            long offset = offsets[i] & 0xFFFFFFFFL;
+            if (offset > compressedSize) {
+                return false;
+            }
+            if (i > 0) {
+                long previous = offsets[i - 1] & 0xFFFFFFFFL;
+                if (offset < previous || offset - previous > sectorSize) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private int[] decrypt(int[] encrypted, int key) {
+        int[] plain = new int[encrypted.length];
+        int seed = 0xEEEEEEEE;
+        for (int i = 0; i < encrypted.length; i++) {
+            seed += encryptionTable[0x400 + (key & 0xFF)];
+            plain[i] = encrypted[i] ^ (key + seed);
+            key = (~key << 21) + 0x11111111 | key >>> 11;
+            seed = plain[i] + seed + (seed << 5) + 3;
+        }
+        return plain;
+    }
+
+    /**
+     * Searches low key bytes [lowFrom, lowTo) and, for a single low key
+     * byte, the upper 24 bits of the first plaintext in [highFrom, highTo].
+     */
+    private final class SearchTask extends RecursiveTask<int[]> {
+
+        private final int[] encrypted;
+        private final WordPredicate predicate;
+        private final long firstMin;
+        private final long firstMax;
+        private final int lowFrom;
+        private final int lowTo;
+        private final long highFrom;
+        private final long highTo;
+
+        private SearchTask(int[] encrypted, WordPredicate predicate, long firstMin, long firstMax,
+                           int lowFrom, int lowTo, long highFrom, long highTo) {
+            this.encrypted = encrypted;
+            this.predicate = predicate;
+            this.firstMin = firstMin;
+            this.firstMax = firstMax;
+            this.lowFrom = lowFrom;
+            this.lowTo = lowTo;
+            this.highFrom = highFrom;
+            this.highTo = highTo;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (lowTo - lowFrom > 1) {
+                int middle = (lowFrom + lowTo) >>> 1;
+                return fork(new SearchTask(encrypted, predicate, firstMin, firstMax,
+                                lowFrom, middle, highFrom, highTo),
+                        new SearchTask(encrypted, predicate, firstMin, firstMax,
+                                middle, lowTo, highFrom, highTo));
+            }
+            int keyLow = lowFrom;
+            int seedMix = 0xEEEEEEEE + encryptionTable[0x400 + keyLow];
+            // The low byte of the first plaintext that can give this low key byte
+            long plainLow = (encrypted[0] ^ (keyLow + seedMix)) & 0xFF;
+            long from = Math.max(highFrom, (firstMin - plainLow + 0xFF) >> 8);
+            long to = Math.min(highTo, (firstMax - plainLow) >> 8);
+            if (from > to) {
+                return NO_KEYS;
+            }
+            if (to - from >= SPLIT_THRESHOLD) {
+                long middle = (from + to) >>> 1;
+                return fork(new SearchTask(encrypted, predicate, firstMin, firstMax,
+                                keyLow, keyLow + 1, from, middle),
+                        new SearchTask(encrypted, predicate, firstMin, firstMax,
+                                keyLow, keyLow + 1, middle + 1, to));
+            }
+            return search(seedMix, (int) plainLow, (int) from, (int) to);
+        }
+
+        private int[] fork(SearchTask left, SearchTask right) {
+            right.fork();
+            int[] leftKeys = left.compute();
+            int[] rightKeys = right.join();
+            if (leftKeys.length == 0) {
+                return rightKeys;
+            }
+            if (rightKeys.length == 0) {
+                return leftKeys;
+            }
+            int[] keys = Arrays.copyOf(leftKeys, leftKeys.length + rightKeys.length);
+            System.arraycopy(rightKeys, 0, keys, leftKeys.length, rightKeys.length);
+            return keys;
+        }
+
+        private int[] search(int seedMix, int plainLow, int from, int to) {
+            int[] table = encryptionTable;
+            int[] data = encrypted;
+            int encrypted0 = data[0];
+            int[] keys = NO_KEYS;
+            int count = 0;
+            for (int high = from; high <= to; high++) {
+                int plain0 = (high << 8) | plainLow;
+                if (!predicate.test(0, plain0)) {
+                    continue;
+                }
+                int startKey = (encrypted0 ^ plain0) - seedMix;
+                int key = (~startKey << 21) + 0x11111111 | startKey >>> 11;
+                int seed = plain0 + seedMix + (seedMix << 5) + 3;
+                boolean matches = true;
+                for (int i = 1; i < data.length; i++) {
+                    seed += table[0x400 + (key & 0xFF)];
+                    int plain = data[i] ^ (key + seed);
+                    if (!predicate.test(i, plain)) {
+                        matches = false;
+                        break;
+                    }
+                    key = (~key << 21) + 0x11111111 | key >>> 11;
+                    seed = plain + seed + (seed << 5) + 3;
+                }
+                if (matches) {
+                    if (count == keys.length) {
+                        keys = Arrays.copyOf(keys, Math.max(4, count * 2));
+                    }
+                    keys[count++] = startKey;
+                }
+            }
+            return count == keys.length ? keys : Arrays.copyOf(keys, count);
+        }
+    }
+}
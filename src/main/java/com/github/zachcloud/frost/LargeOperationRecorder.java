@@ -0,0 +1,40 @@
+package com.github.zachcloud.frost;
+
+/**
+ * Records large encrypt and decrypt calls as events.
+ * On Java 17 and later a JDK Flight Recorder implementation is loaded
+ * from the multi-release part of the jar; otherwise nothing is
+ * recorded.
+ */
+interface LargeOperationRecorder {
+
+    /**
+     * Recorder that records nothing.
+     */
+    LargeOperationRecorder NONE = new LargeOperationRecorder() {
+        @Override
+        public Object begin() {
+            return null;
+        }
+
+        @Override
+        public void end(Object event, String operation, long bytes) {
+        }
+    };
+
+    /**
+     * Starts timing an operation.
+     *
+     * @return Event to pass to end, or null if no event is recorded
+     */
+    Object begin();
+
+    /**
+     * Finishes and records an event started with begin.
+     *
+     * @param event     Event returned by begin; nothing is done if null
+     * @param operation Name of the IFrostSecurity method
+     * @param bytes     Number of bytes encrypted or decrypted
+     */
+    void end(Object event, String operation, long bytes);
+}
@@ -0,0 +1,52 @@
+package com.github.zachcloud.frost;
+
+/**
+ * Reusable holder for the hashes of one name, filled by hashAll.
+ * Only the hash types that were requested are updated; the others
+ * keep their previous values.
+ * <p>
+ * Not thread safe; use one holder per thread.
+ */
+public final class NameHashes {
+
+    /* Indexed by hash type */
+    final int[] values = new int[4];
+
+    /**
+     * Gets the hash of the specified type.
+     *
+     * @param hashType Hash type (see SecurityConstants; 0-3)
+     * @return Hash value as int
+     */
+    public int get(int hashType) {
+        return values[hashType];
+    }
+
+    /**
+     * @return MPQ_HASH_TABLE_OFFSET hash
+     */
+    public int getTableOffset() {
+        return values[SecurityConstants.MPQ_HASH_TABLE_OFFSET];
+    }
+
+    /**
+     * @return MPQ_HASH_NAME_A hash
+     */
+    public int getNameA() {
+        return values[SecurityConstants.MPQ_HASH_NAME_A];
+    }
+
+    /**
+     * @return MPQ_HASH_NAME_B hash
+     */
+    public int getNameB() {
+        return values[SecurityConstants.MPQ_HASH_NAME_B];
+    }
+
+    /**
+     * @return MPQ_HASH_FILE_KEY hash
+     */
+    public int getFileKey() {
+        return values[SecurityConstants.MPQ_HASH_FILE_KEY];
+    }
+}
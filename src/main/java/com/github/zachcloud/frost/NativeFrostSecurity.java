@@ -0,0 +1,273 @@
+package com.github.zachcloud.frost;
+
+import com.github.zachcloud.exceptions.HashingException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+
+/**
+ * FrostSecurity backed by a native library for bulk work.
+ * <p>
+ * Encrypting or decrypting a direct buffer in place crosses into
+ * native code once for the whole buffer, and hashStrings packs its
+ * names into a direct buffer and hashes them in one native call per
+ * batch. Everything else, and work too small to pay for the call, is
+ * forwarded to the pure Java FrostSecurity. Both give the same output.
+ * <p>
+ * The library is loaded from java.library.path, or else extracted from
+ * native/linux-x86_64 on the class path, where the native Maven profile
+ * builds it. Check isAvailable first. Thread safe.
+ */
+public final class NativeFrostSecurity extends ForwardingFrostSecurity {
+
+    private static final String LIBRARY = "frostsecurity";
+
+    /* Smallest buffer, in bytes, that is encrypted in native code */
+    private static final int NATIVE_CRYPT_THRESHOLD = 256;
+
+    /* Fewest names that hashStrings hashes in native code */
+    private static final int NATIVE_HASH_THRESHOLD = 64;
+
+    /* Names packed and hashed per native call */
+    private static final int HASH_BATCH = 4096;
+
+    /* Why the library could not be loaded; null if it was */
+    private static final Throwable LOAD_ERROR = loadLibrary();
+
+    private static final ThreadLocal<NamePacker> PACKER = ThreadLocal.withInitial(NamePacker::new);
+
+    private final ByteOrder byteOrder;
+
+    /**
+     * Creates a new NativeFrostSecurity with little endian byte order.
+     */
+    public NativeFrostSecurity() {
+        this(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Creates a new NativeFrostSecurity.
+     *
+     * @param byteOrder Byte order for bytes to integers conversion
+     * @throws UnsupportedOperationException If the native library is not loaded
+     */
+    public NativeFrostSecurity(ByteOrder byteOrder) {
+        super(FrostSecurity.getInstance(byteOrder));
+        if (LOAD_ERROR != null) {
+            throw new UnsupportedOperationException("Native library " + LIBRARY + " is not loaded", LOAD_ERROR);
+        }
+        this.byteOrder = byteOrder;
+    }
+
+    /**
+     * @return True if the native library is loaded
+     */
+    public static boolean isAvailable() {
+        return LOAD_ERROR == null;
+    }
+
+    /**
+     * @return Byte order of this security instance
+     */
+    public ByteOrder getByteOrder() {
+        return byteOrder;
+    }
+
+    @Override
+    public void decryptBufferInPlace(ByteBuffer buffer, int key) {
+        if (!cryptNative(buffer, key, true)) {
+            delegate.decryptBufferInPlace(buffer, key);
+        }
+    }
+
+    @Override
+    public void encryptBufferInPlace(ByteBuffer buffer, int key) {
+        if (!cryptNative(buffer, key, false)) {
+            delegate.encryptBufferInPlace(buffer, key);
+        }
+    }
+
+    @Override
+    public void hashStrings(CharSequence[] names, int hashType, int[] dst) {
+        if (names == null || dst == null || names.length < NATIVE_HASH_THRESHOLD) {
+            delegate.hashStrings(names, hashType, dst);
+            return;
+        }
+        if (dst.length < names.length) {
+            throw new HashingException("Destination holds " + dst.length +
+                    " hashes, need " + names.length);
+        }
+        int tableOffset = FrostSecurity.getHashTableOffset(hashType);
+        NamePacker packer = PACKER.get();
+        for (int from = 0; from < names.length; from += HASH_BATCH) {
+            int count = Math.min(HASH_BATCH, names.length - from);
+            packer.pack(names, from, count);
+            hash(packer.buffer, 0, packer.ends, count, tableOffset, dst, from);
+        }
+    }
+
+    /**
+     * Hashes names packed one after another from the position of a
+     * buffer, one byte per character. Name i ends at ends[i], relative
+     * to the position, and starts where name i - 1 ends. Direct buffers
+     * are hashed in one native call. The position is not changed.
+     *
+     * @param names    Packed names
+     * @param ends     End of each name
+     * @param count    Number of names
+     * @param hashType Hash type (see constants of SecurityConstants; 0-3)
+     * @param dst      Destination, at least count long
+     */
+    public void hashNames(ByteBuffer names, int[] ends, int count, int hashType, int[] dst) {
+        if (names == null || ends == null || dst == null) {
+            throw new HashingException("Cannot hash null names or into a null array");
+        }
+        if (count < 0 || count > ends.length || count > dst.length) {
+            throw new HashingException("Cannot hash " + count + " names with " + ends.length +
+                    " ends into " + dst.length + " hashes");
+        }
+        int start = 0;
+        for (int i = 0; i < count; i++) {
+            if (ends[i] < start || ends[i] > names.remaining()) {
+                throw new HashingException("Name " + i + " spans [" + start + ", " + ends[i] +
+                        ") of " + names.remaining() + " bytes");
+            }
+            start = ends[i];
+        }
+        int tableOffset = FrostSecurity.getHashTableOffset(hashType);
+        if (names.isDirect()) {
+            hash(names, names.position(), ends, count, tableOffset, dst, 0);
+            return;
+        }
+        ByteBuffer name = names.duplicate();
+        start = names.position();
+        for (int i = 0; i < count; i++) {
+            ((Buffer) name).limit(names.position() + ends[i]);
+            ((Buffer) name).position(start);
+            dst[i] = delegate.hashAsInt(name, hashType);
+            start = name.limit();
+        }
+    }
+
+    /**
+     * Encrypts or decrypts the buffer in native code if it is direct,
+     * writable and large enough.
+     *
+     * @return False if the buffer must be handled in Java
+     */
+    private static boolean cryptNative(ByteBuffer buffer, int key, boolean decrypt) {
+        if (buffer == null || !buffer.isDirect() || buffer.isReadOnly() ||
+                buffer.remaining() < NATIVE_CRYPT_THRESHOLD) {
+            return false;
+        }
+        crypt(buffer, buffer.position(), buffer.remaining() & ~3, key, decrypt,
+                buffer.order() != ByteOrder.nativeOrder());
+        return true;
+    }
+
+    /**
+     * Copies names into a direct buffer, one byte per character,
+     * growing it as needed.
+     */
+    private static final class NamePacker {
+
+        private ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+        private final int[] ends = new int[HASH_BATCH];
+
+        private void pack(CharSequence[] names, int from, int count) {
+            int position = 0;
+            for (int n = 0; n < count; n++) {
+                CharSequence s = names[from + n];
+                if (s == null) {
+                    throw new HashingException("Cannot hash a null String at index " + (from + n));
+                }
+                int length = s.length();
+                if (buffer.capacity() - position < length) {
+                    grow(position, length);
+                }
+                for (int i = 0; i < length; i++) {
+                    char c = s.charAt(i);
+                    if (c > 0xFF) {
+                        throw new HashingException("Cannot hash character " + (int) c +
+                                " at index " + i + "; hash the encoded bytes instead");
+                    }
+                    buffer.put(position++, (byte) c);
+                }
+                ends[n] = position;
+            }
+        }
+
+        private void grow(int used, int needed) {
+            ByteBuffer larger = ByteBuffer.allocateDirect(Math.max(buffer.capacity() * 2, used + needed));
+            ByteBuffer old = buffer.duplicate();
+            ((Buffer) old).limit(used);
+            larger.put(old);
+            ((Buffer) larger).clear();
+            buffer = larger;
+        }
+    }
+
+    /**
+     * Loads the library and hands it the tables.
+     *
+     * @return Why the library could not be loaded, or null if it was
+     */
+    private static Throwable loadLibrary() {
+        try {
+            try {
+                System.loadLibrary(LIBRARY);
+            } catch (UnsatisfiedLinkError e) {
+                System.load(extractLibrary().toString());
+            }
+            init(StormTables.ENCRYPTION_TABLE, StormTables.HASH_CHARACTER_TABLE);
+            return null;
+        } catch (IOException | LinkageError | SecurityException e) {
+            return e;
+        }
+    }
+
+    /**
+     * Copies the library for this platform from the class path to a
+     * temporary file, since it cannot be loaded from inside a jar.
+     *
+     * @return Temporary library file
+     * @throws IOException If there is no library for this platform
+     */
+    private static Path extractLibrary() throws IOException {
+        String platform = platform();
+        String resource = "/native/" + platform + "/" + System.mapLibraryName(LIBRARY);
+        try (InputStream in = NativeFrostSecurity.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("No native library for " + platform);
+            }
+            Path file = Files.createTempFile(LIBRARY, ".so");
+            file.toFile().deleteOnExit();
+            Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+            return file;
+        }
+    }
+
+    private static String platform() {
+        String os = System.getProperty("os.name", "").toLowerCase(Locale.ROOT).replace(" ", "");
+        String arch = System.getProperty("os.arch", "").toLowerCase(Locale.ROOT);
+        if (arch.equals("amd64")) {
+            arch = "x86_64";
+        }
+        return os + "-" + arch;
+    }
+
+    private static native void init(int[] encryptionTable, int[] hashCharacterTable);
+
+    private static native void crypt(ByteBuffer buffer, int offset, int length, int key,
+                                     boolean decrypt, boolean swap);
+
+    private static native void hash(ByteBuffer names, int offset, int[] ends, int count,
+                                    int tableOffset, int[] dst, int dstOffset);
+}
@@ -0,0 +1,35 @@
+package com.github.zachcloud.frost;
+
+import com.github.zachcloud.interfaces.FrostSecurityProvider;
+import com.github.zachcloud.interfaces.IFrostSecurity;
+
+import java.nio.ByteOrder;
+
+/**
+ * Provides NativeFrostSecurity when its library loads. Preferred over
+ * the pure Java backend.
+ */
+public final class NativeFrostSecurityProvider implements FrostSecurityProvider {
+
+    public static final String NAME = "native";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public int getPriority() {
+        return 100;
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return NativeFrostSecurity.isAvailable();
+    }
+
+    @Override
+    public IFrostSecurity create(ByteOrder byteOrder) {
+        return new NativeFrostSecurity(byteOrder);
+    }
+}
@@ -0,0 +1,75 @@
+package com.github.zachcloud.frost;
+
+import java.nio.ByteOrder;
+
+/**
+ * Off-heap memory, allocated or mapped from a file, that is addressed
+ * with longs so it can be larger than 2 GB.
+ * <p>
+ * Regions are created by OffHeapRegions and are only available on
+ * Java 22 and later, where they are backed by the Foreign Function and
+ * Memory API. Closing a region frees or unmaps its memory; using it
+ * afterwards throws IllegalStateException. Any thread may use a
+ * region, but ranges that are modified at the same time must not
+ * overlap.
+ */
+public interface OffHeapRegion extends AutoCloseable {
+
+    /**
+     * @return Size of the region in bytes
+     */
+    long size();
+
+    /**
+     * @return Byte order of the integers in the region
+     */
+    ByteOrder getByteOrder();
+
+    /**
+     * Encrypts a range of the region in place, like encryptBytes.
+     * The 1-3 trailing bytes that do not form an integer are left
+     * unchanged.
+     *
+     * @param offset Offset of the range in the region
+     * @param length Length of the range
+     * @param key    Key to encrypt with
+     */
+    void encrypt(long offset, long length, int key);
+
+    /**
+     * Decrypts a range of the region in place, like decryptBytes.
+     * The 1-3 trailing bytes that do not form an integer are left
+     * unchanged.
+     *
+     * @param offset Offset of the range in the region
+     * @param length Length of the range
+     * @param key    Key to decrypt with
+     */
+    void decrypt(long offset, long length, int key);
+
+    /**
+     * Copies bytes out of the region.
+     *
+     * @param offset    Offset in the region to copy from
+     * @param dst       Destination array
+     * @param dstOffset Offset in dst to copy to
+     * @param length    Number of bytes
+     */
+    void get(long offset, byte[] dst, int dstOffset, int length);
+
+    /**
+     * Copies bytes into the region.
+     *
+     * @param offset    Offset in the region to copy to
+     * @param src       Source array
+     * @param srcOffset Offset in src to copy from
+     * @param length    Number of bytes
+     */
+    void put(long offset, byte[] src, int srcOffset, int length);
+
+    /**
+     * Frees or unmaps the region.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,35 @@
+package com.github.zachcloud.frost;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+
+/**
+ * Creates OffHeapRegions. Only implemented for Java 22 and later, in
+ * the multi-release part of the jar.
+ */
+interface OffHeapRegionProvider {
+
+    /**
+     * Allocates zeroed off-heap memory.
+     *
+     * @param size      Size in bytes
+     * @param byteOrder Byte order of the integers in the region
+     * @return New region
+     */
+    OffHeapRegion allocate(long size, ByteOrder byteOrder);
+
+    /**
+     * Maps a range of a file.
+     *
+     * @param path      File to map
+     * @param offset    Offset of the range in the file
+     * @param length    Length of the range
+     * @param writable  True to map read-write, false read-only
+     * @param byteOrder Byte order of the integers in the region
+     * @return New region
+     * @throws IOException If the file cannot be opened or mapped
+     */
+    OffHeapRegion map(Path path, long offset, long length, boolean writable,
+                      ByteOrder byteOrder) throws IOException;
+}
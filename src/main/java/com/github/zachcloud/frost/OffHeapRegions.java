@@ -0,0 +1,118 @@
+package com.github.zachcloud.frost;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+
+/**
+ * Creates OffHeapRegions for data that does not fit in a Java array.
+ * <p>
+ * Needs Java 22 or later, running from the multi-release jar; check
+ * isAvailable first. On Java 22 and later, MemorySegmentCipher
+ * encrypts and decrypts MemorySegments directly.
+ */
+public final class OffHeapRegions {
+
+    /* Foreign memory provider on Java 22+, null otherwise */
+    private static final OffHeapRegionProvider PROVIDER = loadProvider();
+
+    private OffHeapRegions() {
+    }
+
+    /**
+     * @return True if off-heap regions can be created
+     */
+    public static boolean isAvailable() {
+        return PROVIDER != null;
+    }
+
+    /**
+     * Allocates zeroed off-heap memory with little endian integers.
+     *
+     * @param size Size in bytes
+     * @return New region
+     */
+    public static OffHeapRegion allocate(long size) {
+        return allocate(size, ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Allocates zeroed off-heap memory.
+     *
+     * @param size      Size in bytes
+     * @param byteOrder Byte order of the integers in the region
+     * @return New region
+     */
+    public static OffHeapRegion allocate(long size, ByteOrder byteOrder) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Size cannot be negative: " + size);
+        }
+        return provider().allocate(size, checkByteOrder(byteOrder));
+    }
+
+    /**
+     * Maps a range of a file with little endian integers.
+     *
+     * @param path     File to map
+     * @param offset   Offset of the range in the file
+     * @param length   Length of the range
+     * @param writable True to map read-write so that changes reach the file
+     * @return New region
+     * @throws IOException If the file cannot be opened or mapped
+     */
+    public static OffHeapRegion map(Path path, long offset, long length, boolean writable) throws IOException {
+        return map(path, offset, length, writable, ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Maps a range of a file.
+     *
+     * @param path      File to map
+     * @param offset    Offset of the range in the file
+     * @param length    Length of the range
+     * @param writable  True to map read-write so that changes reach the file
+     * @param byteOrder Byte order of the integers in the region
+     * @return New region
+     * @throws IOException If the file cannot be opened or mapped
+     */
+    public static OffHeapRegion map(Path path, long offset, long length, boolean writable,
+                                    ByteOrder byteOrder) throws IOException {
+        if (path == null) {
+            throw new IllegalArgumentException("Path cannot be null");
+        }
+        if (offset < 0 || length < 0) {
+            throw new IllegalArgumentException("Offset and length cannot be negative: " +
+                    offset + ", " + length);
+        }
+        return provider().map(path, offset, length, writable, checkByteOrder(byteOrder));
+    }
+
+    private static OffHeapRegionProvider provider() {
+        if (PROVIDER == null) {
+            throw new UnsupportedOperationException("Off-heap regions need Java 22 or later");
+        }
+        return PROVIDER;
+    }
+
+    private static ByteOrder checkByteOrder(ByteOrder byteOrder) {
+        if (byteOrder == null) {
+            throw new IllegalArgumentException("Byte order cannot be null");
+        }
+        return byteOrder;
+    }
+
+    /**
+     * Loads the foreign memory provider if this is Java 22 or later
+     * running from the multi-release jar.
+     *
+     * @return Provider, or null if off-heap regions are not available
+     */
+    private static OffHeapRegionProvider loadProvider() {
+        try {
+            Class<?> providerClass = Class.forName("com.github.zachcloud.frost.SegmentRegionProvider");
+            return (OffHeapRegionProvider) providerClass.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.github.zachcloud.frost;
+
+import com.github.zachcloud.exceptions.HashingException;
+
+/**
+ * Hashes names one at a time.
+ */
+final class ScalarBulkHasher implements BulkHasher {
+
+    @Override
+    public void hash(CharSequence[] names, int from, int to, int tableOffset, int[] dst) {
+        int[] table = StormTables.ENCRYPTION_TABLE;
+        for (int n = from; n < to; n++) {
+            CharSequence s = names[n];
+            if (s == null) {
+                throw new HashingException("Cannot hash a null String at index " + n);
+            }
+            int seed1 = 0x7FED7FED;
+            int seed2 = 0xEEEEEEEE;
+            for (int i = 0, len = s.length(); i < len; i++) {
+                char c = s.charAt(i);
+                if (c > 0xFF) {
+                    throw new HashingException("Cannot hash character " + (int) c +
+                            " at index " + i + "; hash the encoded bytes instead");
+                }
+                int ch = StormTables.HASH_CHARACTER_TABLE[c];
+                seed1 = table[tableOffset + ch] ^ (seed1 + seed2);
+                seed2 = ch + seed1 + seed2 + (seed2 << 5) + 3;
+            }
+            dst[n] = seed1;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.github.zachcloud.frost;
+
+import com.github.zachcloud.exceptions.EncryptionException;
+import com.github.zachcloud.interfaces.IFrostSecurity;
+
+/**
+ * Sector loop and range checks shared by SectorDecryptor,
+ * AsyncFrostSecurity, StormCipher and FrostSecurity.
+ * <p>
+ * Sector i of a file spans [sectorOffsets[i], sectorOffsets[i + 1])
+ * and is encrypted with the sector key of the file key and i, so every
+ * sector is an independent cipher stream and any range of sectors can
+ * be processed on its own.
+ */
+public final class Sectors {
+
+    private Sectors() {
+    }
+
+    /**
+     * Checks that the sector offsets start at 0 or later and never
+     * go backwards.
+     *
+     * @param sectorOffsets Sector offsets; one more than the number of sectors
+     * @return End of the last sector
+     */
+    public static int checkSectorOffsets(int[] sectorOffsets) {
+        if (sectorOffsets == null || sectorOffsets.length == 0) {
+            throw new EncryptionException("Sector offsets must hold at least the end offset");
+        }
+        if (sectorOffsets[0] < 0) {
+            throw new EncryptionException("Sector 0 starts at a negative offset: " + sectorOffsets[0]);
+        }
+        for (int i = 1; i < sectorOffsets.length; i++) {
+            if (sectorOffsets[i] < sectorOffsets[i - 1]) {
+                throw new EncryptionException("Sector " + (i - 1) + " ends before it starts: [" +
+                        sectorOffsets[i - 1] + ", " + sectorOffsets[i] + ")");
+            }
+        }
+        return sectorOffsets[sectorOffsets.length - 1];
+    }
+
+    /**
+     * Checks that [offset, offset + length) lies inside an array.
+     *
+     * @param arrayLength Length of the array
+     * @param offset      Start of the range
+     * @param length      Length of the range
+     */
+    public static void checkRange(int arrayLength, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > arrayLength - length) {
+            throw new EncryptionException("Range [" + offset + ", " + offset + "+" +
+                    length + ") is out of bounds for length " + arrayLength);
+        }
+    }
+
+    /**
+     * Encrypts or decrypts sectors [from, to) of a file into the
+     * destination array. Each sector is written to the same range
+     * relative to dstOffset as it has relative to srcOffset. src and
+     * dst may be the same array at the same offset.
+     * The sector offsets and ranges must already have been checked.
+     *
+     * @param frostSecurity Security to encrypt or decrypt with
+     * @param src           Source file
+     * @param srcOffset     Offset of the file in src
+     * @param sectorOffsets Sector offsets; one more than the number of sectors
+     * @param from          First sector to process
+     * @param to            Sector to stop before
+     * @param key           Key of the file
+     * @param dst           Destination array
+     * @param dstOffset     Offset of the file in dst
+     * @param decrypt       True to decrypt, false to encrypt
+     */
+    public static void modify(IFrostSecurity frostSecurity, byte[] src, int srcOffset, int[] sectorOffsets,
+                              int from, int to, int key, byte[] dst, int dstOffset, boolean decrypt) {
+        for (int i = from; i < to; i++) {
+            int start = sectorOffsets[i];
+            int length = sectorOffsets[i + 1] - start;
+            int sectorKey = frostSecurity.getSectorKey(key, i);
+            if (decrypt) {
+                frostSecurity.decryptBytes(src, srcOffset + start, length, dst, dstOffset + start, sectorKey);
+            } else {
+                frostSecurity.encryptBytes(src, srcOffset + start, length, dst, dstOffset + start, sectorKey);
+            }
+        }
+    }
+}
@@ -26,4 +26,44 @@ public interface SecurityConstants {
     int MPQ_HASH_NAME_B = 2;
     int MPQ_HASH_FILE_KEY = 3;
 
+    /**
+     * Masks of hash types to compute together in one pass over a name
+     * (see hashAll). Each hash type is selected by the bit
+     * (1 << hash type).
+     *
+     * MPQ_HASH_LOOKUP_TYPES selects the three hashes needed to find a
+     * file in the hash table
+     *
+     * MPQ_HASH_ALL_TYPES selects all four hashes
+     */
+    int MPQ_HASH_LOOKUP_TYPES = (1 << MPQ_HASH_TABLE_OFFSET) | (1 << MPQ_HASH_NAME_A) | (1 << MPQ_HASH_NAME_B);
+    int MPQ_HASH_ALL_TYPES = MPQ_HASH_LOOKUP_TYPES | (1 << MPQ_HASH_FILE_KEY);
+
+    /**
+     * Flags of a block table entry.
+     *
+     * MPQ_FILE_IMPLODE and MPQ_FILE_COMPRESS mark a compressed file
+     *
+     * MPQ_FILE_ENCRYPTED marks an encrypted file
+     *
+     * MPQ_FILE_FIX_KEY marks a file whose key is adjusted by its position
+     * and size (see getFileKey)
+     *
+     * MPQ_FILE_SINGLE_UNIT marks a file stored as one unit, not in sectors
+     *
+     * MPQ_FILE_DELETE_MARKER marks a deleted file in a patch archive
+     *
+     * MPQ_FILE_SECTOR_CRC marks a file with a checksum for each sector
+     *
+     * MPQ_FILE_EXISTS is set for every file that exists
+     */
+    int MPQ_FILE_IMPLODE = 0x00000100;
+    int MPQ_FILE_COMPRESS = 0x00000200;
+    int MPQ_FILE_ENCRYPTED = 0x00010000;
+    int MPQ_FILE_FIX_KEY = 0x00020000;
+    int MPQ_FILE_SINGLE_UNIT = 0x01000000;
+    int MPQ_FILE_DELETE_MARKER = 0x02000000;
+    int MPQ_FILE_SECTOR_CRC = 0x04000000;
+    int MPQ_FILE_EXISTS = 0x80000000;
+
 }
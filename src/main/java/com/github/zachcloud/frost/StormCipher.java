@@ -0,0 +1,325 @@
+package com.github.zachcloud.frost;
+
+import com.github.zachcloud.exceptions.EncryptionException;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Running Storm cipher state.
+ * <p>
+ * Holds the key/seed chain between calls so that an encrypted region
+ * can be processed in chunks of any size, including chunks that are
+ * not a multiple of 4 bytes. Feeding a region through any number of
+ * update calls followed by finish gives exactly the same bytes as a
+ * single encryptBytes/decryptBytes call: whole integers are processed
+ * and the 1-3 trailing bytes of the region are passed through as-is.
+ * <p>
+ * Because a partial integer cannot be processed until it is complete,
+ * up to 3 bytes may be held back by update and released by a later
+ * update or by finish.
+ * <p>
+ * Instances are created through FrostSecurity and are not thread safe.
+ */
+public final class StormCipher {
+
+    /**
+     * Saved position of a StormCipher.
+     * Captures the key, seed and offset (in bytes from the start of
+     * the region) of the last whole integer that was processed.
+     * To resume, restore the checkpoint and feed the region again
+     * starting at the checkpoint offset.
+     */
+    public static final class Checkpoint {
+
+        private final int key;
+        private final int seed;
+        private final long offset;
+
+        /**
+         * Creates a checkpoint from previously saved values.
+         *
+         * @param key    Running key
+         * @param seed   Running seed
+         * @param offset Offset in bytes; must be a multiple of 4
+         */
+        public Checkpoint(int key, int seed, long offset) {
+            if (offset < 0 || (offset & 3) != 0) {
+                throw new EncryptionException("Checkpoint offset must be a " +
+                        "non-negative multiple of 4: " + offset);
+            }
+            this.key = key;
+            this.seed = seed;
+            this.offset = offset;
+        }
+
+        public int getKey() {
+            return key;
+        }
+
+        public int getSeed() {
+            return seed;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+    }
+
+    private final int[] encryptionTable;
+    private final ByteOrder byteOrder;
+    private final boolean decrypt;
+
+    private int key;
+    private int seed;
+    private long offset;
+
+    /* Bytes of an incomplete integer, waiting for more input */
+    private final byte[] pending = new byte[4];
+    private int pendingLength;
+
+    /**
+     * Creates a new cipher state.
+     *
+     * @param encryptionTable Storm encryption table
+     * @param byteOrder       Byte order of integers in the data
+     * @param decrypt         True to decrypt, false to encrypt
+     * @param key             Key to start with
+     * @param seed            Seed to start with
+     * @param offset          Offset of the starting position
+     */
+    StormCipher(int[] encryptionTable, ByteOrder byteOrder, boolean decrypt,
+                int key, int seed, long offset) {
+        this.encryptionTable = encryptionTable;
+        this.byteOrder = byteOrder;
+        this.decrypt = decrypt;
+        this.key = key;
+        this.seed = seed;
+        this.offset = offset;
+    }
+
+    /**
+     * Processes a chunk of bytes.
+     * src and dst may be the same array at the same offset.
+     *
+     * @param src       Source bytes
+     * @param srcOffset Offset of the chunk in src
+     * @param length    Length of the chunk
+     * @param dst       Destination bytes
+     * @param dstOffset Offset to write to in dst
+     * @return Number of bytes written to dst (a multiple of 4, at most
+     * length + 3)
+     */
+    public int update(byte[] src, int srcOffset, int length, byte[] dst, int dstOffset) {
+        Sectors.checkRange(src.length, srcOffset, length);
+        int produced = ((pendingLength + length) >>> 2) << 2;
+        Sectors.checkRange(dst.length, dstOffset, produced);
+        boolean bigEndian = byteOrder == ByteOrder.BIG_ENDIAN;
+        int in = srcOffset;
+        int end = srcOffset + length;
+        int out = dstOffset;
+        int carry = pendingLength;
+        for (int words = produced >>> 2; words > 0; words--) {
+            int current;
+            if (pendingLength == 0) {
+                current = getInt(src, in, bigEndian);
+                in += 4;
+            } else {
+                while (pendingLength < 4) {
+                    pending[pendingLength++] = src[in++];
+                }
+                current = getInt(pending, 0, bigEndian);
+                pendingLength = 0;
+                // The next integer's first bytes are read before this one is
+                // written, since they are overwritten when src == dst
+                while (pendingLength < carry && in < end) {
+                    pending[pendingLength++] = src[in++];
+                }
+            }
+            putInt(dst, out, step(current), bigEndian);
+            out += 4;
+        }
+        while (in < end) {
+            pending[pendingLength++] = src[in++];
+        }
+        return produced;
+    }
+
+    /**
+     * Processes the remaining bytes of src and writes the result to dst.
+     * The positions of both buffers are advanced. The buffers may be
+     * views of the same memory at the same position.
+     *
+     * @param src Source buffer
+     * @param dst Destination buffer
+     * @return Number of bytes written to dst (a multiple of 4, at most
+     * src.remaining() + 3)
+     */
+    public int update(ByteBuffer src, ByteBuffer dst) {
+        int length = src.remaining();
+        int produced = ((pendingLength + length) >>> 2) << 2;
+        if (dst.isReadOnly()) {
+            throw new EncryptionException("Destination buffer is read-only");
+        }
+        if (dst.remaining() < produced) {
+            throw new EncryptionException("Destination buffer too small: need " +
+                    produced + " bytes, have " + dst.remaining());
+        }
+        boolean swapSrc = src.order() != byteOrder;
+        boolean swapDst = dst.order() != byteOrder;
+        int in = src.position();
+        int end = in + length;
+        int out = dst.position();
+        int carry = pendingLength;
+        for (int words = produced >>> 2; words > 0; words--) {
+            int current;
+            if (pendingLength == 0) {
+                current = src.getInt(in);
+                if (swapSrc) {
+                    current = Integer.reverseBytes(current);
+                }
+                in += 4;
+            } else {
+                while (pendingLength < 4) {
+                    pending[pendingLength++] = src.get(in++);
+                }
+                current = getInt(pending, 0, byteOrder == ByteOrder.BIG_ENDIAN);
+                pendingLength = 0;
+                while (pendingLength < carry && in < end) {
+                    pending[pendingLength++] = src.get(in++);
+                }
+            }
+            int result = step(current);
+            dst.putInt(out, swapDst ? Integer.reverseBytes(result) : result);
+            out += 4;
+        }
+        while (in < end) {
+            pending[pendingLength++] = src.get(in++);
+        }
+        ((Buffer) src).position(end);
+        ((Buffer) dst).position(out);
+        return produced;
+    }
+
+    /**
+     * Ends the region. Any held back bytes (at most 3) do not form a
+     * whole integer, so they are written to dst unchanged.
+     *
+     * @param dst       Destination bytes
+     * @param dstOffset Offset to write to in dst
+     * @return Number of bytes written (0-3)
+     */
+    public int finish(byte[] dst, int dstOffset) {
+        int written = pendingLength;
+        Sectors.checkRange(dst.length, dstOffset, written);
+        System.arraycopy(pending, 0, dst, dstOffset, written);
+        pendingLength = 0;
+        return written;
+    }
+
+    /**
+     * Ends the region. Any held back bytes (at most 3) do not form a
+     * whole integer, so they are written to dst unchanged and the
+     * position of dst is advanced.
+     *
+     * @param dst Destination buffer
+     * @return Number of bytes written (0-3)
+     */
+    public int finish(ByteBuffer dst) {
+        int written = pendingLength;
+        dst.put(pending, 0, written);
+        pendingLength = 0;
+        return written;
+    }
+
+    /**
+     * Saves the state after the last whole integer that was processed.
+     * Held back bytes are not part of the checkpoint; they are fed
+     * again when resuming from the checkpoint offset.
+     *
+     * @return Checkpoint of the current state
+     */
+    public Checkpoint checkpoint() {
+        return new Checkpoint(key, seed, offset);
+    }
+
+    /**
+     * Restores a previously saved checkpoint.
+     * Any held back bytes are discarded.
+     *
+     * @param checkpoint Checkpoint to restore
+     */
+    public void restore(Checkpoint checkpoint) {
+        this.key = checkpoint.getKey();
+        this.seed = checkpoint.getSeed();
+        this.offset = checkpoint.getOffset();
+        this.pendingLength = 0;
+    }
+
+    /**
+     * @return True if this cipher decrypts, false if it encrypts
+     */
+    public boolean isDecrypting() {
+        return decrypt;
+    }
+
+    /**
+     * @return Byte order of integers processed by this cipher
+     */
+    public ByteOrder getByteOrder() {
+        return byteOrder;
+    }
+
+    /**
+     * @return Number of bytes held back, waiting for a whole integer
+     */
+    public int getPendingLength() {
+        return pendingLength;
+    }
+
+    /**
+     * @return Offset in bytes of the whole integers processed so far
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Encrypts or decrypts one integer and advances the key/seed chain.
+     *
+     * @param current Integer to process
+     * @return Processed integer
+     */
+    private int step(int current) {
+        seed += encryptionTable[0x400 + (key & 0xFF)];
+        int result = current ^ (key + seed);
+        key = (~key << 21) + 0x11111111 | key >>> 11;
+        seed = ((decrypt ? result : current) + seed + (seed << 5) + 3);
+        offset += 4;
+        return result;
+    }
+
+    static int getInt(byte[] src, int i, boolean bigEndian) {
+        if (bigEndian) {
+            return (src[i] << 24) | ((src[i + 1] & 0xFF) << 16)
+                    | ((src[i + 2] & 0xFF) << 8) | (src[i + 3] & 0xFF);
+        }
+        return (src[i] & 0xFF) | ((src[i + 1] & 0xFF) << 8)
+                | ((src[i + 2] & 0xFF) << 16) | (src[i + 3] << 24);
+    }
+
+    static void putInt(byte[] dst, int i, int value, boolean bigEndian) {
+        if (bigEndian) {
+            dst[i] = (byte) (value >>> 24);
+            dst[i + 1] = (byte) (value >>> 16);
+            dst[i + 2] = (byte) (value >>> 8);
+            dst[i + 3] = (byte) value;
+        } else {
+            dst[i] = (byte) value;
+            dst[i + 1] = (byte) (value >>> 8);
+            dst[i + 2] = (byte) (value >>> 16);
+            dst[i + 3] = (byte) (value >>> 24);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.github.zachcloud.frost;
+
+import com.github.zachcloud.exceptions.HashingException;
+
+/**
+ * Incremental Storm hashing.
+ * <p>
+ * The state of a name hash after any prefix is the pair (seed1, seed2),
+ * packed into one long. A state can be kept and extended any number of
+ * times, so names that share a prefix only hash the prefix once:
+ * <pre>
+ *     long dir = StormHash.update(StormHash.INITIAL_STATE, MPQ_HASH_NAME_A, "Units\\");
+ *     int hashA = StormHash.value(StormHash.update(dir, MPQ_HASH_NAME_A, "Footman.mdx"));
+ * </pre>
+ * Each hash type has its own state. Characters are normalized the
+ * same way as hashAsInt: ASCII letters are upper-cased and '/' is
+ * treated as '\'. None of the methods allocate.
+ * <p>
+ * A step can also be undone. The table index depends only on the
+ * character, and seed2 is multiplied by 33, which is odd, so reverse
+ * gives back the state before a character. A hash value alone is only
+ * half of a state; reverse(value, ...) undoes the last character once
+ * seed2 before it is chosen. Every step is a T-function: the low k
+ * bits of a result depend only on the low k bits of its inputs, so
+ * the low bits of earlier states can be found from the low bits of
+ * that choice alone.
+ */
+public final class StormHash {
+
+    /* State before any character has been hashed */
+    public static final long INITIAL_STATE = (0x7FED7FEDL << 32) | 0xEEEEEEEEL;
+
+    private static final int[] ENCRYPTION_TABLE = StormTables.ENCRYPTION_TABLE;
+
+    /* 33 * INVERSE_33 == 1 modulo 2^32 */
+    private static final int INVERSE_33 = 0x3E0F83E1;
+
+    private StormHash() {
+    }
+
+    /**
+     * Extends a hash state by one character.
+     *
+     * @param state    Hash state
+     * @param hashType Hash type (see SecurityConstants; 0-3)
+     * @param c        Character to hash; must be in 0x00-0xFF
+     * @return Extended hash state
+     */
+    public static long update(long state, int hashType, char c) {
+        int tableOffset = FrostSecurity.getHashTableOffset(hashType);
+        if (c > 0xFF) {
+            throw new HashingException("Cannot hash character " + (int) c + "; hash the encoded bytes instead");
+        }
+        return step(state, tableOffset, StormTables.HASH_CHARACTER_TABLE[c]);
+    }
+
+    /**
+     * Extends a hash state by a run of characters.
+     *
+     * @param state    Hash state
+     * @param hashType Hash type (see SecurityConstants; 0-3)
+     * @param s        Characters to hash; each must be in 0x00-0xFF
+     * @return Extended hash state
+     */
+    public static long update(long state, int hashType, CharSequence s) {
+        return update(state, hashType, s, 0, s.length());
+    }
+
+    /**
+     * Extends a hash state by the characters [start, end) of s.
+     *
+     * @param state    Hash state
+     * @param hashType Hash type (see SecurityConstants; 0-3)
+     * @param s        Characters to hash; each must be in 0x00-0xFF
+     * @param start    Index of the first character
+     * @param end      Index after the last character
+     * @return Extended hash state
+     */
+    public static long update(long state, int hashType, CharSequence s, int start, int end) {
+        int tableOffset = FrostSecurity.getHashTableOffset(hashType);
+        int[] table = ENCRYPTION_TABLE;
+        int seed1 = (int) (state >>> 32);
+        int seed2 = (int) state;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c > 0xFF) {
+                throw new HashingException("Cannot hash character " + (int) c +
+                        " at index " + i + "; hash the encoded bytes instead");
+            }
+            int ch = StormTables.HASH_CHARACTER_TABLE[c];
+            seed1 = table[tableOffset + ch] ^ (seed1 + seed2);
+            seed2 = ch + seed1 + seed2 + (seed2 << 5) + 3;
+        }
+        return pack(seed1, seed2);
+    }
+
+    /**
+     * Extends a hash state by a range of bytes, each hashed as one
+     * character.
+     *
+     * @param state    Hash state
+     * @param hashType Hash type (see SecurityConstants; 0-3)
+     * @param src      Source bytes
+     * @param offset   Offset of the first byte
+     * @param length   Number of bytes
+     * @return Extended hash state
+     */
+    public static long update(long state, int hashType, byte[] src, int offset, int length) {
+        int tableOffset = FrostSecurity.getHashTableOffset(hashType);
+        if (offset < 0 || length < 0 || offset > src.length - length) {
+            throw new HashingException("Range [" + offset + ", " + offset + "+" + length +
+                    ") is out of bounds for length " + src.length);
+        }
+        int[] table = ENCRYPTION_TABLE;
+        int seed1 = (int) (state >>> 32);
+        int seed2 = (int) state;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            int ch = StormTables.HASH_CHARACTER_TABLE[src[i] & 0xFF];
+            seed1 = table[tableOffset + ch] ^ (seed1 + seed2);
+            seed2 = ch + seed1 + seed2 + (seed2 << 5) + 3;
+        }
+        return pack(seed1, seed2);
+    }
+
+    /**
+     * Gets the hash value of a state; the same as hashAsInt of the
+     * characters hashed so far.
+     *
+     * @param state Hash state
+     * @return Hash value as int
+     */
+    public static int value(long state) {
+        return (int) (state >>> 32);
+    }
+
+    /**
+     * Undoes update(state, hashType, c): gives back the state before c.
+     *
+     * @param state    Hash state after c
+     * @param hashType Hash type (see SecurityConstants; 0-3)
+     * @param c        Last character hashed; must be in 0x00-0xFF
+     * @return Hash state before c
+     */
+    public static long reverse(long state, int hashType, char c) {
+        int tableOffset = FrostSecurity.getHashTableOffset(hashType);
+        if (c > 0xFF) {
+            throw new HashingException("Cannot hash character " + (int) c + "; hash the encoded bytes instead");
+        }
+        return reverseStep(state, tableOffset, StormTables.HASH_CHARACTER_TABLE[c]);
+    }
+
+    /**
+     * Undoes the last character of a hash whose value is known. Only
+     * seed1 + seed2 of the state before c follows from the value, so
+     * seed2 must be chosen; each choice gives the one state with that
+     * seed2 whose hash after c is the value.
+     *
+     * @param value    Hash value after c
+     * @param hashType Hash type (see SecurityConstants; 0-3)
+     * @param c        Last character hashed; must be in 0x00-0xFF
+     * @param seed2    seed2 of the state before c
+     * @return Hash state before c
+     */
+    public static long reverse(int value, int hashType, char c, int seed2) {
+        int tableOffset = FrostSecurity.getHashTableOffset(hashType);
+        if (c > 0xFF) {
+            throw new HashingException("Cannot hash character " + (int) c + "; hash the encoded bytes instead");
+        }
+        return pack((ENCRYPTION_TABLE[tableOffset + StormTables.HASH_CHARACTER_TABLE[c]] ^ value) - seed2, seed2);
+    }
+
+    /**
+     * Undoes one step for a normalized character.
+     *
+     * @param state       Hash state after the character
+     * @param tableOffset Offset of the hash type in the encryption table
+     * @param ch          Normalized character, from HASH_CHARACTER_TABLE
+     * @return Hash state before the character
+     */
+    private static long reverseStep(long state, int tableOffset, int ch) {
+        int seed1 = (int) (state >>> 32);
+        int seed2 = (int) state;
+        int previousSeed2 = (seed2 - ch - seed1 - 3) * INVERSE_33;
+        int previousSeed1 = (ENCRYPTION_TABLE[tableOffset + ch] ^ seed1) - previousSeed2;
+        return pack(previousSeed1, previousSeed2);
+    }
+
+    private static long step(long state, int tableOffset, int ch) {
+        int seed1 = (int) (state >>> 32);
+        int seed2 = (int) state;
+        seed1 = ENCRYPTION_TABLE[tableOffset + ch] ^ (seed1 + seed2);
+        seed2 = ch + seed1 + seed2 + (seed2 << 5) + 3;
+        return pack(seed1, seed2);
+    }
+
+    private static long pack(int seed1, int seed2) {
+        return ((long) seed1 << 32) | (seed2 & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,62 @@
+package com.github.zachcloud.frost;
+
+import com.github.zachcloud.interfaces.IFrostSecurity;
+
+/**
+ * IFrostSecurity that also creates StormCipher states and fills
+ * NameHashes holders. These methods use types of this package, so they
+ * are kept out of IFrostSecurity.
+ * Implemented by FrostSecurity and ForwardingFrostSecurity.
+ */
+public interface StormSecurity extends IFrostSecurity {
+
+    /**
+     * Creates a cipher state that encrypts a region in chunks,
+     * starting with the specified key.
+     *
+     * @param key Key to encrypt with
+     * @return New encrypting cipher state
+     */
+    StormCipher createEncryptor(int key);
+
+    /**
+     * Creates a cipher state that decrypts a region in chunks,
+     * starting with the specified key.
+     *
+     * @param key Key to decrypt with
+     * @return New decrypting cipher state
+     */
+    StormCipher createDecryptor(int key);
+
+    /**
+     * Creates a cipher state that continues encrypting a region
+     * from a saved checkpoint.
+     *
+     * @param checkpoint Checkpoint to resume from
+     * @return New encrypting cipher state
+     */
+    StormCipher createEncryptor(StormCipher.Checkpoint checkpoint);
+
+    /**
+     * Creates a cipher state that continues decrypting a region
+     * from a saved checkpoint.
+     *
+     * @param checkpoint Checkpoint to resume from
+     * @return New decrypting cipher state
+     */
+    StormCipher createDecryptor(StormCipher.Checkpoint checkpoint);
+
+    /**
+     * Hashes the name once for several hash types together and stores
+     * the results in the holder. Walks the characters a single time,
+     * so it is cheaper than one hashAsInt call per type.
+     * Types that are not requested keep their previous values.
+     * Does not allocate.
+     *
+     * @param s         Characters to hash; each must be in 0x00-0xFF
+     * @param hashTypes Mask of hash types, for example MPQ_HASH_LOOKUP_TYPES
+     * @param dst       Holder to store the hashes in
+     * @return The dst holder
+     */
+    NameHashes hashAll(CharSequence s, int hashTypes, NameHashes dst);
+}
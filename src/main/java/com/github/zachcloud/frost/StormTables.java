@@ -0,0 +1,73 @@
+package com.github.zachcloud.frost;
+
+/**
+ * Immutable lookup tables shared by every FrostSecurity instance.
+ * Built once when the class is first used; the JVM guarantees that
+ * class initialization is complete and visible before any thread can
+ * read them. The arrays are never written after that, so they must
+ * not be exposed outside of this package.
+ */
+final class StormTables {
+
+    static final int ENCRYPTION_TABLE_SIZE = 0x500;
+    private static final long SEED_INITIAL_VALUE = 0x00100001;
+
+    /* Storm encryption table */
+    static final int[] ENCRYPTION_TABLE = buildEncryptionTable();
+
+    /*
+     * Maps each byte to the value that is hashed for it:
+     * ASCII lower case letters become upper case and '/' becomes '\'.
+     * Everything else, including bytes 0x80-0xFF, is left as-is.
+     */
+    static final int[] HASH_CHARACTER_TABLE = buildHashCharacterTable();
+
+    private StormTables() {
+    }
+
+    /**
+     * Computes the numbers of the encryption table.
+     * See Storm documentation.
+     *
+     * @return New encryption table
+     */
+    private static int[] buildEncryptionTable() {
+        int[] encryptionTable = new int[ENCRYPTION_TABLE_SIZE];
+        long seed = SEED_INITIAL_VALUE;
+        int index1;
+        int index2;
+        int i;
+        for (index1 = 0; index1 < 0x100; index1++) {
+            for (index2 = index1, i = 0; i < 5; i++, index2 += 0x100) {
+                long temp1;
+                long temp2;
+
+                seed = (seed * 125 + 3) % 0x2AAAAB;
+                temp1 = (seed & 0xFFFF) << 0x10;
+
+                seed = (seed * 125 + 3) % 0x2AAAAB;
+                temp2 = (seed & 0xFFFF);
+
+                encryptionTable[index2] = (int) (temp1 | temp2);
+            }
+        }
+        return encryptionTable;
+    }
+
+    /**
+     * Computes the character table used for hashing.
+     *
+     * @return New character table
+     */
+    private static int[] buildHashCharacterTable() {
+        int[] table = new int[0x100];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = i;
+        }
+        for (int i = 'a'; i <= 'z'; i++) {
+            table[i] = i - ('a' - 'A');
+        }
+        table['/'] = '\\';
+        return table;
+    }
+}
@@ -0,0 +1,119 @@
+package com.github.zachcloud.helpers;
+
+/**
+ * Set of primitive longs, using open addressing with linear probing.
+ * <p>
+ * Lookups do not allocate. Not thread safe while it is being filled;
+ * once filled and safely published, any number of threads may call
+ * contains at the same time.
+ */
+public final class LongHashSet {
+
+    /* Marks an empty slot; the value 0 itself is tracked separately */
+    private static final long EMPTY = 0;
+
+    private long[] slots;
+    private int mask;
+    private int size;
+    private boolean containsEmpty;
+
+    /**
+     * Creates a new LongHashSet.
+     *
+     * @param expectedSize Number of values expected, to size the table
+     */
+    public LongHashSet(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size cannot be negative: " + expectedSize);
+        }
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) << 1;
+        slots = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Adds a value.
+     *
+     * @param value Value to add
+     * @return True if the value was not in the set yet
+     */
+    public boolean add(long value) {
+        if (value == EMPTY) {
+            if (containsEmpty) {
+                return false;
+            }
+            containsEmpty = true;
+            size++;
+            return true;
+        }
+        int i = mix(value) & mask;
+        while (slots[i] != EMPTY) {
+            if (slots[i] == value) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        slots[i] = value;
+        size++;
+        if (size * 2 > slots.length) {
+            grow();
+        }
+        return true;
+    }
+
+    /**
+     * @param value Value to look for
+     * @return True if the value is in the set
+     */
+    public boolean contains(long value) {
+        if (value == EMPTY) {
+            return containsEmpty;
+        }
+        long[] table = slots;
+        int tableMask = mask;
+        int i = mix(value) & tableMask;
+        long slot;
+        while ((slot = table[i]) != EMPTY) {
+            if (slot == value) {
+                return true;
+            }
+            i = (i + 1) & tableMask;
+        }
+        return false;
+    }
+
+    /**
+     * @return Number of values in the set
+     */
+    public int size() {
+        return size;
+    }
+
+    private void grow() {
+        long[] old = slots;
+        slots = new long[old.length * 2];
+        mask = slots.length - 1;
+        for (long value : old) {
+            if (value != EMPTY) {
+                int i = mix(value) & mask;
+                while (slots[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                slots[i] = value;
+            }
+        }
+    }
+
+    /**
+     * Spreads the bits of a value so that nearby values do not
+     * cluster (the murmur3 64-bit finalizer).
+     */
+    private static int mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return (int) value;
+    }
+}
@@ -0,0 +1,37 @@
+package com.github.zachcloud.interfaces;
+
+import java.nio.ByteOrder;
+
+/**
+ * Service provider of an IFrostSecurity backend.
+ * Providers are found with ServiceLoader, listed in
+ * META-INF/services/com.github.zachcloud.interfaces.FrostSecurityProvider,
+ * and chosen by FrostSecurityProviders.
+ */
+public interface FrostSecurityProvider {
+
+    /**
+     * @return Unique name of the backend, such as "java" or "native"
+     */
+    String getName();
+
+    /**
+     * The available provider with the highest priority is the default.
+     *
+     * @return Priority of the backend
+     */
+    int getPriority();
+
+    /**
+     * @return True if the backend can be used on this platform
+     */
+    boolean isAvailable();
+
+    /**
+     * Creates a security that uses this backend.
+     *
+     * @param byteOrder Byte order for bytes to integers conversion
+     * @return Security instance
+     */
+    IFrostSecurity create(ByteOrder byteOrder);
+}
@@ -1,10 +1,20 @@
 package com.github.zachcloud.interfaces;
 
+import com.github.zachcloud.exceptions.EncryptionException;
+
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static com.github.zachcloud.frost.SecurityConstants.MPQ_FILE_FIX_KEY;
+import static com.github.zachcloud.frost.SecurityConstants.MPQ_HASH_FILE_KEY;
 
 /**
  * Security interface. Provides encryption, decryption, and hashing methods.
  * Implemented by Frostsecurity.
+ * <p>
+ * Methods added after the first release are default methods built on
+ * the original ones, so existing implementations keep compiling.
+ * FrostSecurity overrides all of them with versions that do not copy.
  */
 public interface IFrostSecurity {
 
@@ -67,6 +77,55 @@ public interface IFrostSecurity {
      */
     ByteBuffer encryptBuffer(ByteBuffer src, int key);
 
+    /**
+     * Decrypts the remaining bytes of the specified buffer in place.
+     * Uses the Storm algorithm
+     * Works the same for heap and direct buffers. Integers are read
+     * and written in the buffer's own byte order, and 1-3 trailing
+     * bytes that do not form an integer are left untouched.
+     * Position and limit are not changed.
+     * If a null buffer is provided, nothing is done; a read-only buffer
+     * throws EncryptionException.
+     *
+     * @param buffer Buffer to decrypt
+     * @param key    Key to decrypt with
+     */
+    default void decryptBufferInPlace(ByteBuffer buffer, int key) {
+        if (buffer == null) {
+            return;
+        }
+        if (buffer.isReadOnly()) {
+            throw new EncryptionException("Cannot modify a read-only buffer in place");
+        }
+        int[] ints = new int[buffer.remaining() / 4];
+        buffer.duplicate().order(buffer.order()).asIntBuffer().get(ints);
+        buffer.duplicate().order(buffer.order()).asIntBuffer().put(decrypt(ints, key));
+    }
+
+    /**
+     * Encrypts the remaining bytes of the specified buffer in place.
+     * Uses the Storm algorithm
+     * Works the same for heap and direct buffers. Integers are read
+     * and written in the buffer's own byte order, and 1-3 trailing
+     * bytes that do not form an integer are left untouched.
+     * Position and limit are not changed.
+     * If a null buffer is provided, nothing is done; a read-only buffer
+     * throws EncryptionException.
+     *
+     * @param buffer Buffer to encrypt
+     * @param key    Key to encrypt with
+     */
+    default void encryptBufferInPlace(ByteBuffer buffer, int key) {
+        if (buffer == null) {
+            return;
+        }
+        if (buffer.isReadOnly()) {
+            throw new EncryptionException("Cannot modify a read-only buffer in place");
+        }
+        int[] ints = new int[buffer.remaining() / 4];
+        buffer.duplicate().order(buffer.order()).asIntBuffer().get(ints);
+        buffer.duplicate().order(buffer.order()).asIntBuffer().put(encrypt(ints, key));
+    }
 
     /**
      * Encrypts the specified bytes array.
@@ -81,6 +140,44 @@ public interface IFrostSecurity {
      */
     byte[] encryptBytes(byte[] src, int key);
 
+    /**
+     * Decrypts a range of bytes into the destination array.
+     * The 1-3 trailing bytes that do not form an integer are copied
+     * unchanged. src and dst may be the same array at the same offset.
+     * FrostSecurity does not allocate.
+     *
+     * @param src       Source bytes array
+     * @param srcOffset Offset of the range in src
+     * @param length    Length of the range
+     * @param dst       Destination bytes array
+     * @param dstOffset Offset to write to in dst
+     * @param key       Key to decrypt with
+     */
+    default void decryptBytes(byte[] src, int srcOffset, int length, byte[] dst, int dstOffset, int key) {
+        byte[] range = new byte[length];
+        System.arraycopy(src, srcOffset, range, 0, length);
+        System.arraycopy(decryptBytes(range, key), 0, dst, dstOffset, length);
+    }
+
+    /**
+     * Encrypts a range of bytes into the destination array.
+     * The 1-3 trailing bytes that do not form an integer are copied
+     * unchanged. src and dst may be the same array at the same offset.
+     * FrostSecurity does not allocate.
+     *
+     * @param src       Source bytes array
+     * @param srcOffset Offset of the range in src
+     * @param length    Length of the range
+     * @param dst       Destination bytes array
+     * @param dstOffset Offset to write to in dst
+     * @param key       Key to encrypt with
+     */
+    default void encryptBytes(byte[] src, int srcOffset, int length, byte[] dst, int dstOffset, int key) {
+        byte[] range = new byte[length];
+        System.arraycopy(src, srcOffset, range, 0, length);
+        System.arraycopy(encryptBytes(range, key), 0, dst, dstOffset, length);
+    }
+
     /**
      * Hashes the String using Storm algorithm and returns the key
      * as an long
@@ -91,6 +188,103 @@ public interface IFrostSecurity {
      */
     long hashString(String s, int hashType);
 
+    /**
+     * Hashes the characters using Storm algorithm and returns the key
+     * as an long (the unsigned 32-bit hash value).
+     * FrostSecurity does not allocate.
+     *
+     * @param s        Characters to hash; each must be in 0x00-0xFF
+     * @param hashType Hash type (see constants of this class; 0-3)
+     * @return Hash value as long
+     */
+    default long hashString(CharSequence s, int hashType) {
+        return hashAsInt(s, hashType) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Hashes the characters using Storm algorithm and returns the key
+     * as an integer.
+     * ASCII letters are upper-cased and '/' is treated as '\' without
+     * regard to locale. Characters above 0xFF cannot be hashed; use the
+     * byte[] overload with the archive's encoding instead.
+     * FrostSecurity does not allocate.
+     *
+     * @param s        Characters to hash; each must be in 0x00-0xFF
+     * @param hashType Hash type (see constants of this class; 0-3)
+     * @return Hash value as int
+     */
+    default int hashAsInt(CharSequence s, int hashType) {
+        return hashAsInt(s == null ? null : s.toString(), hashType);
+    }
+
+    /**
+     * Hashes a range of bytes using Storm algorithm and returns the key
+     * as an integer. Each byte is hashed as one character, with ASCII
+     * letters upper-cased and '/' treated as '\'.
+     * FrostSecurity does not allocate.
+     *
+     * @param src      Source bytes
+     * @param offset   Offset of the name in src
+     * @param length   Length of the name
+     * @param hashType Hash type (see constants of this class; 0-3)
+     * @return Hash value as int
+     */
+    default int hashAsInt(byte[] src, int offset, int length, int hashType) {
+        return hashAsInt(new String(src, offset, length, StandardCharsets.ISO_8859_1), hashType);
+    }
+
+    /**
+     * Hashes the remaining bytes of the buffer using Storm algorithm
+     * and returns the key as an integer. Each byte is hashed as one
+     * character, with ASCII letters upper-cased and '/' treated as '\'.
+     * The buffer's position is not changed.
+     * FrostSecurity does not allocate.
+     *
+     * @param src      Source buffer
+     * @param hashType Hash type (see constants of this class; 0-3)
+     * @return Hash value as int
+     */
+    default int hashAsInt(ByteBuffer src, int hashType) {
+        byte[] bytes = new byte[src.remaining()];
+        src.duplicate().get(bytes);
+        return hashAsInt(bytes, 0, bytes.length, hashType);
+    }
+
+    /**
+     * Hashes every name once for several hash types together.
+     * The hash of type t for names[i] is stored at dst[i * 4 + t];
+     * slots of types that are not requested are left as they are.
+     * FrostSecurity does not allocate.
+     *
+     * @param names     Names to hash; each character must be in 0x00-0xFF
+     * @param hashTypes Mask of hash types, for example MPQ_HASH_LOOKUP_TYPES
+     * @param dst       Destination, at least names.length * 4 long
+     */
+    default void hashAll(CharSequence[] names, int hashTypes, int[] dst) {
+        for (int i = 0; i < names.length; i++) {
+            for (int hashType = 0; hashType < 4; hashType++) {
+                if ((hashTypes & (1 << hashType)) != 0) {
+                    dst[i * 4 + hashType] = hashAsInt(names[i], hashType);
+                }
+            }
+        }
+    }
+
+    /**
+     * Hashes every name for one hash type and stores hash i at dst[i].
+     * Gives the same results as hashAsInt, but may hash several names
+     * at once.
+     *
+     * @param names    Names to hash; each character must be in 0x00-0xFF
+     * @param hashType Hash type (see constants of this class; 0-3)
+     * @param dst      Destination, at least names.length long
+     */
+    default void hashStrings(CharSequence[] names, int hashType, int[] dst) {
+        for (int i = 0; i < names.length; i++) {
+            dst[i] = hashAsInt(names[i], hashType);
+        }
+    }
+
     /**
      * Decrypts a single integer.
      *
@@ -118,4 +312,64 @@ public interface IFrostSecurity {
      * @return Hash value as int
      */
     int hashAsInt(String s, int hashType);
+
+    /**
+     * Gets the key of a file from its name.
+     * Only the part after the last '\' or '/' is hashed, with
+     * MPQ_HASH_FILE_KEY.
+     * FrostSecurity does not allocate.
+     *
+     * @param name File name, with or without its path
+     * @return File key
+     */
+    default int getFileKey(CharSequence name) {
+        int start = name.length();
+        while (start > 0 && name.charAt(start - 1) != '\\' && name.charAt(start - 1) != '/') {
+            start--;
+        }
+        return hashAsInt(name.subSequence(start, name.length()), MPQ_HASH_FILE_KEY);
+    }
+
+    /**
+     * Gets the key of a file from its name and block table entry.
+     * When the MPQ_FILE_FIX_KEY flag is set the key is adjusted to
+     * (key + blockOffset) ^ fileSize.
+     * FrostSecurity does not allocate.
+     *
+     * @param name        File name, with or without its path
+     * @param blockOffset Offset of the file from the start of the archive
+     * @param fileSize    Uncompressed size of the file
+     * @param flags       Block table flags of the file
+     * @return File key
+     */
+    default int getFileKey(CharSequence name, long blockOffset, long fileSize, int flags) {
+        int key = getFileKey(name);
+        if ((flags & MPQ_FILE_FIX_KEY) != 0) {
+            return (key + (int) blockOffset) ^ (int) fileSize;
+        }
+        return key;
+    }
+
+    /**
+     * Gets the key of one sector of a file (the file key plus the
+     * sector number).
+     *
+     * @param fileKey Key of the file
+     * @param sector  Sector number, from 0
+     * @return Sector key
+     */
+    default int getSectorKey(int fileKey, int sector) {
+        return fileKey + sector;
+    }
+
+    /**
+     * Gets the key of the sector offset table of a file (the file key
+     * minus 1).
+     *
+     * @param fileKey Key of the file
+     * @return Sector offset table key
+     */
+    default int getSectorOffsetTableKey(int fileKey) {
+        return fileKey - 1;
+    }
 }
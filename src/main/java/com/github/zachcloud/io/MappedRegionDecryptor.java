@@ -0,0 +1,174 @@
+package com.github.zachcloud.io;
+
+import com.github.zachcloud.exceptions.EncryptionException;
+import com.github.zachcloud.frost.StormCipher;
+import com.github.zachcloud.frost.StormSecurity;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Decrypts a region of a file straight from memory-mapped windows,
+ * without reading it into a byte array first.
+ * <p>
+ * The region is mapped one window at a time and fed through a single
+ * StormCipher, so regions larger than 2 GB are supported when writing
+ * to a channel. The result is the same as calling decryptBytes on the
+ * whole region.
+ * <p>
+ * Mapped windows are released by the garbage collector; there is no
+ * way to unmap them explicitly on Java 8.
+ */
+public final class MappedRegionDecryptor {
+
+    private static final long DEFAULT_WINDOW_SIZE = 64L * 1024 * 1024;
+    private static final int STAGING_BUFFER_SIZE = 1024 * 1024;
+
+    private final StormSecurity frostSecurity;
+    private final long windowSize;
+
+    /**
+     * Creates a new MappedRegionDecryptor with a 64 MB window.
+     *
+     * @param frostSecurity Security to create ciphers from
+     */
+    public MappedRegionDecryptor(StormSecurity frostSecurity) {
+        this(frostSecurity, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Creates a new MappedRegionDecryptor.
+     *
+     * @param frostSecurity Security to create ciphers from
+     * @param windowSize    Bytes to map at a time; a positive multiple
+     *                      of 4 that fits in an int
+     */
+    public MappedRegionDecryptor(StormSecurity frostSecurity, long windowSize) {
+        if (windowSize <= 0 || windowSize > Integer.MAX_VALUE || (windowSize & 3) != 0) {
+            throw new IllegalArgumentException("Window size must be a positive " +
+                    "multiple of 4 no larger than Integer.MAX_VALUE: " + windowSize);
+        }
+        this.frostSecurity = frostSecurity;
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Decrypts a region of a file into the destination buffer.
+     * The destination's position is advanced by length.
+     *
+     * @param path   File to read
+     * @param offset Offset of the region in the file
+     * @param length Length of the region
+     * @param key    Key to decrypt with
+     * @param dst    Destination buffer, with at least length remaining
+     * @throws IOException If the file cannot be read
+     */
+    public void decrypt(Path path, long offset, long length, int key, ByteBuffer dst) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            decrypt(channel, offset, length, key, dst);
+        }
+    }
+
+    /**
+     * Decrypts a region of a file into the destination channel.
+     *
+     * @param path   File to read
+     * @param offset Offset of the region in the file
+     * @param length Length of the region
+     * @param key    Key to decrypt with
+     * @param dst    Destination channel
+     * @throws IOException If the file cannot be read or dst cannot be written
+     */
+    public void decrypt(Path path, long offset, long length, int key,
+                        WritableByteChannel dst) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            decrypt(channel, offset, length, key, dst);
+        }
+    }
+
+    /**
+     * Decrypts a region of a file into the destination buffer.
+     * The destination's position is advanced by length.
+     *
+     * @param channel File to read; its position is not used or changed
+     * @param offset  Offset of the region in the file
+     * @param length  Length of the region
+     * @param key     Key to decrypt with
+     * @param dst     Destination buffer, with at least length remaining
+     * @throws IOException If the file cannot be read
+     */
+    public void decrypt(FileChannel channel, long offset, long length, int key,
+                        ByteBuffer dst) throws IOException {
+        checkRegion(channel, offset, length);
+        if (dst.remaining() < length) {
+            throw new EncryptionException("Destination buffer too small: need " +
+                    length + " bytes, have " + dst.remaining());
+        }
+        StormCipher cipher = frostSecurity.createDecryptor(key);
+        for (long done = 0; done < length; ) {
+            ByteBuffer window = map(channel, cipher, offset + done, Math.min(windowSize, length - done));
+            done += window.remaining();
+            cipher.update(window, dst);
+        }
+        cipher.finish(dst);
+    }
+
+    /**
+     * Decrypts a region of a file into the destination channel.
+     *
+     * @param channel File to read; its position is not used or changed
+     * @param offset  Offset of the region in the file
+     * @param length  Length of the region
+     * @param key     Key to decrypt with
+     * @param dst     Destination channel
+     * @throws IOException If the file cannot be read or dst cannot be written
+     */
+    public void decrypt(FileChannel channel, long offset, long length, int key,
+                        WritableByteChannel dst) throws IOException {
+        checkRegion(channel, offset, length);
+        StormCipher cipher = frostSecurity.createDecryptor(key);
+        ByteBuffer staging = ByteBuffer.allocateDirect(STAGING_BUFFER_SIZE);
+        for (long done = 0; done < length; ) {
+            ByteBuffer window = map(channel, cipher, offset + done, Math.min(windowSize, length - done));
+            done += window.remaining();
+            while (window.hasRemaining()) {
+                ByteBuffer chunk = window.duplicate();
+                ((Buffer) chunk).limit(chunk.position() + Math.min(chunk.remaining(), STAGING_BUFFER_SIZE - 3));
+                ((Buffer) staging).clear();
+                cipher.update(chunk, staging);
+                ((Buffer) window).position(chunk.position());
+                ((Buffer) staging).flip();
+                writeFully(dst, staging);
+            }
+        }
+        ((Buffer) staging).clear();
+        cipher.finish(staging);
+        ((Buffer) staging).flip();
+        writeFully(dst, staging);
+    }
+
+    private static ByteBuffer map(FileChannel channel, StormCipher cipher, long position,
+                                  long size) throws IOException {
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        return mapped.order(cipher.getByteOrder());
+    }
+
+    private static void checkRegion(FileChannel channel, long offset, long length) throws IOException {
+        if (offset < 0 || length < 0 || offset > channel.size() - length) {
+            throw new EncryptionException("Region [" + offset + ", " + offset + "+" + length +
+                    ") is outside of the file (size = " + channel.size() + ")");
+        }
+    }
+
+    private static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
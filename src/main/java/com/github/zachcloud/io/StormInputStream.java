@@ -0,0 +1,131 @@
+package com.github.zachcloud.io;
+
+import com.github.zachcloud.frost.StormCipher;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Input stream that encrypts or decrypts everything read from the
+ * underlying stream using a StormCipher.
+ * <p>
+ * The whole stream is treated as one region: the end of the underlying
+ * stream ends the region, so a trailing 1-3 bytes are passed through
+ * unchanged exactly as decryptBytes does.
+ */
+public final class StormInputStream extends FilterInputStream {
+
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final StormCipher cipher;
+    private final byte[] buffer;
+    private int bufferPosition;
+    private int bufferLimit;
+    private boolean finished;
+
+    /**
+     * Creates a new StormInputStream with a default buffer size.
+     *
+     * @param in     Underlying stream
+     * @param cipher Cipher state to apply
+     */
+    public StormInputStream(InputStream in, StormCipher cipher) {
+        this(in, cipher, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a new StormInputStream.
+     *
+     * @param in         Underlying stream
+     * @param cipher     Cipher state to apply
+     * @param bufferSize Size of the internal buffer (at least 8)
+     */
+    public StormInputStream(InputStream in, StormCipher cipher, int bufferSize) {
+        super(in);
+        if (bufferSize < 8) {
+            throw new IllegalArgumentException("Buffer size too small: " + bufferSize);
+        }
+        this.cipher = cipher;
+        this.buffer = new byte[bufferSize];
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return buffer[bufferPosition++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int count = Math.min(len, bufferLimit - bufferPosition);
+        System.arraycopy(buffer, bufferPosition, b, off, count);
+        bufferPosition += count;
+        return count;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = 0;
+        while (skipped < n && fill()) {
+            int count = (int) Math.min(n - skipped, bufferLimit - bufferPosition);
+            bufferPosition += count;
+            skipped += count;
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return bufferLimit - bufferPosition;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+
+    /**
+     * Makes sure processed bytes are available in the buffer.
+     *
+     * @return False if the end of the stream was reached
+     * @throws IOException If the underlying stream fails
+     */
+    private boolean fill() throws IOException {
+        while (bufferPosition == bufferLimit) {
+            if (finished) {
+                return false;
+            }
+            bufferPosition = 0;
+            // Leave room for bytes held back by the cipher
+            int read = in.read(buffer, 0, buffer.length - 3);
+            if (read < 0) {
+                bufferLimit = cipher.finish(buffer, 0);
+                finished = true;
+            } else {
+                bufferLimit = cipher.update(buffer, 0, read, buffer, 0);
+            }
+        }
+        return true;
+    }
+}
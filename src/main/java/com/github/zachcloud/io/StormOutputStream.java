@@ -0,0 +1,90 @@
+package com.github.zachcloud.io;
+
+import com.github.zachcloud.frost.StormCipher;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Output stream that encrypts or decrypts everything written to it
+ * using a StormCipher before passing it to the underlying stream.
+ * <p>
+ * The whole stream is treated as one region. Up to 3 bytes that do
+ * not yet form a whole integer are held back, even by flush, and are
+ * written unchanged when the stream is closed.
+ */
+public final class StormOutputStream extends FilterOutputStream {
+
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final StormCipher cipher;
+    private final byte[] buffer;
+    private boolean closed;
+
+    /**
+     * Creates a new StormOutputStream with a default buffer size.
+     *
+     * @param out    Underlying stream
+     * @param cipher Cipher state to apply
+     */
+    public StormOutputStream(OutputStream out, StormCipher cipher) {
+        this(out, cipher, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a new StormOutputStream.
+     *
+     * @param out        Underlying stream
+     * @param cipher     Cipher state to apply
+     * @param bufferSize Size of the internal buffer (at least 8)
+     */
+    public StormOutputStream(OutputStream out, StormCipher cipher, int bufferSize) {
+        super(out);
+        if (bufferSize < 8) {
+            throw new IllegalArgumentException("Buffer size too small: " + bufferSize);
+        }
+        this.cipher = cipher;
+        this.buffer = new byte[bufferSize];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        buffer[0] = (byte) b;
+        write(buffer, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        // Leave room for bytes held back by the cipher
+        int chunkSize = buffer.length - 3;
+        while (len > 0) {
+            int chunk = Math.min(len, chunkSize);
+            int produced = cipher.update(b, off, chunk, buffer, 0);
+            out.write(buffer, 0, produced);
+            off += chunk;
+            len -= chunk;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            int written = cipher.finish(buffer, 0);
+            out.write(buffer, 0, written);
+            out.flush();
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.github.zachcloud.io;
+
+import com.github.zachcloud.frost.StormCipher;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Readable channel that encrypts or decrypts everything read from the
+ * underlying channel using a StormCipher.
+ * <p>
+ * The whole channel is treated as one region: the end of the underlying
+ * channel ends the region, so a trailing 1-3 bytes are passed through
+ * unchanged exactly as decryptBytes does.
+ */
+public final class StormReadableByteChannel implements ReadableByteChannel {
+
+    private static final int DEFAULT_BUFFER_SIZE = 65536;
+
+    private final ReadableByteChannel channel;
+    private final StormCipher cipher;
+    /* Bytes read from the channel, processed in place */
+    private final ByteBuffer input;
+    /* Processed bytes waiting to be returned, same memory as input */
+    private final ByteBuffer output;
+    private boolean finished;
+    private boolean open = true;
+
+    /**
+     * Creates a new StormReadableByteChannel with a default direct buffer.
+     *
+     * @param channel Underlying channel
+     * @param cipher  Cipher state to apply
+     */
+    public StormReadableByteChannel(ReadableByteChannel channel, StormCipher cipher) {
+        this(channel, cipher, ByteBuffer.allocateDirect(DEFAULT_BUFFER_SIZE));
+    }
+
+    /**
+     * Creates a new StormReadableByteChannel using the specified buffer
+     * for staging; the buffer's contents and position are not used.
+     *
+     * @param channel Underlying channel
+     * @param cipher  Cipher state to apply
+     * @param buffer  Staging buffer (at least 8 bytes)
+     */
+    public StormReadableByteChannel(ReadableByteChannel channel, StormCipher cipher,
+                                    ByteBuffer buffer) {
+        if (buffer.capacity() < 8) {
+            throw new IllegalArgumentException("Buffer size too small: " + buffer.capacity());
+        }
+        this.channel = channel;
+        this.cipher = cipher;
+        this.input = buffer.duplicate();
+        this.output = buffer.duplicate();
+        ((Buffer) output).limit(0);
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+        if (!output.hasRemaining()) {
+            if (finished) {
+                return -1;
+            }
+            ((Buffer) input).clear();
+            // Leave room for bytes held back by the cipher
+            ((Buffer) input).limit(input.capacity() - 3);
+            int read = channel.read(input);
+            ((Buffer) output).clear();
+            if (read < 0) {
+                cipher.finish(output);
+                finished = true;
+            } else {
+                ((Buffer) input).flip();
+                cipher.update(input, output);
+            }
+            ((Buffer) output).flip();
+            if (!output.hasRemaining()) {
+                return finished ? -1 : 0;
+            }
+        }
+        int count = Math.min(dst.remaining(), output.remaining());
+        ByteBuffer chunk = output.duplicate();
+        ((Buffer) chunk).limit(output.position() + count);
+        dst.put(chunk);
+        ((Buffer) output).position(output.position() + count);
+        return count;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() throws IOException {
+        open = false;
+        channel.close();
+    }
+}
@@ -0,0 +1,104 @@
+package com.github.zachcloud.io;
+
+import com.github.zachcloud.frost.StormCipher;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Writable channel that encrypts or decrypts everything written to it
+ * using a StormCipher before passing it to the underlying channel.
+ * <p>
+ * The whole channel is treated as one region. Up to 3 bytes that do
+ * not yet form a whole integer are held back and are written unchanged
+ * when the channel is closed.
+ */
+public final class StormWritableByteChannel implements WritableByteChannel {
+
+    private static final int DEFAULT_BUFFER_SIZE = 65536;
+
+    private final WritableByteChannel channel;
+    private final StormCipher cipher;
+    private final ByteBuffer buffer;
+    private boolean open = true;
+
+    /**
+     * Creates a new StormWritableByteChannel with a default direct buffer.
+     *
+     * @param channel Underlying channel
+     * @param cipher  Cipher state to apply
+     */
+    public StormWritableByteChannel(WritableByteChannel channel, StormCipher cipher) {
+        this(channel, cipher, ByteBuffer.allocateDirect(DEFAULT_BUFFER_SIZE));
+    }
+
+    /**
+     * Creates a new StormWritableByteChannel using the specified buffer
+     * for staging; the buffer's contents and position are not used.
+     *
+     * @param channel Underlying channel
+     * @param cipher  Cipher state to apply
+     * @param buffer  Staging buffer (at least 8 bytes)
+     */
+    public StormWritableByteChannel(WritableByteChannel channel, StormCipher cipher,
+                                    ByteBuffer buffer) {
+        if (buffer.capacity() < 8) {
+            throw new IllegalArgumentException("Buffer size too small: " + buffer.capacity());
+        }
+        this.channel = channel;
+        this.cipher = cipher;
+        this.buffer = buffer.duplicate();
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+        int consumed = 0;
+        // Leave room for bytes held back by the cipher
+        int chunkSize = buffer.capacity() - 3;
+        while (src.hasRemaining()) {
+            int chunk = Math.min(src.remaining(), chunkSize);
+            ByteBuffer slice = src.duplicate();
+            ((Buffer) slice).limit(slice.position() + chunk);
+            ((Buffer) buffer).clear();
+            cipher.update(slice, buffer);
+            ((Buffer) src).position(src.position() + chunk);
+            consumed += chunk;
+            ((Buffer) buffer).flip();
+            writeFully();
+        }
+        return consumed;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!open) {
+            return;
+        }
+        open = false;
+        try {
+            ((Buffer) buffer).clear();
+            cipher.finish(buffer);
+            ((Buffer) buffer).flip();
+            writeFully();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void writeFully() throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.github.zachcloud.jca;
+
+import java.security.Provider;
+
+/**
+ * JCA provider of the Storm cipher, so that it can be used through
+ * javax.crypto.Cipher, CipherInputStream and CipherOutputStream:
+ * <pre>
+ *     Cipher cipher = Cipher.getInstance("Storm", new FrostProvider());
+ *     cipher.init(Cipher.DECRYPT_MODE, new StormKeySpec(fileKey));
+ * </pre>
+ * The only mode is NONE and the only padding NoPadding. Some vendor
+ * JDKs only accept cipher providers from signed jars; OpenJDK does not
+ * check.
+ */
+public final class FrostProvider extends Provider {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String NAME = "Frost";
+
+    public static final String STORM = "Storm";
+
+    /**
+     * Creates a new FrostProvider.
+     */
+    @SuppressWarnings("deprecation")
+    public FrostProvider() {
+        super(NAME, 1.2, "Frost Security provider (Storm cipher)");
+        put("Cipher." + STORM, StormCipherSpi.class.getName());
+        put("Cipher." + STORM + " SupportedModes", "NONE");
+        put("Cipher." + STORM + " SupportedPaddings", "NOPADDING");
+        put("Cipher." + STORM + " SupportedKeyFormats", "RAW");
+    }
+}
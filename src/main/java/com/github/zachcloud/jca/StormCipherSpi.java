@@ -0,0 +1,228 @@
+package com.github.zachcloud.jca;
+
+import com.github.zachcloud.frost.FrostSecurity;
+import com.github.zachcloud.frost.StormCipher;
+
+import javax.crypto.Cipher;
+import javax.crypto.CipherSpi;
+import javax.crypto.NoSuchPaddingException;
+import javax.crypto.ShortBufferException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.security.AlgorithmParameters;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.InvalidKeyException;
+import java.security.Key;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.spec.AlgorithmParameterSpec;
+
+/**
+ * CipherSpi of the "Storm" cipher, backed by a StormCipher.
+ * <p>
+ * The key/seed chain is carried across update calls, and up to 3
+ * bytes of an incomplete integer are held back until the next update
+ * or doFinal. doFinal passes the 1-3 trailing bytes through unchanged,
+ * exactly like encryptBytes/decryptBytes, and resets the cipher to the
+ * key it was initialized with. ByteBuffers are processed directly,
+ * without copies; input and output may be views of the same memory at
+ * the same position.
+ * <p>
+ * Used through javax.crypto.Cipher and FrostProvider; not thread safe.
+ */
+public final class StormCipherSpi extends CipherSpi {
+
+    private int key;
+    private boolean decrypt;
+    private ByteOrder byteOrder;
+    private StormCipher cipher;
+
+    @Override
+    protected void engineSetMode(String mode) throws NoSuchAlgorithmException {
+        if (!"NONE".equalsIgnoreCase(mode)) {
+            throw new NoSuchAlgorithmException("Storm has no mode " + mode);
+        }
+    }
+
+    @Override
+    protected void engineSetPadding(String padding) throws NoSuchPaddingException {
+        if (!"NoPadding".equalsIgnoreCase(padding)) {
+            throw new NoSuchPaddingException("Storm has no padding " + padding);
+        }
+    }
+
+    /**
+     * @return 0, since any length can be processed
+     */
+    @Override
+    protected int engineGetBlockSize() {
+        return 0;
+    }
+
+    @Override
+    protected int engineGetOutputSize(int inputLen) {
+        return (cipher == null ? 0 : cipher.getPendingLength()) + inputLen;
+    }
+
+    @Override
+    protected byte[] engineGetIV() {
+        return null;
+    }
+
+    @Override
+    protected AlgorithmParameters engineGetParameters() {
+        return null;
+    }
+
+    @Override
+    protected int engineGetKeySize(Key key) throws InvalidKeyException {
+        keyOf(key);
+        return 32;
+    }
+
+    @Override
+    protected void engineInit(int opmode, Key key, SecureRandom random) throws InvalidKeyException {
+        init(opmode, key, ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Override
+    protected void engineInit(int opmode, Key key, AlgorithmParameterSpec params, SecureRandom random)
+            throws InvalidKeyException, InvalidAlgorithmParameterException {
+        if (params != null && !(params instanceof StormParameterSpec)) {
+            throw new InvalidAlgorithmParameterException("Storm takes a StormParameterSpec, not " +
+                    params.getClass().getName());
+        }
+        init(opmode, key, params == null ? ByteOrder.LITTLE_ENDIAN : ((StormParameterSpec) params).getByteOrder());
+    }
+
+    @Override
+    protected void engineInit(int opmode, Key key, AlgorithmParameters params, SecureRandom random)
+            throws InvalidKeyException, InvalidAlgorithmParameterException {
+        if (params != null) {
+            throw new InvalidAlgorithmParameterException("Storm takes a StormParameterSpec, not AlgorithmParameters");
+        }
+        init(opmode, key, ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Override
+    protected byte[] engineUpdate(byte[] input, int inputOffset, int inputLen) {
+        byte[] output = new byte[updateSize(inputLen)];
+        if (inputLen > 0) {
+            cipher.update(input, inputOffset, inputLen, output, 0);
+        }
+        return output;
+    }
+
+    @Override
+    protected int engineUpdate(byte[] input, int inputOffset, int inputLen, byte[] output, int outputOffset)
+            throws ShortBufferException {
+        checkOutput(updateSize(inputLen), output.length - outputOffset);
+        if (inputLen == 0) {
+            return 0;
+        }
+        if (input == output && inputOffset != outputOffset &&
+                outputOffset < inputOffset + inputLen && inputOffset < outputOffset + inputLen + 3) {
+            // Overlapping ranges at different offsets would overwrite input that is not read yet
+            byte[] copy = new byte[inputLen];
+            System.arraycopy(input, inputOffset, copy, 0, inputLen);
+            input = copy;
+            inputOffset = 0;
+        }
+        return cipher.update(input, inputOffset, inputLen, output, outputOffset);
+    }
+
+    @Override
+    protected int engineUpdate(ByteBuffer input, ByteBuffer output) throws ShortBufferException {
+        checkOutput(updateSize(input.remaining()), output.remaining());
+        return cipher.update(input, output);
+    }
+
+    @Override
+    protected byte[] engineDoFinal(byte[] input, int inputOffset, int inputLen) {
+        checkInitialized();
+        byte[] output = new byte[cipher.getPendingLength() + inputLen];
+        int written = inputLen > 0 ? cipher.update(input, inputOffset, inputLen, output, 0) : 0;
+        cipher.finish(output, written);
+        reset();
+        return output;
+    }
+
+    @Override
+    protected int engineDoFinal(byte[] input, int inputOffset, int inputLen, byte[] output, int outputOffset)
+            throws ShortBufferException {
+        checkInitialized();
+        checkOutput(cipher.getPendingLength() + inputLen, output.length - outputOffset);
+        int written = engineUpdate(input, inputOffset, inputLen, output, outputOffset);
+        written += cipher.finish(output, outputOffset + written);
+        reset();
+        return written;
+    }
+
+    @Override
+    protected int engineDoFinal(ByteBuffer input, ByteBuffer output) throws ShortBufferException {
+        checkInitialized();
+        checkOutput(cipher.getPendingLength() + input.remaining(), output.remaining());
+        int written = cipher.update(input, output);
+        written += cipher.finish(output);
+        reset();
+        return written;
+    }
+
+    private void init(int opmode, Key key, ByteOrder byteOrder) throws InvalidKeyException {
+        if (opmode != Cipher.ENCRYPT_MODE && opmode != Cipher.DECRYPT_MODE) {
+            throw new UnsupportedOperationException("Storm can only encrypt and decrypt");
+        }
+        this.key = keyOf(key);
+        this.decrypt = opmode == Cipher.DECRYPT_MODE;
+        this.byteOrder = byteOrder;
+        reset();
+    }
+
+    /**
+     * Starts again from the key the cipher was initialized with.
+     */
+    private void reset() {
+        FrostSecurity frostSecurity = FrostSecurity.getInstance(byteOrder);
+        cipher = decrypt ? frostSecurity.createDecryptor(key) : frostSecurity.createEncryptor(key);
+    }
+
+    /**
+     * Gets the 32-bit key from a StormKeySpec, or from any "Storm" key
+     * whose raw encoding is 4 little endian bytes.
+     */
+    private static int keyOf(Key key) throws InvalidKeyException {
+        if (key instanceof StormKeySpec) {
+            return ((StormKeySpec) key).getKey();
+        }
+        if (key == null || !FrostProvider.STORM.equalsIgnoreCase(key.getAlgorithm()) ||
+                !"RAW".equalsIgnoreCase(key.getFormat())) {
+            throw new InvalidKeyException("Storm needs a StormKeySpec or a RAW Storm key");
+        }
+        byte[] encoded = key.getEncoded();
+        if (encoded == null || encoded.length != 4) {
+            throw new InvalidKeyException("Storm keys are 4 bytes, not " +
+                    (encoded == null ? 0 : encoded.length));
+        }
+        return (encoded[0] & 0xFF) | ((encoded[1] & 0xFF) << 8) | ((encoded[2] & 0xFF) << 16) | (encoded[3] << 24);
+    }
+
+    /**
+     * @return Number of bytes an update of inputLen bytes writes
+     */
+    private int updateSize(int inputLen) {
+        checkInitialized();
+        return ((cipher.getPendingLength() + inputLen) >>> 2) << 2;
+    }
+
+    private void checkInitialized() {
+        if (cipher == null) {
+            throw new IllegalStateException("Cipher is not initialized");
+        }
+    }
+
+    private static void checkOutput(int needed, int available) throws ShortBufferException {
+        if (available < needed) {
+            throw new ShortBufferException("Output needs " + needed + " bytes, has " + available);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.github.zachcloud.jca;
+
+import javax.crypto.SecretKey;
+import java.security.spec.KeySpec;
+
+/**
+ * 32-bit Storm key, such as a file key from getFileKey, for the
+ * "Storm" cipher of FrostProvider. Encoded as 4 little endian bytes,
+ * so a SecretKeySpec of those bytes with algorithm "Storm" works too.
+ */
+public final class StormKeySpec implements KeySpec, SecretKey {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int key;
+
+    /**
+     * Creates a new StormKeySpec.
+     *
+     * @param key Key to encrypt or decrypt with
+     */
+    public StormKeySpec(int key) {
+        this.key = key;
+    }
+
+    /**
+     * @return Key to encrypt or decrypt with
+     */
+    public int getKey() {
+        return key;
+    }
+
+    @Override
+    public String getAlgorithm() {
+        return FrostProvider.STORM;
+    }
+
+    @Override
+    public String getFormat() {
+        return "RAW";
+    }
+
+    @Override
+    public byte[] getEncoded() {
+        return new byte[]{(byte) key, (byte) (key >>> 8), (byte) (key >>> 16), (byte) (key >>> 24)};
+    }
+}
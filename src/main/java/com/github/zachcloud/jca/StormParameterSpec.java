@@ -0,0 +1,32 @@
+package com.github.zachcloud.jca;
+
+import java.nio.ByteOrder;
+import java.security.spec.AlgorithmParameterSpec;
+
+/**
+ * Parameters of the "Storm" cipher of FrostProvider. Without
+ * parameters, integers are little endian.
+ */
+public final class StormParameterSpec implements AlgorithmParameterSpec {
+
+    private final ByteOrder byteOrder;
+
+    /**
+     * Creates a new StormParameterSpec.
+     *
+     * @param byteOrder Byte order of the integers in the data
+     */
+    public StormParameterSpec(ByteOrder byteOrder) {
+        if (byteOrder == null) {
+            throw new IllegalArgumentException("Byte order cannot be null");
+        }
+        this.byteOrder = byteOrder;
+    }
+
+    /**
+     * @return Byte order of the integers in the data
+     */
+    public ByteOrder getByteOrder() {
+        return byteOrder;
+    }
+}
@@ -0,0 +1,62 @@
+package com.github.zachcloud.metrics;
+
+/**
+ * Receives the measurements of an InstrumentedFrostSecurity.
+ * <p>
+ * Implement this to export to a monitoring system; SimpleFrostMetrics
+ * keeps everything in memory. Methods are called on the thread doing
+ * the work, so they must be thread safe and cheap.
+ */
+public interface FrostMetrics {
+
+    /**
+     * Metrics that drop every measurement.
+     */
+    FrostMetrics NONE = new FrostMetrics() {
+        @Override
+        public void bytesEncrypted(long bytes) {
+        }
+
+        @Override
+        public void bytesDecrypted(long bytes) {
+        }
+
+        @Override
+        public void hashesComputed(int hashType, long count) {
+        }
+
+        @Override
+        public void latency(FrostOperation operation, long nanos) {
+        }
+    };
+
+    /**
+     * Called after bytes were encrypted.
+     *
+     * @param bytes Number of bytes
+     */
+    void bytesEncrypted(long bytes);
+
+    /**
+     * Called after bytes were decrypted.
+     *
+     * @param bytes Number of bytes
+     */
+    void bytesDecrypted(long bytes);
+
+    /**
+     * Called after hashes were computed.
+     *
+     * @param hashType Hash type (see SecurityConstants; 0-3)
+     * @param count    Number of hashes of that type
+     */
+    void hashesComputed(int hashType, long count);
+
+    /**
+     * Called with the duration of a sampled call.
+     *
+     * @param operation Kind of call
+     * @param nanos     Duration in nanoseconds
+     */
+    void latency(FrostOperation operation, long nanos);
+}
@@ -0,0 +1,10 @@
+package com.github.zachcloud.metrics;
+
+/**
+ * Kinds of operation that latencies are recorded for.
+ */
+public enum FrostOperation {
+    ENCRYPT,
+    DECRYPT,
+    HASH
+}
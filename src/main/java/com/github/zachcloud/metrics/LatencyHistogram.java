@@ -0,0 +1,92 @@
+package com.github.zachcloud.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of durations in power of two buckets.
+ * <p>
+ * Bucket b counts durations of 2^(b-1) up to 2^b - 1 nanoseconds, and
+ * bucket 0 counts durations of 0. Recording does not lock or allocate,
+ * and percentiles are the upper bound of their bucket, so within a
+ * factor of two. Thread safe.
+ */
+public final class LatencyHistogram {
+
+    private static final int BUCKETS = 64;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /**
+     * Records one duration. Negative durations count as 0.
+     *
+     * @param nanos Duration in nanoseconds
+     */
+    public void record(long nanos) {
+        counts.incrementAndGet(nanos <= 0 ? 0 : BUCKETS - Long.numberOfLeadingZeros(nanos));
+    }
+
+    /**
+     * @return Number of durations recorded
+     */
+    public long getCount() {
+        long count = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            count += counts.get(b);
+        }
+        return count;
+    }
+
+    /**
+     * Gets the count of one bucket.
+     *
+     * @param bucket Bucket (0-63)
+     * @return Durations recorded in that bucket
+     */
+    public long getBucketCount(int bucket) {
+        return counts.get(bucket);
+    }
+
+    /**
+     * Gets an upper bound of a percentile.
+     *
+     * @param percentile Percentile, from 0 to 100
+     * @return Largest duration of the bucket that holds the percentile,
+     * in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be in 0-100: " + percentile);
+        }
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            snapshot[b] = counts.get(b);
+            total += snapshot[b];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += snapshot[b];
+            if (seen >= rank) {
+                return upperBound(b);
+            }
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    /**
+     * Clears all buckets.
+     */
+    public void reset() {
+        for (int b = 0; b < BUCKETS; b++) {
+            counts.set(b, 0);
+        }
+    }
+
+    private static long upperBound(int bucket) {
+        return bucket == BUCKETS - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+}
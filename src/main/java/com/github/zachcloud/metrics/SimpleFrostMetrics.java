@@ -0,0 +1,85 @@
+package com.github.zachcloud.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * FrostMetrics that keeps counters and latency histograms in memory.
+ * A monitoring adapter can read them periodically. Thread safe.
+ */
+public final class SimpleFrostMetrics implements FrostMetrics {
+
+    private final LongAdder bytesEncrypted = new LongAdder();
+    private final LongAdder bytesDecrypted = new LongAdder();
+    private final LongAdder[] hashes = new LongAdder[4];
+    private final Map<FrostOperation, LatencyHistogram> latencies = new EnumMap<>(FrostOperation.class);
+
+    /**
+     * Creates a new SimpleFrostMetrics with every counter at 0.
+     */
+    public SimpleFrostMetrics() {
+        for (int type = 0; type < hashes.length; type++) {
+            hashes[type] = new LongAdder();
+        }
+        for (FrostOperation operation : FrostOperation.values()) {
+            latencies.put(operation, new LatencyHistogram());
+        }
+    }
+
+    @Override
+    public void bytesEncrypted(long bytes) {
+        bytesEncrypted.add(bytes);
+    }
+
+    @Override
+    public void bytesDecrypted(long bytes) {
+        bytesDecrypted.add(bytes);
+    }
+
+    @Override
+    public void hashesComputed(int hashType, long count) {
+        if (hashType >= 0 && hashType < hashes.length) {
+            hashes[hashType].add(count);
+        }
+    }
+
+    @Override
+    public void latency(FrostOperation operation, long nanos) {
+        latencies.get(operation).record(nanos);
+    }
+
+    /**
+     * @return Total bytes encrypted
+     */
+    public long getBytesEncrypted() {
+        return bytesEncrypted.sum();
+    }
+
+    /**
+     * @return Total bytes decrypted
+     */
+    public long getBytesDecrypted() {
+        return bytesDecrypted.sum();
+    }
+
+    /**
+     * Gets the number of hashes computed for one hash type.
+     *
+     * @param hashType Hash type (see SecurityConstants; 0-3)
+     * @return Hashes computed
+     */
+    public long getHashCount(int hashType) {
+        return hashes[hashType].sum();
+    }
+
+    /**
+     * Gets the latency histogram of one kind of operation.
+     *
+     * @param operation Kind of operation
+     * @return Histogram of sampled durations
+     */
+    public LatencyHistogram getLatency(FrostOperation operation) {
+        return latencies.get(operation);
+    }
+}
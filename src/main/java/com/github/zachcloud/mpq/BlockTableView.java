@@ -0,0 +1,127 @@
+package com.github.zachcloud.mpq;
+
+import com.github.zachcloud.interfaces.IFrostSecurity;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+import static com.github.zachcloud.frost.SecurityConstants.MPQ_FILE_EXISTS;
+
+/**
+ * Read-only view over a decrypted MPQ block table.
+ * <p>
+ * Fields are read straight from the underlying buffer when asked for;
+ * no entry objects are created. Each entry is 4 integers: filePosition,
+ * compressedSize, fileSize and flags. Positions and sizes are unsigned
+ * and returned as longs.
+ * <p>
+ * Safe for any number of readers as long as the buffer is not
+ * written to.
+ */
+public final class BlockTableView {
+
+    /* Size of one block table entry in bytes */
+    public static final int ENTRY_SIZE = 16;
+
+    /* Integers in one block table entry */
+    private static final int ENTRY_INTS = 4;
+
+    private final IntBuffer entries;
+    private final int size;
+
+    /**
+     * Creates a view over the remaining bytes of a decrypted block
+     * table, read in little endian order like the archive stores them.
+     * The buffer's position, limit and order are not changed.
+     *
+     * @param decrypted Decrypted block table
+     */
+    public BlockTableView(ByteBuffer decrypted) {
+        this(decrypted.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer());
+    }
+
+    /**
+     * Creates a view over the remaining integers of a decrypted block
+     * table, for example one decrypted with decrypt(int[], int).
+     * The buffer's position and limit are not changed.
+     *
+     * @param decrypted Decrypted block table
+     */
+    public BlockTableView(IntBuffer decrypted) {
+        this.entries = decrypted.slice();
+        this.size = entries.remaining() / ENTRY_INTS;
+    }
+
+    /**
+     * Copies and decrypts a block table with the "(block table)" key.
+     * The encrypted buffer is not modified.
+     *
+     * @param frostSecurity Security to decrypt with
+     * @param encrypted     Encrypted block table, from its position
+     * @param entryCount    Number of entries
+     * @return View over the decrypted copy
+     */
+    public static BlockTableView fromEncrypted(IFrostSecurity frostSecurity, ByteBuffer encrypted, int entryCount) {
+        byte[] copy = new byte[Math.min(encrypted.remaining(), entryCount * ENTRY_SIZE)];
+        encrypted.duplicate().get(copy);
+        ByteBuffer decrypted = ByteBuffer.wrap(copy).order(ByteOrder.LITTLE_ENDIAN);
+        frostSecurity.decryptBufferInPlace(decrypted, frostSecurity.getFileKey("(block table)"));
+        return new BlockTableView(decrypted);
+    }
+
+    /**
+     * @return Number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param entry Entry index
+     * @return Offset of the file from the start of the archive
+     */
+    public long filePosition(int entry) {
+        return entries.get(checkEntry(entry) * ENTRY_INTS) & 0xFFFFFFFFL;
+    }
+
+    public long compressedSize(int entry) {
+        return entries.get(checkEntry(entry) * ENTRY_INTS + 1) & 0xFFFFFFFFL;
+    }
+
+    public long fileSize(int entry) {
+        return entries.get(checkEntry(entry) * ENTRY_INTS + 2) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * @param entry Entry index
+     * @return Flags of the file (see the MPQ_FILE constants)
+     */
+    public int flags(int entry) {
+        return entries.get(checkEntry(entry) * ENTRY_INTS + 3);
+    }
+
+    /**
+     * @param entry Entry index
+     * @param flags One or more MPQ_FILE flags
+     * @return True if all of the flags are set
+     */
+    public boolean hasFlags(int entry, int flags) {
+        return (flags(entry) & flags) == flags;
+    }
+
+    /**
+     * @param entry Entry index
+     * @return True if the MPQ_FILE_EXISTS flag is set
+     */
+    public boolean exists(int entry) {
+        return hasFlags(entry, MPQ_FILE_EXISTS);
+    }
+
+    private int checkEntry(int entry) {
+        if (entry < 0 || entry >= size) {
+            throw new IndexOutOfBoundsException("Entry " + entry + " of " + size);
+        }
+        return entry;
+    }
+}
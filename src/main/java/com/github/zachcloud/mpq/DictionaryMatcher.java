@@ -0,0 +1,173 @@
+package com.github.zachcloud.mpq;
+
+import com.github.zachcloud.frost.StormHash;
+import com.github.zachcloud.helpers.LongHashSet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import static com.github.zachcloud.frost.SecurityConstants.MPQ_HASH_NAME_A;
+import static com.github.zachcloud.frost.SecurityConstants.MPQ_HASH_NAME_B;
+
+/**
+ * Recovers unknown file names by trying every directory + stem +
+ * extension combination against the hashA/hashB pairs of an archive.
+ * <p>
+ * The name A and B hash states after each directory, and after each
+ * directory + stem, are computed once and extended with every
+ * extension, so a candidate costs only the characters of its
+ * extension. Candidate names are never built as Strings unless they
+ * match. The directory x stem space is split across a ForkJoinPool.
+ * <p>
+ * Thread safe; the targets are not changed after construction.
+ */
+public final class DictionaryMatcher {
+
+    /* Directory + stem pairs searched by one task before it stops splitting */
+    private static final int SPLIT_THRESHOLD = 1024;
+
+    private final LongHashSet targets;
+
+    /**
+     * Creates a matcher for a set of packed hashA/hashB pairs.
+     *
+     * @param targets Pairs packed with pack(hashA, hashB)
+     */
+    public DictionaryMatcher(LongHashSet targets) {
+        if (targets == null) {
+            throw new IllegalArgumentException("Targets cannot be null");
+        }
+        this.targets = targets;
+    }
+
+    /**
+     * Creates a matcher for every used entry of a hash table.
+     *
+     * @param hashTable Decrypted hash table
+     * @return New matcher
+     */
+    public static DictionaryMatcher forHashTable(HashTableView hashTable) {
+        LongHashSet targets = new LongHashSet(hashTable.size());
+        for (int i = 0; i < hashTable.size(); i++) {
+            if (hashTable.isUsed(i)) {
+                targets.add(pack(hashTable.hashA(i), hashTable.hashB(i)));
+            }
+        }
+        return new DictionaryMatcher(targets);
+    }
+
+    /**
+     * Packs a hashA/hashB pair into one long.
+     *
+     * @param hashA MPQ_HASH_NAME_A hash
+     * @param hashB MPQ_HASH_NAME_B hash
+     * @return Packed pair
+     */
+    public static long pack(int hashA, int hashB) {
+        return ((long) hashA << 32) | (hashB & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Tries every directory + stem + extension on the common pool.
+     *
+     * @param directories Directories, each with its trailing '\' (may be "")
+     * @param stems       File name stems
+     * @param extensions  Extensions, each with its '.' (may be "")
+     * @return Matching names, sorted
+     */
+    public List<String> match(List<String> directories, List<String> stems, List<String> extensions) {
+        return match(directories, stems, extensions, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Tries every directory + stem + extension.
+     *
+     * @param directories Directories, each with its trailing '\' (may be "")
+     * @param stems       File name stems
+     * @param extensions  Extensions, each with its '.' (may be "")
+     * @param pool        Pool to search on
+     * @return Matching names, sorted
+     */
+    public List<String> match(List<String> directories, List<String> stems, List<String> extensions,
+                              ForkJoinPool pool) {
+        String[] dirs = directories.toArray(new String[0]);
+        String[] stemArray = stems.toArray(new String[0]);
+        String[] exts = extensions.toArray(new String[0]);
+        if (dirs.length == 0 || stemArray.length == 0 || exts.length == 0) {
+            return Collections.emptyList();
+        }
+        long[] dirStatesA = new long[dirs.length];
+        long[] dirStatesB = new long[dirs.length];
+        for (int i = 0; i < dirs.length; i++) {
+            dirStatesA[i] = StormHash.update(StormHash.INITIAL_STATE, MPQ_HASH_NAME_A, dirs[i]);
+            dirStatesB[i] = StormHash.update(StormHash.INITIAL_STATE, MPQ_HASH_NAME_B, dirs[i]);
+        }
+        List<String> matches = pool.invoke(new MatchTask(dirs, stemArray, exts, dirStatesA, dirStatesB,
+                0, (long) dirs.length * stemArray.length));
+        Collections.sort(matches);
+        return matches;
+    }
+
+    /**
+     * Searches the directory + stem pairs [from, to), numbered
+     * directory * stems.length + stem.
+     */
+    private final class MatchTask extends RecursiveTask<List<String>> {
+
+        private final String[] directories;
+        private final String[] stems;
+        private final String[] extensions;
+        private final long[] dirStatesA;
+        private final long[] dirStatesB;
+        private final long from;
+        private final long to;
+
+        private MatchTask(String[] directories, String[] stems, String[] extensions,
+                          long[] dirStatesA, long[] dirStatesB, long from, long to) {
+            this.directories = directories;
+            this.stems = stems;
+            this.extensions = extensions;
+            this.dirStatesA = dirStatesA;
+            this.dirStatesB = dirStatesB;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<String> compute() {
+            if (to - from > SPLIT_THRESHOLD) {
+                long middle = (from + to) >>> 1;
+                MatchTask right = new MatchTask(directories, stems, extensions, dirStatesA, dirStatesB,
+                        middle, to);
+                right.fork();
+                List<String> left = new MatchTask(directories, stems, extensions, dirStatesA, dirStatesB,
+                        from, middle).compute();
+                List<String> rightMatches = right.join();
+                if (left.isEmpty()) {
+                    return rightMatches;
+                }
+                left.addAll(rightMatches);
+                return left;
+            }
+            List<String> matches = new ArrayList<>();
+            LongHashSet targetSet = targets;
+            for (long pair = from; pair < to; pair++) {
+                int dir = (int) (pair / stems.length);
+                String stem = stems[(int) (pair % stems.length)];
+                long stemA = StormHash.update(dirStatesA[dir], MPQ_HASH_NAME_A, stem);
+                long stemB = StormHash.update(dirStatesB[dir], MPQ_HASH_NAME_B, stem);
+                for (String extension : extensions) {
+                    int hashA = StormHash.value(StormHash.update(stemA, MPQ_HASH_NAME_A, extension));
+                    int hashB = StormHash.value(StormHash.update(stemB, MPQ_HASH_NAME_B, extension));
+                    if (targetSet.contains(pack(hashA, hashB))) {
+                        matches.add(directories[dir] + stem + extension);
+                    }
+                }
+            }
+            return matches;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.github.zachcloud.mpq;
+
+import com.github.zachcloud.interfaces.IFrostSecurity;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Remembers the key of each file of one archive, by block index.
+ * <p>
+ * The first time a block is opened its key is derived from the name
+ * and block table entry; later opens of the same block return the
+ * stored key without hashing. Keys recovered some other way (for
+ * example with KeyRecovery for files without a known name) can be
+ * stored directly.
+ * <p>
+ * A block's key depends only on its base name, position, size and
+ * flags, so names that reach the same block through different paths
+ * share the key. Thread safe; lookups do not lock or allocate.
+ */
+public final class FileKeyTable {
+
+    /* Set in a slot once its key is known; the key is in the low 32 bits */
+    private static final long KNOWN = 1L << 32;
+
+    private final IFrostSecurity frostSecurity;
+    private final AtomicLongArray keys;
+
+    /**
+     * Creates a new FileKeyTable.
+     *
+     * @param frostSecurity Security to derive keys with
+     * @param blockCount    Number of entries in the archive's block table
+     */
+    public FileKeyTable(IFrostSecurity frostSecurity, int blockCount) {
+        if (frostSecurity == null) {
+            throw new IllegalArgumentException("Security cannot be null");
+        }
+        this.frostSecurity = frostSecurity;
+        this.keys = new AtomicLongArray(blockCount);
+    }
+
+    /**
+     * Gets the key of a file, deriving and storing it the first time.
+     *
+     * @param blockIndex  Block table index of the file
+     * @param name        File name, with or without its path
+     * @param blockOffset Offset of the file from the start of the archive
+     * @param fileSize    Uncompressed size of the file
+     * @param flags       Block table flags of the file
+     * @return File key
+     */
+    public int getFileKey(int blockIndex, CharSequence name, long blockOffset, long fileSize, int flags) {
+        long slot = keys.get(blockIndex);
+        if (slot != 0) {
+            return (int) slot;
+        }
+        int key = frostSecurity.getFileKey(name, blockOffset, fileSize, flags);
+        keys.set(blockIndex, KNOWN | (key & 0xFFFFFFFFL));
+        return key;
+    }
+
+    /**
+     * Stores a key that was found without the file's name.
+     *
+     * @param blockIndex Block table index of the file
+     * @param key        File key
+     */
+    public void putFileKey(int blockIndex, int key) {
+        keys.set(blockIndex, KNOWN | (key & 0xFFFFFFFFL));
+    }
+
+    /**
+     * @param blockIndex Block table index of the file
+     * @return True if the file's key is stored
+     */
+    public boolean isKnown(int blockIndex) {
+        return keys.get(blockIndex) != 0;
+    }
+
+    /**
+     * Forgets the key of a file, for example after it was replaced.
+     *
+     * @param blockIndex Block table index of the file
+     */
+    public void invalidate(int blockIndex) {
+        keys.set(blockIndex, 0);
+    }
+
+    /**
+     * @return Number of entries in the block table
+     */
+    public int size() {
+        return keys.length();
+    }
+}
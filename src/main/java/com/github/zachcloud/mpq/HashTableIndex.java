@@ -0,0 +1,221 @@
+package com.github.zachcloud.mpq;
+
+import com.github.zachcloud.frost.NameHashes;
+import com.github.zachcloud.frost.StormSecurity;
+
+import java.nio.ByteBuffer;
+
+import static com.github.zachcloud.frost.SecurityConstants.MPQ_HASH_LOOKUP_TYPES;
+
+/**
+ * Index over a decrypted MPQ hash table.
+ * <p>
+ * Entries are stored in flat primitive arrays and names are resolved
+ * the way Storm does: probe linearly from the name's table offset hash,
+ * skip deleted entries, stop at the first free entry, and prefer an
+ * entry with the requested locale over a locale neutral one. The
+ * platform field is kept but not used for matching.
+ * <p>
+ * Instances are immutable, so any number of threads may look up names
+ * at the same time. Lookups do not allocate.
+ */
+public final class HashTableIndex {
+
+    /* Size of one hash table entry in bytes */
+    public static final int ENTRY_SIZE = 16;
+
+    /* Block index of an entry that has never been used; ends a probe */
+    public static final int BLOCK_INDEX_FREE = 0xFFFFFFFF;
+
+    /* Block index of an entry whose file was deleted; probing continues */
+    public static final int BLOCK_INDEX_DELETED = 0xFFFFFFFE;
+
+    /* Locale of entries that apply to every language */
+    public static final int LOCALE_NEUTRAL = 0;
+
+    /* Returned when a name is not in the table */
+    public static final int NOT_FOUND = -1;
+
+    private static final ThreadLocal<NameHashes> SCRATCH = new ThreadLocal<NameHashes>() {
+        @Override
+        protected NameHashes initialValue() {
+            return new NameHashes();
+        }
+    };
+
+    private final StormSecurity frostSecurity;
+    private final int[] hashA;
+    private final int[] hashB;
+    private final short[] locale;
+    private final short[] platform;
+    private final int[] blockIndex;
+    private final int mask;
+
+    /**
+     * Creates an index over a decrypted hash table.
+     * Entries are read from the buffer's position in little endian
+     * order; the buffer is not modified.
+     *
+     * @param frostSecurity Security used to hash names
+     * @param decrypted     Decrypted hash table
+     * @param entryCount    Number of entries; a power of two
+     */
+    public HashTableIndex(StormSecurity frostSecurity, ByteBuffer decrypted, int entryCount) {
+        this(frostSecurity, new HashTableView(decrypted), entryCount);
+    }
+
+    /**
+     * Creates an index over every entry of a hash table view.
+     *
+     * @param frostSecurity Security used to hash names
+     * @param view          Decrypted hash table; its size must be a power of two
+     */
+    public HashTableIndex(StormSecurity frostSecurity, HashTableView view) {
+        this(frostSecurity, view, view.size());
+    }
+
+    private HashTableIndex(StormSecurity frostSecurity, HashTableView view, int entryCount) {
+        if (entryCount <= 0 || (entryCount & (entryCount - 1)) != 0) {
+            throw new IllegalArgumentException("Hash table size must be a power of two: " + entryCount);
+        }
+        if (view.size() < entryCount) {
+            throw new IllegalArgumentException("Table holds " + view.size() + " entries, need " + entryCount);
+        }
+        this.frostSecurity = frostSecurity;
+        this.hashA = new int[entryCount];
+        this.hashB = new int[entryCount];
+        this.locale = new short[entryCount];
+        this.platform = new short[entryCount];
+        this.blockIndex = new int[entryCount];
+        this.mask = entryCount - 1;
+        for (int i = 0; i < entryCount; i++) {
+            hashA[i] = view.hashA(i);
+            hashB[i] = view.hashB(i);
+            locale[i] = (short) view.locale(i);
+            platform[i] = (short) view.platform(i);
+            blockIndex[i] = view.blockIndex(i);
+        }
+    }
+
+    /**
+     * Decrypts a hash table with the "(hash table)" key and indexes it.
+     * The encrypted buffer is not modified.
+     *
+     * @param frostSecurity Security used to decrypt and hash names
+     * @param encrypted     Encrypted hash table, from its position
+     * @param entryCount    Number of entries; a power of two
+     * @return New index
+     */
+    public static HashTableIndex fromEncrypted(StormSecurity frostSecurity, ByteBuffer encrypted,
+                                               int entryCount) {
+        return new HashTableIndex(frostSecurity, HashTableView.fromEncrypted(frostSecurity, encrypted, entryCount),
+                entryCount);
+    }
+
+    /**
+     * Finds the hash table entry of a name.
+     *
+     * @param name   File name
+     * @param locale Preferred locale
+     * @return Entry index, or NOT_FOUND
+     */
+    public int findEntry(CharSequence name, int locale) {
+        return findEntry(name, locale, SCRATCH.get());
+    }
+
+    /**
+     * Finds the hash table entry of a name, using the caller's holder
+     * for the name's hashes.
+     *
+     * @param name    File name
+     * @param locale  Preferred locale
+     * @param scratch Holder the name's hashes are computed into
+     * @return Entry index, or NOT_FOUND
+     */
+    public int findEntry(CharSequence name, int locale, NameHashes scratch) {
+        frostSecurity.hashAll(name, MPQ_HASH_LOOKUP_TYPES, scratch);
+        return findEntry(scratch.getTableOffset(), scratch.getNameA(), scratch.getNameB(), locale);
+    }
+
+    /**
+     * Finds the hash table entry for precomputed name hashes.
+     * Returns the entry with the requested locale if there is one,
+     * otherwise the locale neutral entry.
+     *
+     * @param tableOffsetHash MPQ_HASH_TABLE_OFFSET hash of the name
+     * @param nameA           MPQ_HASH_NAME_A hash of the name
+     * @param nameB           MPQ_HASH_NAME_B hash of the name
+     * @param locale          Preferred locale
+     * @return Entry index, or NOT_FOUND
+     */
+    public int findEntry(int tableOffsetHash, int nameA, int nameB, int locale) {
+        int start = tableOffsetHash & mask;
+        int neutral = NOT_FOUND;
+        int i = start;
+        do {
+            int block = blockIndex[i];
+            if (block == BLOCK_INDEX_FREE) {
+                break;
+            }
+            if (block != BLOCK_INDEX_DELETED && hashA[i] == nameA && hashB[i] == nameB) {
+                int entryLocale = this.locale[i] & 0xFFFF;
+                if (entryLocale == locale) {
+                    return i;
+                }
+                if (entryLocale == LOCALE_NEUTRAL && neutral == NOT_FOUND) {
+                    neutral = i;
+                }
+            }
+            i = (i + 1) & mask;
+        } while (i != start);
+        return neutral;
+    }
+
+    /**
+     * Finds the block table index of a name.
+     *
+     * @param name   File name
+     * @param locale Preferred locale
+     * @return Block index, or NOT_FOUND
+     */
+    public int findBlockIndex(CharSequence name, int locale) {
+        int entry = findEntry(name, locale);
+        return entry == NOT_FOUND ? NOT_FOUND : blockIndex[entry];
+    }
+
+    /**
+     * @return Number of entries
+     */
+    public int size() {
+        return blockIndex.length;
+    }
+
+    public int getHashA(int entry) {
+        return hashA[entry];
+    }
+
+    public int getHashB(int entry) {
+        return hashB[entry];
+    }
+
+    public int getLocale(int entry) {
+        return locale[entry] & 0xFFFF;
+    }
+
+    public int getPlatform(int entry) {
+        return platform[entry] & 0xFFFF;
+    }
+
+    public int getBlockIndex(int entry) {
+        return blockIndex[entry];
+    }
+
+    /**
+     * @param entry Entry index
+     * @return True if the entry points to a file
+     */
+    public boolean isUsed(int entry) {
+        int block = blockIndex[entry];
+        return block != BLOCK_INDEX_FREE && block != BLOCK_INDEX_DELETED;
+    }
+}
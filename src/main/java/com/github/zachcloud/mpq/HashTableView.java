@@ -0,0 +1,110 @@
+package com.github.zachcloud.mpq;
+
+import com.github.zachcloud.interfaces.IFrostSecurity;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * Read-only view over a decrypted MPQ hash table.
+ * <p>
+ * Fields are read straight from the underlying buffer when asked for;
+ * no entry objects are created. Each entry is 4 integers: hashA,
+ * hashB, locale and platform (the low and high 16 bits of the third
+ * integer) and blockIndex.
+ * <p>
+ * Safe for any number of readers as long as the buffer is not
+ * written to.
+ */
+public final class HashTableView {
+
+    /* Integers in one hash table entry */
+    private static final int ENTRY_INTS = 4;
+
+    private final IntBuffer entries;
+    private final int size;
+
+    /**
+     * Creates a view over the remaining bytes of a decrypted hash
+     * table, read in little endian order like the archive stores them.
+     * The buffer's position, limit and order are not changed.
+     *
+     * @param decrypted Decrypted hash table
+     */
+    public HashTableView(ByteBuffer decrypted) {
+        this(decrypted.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer());
+    }
+
+    /**
+     * Creates a view over the remaining integers of a decrypted hash
+     * table, for example one decrypted with decrypt(int[], int).
+     * The buffer's position and limit are not changed.
+     *
+     * @param decrypted Decrypted hash table
+     */
+    public HashTableView(IntBuffer decrypted) {
+        this.entries = decrypted.slice();
+        this.size = entries.remaining() / ENTRY_INTS;
+    }
+
+    /**
+     * Copies and decrypts a hash table with the "(hash table)" key.
+     * The encrypted buffer is not modified.
+     *
+     * @param frostSecurity Security to decrypt with
+     * @param encrypted     Encrypted hash table, from its position
+     * @param entryCount    Number of entries
+     * @return View over the decrypted copy
+     */
+    public static HashTableView fromEncrypted(IFrostSecurity frostSecurity, ByteBuffer encrypted, int entryCount) {
+        byte[] copy = new byte[Math.min(encrypted.remaining(), entryCount * HashTableIndex.ENTRY_SIZE)];
+        encrypted.duplicate().get(copy);
+        ByteBuffer decrypted = ByteBuffer.wrap(copy).order(ByteOrder.LITTLE_ENDIAN);
+        frostSecurity.decryptBufferInPlace(decrypted, frostSecurity.getFileKey("(hash table)"));
+        return new HashTableView(decrypted);
+    }
+
+    /**
+     * @return Number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    public int hashA(int entry) {
+        return entries.get(checkEntry(entry) * ENTRY_INTS);
+    }
+
+    public int hashB(int entry) {
+        return entries.get(checkEntry(entry) * ENTRY_INTS + 1);
+    }
+
+    public int locale(int entry) {
+        return entries.get(checkEntry(entry) * ENTRY_INTS + 2) & 0xFFFF;
+    }
+
+    public int platform(int entry) {
+        return entries.get(checkEntry(entry) * ENTRY_INTS + 2) >>> 16;
+    }
+
+    public int blockIndex(int entry) {
+        return entries.get(checkEntry(entry) * ENTRY_INTS + 3);
+    }
+
+    /**
+     * @param entry Entry index
+     * @return True if the entry points to a file
+     */
+    public boolean isUsed(int entry) {
+        int block = blockIndex(entry);
+        return block != HashTableIndex.BLOCK_INDEX_FREE && block != HashTableIndex.BLOCK_INDEX_DELETED;
+    }
+
+    private int checkEntry(int entry) {
+        if (entry < 0 || entry >= size) {
+            throw new IndexOutOfBoundsException("Entry " + entry + " of " + size);
+        }
+        return entry;
+    }
+}
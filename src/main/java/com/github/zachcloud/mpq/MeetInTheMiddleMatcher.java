@@ -0,0 +1,437 @@
+package com.github.zachcloud.mpq;
+
+import com.github.zachcloud.frost.StormHash;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import static com.github.zachcloud.frost.SecurityConstants.MPQ_HASH_NAME_A;
+import static com.github.zachcloud.frost.SecurityConstants.MPQ_HASH_NAME_B;
+
+/**
+ * Recovers unknown file names of the form prefix + unknown characters
+ * + suffix from hashA/hashB pairs, meeting in the middle.
+ * <p>
+ * The name A states after the prefix and every combination of the
+ * first unknown characters are stored in a table. For the rest, the
+ * search runs backwards from each target hashA with
+ * StormHash.reverse. The hash value fixes only seed1 + seed2 before
+ * the last character, so seed2 there has to be guessed. Every step is
+ * a T-function, so guessing only the low k bits of seed2 gives the low
+ * k bits of both seeds at the meeting point. Those are looked up in
+ * the table, and each forward state found is hashed forward to check
+ * the whole hashA and then hashB.
+ * <p>
+ * With N stored states and 2^k close to the square root of N, this
+ * costs about 2 * sqrt(N) steps per combination of the backward
+ * characters, instead of N. The table is as large as the memory limit
+ * allows. The backward search is split across a ForkJoinPool.
+ * <p>
+ * Thread safe; the targets are not changed after construction.
+ */
+public final class MeetInTheMiddleMatcher {
+
+    /* Memory limit of the forward table unless one is given */
+    public static final long DEFAULT_TABLE_BYTES = 256L * 1024 * 1024;
+
+    /* Bytes per table slot: the state and the rank of its forward characters */
+    private static final int SLOT_BYTES = 16;
+
+    /* Largest table, in slots */
+    private static final int MAX_SLOTS = 1 << 29;
+
+    /* Guesses of the low bits of seed2 tried by one task before it stops splitting */
+    private static final int SPLIT_THRESHOLD = 16;
+
+    private final int[] hashA;
+    private final int[] hashB;
+    private final long maxTableBytes;
+
+    /**
+     * Creates a matcher with the default memory limit.
+     *
+     * @param targets Pairs packed with DictionaryMatcher.pack(hashA, hashB)
+     */
+    public MeetInTheMiddleMatcher(long[] targets) {
+        this(targets, DEFAULT_TABLE_BYTES);
+    }
+
+    /**
+     * Creates a matcher.
+     *
+     * @param targets       Pairs packed with DictionaryMatcher.pack(hashA, hashB)
+     * @param maxTableBytes Memory limit of the forward table
+     */
+    public MeetInTheMiddleMatcher(long[] targets, long maxTableBytes) {
+        if (targets == null) {
+            throw new IllegalArgumentException("Targets cannot be null");
+        }
+        if (maxTableBytes < 2 * SLOT_BYTES) {
+            throw new IllegalArgumentException("Table needs at least " + 2 * SLOT_BYTES + " bytes: " + maxTableBytes);
+        }
+        long[] unique = Arrays.stream(targets).distinct().toArray();
+        this.hashA = new int[unique.length];
+        this.hashB = new int[unique.length];
+        for (int i = 0; i < unique.length; i++) {
+            hashA[i] = (int) (unique[i] >>> 32);
+            hashB[i] = (int) unique[i];
+        }
+        this.maxTableBytes = maxTableBytes;
+    }
+
+    /**
+     * Creates a matcher for every used entry of a hash table.
+     *
+     * @param hashTable     Decrypted hash table
+     * @param maxTableBytes Memory limit of the forward table
+     * @return New matcher
+     */
+    public static MeetInTheMiddleMatcher forHashTable(HashTableView hashTable, long maxTableBytes) {
+        long[] targets = new long[hashTable.size()];
+        int count = 0;
+        for (int i = 0; i < hashTable.size(); i++) {
+            if (hashTable.isUsed(i)) {
+                targets[count++] = DictionaryMatcher.pack(hashTable.hashA(i), hashTable.hashB(i));
+            }
+        }
+        return new MeetInTheMiddleMatcher(Arrays.copyOf(targets, count), maxTableBytes);
+    }
+
+    /**
+     * Tries every name prefix + length characters of charset + suffix
+     * on the common pool.
+     *
+     * @param prefix  Known start of the names (may be "")
+     * @param charset Characters the unknown part is made of
+     * @param length  Number of unknown characters
+     * @param suffix  Known end of the names (may be "")
+     * @return Matching names, sorted
+     */
+    public List<String> match(String prefix, String charset, int length, String suffix) {
+        return match(prefix, charset, length, suffix, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Tries every name prefix + length characters of charset + suffix.
+     * Characters that hash the same, such as 'a' and 'A', are tried
+     * once; names are returned with the first of them in charset.
+     *
+     * @param prefix  Known start of the names (may be "")
+     * @param charset Characters the unknown part is made of
+     * @param length  Number of unknown characters
+     * @param suffix  Known end of the names (may be "")
+     * @param pool    Pool to search on
+     * @return Matching names, sorted
+     */
+    public List<String> match(String prefix, String charset, int length, String suffix, ForkJoinPool pool) {
+        if (length < 0) {
+            throw new IllegalArgumentException("Length cannot be negative: " + length);
+        }
+        char[] chars = distinctChars(charset);
+        if (hashA.length == 0 || (chars.length == 0 && length > 0)) {
+            return Collections.emptyList();
+        }
+        if (length == 0) {
+            return checkWhole(prefix + suffix);
+        }
+        Search search = new Search(prefix, chars, length, suffix);
+        List<String> matches = pool.invoke(new BackwardTask(search, 0, search.tasks));
+        return new ArrayList<>(new TreeSet<>(matches));
+    }
+
+    /**
+     * Keeps one character of each group that hashes the same.
+     */
+    private static char[] distinctChars(String charset) {
+        StringBuilder distinct = new StringBuilder();
+        List<Long> seen = new ArrayList<>();
+        for (int i = 0; i < charset.length(); i++) {
+            long state = StormHash.update(StormHash.INITIAL_STATE, MPQ_HASH_NAME_A, charset.charAt(i));
+            if (!seen.contains(state)) {
+                seen.add(state);
+                distinct.append(charset.charAt(i));
+            }
+        }
+        return distinct.toString().toCharArray();
+    }
+
+    private List<String> checkWhole(String name) {
+        int nameA = StormHash.value(StormHash.update(StormHash.INITIAL_STATE, MPQ_HASH_NAME_A, name));
+        int nameB = StormHash.value(StormHash.update(StormHash.INITIAL_STATE, MPQ_HASH_NAME_B, name));
+        for (int t = 0; t < hashA.length; t++) {
+            if (hashA[t] == nameA && hashB[t] == nameB) {
+                return Collections.singletonList(name);
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * One search: the forward table and how the unknown characters
+     * are split between the two sides.
+     */
+    private final class Search {
+
+        private final String prefix;
+        private final char[] chars;
+        private final String suffix;
+
+        /* Unknown characters stored in the table, and searched backwards */
+        private final int forward;
+        private final int backward;
+
+        /* Characters the last one of a name can be */
+        private final char[] lastChars;
+
+        /* Known characters between the backward ones and the last one */
+        private final String fixedTail;
+
+        /* Low bits of seed2 that are guessed */
+        private final int lowMask;
+        private final long guesses;
+        private final long tasks;
+
+        private final StateTable table;
+
+        private Search(String prefix, char[] chars, int length, String suffix) {
+            this.prefix = prefix;
+            this.chars = chars;
+            this.suffix = suffix;
+            int stored = 0;
+            long states = 1;
+            while (stored < length && fits(states * chars.length)) {
+                states *= chars.length;
+                stored++;
+            }
+            if (stored == length && suffix.isEmpty()) {
+                // The last character is undone from the hash, so it is always searched backwards
+                states /= chars.length;
+                stored--;
+            }
+            this.forward = stored;
+            this.backward = length - stored;
+            this.lastChars = suffix.isEmpty() ? chars : new char[]{suffix.charAt(suffix.length() - 1)};
+            this.fixedTail = suffix.isEmpty() ? "" : suffix.substring(0, suffix.length() - 1);
+            int bits = Math.max(1, (65 - Long.numberOfLeadingZeros(states - 1)) / 2);
+            this.lowMask = bits >= 32 ? -1 : (1 << bits) - 1;
+            this.guesses = 1L << Math.min(bits, 32);
+            this.tasks = (long) hashA.length * lastChars.length * guesses;
+            this.table = new StateTable((int) states, lowMask);
+            fill(StormHash.update(StormHash.INITIAL_STATE, MPQ_HASH_NAME_A, prefix), 0, 0);
+        }
+
+        private boolean fits(long states) {
+            long slots = slots(states);
+            return slots <= MAX_SLOTS && slots * SLOT_BYTES <= maxTableBytes;
+        }
+
+        /**
+         * Stores the states of every combination of the forward
+         * characters, depth first so that each prefix is hashed once.
+         */
+        private void fill(long state, int depth, int rank) {
+            if (depth == forward) {
+                table.add(state, rank);
+                return;
+            }
+            for (int c = 0; c < chars.length; c++) {
+                fill(StormHash.update(state, MPQ_HASH_NAME_A, chars[c]), depth + 1, rank * chars.length + c);
+            }
+        }
+
+        /**
+         * Searches one target, last character and guess of the low
+         * bits of seed2 before the last character.
+         */
+        private void search(long task, char[] tail, List<String> matches) {
+            int target = (int) (task / (lastChars.length * guesses));
+            long rest = task % (lastChars.length * guesses);
+            char last = lastChars[(int) (rest / guesses)];
+            int guess = (int) (rest % guesses);
+            tail[tail.length - 1] = last;
+            long state = StormHash.reverse(hashA[target], MPQ_HASH_NAME_A, last, guess);
+            for (int i = fixedTail.length() - 1; i >= 0; i--) {
+                state = StormHash.reverse(state, MPQ_HASH_NAME_A, fixedTail.charAt(i));
+            }
+            int unknownBackward = suffix.isEmpty() ? backward - 1 : backward;
+            searchBackward(state, unknownBackward, target, tail, matches);
+        }
+
+        /**
+         * Undoes the backward characters from the last to the first,
+         * then looks up the low bits of the state at the meeting point.
+         */
+        private void searchBackward(long state, int remaining, int target, char[] tail, List<String> matches) {
+            if (remaining == 0) {
+                long key = table.key(state);
+                for (int slot = table.first(key); !table.isEmpty(slot); slot = table.next(slot)) {
+                    if (table.key(table.state(slot)) == key) {
+                        check(table.state(slot), table.rank(slot), target, tail, matches);
+                    }
+                }
+                return;
+            }
+            for (char c : chars) {
+                tail[remaining - 1] = c;
+                searchBackward(StormHash.reverse(state, MPQ_HASH_NAME_A, c), remaining - 1, target, tail, matches);
+            }
+        }
+
+        /**
+         * Hashes a forward state through the tail and, if hashA
+         * matches, the whole name with name B.
+         */
+        private void check(long forwardState, int rank, int target, char[] tail, List<String> matches) {
+            long state = forwardState;
+            for (char c : tail) {
+                state = StormHash.update(state, MPQ_HASH_NAME_A, c);
+            }
+            if (StormHash.value(state) != hashA[target]) {
+                return;
+            }
+            char[] forwardChars = new char[forward];
+            for (int i = forward - 1; i >= 0; i--) {
+                forwardChars[i] = chars[rank % chars.length];
+                rank /= chars.length;
+            }
+            String name = prefix + new String(forwardChars) + new String(tail);
+            if (StormHash.value(StormHash.update(StormHash.INITIAL_STATE, MPQ_HASH_NAME_B, name)) == hashB[target]) {
+                matches.add(name);
+            }
+        }
+
+        /**
+         * @return Buffer for the characters after the forward ones
+         */
+        private char[] newTail() {
+            char[] tail = new char[suffix.isEmpty() ? backward : backward + suffix.length()];
+            for (int i = 0; i < fixedTail.length(); i++) {
+                tail[tail.length - 1 - fixedTail.length() + i] = fixedTail.charAt(i);
+            }
+            return tail;
+        }
+    }
+
+    /**
+     * Searches the tasks [from, to), numbered
+     * (target * lastChars + last character) * guesses + guess.
+     */
+    private static final class BackwardTask extends RecursiveTask<List<String>> {
+
+        private final Search search;
+        private final long from;
+        private final long to;
+
+        private BackwardTask(Search search, long from, long to) {
+            this.search = search;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<String> compute() {
+            if (to - from > SPLIT_THRESHOLD) {
+                long middle = (from + to) >>> 1;
+                BackwardTask right = new BackwardTask(search, middle, to);
+                right.fork();
+                List<String> left = new BackwardTask(search, from, middle).compute();
+                List<String> rightMatches = right.join();
+                if (left.isEmpty()) {
+                    return rightMatches;
+                }
+                left.addAll(rightMatches);
+                return left;
+            }
+            List<String> matches = new ArrayList<>();
+            char[] tail = search.newTail();
+            for (long task = from; task < to; task++) {
+                search.search(task, tail, matches);
+            }
+            return matches;
+        }
+    }
+
+    /**
+     * @return Table slots for a number of states, at most half full
+     */
+    private static long slots(long states) {
+        return Long.highestOneBit(Math.max(2, states * 2 - 1)) << 1;
+    }
+
+    /**
+     * Hash states and the ranks of their forward characters, found by
+     * the low bits of both seeds. Open addressing with linear probing;
+     * a slot is the state followed by its rank in one long array, so a
+     * probe touches one cache line. Any number of threads may look up
+     * once it is filled.
+     */
+    private static final class StateTable {
+
+        private static final long EMPTY = -1;
+
+        private final long[] slots;
+        private final int mask;
+        private final long lowMask;
+
+        private StateTable(int expected, int lowMask) {
+            int capacity = (int) slots(expected);
+            this.slots = new long[capacity * 2];
+            Arrays.fill(slots, EMPTY);
+            this.mask = capacity - 1;
+            this.lowMask = ((lowMask & 0xFFFFFFFFL) << 32) | (lowMask & 0xFFFFFFFFL);
+        }
+
+        private void add(long state, int rank) {
+            int slot = first(key(state));
+            while (!isEmpty(slot)) {
+                slot = next(slot);
+            }
+            slots[slot * 2] = state;
+            slots[slot * 2 + 1] = rank;
+        }
+
+        /**
+         * @return The low bits of both seeds of a state
+         */
+        private long key(long state) {
+            return state & lowMask;
+        }
+
+        private int first(long key) {
+            return mix(key) & mask;
+        }
+
+        private int next(int slot) {
+            return (slot + 1) & mask;
+        }
+
+        private boolean isEmpty(int slot) {
+            return slots[slot * 2 + 1] == EMPTY;
+        }
+
+        private long state(int slot) {
+            return slots[slot * 2];
+        }
+
+        private int rank(int slot) {
+            return (int) slots[slot * 2 + 1];
+        }
+
+        /**
+         * Spreads the bits of a key (the murmur3 64-bit finalizer).
+         */
+        private static int mix(long value) {
+            value ^= value >>> 33;
+            value *= 0xFF51AFD7ED558CCDL;
+            value ^= value >>> 33;
+            value *= 0xC4CEB9FE1A85EC53L;
+            value ^= value >>> 33;
+            return (int) value;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.github.zachcloud.mpq;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only dictionary of precomputed name hashes, written by
+ * NameHashDictionaryBuilder and usually memory-mapped with open.
+ * <p>
+ * The file is little endian:
+ * <pre>
+ *   header   magic "FSHD", version, record count, bucket bits, pool size, 12 reserved bytes
+ *   buckets  (1 &lt;&lt; bucketBits) + 1 integers; records whose unsigned hashA
+ *            starts with bucket b are [buckets[b], buckets[b + 1])
+ *   records  per name: the MPQ_HASH_TABLE_OFFSET, MPQ_HASH_NAME_A and
+ *            MPQ_HASH_NAME_B hashes of the whole name, its file key
+ *            (getFileKey, which hashes only the base name), then its
+ *            offset and length in the pool; sorted by unsigned (hashA, hashB)
+ *   pool     names, one byte per character
+ * </pre>
+ * A lookup reads one bucket and binary searches the few records in it,
+ * straight from the buffer; nothing is loaded onto the heap, and only
+ * the name that is returned is allocated.
+ * <p>
+ * Safe for any number of readers. A mapped file stays mapped until the
+ * dictionary is garbage collected, since Java 8 cannot unmap it.
+ */
+public final class NameHashDictionary {
+
+    /* "FSHD" read as a little endian integer */
+    static final int MAGIC = 0x44485346;
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 32;
+
+    /* Integers in one record */
+    static final int RECORD_INTS = 6;
+
+    /* Largest number of bucket bits; the bucket table is then 256 KB */
+    static final int MAX_BUCKET_BITS = 16;
+
+    private final ByteBuffer pool;
+    private final IntBuffer buckets;
+    private final IntBuffer records;
+    private final int size;
+    private final int bucketShift;
+
+    /**
+     * Creates a dictionary over the remaining bytes of a buffer holding
+     * a whole dictionary file. The buffer's position, limit and order
+     * are not changed.
+     *
+     * @param file Dictionary file
+     * @throws IllegalArgumentException If the buffer does not hold a valid dictionary
+     */
+    public NameHashDictionary(ByteBuffer file) {
+        ByteBuffer data = file.slice().order(ByteOrder.LITTLE_ENDIAN);
+        if (data.remaining() < HEADER_SIZE || data.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a name hash dictionary");
+        }
+        if (data.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported name hash dictionary version " + data.getInt(4));
+        }
+        int count = data.getInt(8);
+        int bucketBits = data.getInt(12);
+        int poolSize = data.getInt(16);
+        if (count < 0 || bucketBits < 0 || bucketBits > MAX_BUCKET_BITS || poolSize < 0) {
+            throw new IllegalArgumentException("Corrupt name hash dictionary header");
+        }
+        long bucketsStart = HEADER_SIZE;
+        long recordsStart = bucketsStart + 4L * ((1 << bucketBits) + 1);
+        long poolStart = recordsStart + 4L * RECORD_INTS * count;
+        if (poolStart + poolSize != data.remaining()) {
+            throw new IllegalArgumentException("Name hash dictionary should be " + (poolStart + poolSize) +
+                    " bytes, is " + data.remaining());
+        }
+        this.size = count;
+        this.bucketShift = bucketBits == 0 ? 32 : 32 - bucketBits;
+        this.buckets = section(data, bucketsStart, recordsStart).asIntBuffer();
+        this.records = section(data, recordsStart, poolStart).asIntBuffer();
+        this.pool = section(data, poolStart, poolStart + poolSize);
+    }
+
+    /**
+     * Maps a dictionary file read-only.
+     *
+     * @param path Dictionary file
+     * @return Dictionary over the mapped file
+     * @throws IOException If the file cannot be mapped or is not a valid dictionary
+     */
+    public static NameHashDictionary open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Name hash dictionary is larger than 2 GB: " + path);
+            }
+            try {
+                return new NameHashDictionary(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            } catch (IllegalArgumentException e) {
+                throw new IOException(e.getMessage() + ": " + path, e);
+            }
+        }
+    }
+
+    /**
+     * @return Number of names
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds the record of a hashA/hashB pair.
+     *
+     * @param hashA MPQ_HASH_NAME_A hash
+     * @param hashB MPQ_HASH_NAME_B hash
+     * @return Record index, or -1 if no name has the pair
+     */
+    public int find(int hashA, int hashB) {
+        if (size == 0) {
+            return -1;
+        }
+        long target = sortKey(hashA, hashB);
+        int bucket = bucketShift == 32 ? 0 : hashA >>> bucketShift;
+        int low = buckets.get(bucket);
+        int high = buckets.get(bucket + 1) - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long key = sortKey(records.get(middle * RECORD_INTS + 1), records.get(middle * RECORD_INTS + 2));
+            if (key < target) {
+                low = middle + 1;
+            } else if (key > target) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the name of a hashA/hashB pair.
+     *
+     * @param hashA MPQ_HASH_NAME_A hash
+     * @param hashB MPQ_HASH_NAME_B hash
+     * @return Name, or null if no name has the pair
+     */
+    public String findName(int hashA, int hashB) {
+        int record = find(hashA, hashB);
+        return record < 0 ? null : name(record);
+    }
+
+    /**
+     * @param record   Record index
+     * @param hashType MPQ_HASH_TABLE_OFFSET, MPQ_HASH_NAME_A or MPQ_HASH_NAME_B
+     * @return Hash of the whole name, as FrostSecurity.hashAsInt gives it
+     */
+    public int hash(int record, int hashType) {
+        if (hashType < 0 || hashType > 2) {
+            throw new IllegalArgumentException("Invalid hash type: " + hashType);
+        }
+        return records.get(checkRecord(record) * RECORD_INTS + hashType);
+    }
+
+    /**
+     * @param record Record index
+     * @return Key of the file, as FrostSecurity.getFileKey gives it
+     */
+    public int fileKey(int record) {
+        return records.get(checkRecord(record) * RECORD_INTS + 3);
+    }
+
+    /**
+     * @param record Record index
+     * @return Name of the record
+     */
+    public String name(int record) {
+        int base = checkRecord(record) * RECORD_INTS;
+        int offset = records.get(base + 4);
+        int length = records.get(base + 5);
+        byte[] bytes = new byte[length];
+        ByteBuffer name = pool.duplicate();
+        ((Buffer) name).position(offset);
+        name.get(bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Orders pairs as unsigned (hashA, hashB) with a signed comparison.
+     */
+    static long sortKey(int hashA, int hashB) {
+        return (((long) hashA << 32) | (hashB & 0xFFFFFFFFL)) ^ Long.MIN_VALUE;
+    }
+
+    private int checkRecord(int record) {
+        if (record < 0 || record >= size) {
+            throw new IndexOutOfBoundsException("Record " + record + " of " + size);
+        }
+        return record;
+    }
+
+    private static ByteBuffer section(ByteBuffer data, long from, long to) {
+        ByteBuffer section = data.duplicate();
+        ((Buffer) section).limit((int) to);
+        ((Buffer) section).position((int) from);
+        return section.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
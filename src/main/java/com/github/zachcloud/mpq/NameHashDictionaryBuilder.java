@@ -0,0 +1,255 @@
+package com.github.zachcloud.mpq;
+
+import com.github.zachcloud.exceptions.HashingException;
+import com.github.zachcloud.frost.SecurityConstants;
+import com.github.zachcloud.interfaces.IFrostSecurity;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes NameHashDictionary files.
+ * <p>
+ * Names are collected with add and addListfile, then write hashes them
+ * all, sorts them by unsigned (hashA, hashB) with a stable radix sort
+ * and writes the records, bucket table and name pool. Names with the
+ * same hashA/hashB pair, such as "war3map.j" and "WAR3MAP.J", are
+ * stored once, under the name added first.
+ * <p>
+ * Not thread safe.
+ */
+public final class NameHashDictionaryBuilder {
+
+    /* Names hashed per hashAll call */
+    private static final int HASH_BATCH = 4096;
+
+    private final IFrostSecurity frostSecurity;
+    private final List<String> names = new ArrayList<>();
+
+    /**
+     * Creates a new NameHashDictionaryBuilder.
+     *
+     * @param frostSecurity Security to hash with
+     */
+    public NameHashDictionaryBuilder(IFrostSecurity frostSecurity) {
+        if (frostSecurity == null) {
+            throw new IllegalArgumentException("Security cannot be null");
+        }
+        this.frostSecurity = frostSecurity;
+    }
+
+    /**
+     * Adds a name.
+     *
+     * @param name Name; each character must be in 0x00-0xFF
+     * @return This builder
+     */
+    public NameHashDictionaryBuilder add(CharSequence name) {
+        if (name == null) {
+            throw new HashingException("Cannot hash a null String");
+        }
+        names.add(name.toString());
+        return this;
+    }
+
+    /**
+     * Adds every non-blank line of a listfile, read as ISO-8859-1 so
+     * that each byte is one character.
+     *
+     * @param listfile Listfile
+     * @return This builder
+     * @throws IOException If the listfile cannot be read
+     */
+    public NameHashDictionaryBuilder addListfile(Path listfile) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(listfile, StandardCharsets.ISO_8859_1)) {
+            for (String line; (line = reader.readLine()) != null; ) {
+                String name = line.trim();
+                if (!name.isEmpty()) {
+                    names.add(name);
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return Number of names added so far, including duplicates
+     */
+    public int size() {
+        return names.size();
+    }
+
+    /**
+     * Writes the dictionary file.
+     *
+     * @param path File to write; replaced if it exists
+     * @return Number of names written, without duplicates
+     * @throws IOException If the file cannot be written
+     */
+    public int write(Path path) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path), 1 << 16)) {
+            return write(out);
+        }
+    }
+
+    /**
+     * Writes the dictionary file to a stream. The stream is not closed.
+     *
+     * @param out Stream to write to
+     * @return Number of names written, without duplicates
+     * @throws IOException If the stream cannot be written
+     */
+    public int write(OutputStream out) throws IOException {
+        int count = names.size();
+        int[] hashes = hashAll();
+        int[] order = sort(hashes, count);
+
+        // Drop pairs seen before; the sort is stable, so the first added stays
+        int unique = 0;
+        long poolSize = 0;
+        for (int i = 0; i < count; i++) {
+            int n = order[i];
+            if (unique > 0 && samePair(hashes, n, order[unique - 1])) {
+                continue;
+            }
+            order[unique++] = n;
+            poolSize += names.get(n).length();
+        }
+        int bucketBits = bucketBits(unique);
+        long fileSize = NameHashDictionary.HEADER_SIZE + 4L * ((1 << bucketBits) + 1) +
+                4L * NameHashDictionary.RECORD_INTS * unique + poolSize;
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IOException("Name hash dictionary would be larger than 2 GB: " + fileSize + " bytes");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(NameHashDictionary.MAGIC).putInt(NameHashDictionary.VERSION)
+                .putInt(unique).putInt(bucketBits).putInt((int) poolSize)
+                .putInt(0).putInt(0).putInt(0);
+        int record = 0;
+        for (int bucket = 0; bucket <= 1 << bucketBits; bucket++) {
+            while (record < unique && bucketOf(hashes[order[record] * 4 + SecurityConstants.MPQ_HASH_NAME_A],
+                    bucketBits) < bucket) {
+                record++;
+            }
+            flushIfFull(out, buffer, 4);
+            buffer.putInt(record);
+        }
+        int nameOffset = 0;
+        for (int i = 0; i < unique; i++) {
+            int n = order[i];
+            flushIfFull(out, buffer, 4 * NameHashDictionary.RECORD_INTS);
+            for (int hashType = 0; hashType < 4; hashType++) {
+                buffer.putInt(hashes[n * 4 + hashType]);
+            }
+            int length = names.get(n).length();
+            buffer.putInt(nameOffset).putInt(length);
+            nameOffset += length;
+        }
+        for (int i = 0; i < unique; i++) {
+            String name = names.get(order[i]);
+            for (int c = 0; c < name.length(); c++) {
+                flushIfFull(out, buffer, 1);
+                buffer.put((byte) name.charAt(c));
+            }
+        }
+        out.write(buffer.array(), 0, buffer.position());
+        return unique;
+    }
+
+    /**
+     * @return The three lookup hashes and the file key of name i
+     *         at [i * 4, i * 4 + 4)
+     */
+    private int[] hashAll() {
+        int count = names.size();
+        int[] hashes = new int[count * 4];
+        int[] batchHashes = new int[HASH_BATCH * 4];
+        String[] batch = new String[HASH_BATCH];
+        for (int from = 0; from < count; from += HASH_BATCH) {
+            int length = Math.min(HASH_BATCH, count - from);
+            if (length < HASH_BATCH) {
+                batch = new String[length];
+            }
+            for (int i = 0; i < length; i++) {
+                batch[i] = names.get(from + i);
+            }
+            frostSecurity.hashAll(batch, SecurityConstants.MPQ_HASH_LOOKUP_TYPES, batchHashes);
+            for (int i = 0; i < length; i++) {
+                batchHashes[i * 4 + SecurityConstants.MPQ_HASH_FILE_KEY] = frostSecurity.getFileKey(batch[i]);
+            }
+            System.arraycopy(batchHashes, 0, hashes, from * 4, length * 4);
+        }
+        return hashes;
+    }
+
+    /**
+     * Sorts name indexes by unsigned (hashA, hashB) with a least
+     * significant digit radix sort on 16-bit digits, which keeps names
+     * with equal pairs in the order they were added.
+     *
+     * @return Name indexes in sorted order
+     */
+    private static int[] sort(int[] hashes, int count) {
+        int[] order = new int[count];
+        int[] scratch = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        int[] counts = new int[(1 << 16) + 1];
+        for (int pass = 0; pass < 4; pass++) {
+            int hashType = pass < 2 ? SecurityConstants.MPQ_HASH_NAME_B : SecurityConstants.MPQ_HASH_NAME_A;
+            int shift = (pass & 1) * 16;
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < count; i++) {
+                counts[((hashes[order[i] * 4 + hashType] >>> shift) & 0xFFFF) + 1]++;
+            }
+            for (int digit = 0; digit < 1 << 16; digit++) {
+                counts[digit + 1] += counts[digit];
+            }
+            for (int i = 0; i < count; i++) {
+                int n = order[i];
+                scratch[counts[(hashes[n * 4 + hashType] >>> shift) & 0xFFFF]++] = n;
+            }
+            int[] swap = order;
+            order = scratch;
+            scratch = swap;
+        }
+        return order;
+    }
+
+    private static boolean samePair(int[] hashes, int n, int m) {
+        return hashes[n * 4 + SecurityConstants.MPQ_HASH_NAME_A] == hashes[m * 4 + SecurityConstants.MPQ_HASH_NAME_A] &&
+                hashes[n * 4 + SecurityConstants.MPQ_HASH_NAME_B] == hashes[m * 4 + SecurityConstants.MPQ_HASH_NAME_B];
+    }
+
+    /**
+     * Uses about one bucket per record, up to MAX_BUCKET_BITS.
+     */
+    private static int bucketBits(int count) {
+        int bits = 32 - Integer.numberOfLeadingZeros(Math.max(count, 1) - 1);
+        return Math.min(bits, NameHashDictionary.MAX_BUCKET_BITS);
+    }
+
+    private static int bucketOf(int hashA, int bucketBits) {
+        return bucketBits == 0 ? 0 : hashA >>> (32 - bucketBits);
+    }
+
+    private static void flushIfFull(OutputStream out, ByteBuffer buffer, int needed) throws IOException {
+        if (buffer.remaining() < needed) {
+            out.write(buffer.array(), 0, buffer.position());
+            ((Buffer) buffer).clear();
+        }
+    }
+}
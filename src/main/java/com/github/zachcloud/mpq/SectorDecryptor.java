@@ -0,0 +1,177 @@
+package com.github.zachcloud.mpq;
+
+import com.github.zachcloud.exceptions.EncryptionException;
+import com.github.zachcloud.frost.Sectors;
+import com.github.zachcloud.interfaces.IFrostSecurity;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Decrypts the sectors of an MPQ file in parallel.
+ * <p>
+ * Sector i of a file is encrypted with the file key plus i, so every
+ * sector is an independent cipher stream. Sectors are grouped into
+ * tasks of about TASK_SIZE bytes and decrypted straight from the
+ * source into one destination, at the same relative positions.
+ * <p>
+ * On a ForkJoinPool the groups are split recursively; on any other
+ * executor the sectors are cut into one group per unit of parallelism.
+ * Thread safe if the security is.
+ */
+public final class SectorDecryptor {
+
+    /* Bytes of sector data a single task decrypts before splitting */
+    private static final int TASK_SIZE = 256 * 1024;
+
+    private final IFrostSecurity frostSecurity;
+    private final Executor executor;
+    private final int parallelism;
+
+    /**
+     * Creates a new SectorDecryptor that runs on the common pool.
+     *
+     * @param frostSecurity Security to decrypt with
+     */
+    public SectorDecryptor(IFrostSecurity frostSecurity) {
+        this(frostSecurity, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a new SectorDecryptor that runs on a ForkJoinPool.
+     *
+     * @param frostSecurity Security to decrypt with
+     * @param pool          Pool to decrypt on
+     */
+    public SectorDecryptor(IFrostSecurity frostSecurity, ForkJoinPool pool) {
+        this(frostSecurity, pool, pool.getParallelism());
+    }
+
+    /**
+     * Creates a new SectorDecryptor that runs on any executor.
+     *
+     * @param frostSecurity Security to decrypt with
+     * @param executor      Executor to decrypt on
+     * @param parallelism   Number of tasks to cut the sectors into
+     */
+    public SectorDecryptor(IFrostSecurity frostSecurity, Executor executor, int parallelism) {
+        if (frostSecurity == null || executor == null) {
+            throw new IllegalArgumentException("Security and executor cannot be null");
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.frostSecurity = frostSecurity;
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Decrypts every sector of a file into the destination array.
+     * Sector i spans [sectorOffsets[i], sectorOffsets[i + 1]) relative
+     * to srcOffset and is written to the same range relative to
+     * dstOffset. src and dst may be the same array at the same offset.
+     *
+     * @param src           Encrypted file
+     * @param srcOffset     Offset of the file in src
+     * @param sectorOffsets Sector offsets; one more than the number of sectors
+     * @param key           Key of sector 0
+     * @param dst           Destination array
+     * @param dstOffset     Offset of the file in dst
+     */
+    public void decrypt(byte[] src, int srcOffset, int[] sectorOffsets, int key, byte[] dst, int dstOffset) {
+        int end = Sectors.checkSectorOffsets(sectorOffsets);
+        Sectors.checkRange(src.length, srcOffset, end);
+        Sectors.checkRange(dst.length, dstOffset, end);
+        run(sectorOffsets, (from, to) ->
+                Sectors.modify(frostSecurity, src, srcOffset, sectorOffsets, from, to, key, dst, dstOffset, true));
+    }
+
+    /**
+     * Decrypts every sector of a file in place.
+     * Sector i spans [sectorOffsets[i], sectorOffsets[i + 1]) relative
+     * to the buffer's position. Integers are read in the buffer's byte
+     * order. Position and limit are not changed.
+     *
+     * @param file          Encrypted file
+     * @param sectorOffsets Sector offsets; one more than the number of sectors
+     * @param key           Key of sector 0
+     */
+    public void decryptInPlace(ByteBuffer file, int[] sectorOffsets, int key) {
+        int end = Sectors.checkSectorOffsets(sectorOffsets);
+        if (file.remaining() < end) {
+            throw new EncryptionException("Buffer holds " + file.remaining() +
+                    " bytes, sectors end at " + end);
+        }
+        int base = file.position();
+        run(sectorOffsets, (from, to) -> {
+            ByteBuffer sector = file.duplicate().order(file.order());
+            for (int i = from; i < to; i++) {
+                ((Buffer) sector).limit(base + sectorOffsets[i + 1]);
+                ((Buffer) sector).position(base + sectorOffsets[i]);
+                frostSecurity.decryptBufferInPlace(sector, frostSecurity.getSectorKey(key, i));
+            }
+        });
+    }
+
+    private interface SectorRange {
+        void decrypt(int from, int to);
+    }
+
+    private void run(int[] sectorOffsets, SectorRange range) {
+        int sectors = sectorOffsets.length - 1;
+        if (sectors == 0) {
+            return;
+        }
+        if (executor instanceof ForkJoinPool) {
+            ((ForkJoinPool) executor).invoke(new SectorTask(sectorOffsets, range, 0, sectors));
+            return;
+        }
+        int tasks = Math.min(parallelism, sectors);
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[tasks];
+        for (int t = 0; t < tasks; t++) {
+            int from = (int) ((long) sectors * t / tasks);
+            int to = (int) ((long) sectors * (t + 1) / tasks);
+            futures[t] = CompletableFuture.runAsync(() -> range.decrypt(from, to), executor);
+        }
+        try {
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static final class SectorTask extends RecursiveAction {
+
+        private final int[] sectorOffsets;
+        private final SectorRange range;
+        private final int from;
+        private final int to;
+
+        private SectorTask(int[] sectorOffsets, SectorRange range, int from, int to) {
+            this.sectorOffsets = sectorOffsets;
+            this.range = range;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1 || sectorOffsets[to] - sectorOffsets[from] <= TASK_SIZE) {
+                range.decrypt(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new SectorTask(sectorOffsets, range, from, middle),
+                    new SectorTask(sectorOffsets, range, middle, to));
+        }
+    }
+}
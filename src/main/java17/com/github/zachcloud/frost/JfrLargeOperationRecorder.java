@@ -0,0 +1,60 @@
+package com.github.zachcloud.frost;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Records large encrypt and decrypt calls as JDK Flight Recorder
+ * events. When no recording has the event enabled, begin returns null
+ * without allocating.
+ * <p>
+ * Only compiled for Java 17 and later, into the multi-release part of
+ * the jar.
+ */
+final class JfrLargeOperationRecorder implements LargeOperationRecorder {
+
+    @Name("com.github.zachcloud.LargeCryptOperation")
+    @Label("Large Crypt Operation")
+    @Category("FrostSecurity")
+    @Description("Encrypt or decrypt call over the size threshold")
+    static final class LargeCryptEvent extends Event {
+
+        @Label("Operation")
+        String operation;
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+    }
+
+    private static final EventType EVENT_TYPE = EventType.getEventType(LargeCryptEvent.class);
+
+    @Override
+    public Object begin() {
+        if (!EVENT_TYPE.isEnabled()) {
+            return null;
+        }
+        LargeCryptEvent event = new LargeCryptEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void end(Object event, String operation, long bytes) {
+        if (event == null) {
+            return;
+        }
+        LargeCryptEvent cryptEvent = (LargeCryptEvent) event;
+        cryptEvent.end();
+        if (cryptEvent.shouldCommit()) {
+            cryptEvent.operation = operation;
+            cryptEvent.bytes = bytes;
+            cryptEvent.commit();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.github.zachcloud.frost;
+
+import com.github.zachcloud.exceptions.HashingException;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Hashes several names at once, one per vector lane.
+ * <p>
+ * The hash of a single name is a serial chain, so lanes run different
+ * names side by side. Names are ordered by length first so that lanes
+ * of a group finish at about the same time; a lane whose name has
+ * ended keeps its state through a mask. Table lookups are gathers.
+ * <p>
+ * Only compiled for Java 17 and later, into the multi-release part of
+ * the jar; needs the jdk.incubator.vector module.
+ */
+final class VectorBulkHasher implements BulkHasher {
+
+    /* C2 before Java 21 can crash on 512-bit int gathers, so those stay at 8 lanes */
+    private static final VectorSpecies<Integer> SPECIES =
+            Runtime.version().feature() < 21 && IntVector.SPECIES_PREFERRED.vectorBitSize() > 256 ?
+                    IntVector.SPECIES_256 : IntVector.SPECIES_PREFERRED;
+
+    @Override
+    public void hash(CharSequence[] names, int from, int to, int tableOffset, int[] dst) {
+        int[] table = StormTables.ENCRYPTION_TABLE;
+        int lanes = SPECIES.length();
+        int[] order = orderByLength(names, from, to);
+        int[] lengths = new int[lanes];
+        int[] result = new int[lanes];
+        int[] chars = new int[0];
+        for (int base = 0; base < order.length; base += lanes) {
+            int used = Math.min(lanes, order.length - base);
+            // Sorted by length, so the last name of the group is the longest
+            int maxLength = names[order[base + used - 1]].length();
+            if (chars.length < maxLength * lanes) {
+                chars = new int[maxLength * lanes];
+            }
+            // Character i of lane l goes to chars[i * lanes + l], 0 past the end of a name
+            for (int lane = 0; lane < lanes; lane++) {
+                lengths[lane] = lane < used ? fill(names[order[base + lane]], chars, lane, lanes, maxLength) :
+                        fill("", chars, lane, lanes, maxLength);
+            }
+            IntVector lengthVector = IntVector.fromArray(SPECIES, lengths, 0);
+            IntVector seed1 = IntVector.broadcast(SPECIES, 0x7FED7FED);
+            IntVector seed2 = IntVector.broadcast(SPECIES, 0xEEEEEEEE);
+            for (int i = 0, position = 0; i < maxLength; i++, position += lanes) {
+                IntVector ch = IntVector.fromArray(SPECIES, chars, position);
+                IntVector lookup = IntVector.fromArray(SPECIES, table, tableOffset, chars, position);
+                IntVector next1 = lookup.lanewise(VectorOperators.XOR, seed1.add(seed2));
+                IntVector next2 = ch.add(next1).add(seed2).add(seed2.lanewise(VectorOperators.LSHL, 5)).add(3);
+                VectorMask<Integer> active = lengthVector.compare(VectorOperators.GT, i);
+                seed1 = seed1.blend(next1, active);
+                seed2 = seed2.blend(next2, active);
+            }
+            seed1.intoArray(result, 0);
+            for (int lane = 0; lane < used; lane++) {
+                dst[order[base + lane]] = result[lane];
+            }
+        }
+    }
+
+    /**
+     * Writes the hash characters of one name into its lane, padded
+     * with 0 up to maxLength.
+     *
+     * @return Length of the name
+     */
+    private static int fill(CharSequence name, int[] chars, int lane, int lanes, int maxLength) {
+        int[] characters = StormTables.HASH_CHARACTER_TABLE;
+        int length = name.length();
+        int position = lane;
+        for (int i = 0; i < length; i++, position += lanes) {
+            char c = name.charAt(i);
+            if (c > 0xFF) {
+                throw new HashingException("Cannot hash character " + (int) c +
+                        " at index " + i + "; hash the encoded bytes instead");
+            }
+            chars[position] = characters[c];
+        }
+        for (int i = length; i < maxLength; i++, position += lanes) {
+            chars[position] = 0;
+        }
+        return length;
+    }
+
+    /**
+     * Counting sort of the name indexes [from, to) by name length.
+     */
+    private static int[] orderByLength(CharSequence[] names, int from, int to) {
+        int maxLength = 0;
+        for (int n = from; n < to; n++) {
+            if (names[n] == null) {
+                throw new HashingException("Cannot hash a null String at index " + n);
+            }
+            maxLength = Math.max(maxLength, names[n].length());
+        }
+        int[] starts = new int[maxLength + 2];
+        for (int n = from; n < to; n++) {
+            starts[names[n].length() + 1]++;
+        }
+        for (int length = 1; length < starts.length; length++) {
+            starts[length] += starts[length - 1];
+        }
+        int[] order = new int[to - from];
+        for (int n = from; n < to; n++) {
+            order[starts[names[n].length()]++] = n;
+        }
+        return order;
+    }
+}
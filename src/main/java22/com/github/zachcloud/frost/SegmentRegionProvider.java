@@ -0,0 +1,99 @@
+package com.github.zachcloud.frost;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Creates OffHeapRegions backed by MemorySegments of a shared arena.
+ * <p>
+ * Only compiled for Java 22 and later, into the multi-release part of
+ * the jar.
+ */
+final class SegmentRegionProvider implements OffHeapRegionProvider {
+
+    @Override
+    public OffHeapRegion allocate(long size, ByteOrder byteOrder) {
+        Arena arena = Arena.ofShared();
+        try {
+            return new SegmentRegion(arena, arena.allocate(size, Long.BYTES), byteOrder);
+        } catch (RuntimeException | Error e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public OffHeapRegion map(Path path, long offset, long length, boolean writable,
+                             ByteOrder byteOrder) throws IOException {
+        Arena arena = Arena.ofShared();
+        try (FileChannel channel = writable ?
+                FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE) :
+                FileChannel.open(path, StandardOpenOption.READ)) {
+            if (offset > channel.size() - length) {
+                throw new IllegalArgumentException("Range [" + offset + ", " + offset + "+" +
+                        length + ") is past the end of the file (size = " + channel.size() + ")");
+            }
+            FileChannel.MapMode mode = writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY;
+            return new SegmentRegion(arena, channel.map(mode, offset, length, arena), byteOrder);
+        } catch (IOException | RuntimeException | Error e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    private static final class SegmentRegion implements OffHeapRegion {
+
+        private final Arena arena;
+        private final MemorySegment segment;
+        private final ByteOrder byteOrder;
+        private final MemorySegmentCipher cipher;
+
+        private SegmentRegion(Arena arena, MemorySegment segment, ByteOrder byteOrder) {
+            this.arena = arena;
+            this.segment = segment;
+            this.byteOrder = byteOrder;
+            this.cipher = new MemorySegmentCipher(byteOrder);
+        }
+
+        @Override
+        public long size() {
+            return segment.byteSize();
+        }
+
+        @Override
+        public ByteOrder getByteOrder() {
+            return byteOrder;
+        }
+
+        @Override
+        public void encrypt(long offset, long length, int key) {
+            cipher.encrypt(segment.asSlice(offset, length), key);
+        }
+
+        @Override
+        public void decrypt(long offset, long length, int key) {
+            cipher.decrypt(segment.asSlice(offset, length), key);
+        }
+
+        @Override
+        public void get(long offset, byte[] dst, int dstOffset, int length) {
+            MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, offset, dst, dstOffset, length);
+        }
+
+        @Override
+        public void put(long offset, byte[] src, int srcOffset, int length) {
+            MemorySegment.copy(src, srcOffset, segment, ValueLayout.JAVA_BYTE, offset, length);
+        }
+
+        @Override
+        public void close() {
+            arena.close();
+        }
+    }
+}
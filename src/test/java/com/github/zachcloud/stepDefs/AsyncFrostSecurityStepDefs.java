@@ -0,0 +1,181 @@
+package com.github.zachcloud.stepDefs;
+
+import com.github.zachcloud.exceptions.HashingException;
+import com.github.zachcloud.frost.AsyncFrostSecurity;
+import com.github.zachcloud.frost.FrostSecurity;
+import com.github.zachcloud.frost.SecurityConstants;
+import io.cucumber.java.After;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.junit.Assert;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+public class AsyncFrostSecurityStepDefs {
+
+    private final FrostSecurity frostSecurity = new FrostSecurity();
+    private final Deque<Runnable> queue = new ArrayDeque<>();
+    private AsyncFrostSecurity async;
+    private byte[] plaintext;
+    private byte[] result;
+    private int[] sectorOffsets;
+    private int key;
+    private CharSequence[] names;
+    private int[] allHashes;
+    private int[] nameAHashes;
+    private final List<CompletableFuture<int[]>> jobs = new ArrayList<>();
+    private int tasksRun;
+
+    @After
+    public void closeAsync() {
+        if (async != null) {
+            async.close();
+        }
+    }
+
+    @Given("an async security with {int} internal threads")
+    public void an_async_security_with_internal_threads(int threads) {
+        async = new AsyncFrostSecurity(frostSecurity, threads);
+    }
+
+    @Given("an async security on a manual executor with parallelism {int}")
+    public void an_async_security_on_a_manual_executor(int parallelism) {
+        async = new AsyncFrostSecurity(frostSecurity, queue::add, parallelism);
+    }
+
+    @When("{int} random bytes are encrypted and decrypted asynchronously with key {int}")
+    public void random_bytes_are_encrypted_and_decrypted_asynchronously(int size, int key) {
+        plaintext = new byte[size];
+        new Random(size).nextBytes(plaintext);
+        result = async.encryptBytesAsync(plaintext, key)
+                .thenCompose(encrypted -> async.decryptBytesAsync(encrypted, key))
+                .join();
+    }
+
+    @Then("the asynchronous result should match the plaintext")
+    public void the_asynchronous_result_should_match_the_plaintext() {
+        Assert.assertArrayEquals(plaintext, result);
+    }
+
+    @When("a file of {int} random bytes in sectors of {int} is encrypted asynchronously with key {int}")
+    public void a_file_is_encrypted_asynchronously(int fileSize, int sectorSize, int key) {
+        this.key = key;
+        plaintext = new byte[fileSize];
+        new Random(fileSize).nextBytes(plaintext);
+        sectorOffsets = new int[(fileSize + sectorSize - 1) / sectorSize + 1];
+        for (int i = 1; i < sectorOffsets.length; i++) {
+            sectorOffsets[i] = Math.min(fileSize, i * sectorSize);
+        }
+        result = async.encryptSectorsAsync(plaintext, sectorOffsets, key).join();
+    }
+
+    @Then("every encrypted sector should match FrostSecurity")
+    public void every_encrypted_sector_should_match_frost_security() {
+        Assert.assertEquals(plaintext.length, result.length);
+        for (int i = 0; i + 1 < sectorOffsets.length; i++) {
+            byte[] sector = Arrays.copyOfRange(plaintext, sectorOffsets[i], sectorOffsets[i + 1]);
+            byte[] expected = frostSecurity.encryptBytes(sector, frostSecurity.getSectorKey(key, i));
+            Assert.assertArrayEquals("Sector " + i, expected,
+                    Arrays.copyOfRange(result, sectorOffsets[i], sectorOffsets[i + 1]));
+        }
+    }
+
+    @Then("decrypting the sectors asynchronously should give back the file")
+    public void decrypting_the_sectors_asynchronously_should_give_back_the_file() {
+        Assert.assertArrayEquals(plaintext, async.decryptSectorsAsync(result, sectorOffsets, key).join());
+    }
+
+    @When("{int} names are hashed asynchronously")
+    public void names_are_hashed_asynchronously(int count) {
+        names = names(count);
+        allHashes = async.hashAllAsync(names, SecurityConstants.MPQ_HASH_ALL_TYPES).join();
+        nameAHashes = async.hashStringsAsync(names, 1).join();
+    }
+
+    @Then("every asynchronous hash should match hashAsInt")
+    public void every_asynchronous_hash_should_match_hash_as_int() {
+        for (int i = 0; i < names.length; i++) {
+            for (int type = 0; type < 4; type++) {
+                Assert.assertEquals(frostSecurity.hashAsInt(names[i], type), allHashes[i * 4 + type]);
+            }
+            Assert.assertEquals(frostSecurity.hashAsInt(names[i], 1), nameAHashes[i]);
+        }
+    }
+
+    @When("{int} names are hashed for type {int} on the manual executor")
+    public void names_are_hashed_on_the_manual_executor(int count, int type) {
+        jobs.add(async.hashStringsAsync(names(count), type));
+    }
+
+    @When("the job is cancelled")
+    public void the_job_is_cancelled() {
+        jobs.get(0).cancel(false);
+    }
+
+    @When("the manual executor runs every queued task")
+    public void the_manual_executor_runs_every_queued_task() {
+        runTasks(Integer.MAX_VALUE);
+    }
+
+    @When("the manual executor runs {int} tasks")
+    public void the_manual_executor_runs_tasks(int count) {
+        runTasks(count);
+    }
+
+    @Then("{int} task(s) should be queued")
+    public void tasks_should_be_queued(int count) {
+        Assert.assertEquals(count, queue.size());
+    }
+
+    @Then("{int} task(s) should have run")
+    public void tasks_should_have_run(int count) {
+        Assert.assertEquals(count, tasksRun);
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    @Then("the job should be cancelled")
+    public void the_job_should_be_cancelled() {
+        Assert.assertTrue(jobs.get(0).isCancelled());
+    }
+
+    @Then("the small job should be done and the large job should not")
+    public void the_small_job_should_be_done_and_the_large_job_should_not() {
+        Assert.assertTrue(jobs.get(1).isDone());
+        Assert.assertFalse(jobs.get(0).isDone());
+    }
+
+    @Then("hashing a null name asynchronously should fail with a HashingException")
+    public void hashing_a_null_name_asynchronously_should_fail() {
+        CharSequence[] withNull = names(10000);
+        withNull[9000] = null;
+        try {
+            async.hashStringsAsync(withNull, 0).join();
+            Assert.fail("Expected a HashingException");
+        } catch (CompletionException expected) {
+            Assert.assertTrue(expected.getCause() instanceof HashingException);
+        }
+    }
+
+    private void runTasks(int count) {
+        for (int i = 0; i < count && !queue.isEmpty(); i++) {
+            queue.poll().run();
+            tasksRun++;
+        }
+    }
+
+    private static CharSequence[] names(int count) {
+        CharSequence[] names = new CharSequence[count];
+        for (int i = 0; i < count; i++) {
+            names[i] = "Units\\File" + i + ".mdx";
+        }
+        return names;
+    }
+}
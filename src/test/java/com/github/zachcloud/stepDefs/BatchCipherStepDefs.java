@@ -0,0 +1,107 @@
+package com.github.zachcloud.stepDefs;
+
+import com.github.zachcloud.exceptions.EncryptionException;
+import com.github.zachcloud.frost.BatchCipher;
+import com.github.zachcloud.frost.FrostSecurity;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.junit.Assert;
+
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class BatchCipherStepDefs {
+
+    private ByteOrder byteOrder;
+    private byte[] plaintext;
+    private byte[] data;
+    private int[] offsets;
+    private int[] lengths;
+    private int[] keys;
+
+    @Given("{int} random segments of at most {int} bytes with {word} integers")
+    public void random_segments_with_integers(int count, int maxLength, String order) {
+        byteOrder = "BIG_ENDIAN".equals(order) ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+        Random random = new Random(count);
+        offsets = new int[count];
+        lengths = new int[count];
+        keys = new int[count];
+        int position = 0;
+        for (int i = 0; i < count; i++) {
+            // Gaps of 0-2 bytes leave segments unaligned and some bytes outside of every segment
+            offsets[i] = position + random.nextInt(3);
+            lengths[i] = random.nextInt(maxLength + 1);
+            keys[i] = random.nextInt();
+            position = offsets[i] + lengths[i];
+        }
+        plaintext = new byte[position + 3];
+        random.nextBytes(plaintext);
+        data = plaintext.clone();
+    }
+
+    @When("the segments are encrypted as a batch on a pool of {int} threads")
+    public void the_segments_are_encrypted_as_a_batch(int threads) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            new BatchCipher(byteOrder, pool).encrypt(data, offsets, lengths, keys);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @When("the segments are decrypted as a batch on a pool of {int} threads")
+    public void the_segments_are_decrypted_as_a_batch(int threads) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            new BatchCipher(byteOrder, pool).decrypt(data, offsets, lengths, keys);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Then("every segment should match encryptBytes with its key")
+    public void every_segment_should_match_encrypt_bytes() {
+        FrostSecurity frostSecurity = new FrostSecurity(byteOrder);
+        for (int i = 0; i < keys.length; i++) {
+            byte[] expected = frostSecurity.encryptBytes(
+                    Arrays.copyOfRange(plaintext, offsets[i], offsets[i] + lengths[i]), keys[i]);
+            Assert.assertArrayEquals("Segment " + i, expected,
+                    Arrays.copyOfRange(data, offsets[i], offsets[i] + lengths[i]));
+        }
+    }
+
+    @Then("the bytes between the segments should be unchanged")
+    public void the_bytes_between_the_segments_should_be_unchanged() {
+        int position = 0;
+        for (int i = 0; i <= keys.length; i++) {
+            int end = i < keys.length ? offsets[i] : data.length;
+            for (int j = position; j < end; j++) {
+                Assert.assertEquals(plaintext[j], data[j]);
+            }
+            if (i < keys.length) {
+                position = offsets[i] + lengths[i];
+            }
+        }
+    }
+
+    @Then("the data should match the plaintext")
+    public void the_data_should_match_the_plaintext() {
+        Assert.assertArrayEquals(plaintext, data);
+    }
+
+    @Then("encrypting with segment {int} ending past the array should fail")
+    public void encrypting_with_a_segment_past_the_array_should_fail(int segment) {
+        int[] badLengths = lengths.clone();
+        badLengths[segment] = data.length - offsets[segment] + 1;
+        try {
+            new BatchCipher(byteOrder).encrypt(data, offsets, badLengths, keys);
+            Assert.fail("Expected an EncryptionException");
+        } catch (EncryptionException expected) {
+            // expected
+        }
+        Assert.assertArrayEquals(plaintext, data);
+    }
+}
@@ -0,0 +1,75 @@
+package com.github.zachcloud.stepDefs;
+
+import com.github.zachcloud.exceptions.HashingException;
+import com.github.zachcloud.frost.FrostSecurity;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.junit.Assert;
+
+import java.util.Random;
+
+public class BulkHashingStepDefs {
+
+    private static final String CHARACTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789._\\/ éÿ";
+
+    private final FrostSecurity frostSecurity = new FrostSecurity();
+    private CharSequence[] names;
+    private int[][] hashes;
+
+    @Then("vector hashing should be enabled when running on Java 17 or later")
+    public void vector_hashing_should_be_enabled_on_java_17() {
+        String version = System.getProperty("java.specification.version");
+        boolean java17 = !version.startsWith("1.") && Integer.parseInt(version) >= 17;
+        Assert.assertEquals(java17, FrostSecurity.isVectorHashingEnabled());
+    }
+
+    @When("{int} random names with seed {int} of up to {int} characters are hashed in bulk")
+    public void random_names_are_hashed_in_bulk(int count, int seed, int maxLength) {
+        Random random = new Random(seed);
+        names = new CharSequence[count];
+        for (int i = 0; i < count; i++) {
+            StringBuilder name = new StringBuilder();
+            int length = random.nextInt(maxLength + 1);
+            for (int c = 0; c < length; c++) {
+                name.append(CHARACTERS.charAt(random.nextInt(CHARACTERS.length())));
+            }
+            // Mix Strings and other CharSequences
+            names[i] = i % 2 == 0 ? name.toString() : name;
+        }
+        hashAll();
+    }
+
+    @When("the names {string}, {string}, {string}, {string} and {string} are hashed in bulk")
+    public void the_names_are_hashed_in_bulk(String a, String b, String c, String d, String e) {
+        names = new CharSequence[] {a, b, c, d, e};
+        hashAll();
+    }
+
+    @Then("every bulk hash should match hashAsInt")
+    public void every_bulk_hash_should_match_hashAsInt() {
+        for (int type = 0; type < 4; type++) {
+            for (int i = 0; i < names.length; i++) {
+                Assert.assertEquals("Name " + names[i] + ", type " + type,
+                        frostSecurity.hashAsInt(names[i], type), hashes[type][i]);
+            }
+        }
+    }
+
+    @Then("hashing a name with the character 0x100 in bulk should throw")
+    public void hashing_a_wide_character_in_bulk_should_throw() {
+        CharSequence[] wide = {"war3map.j", "Units\\Ā.mdx", "Scripts\\common.j"};
+        try {
+            frostSecurity.hashStrings(wide, 0, new int[wide.length]);
+            Assert.fail("Expected a HashingException");
+        } catch (HashingException expected) {
+            // Expected
+        }
+    }
+
+    private void hashAll() {
+        hashes = new int[4][names.length];
+        for (int type = 0; type < 4; type++) {
+            frostSecurity.hashStrings(names, type, hashes[type]);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.github.zachcloud.stepDefs;
+
+import com.github.zachcloud.exceptions.HashingException;
+import com.github.zachcloud.frost.CachingFrostSecurity;
+import com.github.zachcloud.frost.FrostSecurity;
+import com.github.zachcloud.frost.NameHashes;
+import com.github.zachcloud.frost.SecurityConstants;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.junit.Assert;
+
+public class CachingFrostSecurityStepDefs {
+
+    private final FrostSecurity frostSecurity = new FrostSecurity();
+    private CachingFrostSecurity cache;
+    private int namesHashed;
+
+    @Given("a hash cache of {int} names")
+    public void a_hash_cache_of_names(int maximumSize) {
+        cache = new CachingFrostSecurity(frostSecurity, maximumSize);
+    }
+
+    @When("{string} is hashed through the cache {int} times")
+    public void is_hashed_through_the_cache(String name, int times) {
+        for (int i = 0; i < times; i++) {
+            for (int type = 0; type < 4; type++) {
+                cache.hashAsInt(name, type);
+            }
+        }
+    }
+
+    @When("{int} different names are hashed through the cache")
+    public void different_names_are_hashed_through_the_cache(int count) {
+        for (int i = 0; i < count; i++) {
+            cache.hashAsInt("file" + (namesHashed++) + ".mdx", SecurityConstants.MPQ_HASH_NAME_A);
+        }
+    }
+
+    @Then("the cached hashes of {string} should match FrostSecurity")
+    public void the_cached_hashes_should_match(String name) {
+        for (int type = 0; type < 4; type++) {
+            Assert.assertEquals(frostSecurity.hashAsInt(name, type), cache.hashAsInt(name, type));
+            Assert.assertEquals(frostSecurity.hashString(name, type), cache.hashString(name, type));
+        }
+    }
+
+    @Then("hashAll of {string} through the cache should match FrostSecurity")
+    public void hash_all_through_the_cache_should_match(String name) {
+        NameHashes expected = frostSecurity.hashAll(name, SecurityConstants.MPQ_HASH_ALL_TYPES, new NameHashes());
+        NameHashes actual = cache.hashAll(name, SecurityConstants.MPQ_HASH_ALL_TYPES, new NameHashes());
+        int[] bulk = new int[8];
+        cache.hashAll(new CharSequence[]{name, new StringBuilder(name)}, SecurityConstants.MPQ_HASH_ALL_TYPES, bulk);
+        for (int type = 0; type < 4; type++) {
+            Assert.assertEquals(expected.get(type), actual.get(type));
+            Assert.assertEquals(expected.get(type), bulk[type]);
+            Assert.assertEquals(expected.get(type), bulk[4 + type]);
+        }
+    }
+
+    @Then("the cache should report {long} hits and {long} misses")
+    public void the_cache_should_report_hits_and_misses(long hitCount, long missCount) {
+        Assert.assertEquals(hitCount, cache.getHitCount());
+        Assert.assertEquals(missCount, cache.getMissCount());
+    }
+
+    @Then("the cache should report {long} evictions")
+    public void the_cache_should_report_evictions(long evictionCount) {
+        Assert.assertEquals(evictionCount, cache.getEvictionCount());
+    }
+
+    @Then("the cache should hold {int} names")
+    public void the_cache_should_hold_names(int size) {
+        Assert.assertEquals(size, cache.size());
+    }
+
+    @Then("hashing {string} through the cache with type {int} should fail")
+    public void hashing_through_the_cache_with_type_should_fail(String name, int type) {
+        try {
+            cache.hashAsInt(name, type);
+            Assert.fail("Expected a HashingException");
+        } catch (HashingException expected) {
+            Assert.assertEquals(0, cache.getMissCount());
+        }
+    }
+}
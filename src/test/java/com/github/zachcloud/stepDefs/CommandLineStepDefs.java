@@ -0,0 +1,157 @@
+package com.github.zachcloud.stepDefs;
+
+import com.github.zachcloud.cli.Launcher;
+import com.github.zachcloud.frost.FrostSecurity;
+import com.github.zachcloud.frost.SecurityConstants;
+import io.cucumber.java.After;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.junit.Assert;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class CommandLineStepDefs {
+
+    private final FrostSecurity frostSecurity = new FrostSecurity();
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+    private final List<Path> files = new ArrayList<>();
+    private List<String> names;
+    private byte[] input;
+    private Path inputFile;
+    private List<String> arguments;
+    private byte[] range;
+    private int status;
+
+    @Given("a listfile of {int} names")
+    public void a_listfile_of_names(int count) {
+        names = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            names.add("Units\\Unit" + i + (i % 3 == 0 ? ".mdx" : ".blp"));
+        }
+    }
+
+    @When("the listfile is hashed from standard input with arguments {string}")
+    public void the_listfile_is_hashed_from_standard_input(String args) {
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < names.size(); i++) {
+            lines.append(i % 5 == 0 ? "  " : "").append(names.get(i)).append(i % 7 == 0 ? " \r\n" : "\r\n");
+        }
+        byte[] listfile = lines.append("\r\n").toString().getBytes(StandardCharsets.ISO_8859_1);
+        List<String> command = new ArrayList<>();
+        command.add("hash");
+        command.addAll(Arrays.asList(args.split(" ")));
+        command.add("-");
+        status = run(command, listfile);
+    }
+
+    @Then("every output line should hold the hashes and file key of its name in listfile order")
+    public void every_output_line_should_hold_the_hashes_of_its_name() {
+        String[] lines = new String(out.toByteArray(), StandardCharsets.ISO_8859_1).split("\n");
+        Assert.assertEquals(names.size(), lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            String[] columns = lines[i].split("\t");
+            Assert.assertEquals(names.get(i), columns[0]);
+            for (int type = 0; type < 3; type++) {
+                Assert.assertEquals(frostSecurity.hashAsInt(names.get(i), type),
+                        (int) Long.parseLong(columns[1 + type], 16));
+            }
+            Assert.assertEquals(frostSecurity.getFileKey(names.get(i)), (int) Long.parseLong(columns[4], 16));
+        }
+    }
+
+    @Given("an input file of {int} random bytes")
+    public void an_input_file_of_random_bytes(int size) throws IOException {
+        input = new byte[size];
+        new Random(size).nextBytes(input);
+        inputFile = Files.createTempFile("frost", ".bin");
+        files.add(inputFile);
+        Files.write(inputFile, input);
+    }
+
+    @When("the file is encrypted with arguments {string}")
+    public void the_file_is_encrypted_with_arguments(String args) {
+        arguments = Arrays.asList(args.split(" "));
+        List<String> command = new ArrayList<>();
+        command.add("encrypt");
+        command.addAll(arguments);
+        command.add(inputFile.toString());
+        command.add("-");
+        status = run(command, new byte[0]);
+    }
+
+    @Then("the command should exit with {int}")
+    public void the_command_should_exit_with(int expected) {
+        Assert.assertEquals(new String(err.toByteArray(), StandardCharsets.UTF_8), expected, status);
+    }
+
+    @Then("the output should match encryptBytes of {int} bytes at offset {int} with key {int}")
+    public void the_output_should_match_encrypt_bytes_with_key(int length, int offset, int key) {
+        checkEncrypted(length, offset, key);
+    }
+
+    @Then("the output should match encryptBytes of {int} bytes at offset {int} with the file key of {word}")
+    public void the_output_should_match_encrypt_bytes_with_file_key(int length, int offset, String name) {
+        checkEncrypted(length, offset, frostSecurity.getFileKey(name));
+    }
+
+    @Then("the output should match encryptBytes of {int} bytes at offset {int} with the fixed file key of {word} at {long} with size {long}")
+    public void the_output_should_match_encrypt_bytes_with_fixed_file_key(int length, int offset, String name,
+                                                                         long blockOffset, long fileSize) {
+        checkEncrypted(length, offset, frostSecurity.getFileKey(name, blockOffset, fileSize,
+                SecurityConstants.MPQ_FILE_FIX_KEY));
+    }
+
+    @Then("decrypting the output with the same key should give back the range")
+    public void decrypting_the_output_should_give_back_the_range() {
+        byte[] encrypted = out.toByteArray();
+        out.reset();
+        List<String> command = new ArrayList<>();
+        command.add("decrypt");
+        for (int i = 0; i < arguments.size(); i++) {
+            // The output is only the range, so it is decrypted from its start
+            if (arguments.get(i).equals("--offset")) {
+                i++;
+            } else {
+                command.add(arguments.get(i));
+            }
+        }
+        command.add("-");
+        command.add("-");
+        Assert.assertEquals(0, run(command, encrypted));
+        Assert.assertArrayEquals(range, out.toByteArray());
+    }
+
+    @Then("standard error should contain {string}")
+    public void standard_error_should_contain(String text) {
+        Assert.assertTrue(new String(err.toByteArray(), StandardCharsets.UTF_8).contains(text));
+    }
+
+    @After
+    public void deleteFiles() throws IOException {
+        for (Path file : files) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private void checkEncrypted(int length, int offset, int key) {
+        range = Arrays.copyOfRange(input, offset, offset + length);
+        Assert.assertArrayEquals(frostSecurity.encryptBytes(range, key), out.toByteArray());
+    }
+
+    private int run(List<String> command, byte[] stdin) {
+        return Launcher.run(command.toArray(new String[0]), new ByteArrayInputStream(stdin), out,
+                new PrintStream(err, true));
+    }
+}
@@ -0,0 +1,108 @@
+package com.github.zachcloud.stepDefs;
+
+import com.github.zachcloud.frost.FrostSecurity;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.junit.Assert;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConcurrencyStepDefs {
+
+    private byte[][] inputs;
+    private String[] names;
+    private int[] keys;
+    private final AtomicInteger mismatches = new AtomicInteger();
+
+    @Given("{int} random inputs of up to {int} bytes")
+    public void random_inputs(int count, int maxLength) {
+        Random random = new Random(count);
+        inputs = new byte[count][];
+        names = new String[count];
+        keys = new int[count];
+        for (int i = 0; i < count; i++) {
+            inputs[i] = new byte[random.nextInt(maxLength + 1)];
+            random.nextBytes(inputs[i]);
+            names[i] = "Units\\Unit" + random.nextInt() + "\\model" + i + ".mdx";
+            keys[i] = random.nextInt();
+        }
+    }
+
+    @When("{int} threads use the shared {word} endian instance for {int} rounds")
+    public void threads_use_the_shared_instance(int threadCount, String order, int rounds) throws Exception {
+        ByteOrder byteOrder = "big".equals(order) ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+        // References come from a private instance on this thread only
+        FrostSecurity reference = new FrostSecurity(byteOrder);
+        byte[][] decrypted = new byte[inputs.length][];
+        byte[][] encrypted = new byte[inputs.length][];
+        int[][] hashes = new int[inputs.length][4];
+        for (int i = 0; i < inputs.length; i++) {
+            decrypted[i] = reference.decryptBytes(inputs[i], keys[i]);
+            encrypted[i] = reference.encryptBytes(inputs[i], keys[i]);
+            for (int type = 0; type < 4; type++) {
+                hashes[i][type] = reference.hashAsInt(names[i], type);
+            }
+        }
+
+        FrostSecurity shared = FrostSecurity.getInstance(byteOrder);
+        CyclicBarrier start = new CyclicBarrier(threadCount);
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            final int offset = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int round = 0; round < rounds; round++) {
+                    for (int j = 0; j < inputs.length; j++) {
+                        // Each thread walks the inputs in a different order
+                        int i = (j + offset) % inputs.length;
+                        check(Arrays.equals(decrypted[i], shared.decryptBytes(inputs[i], keys[i])));
+                        check(Arrays.equals(encrypted[i], shared.encryptBytes(inputs[i], keys[i])));
+                        ByteBuffer buffer = ByteBuffer.wrap(inputs[i].clone()).order(byteOrder);
+                        shared.decryptBufferInPlace(buffer, keys[i]);
+                        check(Arrays.equals(decrypted[i], buffer.array()));
+                        int type = (round + j) & 3;
+                        check(hashes[i][type] == shared.hashAsInt(names[i], type));
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+    }
+
+    @Then("every thread should see the single threaded results")
+    public void every_thread_should_see_the_single_threaded_results() {
+        Assert.assertEquals("Mismatched results across threads", 0, mismatches.get());
+    }
+
+    @Then("the shared instances should be reused per byte order")
+    public void the_shared_instances_should_be_reused() {
+        Assert.assertSame(FrostSecurity.getInstance(), FrostSecurity.getInstance(ByteOrder.LITTLE_ENDIAN));
+        Assert.assertSame(FrostSecurity.getInstance(ByteOrder.BIG_ENDIAN),
+                FrostSecurity.getInstance(ByteOrder.BIG_ENDIAN));
+        Assert.assertEquals(ByteOrder.BIG_ENDIAN, FrostSecurity.getInstance(ByteOrder.BIG_ENDIAN).getByteOrder());
+        Assert.assertEquals(ByteOrder.LITTLE_ENDIAN, FrostSecurity.getInstance().getByteOrder());
+    }
+
+    private void check(boolean matches) {
+        if (!matches) {
+            mismatches.incrementAndGet();
+        }
+    }
+}
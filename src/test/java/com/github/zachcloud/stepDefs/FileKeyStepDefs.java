@@ -0,0 +1,99 @@
+package com.github.zachcloud.stepDefs;
+
+import com.github.zachcloud.frost.CachingFrostSecurity;
+import com.github.zachcloud.frost.ForwardingFrostSecurity;
+import com.github.zachcloud.frost.FrostSecurity;
+import com.github.zachcloud.frost.SecurityConstants;
+import com.github.zachcloud.mpq.FileKeyTable;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.junit.Assert;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class FileKeyStepDefs {
+
+    private final FrostSecurity frostSecurity = new FrostSecurity();
+    private final AtomicInteger derivations = new AtomicInteger();
+    private final ForwardingFrostSecurity countingSecurity = new ForwardingFrostSecurity(frostSecurity) {
+        @Override
+        public int getFileKey(CharSequence name, long blockOffset, long fileSize, int flags) {
+            derivations.incrementAndGet();
+            return super.getFileKey(name, blockOffset, fileSize, flags);
+        }
+    };
+    private FileKeyTable fileKeyTable;
+    private int lastKey;
+
+    @Then("the file key of {string} should be the file key hash of {string}")
+    public void the_file_key_should_be_the_hash_of(String name, String baseName) {
+        Assert.assertEquals(frostSecurity.hashAsInt(baseName, SecurityConstants.MPQ_HASH_FILE_KEY),
+                frostSecurity.getFileKey(name));
+    }
+
+    @Then("the file key of {string} at {long} with size {long} and flags {int} should be {int}")
+    public void the_file_key_with_flags_should_be(String name, long blockOffset, long fileSize, int flags,
+                                                  int expected) {
+        Assert.assertEquals(expected, frostSecurity.getFileKey(name, blockOffset, fileSize, flags));
+    }
+
+    @Then("sector {int} of a file with key {int} should use key {int}")
+    public void sector_should_use_key(int sector, int fileKey, int expected) {
+        Assert.assertEquals(expected, frostSecurity.getSectorKey(fileKey, sector));
+    }
+
+    @Then("the sector offset table of a file with key {int} should use key {int}")
+    public void the_sector_offset_table_should_use_key(int fileKey, int expected) {
+        Assert.assertEquals(expected, frostSecurity.getSectorOffsetTableKey(fileKey));
+    }
+
+    @Given("a file key table for {int} blocks")
+    public void a_file_key_table_for_blocks(int blockCount) {
+        fileKeyTable = new FileKeyTable(countingSecurity, blockCount);
+    }
+
+    @When("the key of block {int} is read {int} times as {string} at {long} with size {long} and flags {int}")
+    public void the_key_of_block_is_read(int blockIndex, int times, String name, long blockOffset,
+                                         long fileSize, int flags) {
+        for (int i = 0; i < times; i++) {
+            lastKey = fileKeyTable.getFileKey(blockIndex, name, blockOffset, fileSize, flags);
+        }
+    }
+
+    @When("the key {int} is stored for block {int}")
+    public void the_key_is_stored_for_block(int key, int blockIndex) {
+        fileKeyTable.putFileKey(blockIndex, key);
+    }
+
+    @Then("the key of block {int} should have been derived {int} time")
+    public void the_key_should_have_been_derived(int blockIndex, int times) {
+        Assert.assertTrue(fileKeyTable.isKnown(blockIndex));
+        Assert.assertEquals(times, derivations.get());
+    }
+
+    @Then("the key of block {int} should match getFileKey of {string} at {long} with size {long} and flags {int}")
+    public void the_key_of_block_should_match_get_file_key(int blockIndex, String name, long blockOffset,
+                                                           long fileSize, int flags) {
+        Assert.assertEquals(frostSecurity.getFileKey(name, blockOffset, fileSize, flags), lastKey);
+    }
+
+    @Then("block {int} should have key {int}")
+    public void block_should_have_key(int blockIndex, int key) {
+        Assert.assertEquals(key, lastKey);
+    }
+
+    @Then("a caching security should derive the same file keys as FrostSecurity")
+    public void a_caching_security_should_derive_the_same_file_keys() {
+        CachingFrostSecurity cache = new CachingFrostSecurity(frostSecurity, 16);
+        String[] names = {"war3map.j", "Scripts\\war3map.j", "(listfile)", "Units/Footman.mdx"};
+        for (int round = 0; round < 2; round++) {
+            for (String name : names) {
+                Assert.assertEquals(frostSecurity.getFileKey(name), cache.getFileKey(name));
+                Assert.assertEquals(frostSecurity.getFileKey(name, 512, 1000, SecurityConstants.MPQ_FILE_FIX_KEY),
+                        cache.getFileKey(name, 512, 1000, SecurityConstants.MPQ_FILE_FIX_KEY));
+            }
+        }
+        Assert.assertTrue(cache.getHitCount() > 0);
+    }
+}
@@ -0,0 +1,156 @@
+package com.github.zachcloud.stepDefs;
+
+import com.github.zachcloud.frost.FrostSecurity;
+import com.github.zachcloud.jca.FrostProvider;
+import com.github.zachcloud.jca.StormKeySpec;
+import com.github.zachcloud.jca.StormParameterSpec;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.junit.Assert;
+
+import javax.crypto.Cipher;
+import javax.crypto.CipherInputStream;
+import javax.crypto.CipherOutputStream;
+import javax.crypto.NoSuchPaddingException;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.NoSuchAlgorithmException;
+import java.util.Random;
+
+public class FrostProviderStepDefs {
+
+    private final FrostProvider provider = new FrostProvider();
+    private String transformation;
+    private ByteOrder byteOrder;
+    private byte[] plaintext;
+    private byte[] output;
+
+    @Given("{int} random bytes for the {string} cipher in {word} order")
+    public void random_bytes_for_the_cipher(int length, String transformation, String order) {
+        this.transformation = transformation;
+        byteOrder = "BIG_ENDIAN".equals(order) ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+        plaintext = new byte[length];
+        new Random(length).nextBytes(plaintext);
+    }
+
+    @When("the bytes are encrypted with key {int} through the cipher in chunks of {int} bytes")
+    public void the_bytes_are_encrypted_in_chunks(int key, int chunk) throws GeneralSecurityException {
+        output = crypt(Cipher.ENCRYPT_MODE, new StormKeySpec(key), plaintext, chunk);
+    }
+
+    @Then("the cipher output should match encryptBytes with key {int}")
+    public void the_cipher_output_should_match_encrypt_bytes(int key) {
+        Assert.assertArrayEquals(new FrostSecurity(byteOrder).encryptBytes(plaintext, key), output);
+    }
+
+    @Then("decrypting the cipher output with key {int} in chunks of {int} bytes should give back the plaintext")
+    public void decrypting_the_cipher_output_in_chunks(int key, int chunk) throws GeneralSecurityException {
+        Assert.assertArrayEquals(plaintext, crypt(Cipher.DECRYPT_MODE, new StormKeySpec(key), output, chunk));
+    }
+
+    @When("the bytes are encrypted with key {int} through {word} buffers in chunks of {int} bytes")
+    public void the_bytes_are_encrypted_through_buffers(int key, String kind, int chunk)
+            throws GeneralSecurityException {
+        Cipher cipher = cipher(Cipher.ENCRYPT_MODE, new StormKeySpec(key));
+        boolean direct = "direct".equals(kind);
+        ByteBuffer in = direct ? ByteBuffer.allocateDirect(plaintext.length) : ByteBuffer.allocate(plaintext.length);
+        ByteBuffer out = direct ? ByteBuffer.allocateDirect(plaintext.length) : ByteBuffer.allocate(plaintext.length);
+        in.put(plaintext);
+        ((Buffer) in).flip();
+        while (in.remaining() > chunk) {
+            ((Buffer) in).limit(in.position() + chunk);
+            Assert.assertEquals(0, cipher.update(in, out) % 4);
+            ((Buffer) in).limit(plaintext.length);
+        }
+        Assert.assertEquals(plaintext.length, out.position() + cipher.doFinal(in, out));
+        output = new byte[plaintext.length];
+        ((Buffer) out).flip();
+        out.get(output);
+    }
+
+    @When("the bytes are written to a CipherOutputStream with key {int} in chunks of {int} bytes")
+    public void the_bytes_are_written_to_a_cipher_output_stream(int key, int chunk)
+            throws GeneralSecurityException, IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new CipherOutputStream(bytes, cipher(Cipher.ENCRYPT_MODE, new StormKeySpec(key)))) {
+            for (int i = 0; i < plaintext.length; i += chunk) {
+                out.write(plaintext, i, Math.min(chunk, plaintext.length - i));
+            }
+        }
+        output = bytes.toByteArray();
+    }
+
+    @Then("reading the cipher output through a CipherInputStream with key {int} should give back the plaintext")
+    public void reading_through_a_cipher_input_stream(int key) throws GeneralSecurityException, IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (InputStream in = new CipherInputStream(new ByteArrayInputStream(output),
+                cipher(Cipher.DECRYPT_MODE, new StormKeySpec(key)))) {
+            byte[] buffer = new byte[1000];
+            for (int read; (read = in.read(buffer)) != -1; ) {
+                bytes.write(buffer, 0, read);
+            }
+        }
+        Assert.assertArrayEquals(plaintext, bytes.toByteArray());
+    }
+
+    @When("the bytes are encrypted with the raw key {string}")
+    public void the_bytes_are_encrypted_with_the_raw_key(String hex) throws GeneralSecurityException {
+        String[] parts = hex.split(" ");
+        byte[] raw = new byte[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            raw[i] = (byte) Integer.parseInt(parts[i], 16);
+        }
+        output = crypt(Cipher.ENCRYPT_MODE, new SecretKeySpec(raw, FrostProvider.STORM), plaintext, plaintext.length);
+    }
+
+    @Then("the {string} cipher should not be available")
+    public void the_cipher_should_not_be_available(String transformation) {
+        try {
+            Cipher.getInstance(transformation, provider);
+            Assert.fail("Expected " + transformation + " to be rejected");
+        } catch (NoSuchAlgorithmException | NoSuchPaddingException e) {
+            // Expected
+        }
+    }
+
+    private Cipher cipher(int mode, Key key) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance(transformation, provider);
+        cipher.init(mode, key, new StormParameterSpec(byteOrder));
+        return cipher;
+    }
+
+    /**
+     * Feeds src through update in chunks and ends with doFinal, twice,
+     * to check that doFinal resets the cipher.
+     */
+    private byte[] crypt(int mode, Key key, byte[] src, int chunk) throws GeneralSecurityException {
+        Cipher cipher = cipher(mode, key);
+        byte[] first = null;
+        for (int round = 0; round < 2; round++) {
+            ByteArrayOutputStream result = new ByteArrayOutputStream();
+            int i = 0;
+            for (; src.length - i > chunk; i += chunk) {
+                byte[] part = cipher.update(src, i, chunk);
+                result.write(part, 0, part.length);
+            }
+            byte[] last = cipher.doFinal(src, i, src.length - i);
+            result.write(last, 0, last.length);
+            if (first == null) {
+                first = result.toByteArray();
+            } else {
+                Assert.assertArrayEquals(first, result.toByteArray());
+            }
+        }
+        return first;
+    }
+}
@@ -0,0 +1,206 @@
+package com.github.zachcloud.stepDefs;
+
+import com.github.zachcloud.frost.CachingFrostSecurity;
+import com.github.zachcloud.frost.ForwardingFrostSecurity;
+import com.github.zachcloud.frost.FrostSecurity;
+import com.github.zachcloud.frost.FrostSecurityProviders;
+import com.github.zachcloud.frost.InstrumentedFrostSecurity;
+import com.github.zachcloud.frost.NameHashes;
+import com.github.zachcloud.frost.NativeFrostSecurity;
+import com.github.zachcloud.frost.NativeFrostSecurityProvider;
+import com.github.zachcloud.frost.SecurityConstants;
+import com.github.zachcloud.frost.StormCipher;
+import com.github.zachcloud.interfaces.IFrostSecurity;
+import com.github.zachcloud.metrics.SimpleFrostMetrics;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.junit.Assert;
+import org.junit.Assume;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+public class FrostSecurityProvidersStepDefs {
+
+    private static final int BUFFER_OFFSET = 3;
+
+    private FrostSecurity javaSecurity;
+    private NativeFrostSecurity nativeSecurity;
+    private byte[] plaintext;
+    private ByteBuffer javaBuffer;
+    private ByteBuffer nativeBuffer;
+    private int key;
+    private String[] names;
+    private int[] javaHashes;
+    private int[] nativeHashes;
+    private ByteBuffer packed;
+    private int[] ends;
+    private ForwardingFrostSecurity decorated;
+
+    @Then("the {string} provider should be available")
+    public void the_provider_should_be_available(String name) {
+        Assert.assertEquals(name, FrostSecurityProviders.getProvider(name).getName());
+    }
+
+    @Then("the default provider should be native exactly when the native library is loaded")
+    public void the_default_provider_should_be_native_when_loaded() {
+        Assume.assumeTrue(System.getProperty(FrostSecurityProviders.PROVIDER_PROPERTY) == null);
+        Assert.assertEquals(NativeFrostSecurity.isAvailable(),
+                NativeFrostSecurityProvider.NAME.equals(FrostSecurityProviders.getDefaultProvider().getName()));
+    }
+
+    @Given("a direct buffer holding {int} random bytes at offset 3 in {word} order")
+    public void a_direct_buffer_holding_random_bytes(int length, String order) {
+        Assume.assumeTrue(NativeFrostSecurity.isAvailable());
+        ByteOrder byteOrder = "BIG_ENDIAN".equals(order) ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+        javaSecurity = new FrostSecurity(byteOrder);
+        nativeSecurity = new NativeFrostSecurity(byteOrder);
+        plaintext = new byte[length];
+        new Random(length).nextBytes(plaintext);
+        javaBuffer = directBuffer(byteOrder);
+        nativeBuffer = directBuffer(byteOrder);
+    }
+
+    @When("both backends encrypt the buffer with key {int}")
+    public void both_backends_encrypt_the_buffer(int key) {
+        this.key = key;
+        javaSecurity.encryptBufferInPlace(javaBuffer, key);
+        nativeSecurity.encryptBufferInPlace(nativeBuffer, key);
+    }
+
+    @Then("both backends should give the same ciphertext")
+    public void both_backends_should_give_the_same_ciphertext() {
+        Assert.assertEquals(BUFFER_OFFSET, nativeBuffer.position());
+        Assert.assertArrayEquals(javaSecurity.encryptBytes(plaintext, key), bytes(nativeBuffer));
+        Assert.assertArrayEquals(bytes(javaBuffer), bytes(nativeBuffer));
+    }
+
+    @Then("both backends should decrypt the ciphertext back to the plaintext")
+    public void both_backends_should_decrypt_the_ciphertext() {
+        javaSecurity.decryptBufferInPlace(javaBuffer, key);
+        nativeSecurity.decryptBufferInPlace(nativeBuffer, key);
+        Assert.assertArrayEquals(plaintext, bytes(javaBuffer));
+        Assert.assertArrayEquals(plaintext, bytes(nativeBuffer));
+    }
+
+    @Given("{int} random names of up to 300 characters")
+    public void random_names_of_up_to_300_characters(int count) {
+        Assume.assumeTrue(NativeFrostSecurity.isAvailable());
+        javaSecurity = new FrostSecurity();
+        nativeSecurity = new NativeFrostSecurity();
+        Random random = new Random(count);
+        names = new String[count];
+        for (int i = 0; i < count; i++) {
+            char[] chars = new char[random.nextInt(301)];
+            for (int c = 0; c < chars.length; c++) {
+                chars[c] = (char) random.nextInt(0x100);
+            }
+            names[i] = new String(chars);
+        }
+    }
+
+    @When("both backends hash the names with hash type {int}")
+    public void both_backends_hash_the_names(int hashType) {
+        javaHashes = new int[names.length];
+        nativeHashes = new int[names.length];
+        javaSecurity.hashStrings(names, hashType, javaHashes);
+        nativeSecurity.hashStrings(names, hashType, nativeHashes);
+    }
+
+    @Then("both backends should give the same hashes")
+    public void both_backends_should_give_the_same_hashes() {
+        Assert.assertArrayEquals(javaHashes, nativeHashes);
+    }
+
+    @Given("the names {string} packed in a {word} buffer")
+    public void the_names_packed_in_a_buffer(String list, String kind) {
+        Assume.assumeTrue(NativeFrostSecurity.isAvailable());
+        javaSecurity = new FrostSecurity();
+        nativeSecurity = new NativeFrostSecurity();
+        names = list.split(",");
+        byte[] bytes = String.join("", names).getBytes(StandardCharsets.ISO_8859_1);
+        packed = "direct".equals(kind) ? ByteBuffer.allocateDirect(1 + bytes.length) : ByteBuffer.allocate(1 + bytes.length);
+        packed.put((byte) 'x').put(bytes);
+        ((Buffer) packed).flip().position(1);
+        ends = new int[names.length];
+        for (int i = 0, end = 0; i < names.length; i++) {
+            end += names[i].length();
+            ends[i] = end;
+        }
+    }
+
+    @When("the packed names are hashed with hash type {int}")
+    public void the_packed_names_are_hashed(int hashType) {
+        nativeHashes = new int[names.length];
+        nativeSecurity.hashNames(packed, ends, names.length, hashType, nativeHashes);
+    }
+
+    @Then("the packed hashes should match hashAsInt with hash type {int}")
+    public void the_packed_hashes_should_match_hash_as_int(int hashType) {
+        Assert.assertEquals(1, packed.position());
+        for (int i = 0; i < names.length; i++) {
+            Assert.assertEquals(javaSecurity.hashAsInt(names[i], hashType), nativeHashes[i]);
+        }
+    }
+
+    @Given("a {word} decorator around the {word} security in {word} order")
+    public void a_decorator_around_the_security(String decorator, String delegate, String order) {
+        ByteOrder byteOrder = "BIG_ENDIAN".equals(order) ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+        javaSecurity = new FrostSecurity(byteOrder);
+        IFrostSecurity security = FrostSecurityProviders.create(byteOrder);
+        if ("original".equals(delegate)) {
+            security = new FrostSecurityStepDefs.OriginalMethodsSecurity(security);
+        }
+        decorated = "caching".equals(decorator)
+                ? new CachingFrostSecurity(security, 16)
+                : new InstrumentedFrostSecurity(security, new SimpleFrostMetrics());
+    }
+
+    @Then("the decorated security should hash {string} like FrostSecurity")
+    public void the_decorated_security_should_hash_like_frost_security(String name) {
+        NameHashes hashes = decorated.hashAll(name, SecurityConstants.MPQ_HASH_ALL_TYPES, new NameHashes());
+        for (int hashType = 0; hashType < 4; hashType++) {
+            Assert.assertEquals(javaSecurity.hashAsInt(name, hashType), hashes.get(hashType));
+            Assert.assertEquals(javaSecurity.hashString(name, hashType), decorated.hashString(name, hashType));
+        }
+        Assert.assertEquals(javaSecurity.getFileKey(name), decorated.getFileKey(name));
+    }
+
+    @Then("the decorated security should encrypt and decrypt {int} bytes like FrostSecurity")
+    public void the_decorated_security_should_encrypt_and_decrypt_like_frost_security(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        byte[] expected = javaSecurity.encryptBytes(bytes, 42);
+        Assert.assertArrayEquals(expected, decorated.encryptBytes(bytes, 42));
+
+        byte[] encrypted = new byte[length];
+        StormCipher encryptor = decorated.createEncryptor(42);
+        int produced = encryptor.update(bytes, 0, length, encrypted, 0);
+        encryptor.finish(encrypted, produced);
+        Assert.assertArrayEquals(expected, encrypted);
+
+        byte[] decrypted = new byte[length];
+        StormCipher decryptor = decorated.createDecryptor(42);
+        produced = decryptor.update(encrypted, 0, length, decrypted, 0);
+        decryptor.finish(decrypted, produced);
+        Assert.assertArrayEquals(bytes, decrypted);
+    }
+
+    private ByteBuffer directBuffer(ByteOrder byteOrder) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_OFFSET + plaintext.length).order(byteOrder);
+        ((Buffer) buffer).position(BUFFER_OFFSET);
+        buffer.put(plaintext);
+        ((Buffer) buffer).position(BUFFER_OFFSET);
+        return buffer;
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+}
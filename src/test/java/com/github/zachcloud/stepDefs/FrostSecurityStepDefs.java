@@ -1,13 +1,23 @@
 package com.github.zachcloud.stepDefs;
 
+import com.github.zachcloud.exceptions.EncryptionException;
 import com.github.zachcloud.frost.FrostSecurity;
+import com.github.zachcloud.frost.NameHashes;
+import com.github.zachcloud.frost.SecurityConstants;
+import com.github.zachcloud.interfaces.IFrostSecurity;
 import io.cucumber.java.en.Given;
 import io.cucumber.java.en.Then;
 import io.cucumber.java.en.When;
 import org.junit.Assert;
+import org.junit.Assume;
 
+import java.lang.management.ManagementFactory;
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
 
 import static com.github.zachcloud.utils.ByteUtils.bytesToString;
 import static com.github.zachcloud.utils.ByteUtils.stringToBytes;
@@ -42,6 +52,69 @@ public class FrostSecurityStepDefs {
         resultByteBuffer = frostSecurity.encryptBuffer(inputByteBuffer, key);
     }
 
+    @When("bytes are decrypted in place in a direct buffer with key {int}")
+    public void bytes_are_decrypted_in_place_in_a_direct_buffer_with_key(int key) {
+        this.frostSecurity = new FrostSecurity();
+        ByteBuffer direct = ByteBuffer.allocateDirect(input.length).order(ByteOrder.LITTLE_ENDIAN);
+        direct.duplicate().put(input);
+        frostSecurity.decryptBufferInPlace(direct, key);
+        Assert.assertEquals("Position should not move", 0, direct.position());
+        result = new byte[input.length];
+        direct.duplicate().get(result);
+        resultByteBuffer = ByteBuffer.wrap(result);
+    }
+
+    @When("bytes are encrypted in place in a slice at offset {int} with key {int}")
+    public void bytes_are_encrypted_in_place_in_a_slice_at_offset_with_key(int offset, int key) {
+        this.frostSecurity = new FrostSecurity();
+        byte[] backing = new byte[offset + input.length + offset];
+        for (int i = 0; i < backing.length; i++) {
+            backing[i] = (byte) 0x7F;
+        }
+        System.arraycopy(input, 0, backing, offset, input.length);
+        ByteBuffer slice = ByteBuffer.wrap(backing, offset, input.length).slice()
+                .order(ByteOrder.LITTLE_ENDIAN);
+        frostSecurity.encryptBufferInPlace(slice, key);
+        for (int i = 0; i < offset; i++) {
+            Assert.assertEquals("Bytes before slice were modified", 0x7F, backing[i]);
+            Assert.assertEquals("Bytes after slice were modified", 0x7F, backing[backing.length - 1 - i]);
+        }
+        result = new byte[input.length];
+        System.arraycopy(backing, offset, result, 0, input.length);
+        resultByteBuffer = ByteBuffer.wrap(result);
+    }
+
+    @When("bytes are decrypted in place in an array at offset {int} with key {int}")
+    public void bytes_are_decrypted_in_place_in_an_array_at_offset_with_key(int offset, int key) {
+        this.frostSecurity = new FrostSecurity();
+        byte[] backing = new byte[offset + input.length + offset];
+        Arrays.fill(backing, (byte) 0x7F);
+        System.arraycopy(input, 0, backing, offset, input.length);
+        frostSecurity.decryptBytes(backing, offset, input.length, backing, offset, key);
+        for (int i = 0; i < offset; i++) {
+            Assert.assertEquals("Bytes before range were modified", 0x7F, backing[i]);
+            Assert.assertEquals("Bytes after range were modified", 0x7F, backing[backing.length - 1 - i]);
+        }
+        result = Arrays.copyOfRange(backing, offset, offset + input.length);
+        resultByteBuffer = ByteBuffer.wrap(result);
+    }
+
+    @Then("encrypting and decrypting {int} random bytes by range should match encryptBytes and decryptBytes")
+    public void encrypting_and_decrypting_by_range_should_match(int length) {
+        for (ByteOrder byteOrder : new ByteOrder[]{ByteOrder.LITTLE_ENDIAN, ByteOrder.BIG_ENDIAN}) {
+            FrostSecurity security = new FrostSecurity(byteOrder);
+            byte[] plain = new byte[length];
+            new Random(length).nextBytes(plain);
+            byte[] expected = security.encryptBytes(plain, length);
+            byte[] encrypted = new byte[length + 6];
+            security.encryptBytes(plain, 0, length, encrypted, 6, length);
+            Assert.assertArrayEquals(expected, Arrays.copyOfRange(encrypted, 6, 6 + length));
+            security.decryptBytes(encrypted, 6, length, encrypted, 6, length);
+            Assert.assertArrayEquals(plain, Arrays.copyOfRange(encrypted, 6, 6 + length));
+            Assert.assertArrayEquals(plain, security.decryptBytes(expected, length));
+        }
+    }
+
     @Then("result bytes should be:")
     public void result_bytes_should_be(String bytesBody) {
         Assert.assertEquals("Result bytes did not match expected body",
@@ -62,6 +135,230 @@ public class FrostSecurityStepDefs {
         intHash = frostSecurity.hashAsInt(toHash, type);
     }
 
+    @When("integer hash is computed from {word} with type {int}")
+    public void integer_hash_is_computed_from(String source, int type) {
+        this.frostSecurity = new FrostSecurity();
+        byte[] bytes = toHash.getBytes(StandardCharsets.ISO_8859_1);
+        switch (source) {
+            case "chars":
+                intHash = frostSecurity.hashAsInt(new StringBuilder(toHash), type);
+                break;
+            case "bytes":
+                byte[] padded = new byte[bytes.length + 6];
+                System.arraycopy(bytes, 0, padded, 3, bytes.length);
+                intHash = frostSecurity.hashAsInt(padded, 3, bytes.length, type);
+                break;
+            case "buffer":
+                ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length + 2);
+                direct.put((byte) 'x').put(bytes).put((byte) 'x');
+                ((Buffer) direct).position(1).limit(1 + bytes.length);
+                intHash = frostSecurity.hashAsInt(direct, type);
+                Assert.assertEquals("Position should not move", 1, direct.position());
+                break;
+            default:
+                throw new IllegalArgumentException(source);
+        }
+        Assert.assertEquals("Long hash should be the unsigned int hash",
+                intHash & 0xFFFFFFFFL, frostSecurity.hashString(toHash, type));
+    }
+
+    @Then("hash should equal the hash of {string} with type {int}")
+    public void hash_should_equal_the_hash_of(String other, int type) {
+        Assert.assertEquals(frostSecurity.hashAsInt(other, type), intHash);
+    }
+
+    @Then("hashing {int} names as chars, bytes and buffers should not allocate")
+    public void hashing_names_should_not_allocate(int count) {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        FrostSecurity security = new FrostSecurity();
+        CharSequence name = new StringBuilder("Units\\Human\\Footman\\Footman.mdx");
+        byte[] bytes = name.toString().getBytes(StandardCharsets.ISO_8859_1);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.duplicate().put(bytes);
+        int sink = hashRepeatedly(security, name, bytes, buffer, count);
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        sink += hashRepeatedly(security, name, bytes, buffer, count);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        Assert.assertTrue("Hashing allocated " + allocated + " bytes (" + sink + ")",
+                allocated < 1024);
+    }
+
+    private static int hashRepeatedly(FrostSecurity security, CharSequence name, byte[] bytes,
+                                      ByteBuffer buffer, int count) {
+        int sink = 0;
+        for (int i = 0; i < count; i++) {
+            sink ^= security.hashAsInt(name, i & 3);
+            sink ^= security.hashAsInt(bytes, 0, bytes.length, i & 3);
+            sink ^= security.hashAsInt(buffer, i & 3);
+        }
+        return sink;
+    }
+
+    @Then("hashing it with type mask {int} should match each hash type")
+    public void hashing_with_type_mask_should_match(int mask) {
+        FrostSecurity security = FrostSecurity.getInstance();
+        String other = "(attributes)";
+        NameHashes hashes = security.hashAll(other, SecurityConstants.MPQ_HASH_ALL_TYPES, new NameHashes());
+        Assert.assertSame(hashes, security.hashAll(toHash, mask, hashes));
+        for (int type = 0; type < 4; type++) {
+            String expectedName = (mask & (1 << type)) != 0 ? toHash : other;
+            int expected = security.hashAsInt(expectedName, type);
+            Assert.assertEquals("Hash type " + type, expected, hashes.get(type));
+        }
+        Assert.assertEquals(hashes.get(0), hashes.getTableOffset());
+        Assert.assertEquals(hashes.get(1), hashes.getNameA());
+        Assert.assertEquals(hashes.get(2), hashes.getNameB());
+        Assert.assertEquals(hashes.get(3), hashes.getFileKey());
+    }
+
+    @Then("hashing {int} names in bulk with type mask {int} should match each hash type")
+    public void hashing_names_in_bulk_should_match(int count, int mask) {
+        FrostSecurity security = FrostSecurity.getInstance();
+        CharSequence[] names = new CharSequence[count];
+        for (int i = 0; i < count; i++) {
+            names[i] = "Units\\Unit" + i + "\\Model" + (i * 31) + ".mdx";
+        }
+        int[] hashes = new int[count * 4];
+        security.hashAll(names, mask, hashes);
+        for (int i = 0; i < count; i++) {
+            for (int type = 0; type < 4; type++) {
+                int expected = (mask & (1 << type)) != 0 ? security.hashAsInt(names[i], type) : 0;
+                Assert.assertEquals(expected, hashes[i * 4 + type]);
+            }
+        }
+    }
+
+    @Then("an IFrostSecurity with only the original methods should match FrostSecurity")
+    public void original_methods_should_match() {
+        FrostSecurity security = FrostSecurity.getInstance();
+        IFrostSecurity original = new OriginalMethodsSecurity(security);
+        byte[] bytes = new byte[1031];
+        new Random(7).nextBytes(bytes);
+        for (ByteOrder order : new ByteOrder[]{ByteOrder.LITTLE_ENDIAN, ByteOrder.BIG_ENDIAN}) {
+            ByteBuffer expected = ByteBuffer.wrap(bytes.clone()).order(order);
+            ByteBuffer actual = ByteBuffer.wrap(bytes.clone()).order(order);
+            ((Buffer) expected).position(5);
+            ((Buffer) actual).position(5);
+            security.decryptBufferInPlace(expected, 42);
+            original.decryptBufferInPlace(actual, 42);
+            Assert.assertEquals(expected, actual);
+            security.encryptBufferInPlace(expected, 42);
+            original.encryptBufferInPlace(actual, 42);
+            Assert.assertArrayEquals(bytes, actual.array());
+        }
+        ByteBuffer readOnly = ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+        try {
+            original.decryptBufferInPlace(readOnly, 42);
+            Assert.fail("Expected an EncryptionException");
+        } catch (EncryptionException e) {
+            // Expected
+        }
+        try {
+            original.encryptBufferInPlace(readOnly, 42);
+            Assert.fail("Expected an EncryptionException");
+        } catch (EncryptionException e) {
+            // Expected
+        }
+        byte[] expected = new byte[bytes.length];
+        byte[] actual = new byte[bytes.length];
+        security.decryptBytes(bytes, 3, 1021, expected, 7, 42);
+        original.decryptBytes(bytes, 3, 1021, actual, 7, 42);
+        Assert.assertArrayEquals(expected, actual);
+        security.encryptBytes(bytes, 3, 1021, expected, 7, 42);
+        original.encryptBytes(bytes, 3, 1021, actual, 7, 42);
+        Assert.assertArrayEquals(expected, actual);
+
+        CharSequence[] names = {"war3map.j", new StringBuilder("(listfile)"), "Units\\Human\\Footman.mdx"};
+        for (CharSequence name : names) {
+            byte[] encoded = name.toString().getBytes(StandardCharsets.ISO_8859_1);
+            for (int type = 0; type < 4; type++) {
+                int hash = security.hashAsInt(name, type);
+                Assert.assertEquals(hash, original.hashAsInt(name, type));
+                Assert.assertEquals(hash & 0xFFFFFFFFL, original.hashString(name, type));
+                Assert.assertEquals(hash, original.hashAsInt(encoded, 0, encoded.length, type));
+                Assert.assertEquals(hash, original.hashAsInt(ByteBuffer.wrap(encoded), type));
+            }
+            Assert.assertEquals(security.getFileKey(name), original.getFileKey(name));
+            Assert.assertEquals(security.getFileKey(name, 0x1234, 5678, SecurityConstants.MPQ_FILE_FIX_KEY),
+                    original.getFileKey(name, 0x1234, 5678, SecurityConstants.MPQ_FILE_FIX_KEY));
+        }
+        int[] expectedHashes = new int[names.length * 4];
+        int[] actualHashes = new int[names.length * 4];
+        security.hashAll(names, SecurityConstants.MPQ_HASH_LOOKUP_TYPES, expectedHashes);
+        original.hashAll(names, SecurityConstants.MPQ_HASH_LOOKUP_TYPES, actualHashes);
+        Assert.assertArrayEquals(expectedHashes, actualHashes);
+        security.hashStrings(names, SecurityConstants.MPQ_HASH_NAME_B, expectedHashes);
+        original.hashStrings(names, SecurityConstants.MPQ_HASH_NAME_B, actualHashes);
+        Assert.assertArrayEquals(expectedHashes, actualHashes);
+        Assert.assertEquals(security.getSectorKey(42, 3), original.getSectorKey(42, 3));
+        Assert.assertEquals(security.getSectorOffsetTableKey(42), original.getSectorOffsetTableKey(42));
+    }
+
+    /**
+     * Implements only the methods IFrostSecurity had originally.
+     */
+    static final class OriginalMethodsSecurity implements IFrostSecurity {
+
+        private final IFrostSecurity delegate;
+
+        OriginalMethodsSecurity(IFrostSecurity delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int[] decrypt(int[] src, int key) {
+            return delegate.decrypt(src, key);
+        }
+
+        @Override
+        public byte[] decryptBytes(byte[] src, int key) {
+            return delegate.decryptBytes(src, key);
+        }
+
+        @Override
+        public int[] encrypt(int[] src, int key) {
+            return delegate.encrypt(src, key);
+        }
+
+        @Override
+        public ByteBuffer decryptBuffer(ByteBuffer src, int key) {
+            return delegate.decryptBuffer(src, key);
+        }
+
+        @Override
+        public ByteBuffer encryptBuffer(ByteBuffer src, int key) {
+            return delegate.encryptBuffer(src, key);
+        }
+
+        @Override
+        public byte[] encryptBytes(byte[] src, int key) {
+            return delegate.encryptBytes(src, key);
+        }
+
+        @Override
+        public long hashString(String s, int hashType) {
+            return delegate.hashString(s, hashType);
+        }
+
+        @Override
+        public int decrypt(int src, int key) {
+            return delegate.decrypt(src, key);
+        }
+
+        @Override
+        public int encrypt(int src, int key) {
+            return delegate.encrypt(src, key);
+        }
+
+        @Override
+        public int hashAsInt(String s, int hashType) {
+            return delegate.hashAsInt(s, hashType);
+        }
+    }
+
     @Then("hash should be {int}")
     public void hash_should_be(int expected) {
         Assert.assertEquals(expected, intHash);
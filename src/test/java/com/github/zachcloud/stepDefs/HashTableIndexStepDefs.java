@@ -0,0 +1,125 @@
+package com.github.zachcloud.stepDefs;
+
+import com.github.zachcloud.frost.FrostSecurity;
+import com.github.zachcloud.mpq.HashTableIndex;
+import io.cucumber.datatable.DataTable;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.junit.Assert;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.github.zachcloud.frost.SecurityConstants.MPQ_HASH_FILE_KEY;
+import static com.github.zachcloud.frost.SecurityConstants.MPQ_HASH_NAME_A;
+import static com.github.zachcloud.frost.SecurityConstants.MPQ_HASH_NAME_B;
+import static com.github.zachcloud.frost.SecurityConstants.MPQ_HASH_TABLE_OFFSET;
+
+public class HashTableIndexStepDefs {
+
+    private final FrostSecurity frostSecurity = new FrostSecurity();
+    private ByteBuffer table;
+    private int entryCount;
+    private final List<String> names = new ArrayList<>();
+    private final List<Integer> locales = new ArrayList<>();
+    private final List<Integer> entries = new ArrayList<>();
+    private HashTableIndex index;
+
+    @Given("an encrypted hash table of {int} entries holding:")
+    public void an_encrypted_hash_table_holding(int entryCount, DataTable rows) {
+        this.entryCount = entryCount;
+        table = ByteBuffer.allocate(entryCount * HashTableIndex.ENTRY_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < entryCount; i++) {
+            putEntry(i, -1, -1, 0xFFFF, 0xFFFF, HashTableIndex.BLOCK_INDEX_FREE);
+        }
+        for (Map<String, String> row : rows.asMaps()) {
+            String name = row.get("name");
+            int locale = Integer.parseInt(row.get("locale"));
+            int entry = frostSecurity.hashAsInt(name, MPQ_HASH_TABLE_OFFSET) & (entryCount - 1);
+            while (table.getInt(entry * HashTableIndex.ENTRY_SIZE + 12) != HashTableIndex.BLOCK_INDEX_FREE) {
+                entry = (entry + 1) & (entryCount - 1);
+            }
+            putEntry(entry, frostSecurity.hashAsInt(name, MPQ_HASH_NAME_A),
+                    frostSecurity.hashAsInt(name, MPQ_HASH_NAME_B), locale, 0,
+                    Integer.parseInt(row.get("block")));
+            names.add(name);
+            locales.add(locale);
+            entries.add(entry);
+        }
+    }
+
+    @Given("every name but {string} is deleted")
+    public void every_name_but_is_deleted(String kept) {
+        for (int i = 0; i < names.size(); i++) {
+            if (!names.get(i).equals(kept)) {
+                table.putInt(entries.get(i) * HashTableIndex.ENTRY_SIZE + 12, HashTableIndex.BLOCK_INDEX_DELETED);
+            }
+        }
+    }
+
+    @Given("the hash table is full")
+    public void the_hash_table_is_full() {
+        for (int i = 0; i < entryCount; i++) {
+            if (table.getInt(i * HashTableIndex.ENTRY_SIZE + 12) == HashTableIndex.BLOCK_INDEX_FREE) {
+                putEntry(i, 0, 0, 0, 0, HashTableIndex.BLOCK_INDEX_DELETED);
+            }
+        }
+    }
+
+    @When("the hash table is indexed")
+    public void the_hash_table_is_indexed() {
+        ByteBuffer encrypted = frostSecurity.encryptBuffer(table,
+                frostSecurity.hashAsInt("(hash table)", MPQ_HASH_FILE_KEY));
+        index = HashTableIndex.fromEncrypted(frostSecurity, encrypted, entryCount);
+    }
+
+    @Then("{string} with locale {int} should resolve to block {int}")
+    public void should_resolve_to_block(String name, int locale, int block) {
+        Assert.assertEquals(block, index.findBlockIndex(name, locale));
+    }
+
+    @Then("{int} threads looking up every name {int} times should find the same blocks")
+    public void threads_looking_up_every_name(int threads, int rounds) throws Exception {
+        int[] expected = new int[names.size()];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = index.findBlockIndex(names.get(i), locales.get(i));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    for (int r = 0; r < rounds; r++) {
+                        for (int i = 0; i < expected.length; i++) {
+                            if (index.findBlockIndex(names.get(i), locales.get(i)) != expected[i]) {
+                                return false;
+                            }
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                Assert.assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void putEntry(int entry, int hashA, int hashB, int locale, int platform, int block) {
+        int position = entry * HashTableIndex.ENTRY_SIZE;
+        table.putInt(position, hashA);
+        table.putInt(position + 4, hashB);
+        table.putShort(position + 8, (short) locale);
+        table.putShort(position + 10, (short) platform);
+        table.putInt(position + 12, block);
+    }
+}
@@ -0,0 +1,132 @@
+package com.github.zachcloud.stepDefs;
+
+import com.github.zachcloud.frost.FrostSecurity;
+import com.github.zachcloud.frost.InstrumentedFrostSecurity;
+import com.github.zachcloud.frost.NameHashes;
+import com.github.zachcloud.frost.SecurityConstants;
+import com.github.zachcloud.metrics.FrostMetrics;
+import com.github.zachcloud.metrics.FrostOperation;
+import com.github.zachcloud.metrics.LatencyHistogram;
+import com.github.zachcloud.metrics.SimpleFrostMetrics;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.junit.Assert;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+public class InstrumentedFrostSecurityStepDefs {
+
+    private static final int KEY = 0x1A2B3C4D;
+
+    private final FrostSecurity frostSecurity = new FrostSecurity();
+    private SimpleFrostMetrics metrics;
+    private InstrumentedFrostSecurity instrumented;
+    private LatencyHistogram histogram;
+
+    @Given("an instrumented security timing every call")
+    public void an_instrumented_security_timing_every_call() {
+        metrics = new SimpleFrostMetrics();
+        instrumented = new InstrumentedFrostSecurity(frostSecurity, metrics, 1, 0);
+    }
+
+    @When("the instrumented security is disabled")
+    public void the_instrumented_security_is_disabled() {
+        instrumented.setEnabled(false);
+    }
+
+    @When("{int} bytes are encrypted and decrypted through the instrumented security")
+    public void bytes_are_encrypted_and_decrypted(int size) {
+        byte[] bytes = new byte[size];
+        byte[] encrypted = instrumented.encryptBytes(bytes, KEY);
+        ByteBuffer buffer = ByteBuffer.wrap(encrypted).order(ByteOrder.LITTLE_ENDIAN);
+        instrumented.decryptBufferInPlace(buffer, KEY);
+        Assert.assertArrayEquals(bytes, buffer.array());
+        int[] ints = new int[size / 4];
+        int[] decrypted = instrumented.decrypt(instrumented.encrypt(ints, KEY), KEY);
+        Assert.assertArrayEquals(ints, decrypted);
+        Assert.assertEquals(0, instrumented.decrypt(instrumented.encrypt(0, KEY), KEY));
+    }
+
+    @When("{int} names are hashed for the lookup types through the instrumented security")
+    public void names_are_hashed_for_the_lookup_types(int count) {
+        CharSequence[] names = new CharSequence[count];
+        for (int i = 0; i < count; i++) {
+            names[i] = "file" + i + ".mdx";
+        }
+        instrumented.hashAll(names, SecurityConstants.MPQ_HASH_LOOKUP_TYPES, new int[count * 4]);
+    }
+
+    @When("{string} is hashed with type {int} through the instrumented security")
+    public void is_hashed_with_type(String name, int type) {
+        Assert.assertEquals(frostSecurity.hashAsInt(name, type), instrumented.hashAsInt(name, type));
+    }
+
+    @Then("the metrics should report {long} bytes encrypted and {long} bytes decrypted")
+    public void the_metrics_should_report_bytes(long encrypted, long decrypted) {
+        Assert.assertEquals(encrypted, metrics.getBytesEncrypted());
+        Assert.assertEquals(decrypted, metrics.getBytesDecrypted());
+    }
+
+    @Then("the metrics should report {long} encrypt and {long} decrypt latencies")
+    public void the_metrics_should_report_latencies(long encrypt, long decrypt) {
+        Assert.assertEquals(encrypt, metrics.getLatency(FrostOperation.ENCRYPT).getCount());
+        Assert.assertEquals(decrypt, metrics.getLatency(FrostOperation.DECRYPT).getCount());
+    }
+
+    @Then("the metrics should report {long} table offset, {long} name A, {long} name B and {long} file key hashes")
+    public void the_metrics_should_report_hashes(long offset, long nameA, long nameB, long fileKey) {
+        Assert.assertEquals(offset, metrics.getHashCount(SecurityConstants.MPQ_HASH_TABLE_OFFSET));
+        Assert.assertEquals(nameA, metrics.getHashCount(SecurityConstants.MPQ_HASH_NAME_A));
+        Assert.assertEquals(nameB, metrics.getHashCount(SecurityConstants.MPQ_HASH_NAME_B));
+        Assert.assertEquals(fileKey, metrics.getHashCount(SecurityConstants.MPQ_HASH_FILE_KEY));
+    }
+
+    @Then("the metrics should report {long} hash latencies")
+    public void the_metrics_should_report_hash_latencies(long count) {
+        Assert.assertEquals(count, metrics.getLatency(FrostOperation.HASH).getCount());
+    }
+
+    @Then("the instrumented hashes of {string} should match FrostSecurity")
+    public void the_instrumented_hashes_should_match(String name) {
+        NameHashes expected = frostSecurity.hashAll(name, SecurityConstants.MPQ_HASH_ALL_TYPES, new NameHashes());
+        NameHashes actual = instrumented.hashAll(name, SecurityConstants.MPQ_HASH_ALL_TYPES, new NameHashes());
+        for (int type = 0; type < 4; type++) {
+            Assert.assertEquals(expected.get(type), actual.get(type));
+            Assert.assertEquals(frostSecurity.hashString(name, type), instrumented.hashString(name, type));
+        }
+        Assert.assertEquals(frostSecurity.getFileKey(name), instrumented.getFileKey(name));
+        Assert.assertEquals(3, metrics.getHashCount(SecurityConstants.MPQ_HASH_FILE_KEY));
+    }
+
+    @Then("instrumenting without metrics should return the delegate")
+    public void instrumenting_without_metrics_should_return_the_delegate() {
+        Assert.assertSame(frostSecurity, InstrumentedFrostSecurity.instrument(frostSecurity, FrostMetrics.NONE));
+        Assert.assertSame(frostSecurity, InstrumentedFrostSecurity.instrument(frostSecurity, null));
+        Assert.assertTrue(InstrumentedFrostSecurity.instrument(frostSecurity, new SimpleFrostMetrics())
+                instanceof InstrumentedFrostSecurity);
+    }
+
+    @Then("event recording should be available when running on Java 17 or later")
+    public void event_recording_should_be_available_on_java_17() {
+        String version = System.getProperty("java.specification.version");
+        boolean java17 = !version.startsWith("1.") && Integer.parseInt(version) >= 17;
+        Assert.assertEquals(java17, InstrumentedFrostSecurity.isEventRecordingAvailable());
+    }
+
+    @Given("a latency histogram of durations {long}, {long}, {long} and {long} nanoseconds")
+    public void a_latency_histogram_of_durations(long a, long b, long c, long d) {
+        histogram = new LatencyHistogram();
+        histogram.record(a);
+        histogram.record(b);
+        histogram.record(c);
+        histogram.record(d);
+        Assert.assertEquals(4, histogram.getCount());
+    }
+
+    @Then("the {int}th percentile should be {long} nanoseconds")
+    public void the_percentile_should_be(int percentile, long nanos) {
+        Assert.assertEquals(nanos, histogram.getPercentile(percentile));
+    }
+}
@@ -0,0 +1,91 @@
+package com.github.zachcloud.stepDefs;
+
+import com.github.zachcloud.frost.FrostSecurity;
+import com.github.zachcloud.frost.KeyRecovery;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.junit.Assert;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class KeyRecoveryStepDefs {
+
+    private final FrostSecurity frostSecurity = new FrostSecurity();
+    private final KeyRecovery keyRecovery = new KeyRecovery();
+    private int[] plaintext;
+    private int[] encrypted;
+    private int key;
+    private int sectorSize;
+    private long fileSize;
+    private long compressedSize;
+    private int[] recovered;
+
+    @Given("{int} random plaintext integers with seed {int} encrypted with key {int}")
+    public void random_plaintext_integers_encrypted_with_key(int count, int seed, int key) {
+        this.key = key;
+        plaintext = new Random(seed).ints(count).toArray();
+        encrypted = frostSecurity.encrypt(plaintext, key);
+    }
+
+    @Given("the first plaintext integer is replaced with {int}")
+    public void the_first_plaintext_integer_is_replaced_with(int first) {
+        plaintext[0] = first;
+        encrypted = frostSecurity.encrypt(plaintext, key);
+    }
+
+    @Given("a sector offset table for a file of {long} bytes in sectors of {int} encrypted for file key {int}")
+    public void a_sector_offset_table_encrypted_for_file_key(long fileSize, int sectorSize, int fileKey) {
+        this.fileSize = fileSize;
+        this.sectorSize = sectorSize;
+        int sectors = (int) ((fileSize + sectorSize - 1) / sectorSize);
+        Random random = new Random(fileKey);
+        plaintext = new int[sectors + 1];
+        plaintext[0] = plaintext.length * 4;
+        for (int i = 1; i < plaintext.length; i++) {
+            plaintext[i] = plaintext[i - 1] + sectorSize / 2 + random.nextInt(sectorSize / 2);
+        }
+        compressedSize = plaintext[sectors];
+        encrypted = frostSecurity.encrypt(plaintext, fileKey - 1);
+    }
+
+    @When("keys are recovered from the first {int} plaintext integers")
+    public void keys_are_recovered_from_the_first_plaintext_integers(int known) {
+        recovered = keyRecovery.recoverKeys(encrypted, Arrays.copyOf(plaintext, known));
+    }
+
+    @When("keys are recovered with the first plaintext in [{long}, {long}] and the next {int} integers known")
+    public void keys_are_recovered_with_the_first_plaintext_in_range(long min, long max, int known) {
+        recovered = keyRecovery.recoverKeys(Arrays.copyOf(encrypted, known + 1), min, max,
+                (index, word) -> index == 0 || word == plaintext[index]);
+    }
+
+    @When("keys are recovered from the wrong plaintext")
+    public void keys_are_recovered_from_the_wrong_plaintext() {
+        int[] wrong = Arrays.copyOf(plaintext, 4);
+        wrong[1]++;
+        recovered = keyRecovery.recoverKeys(encrypted, wrong);
+    }
+
+    @When("file keys are recovered from the first {int} sector offset table integers")
+    public void file_keys_are_recovered_from_the_sector_offset_table(int known) {
+        recovered = keyRecovery.recoverFileKeysFromSectorTable(Arrays.copyOf(encrypted, known),
+                sectorSize, fileSize, compressedSize);
+    }
+
+    @Then("the only recovered key should be {int}")
+    public void the_only_recovered_key_should_be(int expected) {
+        Assert.assertArrayEquals(new int[]{expected}, recovered);
+    }
+
+    @Then("no key should be recovered")
+    public void no_key_should_be_recovered() {
+        Assert.assertEquals(0, recovered.length);
+    }
+
+    @Then("the recovered file keys should include {int}")
+    public void the_recovered_file_keys_should_include(int fileKey) {
+        Assert.assertTrue(Arrays.toString(recovered), Arrays.stream(recovered).anyMatch(k -> k == fileKey));
+    }
+}
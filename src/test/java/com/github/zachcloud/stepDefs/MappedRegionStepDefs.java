@@ -0,0 +1,71 @@
+package com.github.zachcloud.stepDefs;
+
+import com.github.zachcloud.frost.FrostSecurity;
+import com.github.zachcloud.io.MappedRegionDecryptor;
+import io.cucumber.java.After;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.junit.Assert;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+public class MappedRegionStepDefs {
+
+    private final FrostSecurity frostSecurity = new FrostSecurity();
+    private Path file;
+    private byte[] contents;
+    private byte[] region;
+    private byte[] result;
+
+    @Given("a file of {int} random bytes")
+    public void a_file_of_random_bytes(int length) throws IOException {
+        contents = new byte[length];
+        new Random(length).nextBytes(contents);
+        file = Files.createTempFile("frost", ".bin");
+        Files.write(file, contents);
+    }
+
+    @When("the region at {int} of length {int} is decrypted into a {word} buffer with window {int} and key {int}")
+    public void the_region_is_decrypted_into_a_buffer(int offset, int length, String bufferType,
+                                                      int window, int key) throws IOException {
+        region = Arrays.copyOfRange(contents, offset, offset + length);
+        ByteBuffer dst = "direct".equals(bufferType)
+                ? ByteBuffer.allocateDirect(length) : ByteBuffer.allocate(length);
+        new MappedRegionDecryptor(frostSecurity, window).decrypt(file, offset, length, key, dst);
+        Assert.assertEquals(length, dst.position());
+        result = new byte[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = dst.get(i);
+        }
+    }
+
+    @When("the region at {int} of length {int} is decrypted into a channel with window {int} and key {int}")
+    public void the_region_is_decrypted_into_a_channel(int offset, int length, int window,
+                                                       int key) throws IOException {
+        region = Arrays.copyOfRange(contents, offset, offset + length);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new MappedRegionDecryptor(frostSecurity, window).decrypt(file, offset, length, key,
+                Channels.newChannel(out));
+        result = out.toByteArray();
+    }
+
+    @Then("the region result should match decryptBytes with key {int}")
+    public void the_region_result_should_match_decrypt_bytes(int key) {
+        Assert.assertArrayEquals(frostSecurity.decryptBytes(region, key), result);
+    }
+
+    @After
+    public void deleteFile() throws IOException {
+        if (file != null) {
+            Files.deleteIfExists(file);
+        }
+    }
+}
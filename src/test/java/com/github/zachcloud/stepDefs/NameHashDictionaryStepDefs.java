@@ -0,0 +1,128 @@
+package com.github.zachcloud.stepDefs;
+
+import com.github.zachcloud.frost.FrostSecurity;
+import com.github.zachcloud.frost.SecurityConstants;
+import com.github.zachcloud.mpq.NameHashDictionary;
+import com.github.zachcloud.mpq.NameHashDictionaryBuilder;
+import io.cucumber.java.After;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.junit.Assert;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class NameHashDictionaryStepDefs {
+
+    private final FrostSecurity frostSecurity = new FrostSecurity();
+    private final List<Path> files = new ArrayList<>();
+    private List<String> names;
+    private Path listfile;
+    private NameHashDictionary dictionary;
+
+    @Given("a listfile of {int} generated names with {string} and {string}")
+    public void a_listfile_of_generated_names(int count, String first, String second) throws IOException {
+        names = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            names.add("Units\\Dir" + (i % 37) + "\\File" + i + (i % 2 == 0 ? ".mdx" : ".blp"));
+        }
+        List<String> lines = new ArrayList<>(names);
+        if (!first.isEmpty()) {
+            names.add(first);
+            lines.add("  " + first);
+            lines.add("");
+            lines.add(second);
+        }
+        listfile = tempFile();
+        Files.write(listfile, lines, StandardCharsets.ISO_8859_1);
+    }
+
+    @When("a name hash dictionary is written from the listfile and mapped")
+    public void a_name_hash_dictionary_is_written_and_mapped() throws IOException {
+        Path file = tempFile();
+        int written = new NameHashDictionaryBuilder(frostSecurity).addListfile(listfile).write(file);
+        dictionary = NameHashDictionary.open(file);
+        Assert.assertEquals(written, dictionary.size());
+    }
+
+    @Then("the dictionary should hold {int} names")
+    public void the_dictionary_should_hold_names(int count) {
+        Assert.assertEquals(count, dictionary.size());
+    }
+
+    @Then("every name should be found by its hashA and hashB with its hashes and file key")
+    public void every_name_should_be_found() {
+        for (String name : names) {
+            int record = dictionary.find(frostSecurity.hashAsInt(name, SecurityConstants.MPQ_HASH_NAME_A),
+                    frostSecurity.hashAsInt(name, SecurityConstants.MPQ_HASH_NAME_B));
+            Assert.assertTrue(name, record >= 0);
+            Assert.assertEquals(name, dictionary.name(record));
+            for (int hashType = 0; hashType < 3; hashType++) {
+                Assert.assertEquals(frostSecurity.hashAsInt(name, hashType), dictionary.hash(record, hashType));
+            }
+            Assert.assertEquals(frostSecurity.getFileKey(name), dictionary.fileKey(record));
+        }
+    }
+
+    @Then("the file key of {string} should be the file key of {string}")
+    public void the_file_key_should_be_the_file_key_of(String name, String baseName) {
+        int record = dictionary.find(frostSecurity.hashAsInt(name, SecurityConstants.MPQ_HASH_NAME_A),
+                frostSecurity.hashAsInt(name, SecurityConstants.MPQ_HASH_NAME_B));
+        Assert.assertEquals(frostSecurity.hashAsInt(baseName, SecurityConstants.MPQ_HASH_FILE_KEY),
+                dictionary.fileKey(record));
+        Assert.assertTrue(frostSecurity.hashAsInt(name, SecurityConstants.MPQ_HASH_FILE_KEY) !=
+                dictionary.fileKey(record));
+    }
+
+    @Then("the pair of {string} should give back {string}")
+    public void the_pair_should_give_back(String name, String expected) {
+        Assert.assertEquals(expected, dictionary.findName(
+                frostSecurity.hashAsInt(name, SecurityConstants.MPQ_HASH_NAME_A),
+                frostSecurity.hashAsInt(name, SecurityConstants.MPQ_HASH_NAME_B)));
+    }
+
+    @Then("{int} random pairs should not be found")
+    public void random_pairs_should_not_be_found(int count) {
+        Random random = new Random(count);
+        for (int i = 0; i < count; i++) {
+            Assert.assertEquals(-1, dictionary.find(random.nextInt(), random.nextInt()));
+        }
+    }
+
+    @Then("mapping a file of {int} zero bytes as a dictionary should fail")
+    public void mapping_a_file_of_zero_bytes_should_fail(int size) throws IOException {
+        Path file = tempFile();
+        Files.write(file, new byte[size]);
+        try {
+            NameHashDictionary.open(file);
+            Assert.fail("Expected an IOException");
+        } catch (IOException e) {
+            // Expected
+        }
+    }
+
+    @After
+    public void deleteFiles() throws IOException {
+        // Mapped files cannot be deleted on Windows until they are unmapped
+        dictionary = null;
+        for (Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                file.toFile().deleteOnExit();
+            }
+        }
+    }
+
+    private Path tempFile() throws IOException {
+        Path file = Files.createTempFile("frost", ".dict");
+        files.add(file);
+        return file;
+    }
+}
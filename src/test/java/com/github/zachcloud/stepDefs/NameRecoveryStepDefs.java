@@ -0,0 +1,173 @@
+package com.github.zachcloud.stepDefs;
+
+import com.github.zachcloud.frost.FrostSecurity;
+import com.github.zachcloud.frost.StormHash;
+import com.github.zachcloud.helpers.LongHashSet;
+import com.github.zachcloud.mpq.DictionaryMatcher;
+import com.github.zachcloud.mpq.HashTableIndex;
+import com.github.zachcloud.mpq.HashTableView;
+import com.github.zachcloud.mpq.MeetInTheMiddleMatcher;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.junit.Assert;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static com.github.zachcloud.frost.SecurityConstants.MPQ_HASH_NAME_A;
+import static com.github.zachcloud.frost.SecurityConstants.MPQ_HASH_NAME_B;
+
+public class NameRecoveryStepDefs {
+
+    private static final List<String> DIRECTORIES = Arrays.asList("", "Scripts\\", "Units\\Human\\",
+            "Units\\Orc\\", "Units\\Undead\\");
+    private static final List<String> STEMS = Arrays.asList("war3map", "Footman", "Grunt", "Knight",
+            "Ghoul", "Blizzard", "common");
+    private static final List<String> EXTENSIONS = Arrays.asList(".j", ".mdx", ".mdl", ".blp", ".w3e", "");
+    private static final String CHARSET = "abcdefghijklmnopqrstuvwxyz0123456789_";
+
+    private final FrostSecurity frostSecurity = new FrostSecurity();
+    private final Set<Long> added = new HashSet<>();
+    private LongHashSet longSet;
+    private HashTableView hashTable;
+    private List<String> recovered;
+
+    @Then("hashing {string} then {string} incrementally should match hashAsInt of the whole name")
+    public void hashing_incrementally_should_match(String prefix, String suffix) {
+        for (int type = 0; type < 4; type++) {
+            long state = StormHash.update(StormHash.INITIAL_STATE, type, prefix);
+            Assert.assertEquals(frostSecurity.hashAsInt(prefix + suffix, type),
+                    StormHash.value(StormHash.update(state, type, suffix)));
+            long charState = state;
+            for (int i = 0; i < suffix.length(); i++) {
+                charState = StormHash.update(charState, type, suffix.charAt(i));
+            }
+            Assert.assertEquals(frostSecurity.hashAsInt(prefix + suffix, type), StormHash.value(charState));
+            byte[] bytes = suffix.getBytes();
+            Assert.assertEquals(frostSecurity.hashAsInt(prefix + suffix, type),
+                    StormHash.value(StormHash.update(state, type, bytes, 0, bytes.length)));
+        }
+    }
+
+    @Then("the state after {string} extended with {string} and {string} should match hashAsInt")
+    public void the_state_extended_twice_should_match(String prefix, String first, String second) {
+        long state = StormHash.update(StormHash.INITIAL_STATE, MPQ_HASH_NAME_A, prefix);
+        Assert.assertEquals(frostSecurity.hashAsInt(prefix + first, MPQ_HASH_NAME_A),
+                StormHash.value(StormHash.update(state, MPQ_HASH_NAME_A, first)));
+        Assert.assertEquals(frostSecurity.hashAsInt(prefix + second, MPQ_HASH_NAME_A),
+                StormHash.value(StormHash.update(state, MPQ_HASH_NAME_A, second)));
+    }
+
+    @When("{int} random longs with seed {int} and the value 0 are added to a long set")
+    public void random_longs_are_added_to_a_long_set(int count, int seed) {
+        longSet = new LongHashSet(16);
+        Random random = new Random(seed);
+        for (int i = 0; i < count; i++) {
+            long value = random.nextLong();
+            Assert.assertEquals(added.add(value), longSet.add(value));
+        }
+        Assert.assertEquals(added.add(0L), longSet.add(0L));
+        Assert.assertFalse(longSet.add(0L));
+    }
+
+    @Then("the long set should contain every added value and none of {int} others")
+    public void the_long_set_should_contain_every_added_value(int others) {
+        Assert.assertEquals(added.size(), longSet.size());
+        for (long value : added) {
+            Assert.assertTrue(longSet.contains(value));
+        }
+        Random random = new Random(-1);
+        for (int i = 0; i < others; i++) {
+            long value = random.nextLong();
+            Assert.assertEquals(added.contains(value), longSet.contains(value));
+        }
+    }
+
+    @Then("reversing {int} random hash steps with seed {int} should give back the states before them")
+    public void reversing_random_hash_steps(int count, int seed) {
+        Random random = new Random(seed);
+        for (int i = 0; i < count; i++) {
+            long state = random.nextLong();
+            int type = random.nextInt(4);
+            char c = (char) random.nextInt(0x100);
+            long next = StormHash.update(state, type, c);
+            Assert.assertEquals(state, StormHash.reverse(next, type, c));
+            int seed2 = random.nextInt();
+            long before = StormHash.reverse(StormHash.value(next), type, c, seed2);
+            Assert.assertEquals(seed2, (int) before);
+            Assert.assertEquals(StormHash.value(next), StormHash.value(StormHash.update(before, type, c)));
+        }
+    }
+
+    @Given("a hash table holding the names:")
+    public void a_hash_table_holding_the_names(List<String> names) {
+        int entryCount = 16;
+        ByteBuffer table = ByteBuffer.allocate(entryCount * HashTableIndex.ENTRY_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < entryCount; i++) {
+            table.putInt(i * HashTableIndex.ENTRY_SIZE + 12, HashTableIndex.BLOCK_INDEX_FREE);
+        }
+        for (int i = 0; i < names.size(); i++) {
+            int position = i * HashTableIndex.ENTRY_SIZE;
+            table.putInt(position, frostSecurity.hashAsInt(names.get(i), MPQ_HASH_NAME_A));
+            table.putInt(position + 4, frostSecurity.hashAsInt(names.get(i), MPQ_HASH_NAME_B));
+            table.putInt(position + 12, i);
+        }
+        hashTable = new HashTableView(table);
+    }
+
+    @When("the dictionary is matched on a pool of {int} threads")
+    public void the_dictionary_is_matched_on_a_pool(int threads) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            recovered = DictionaryMatcher.forHashTable(hashTable).match(DIRECTORIES, STEMS, EXTENSIONS, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @When("names of {int} unknown characters between {string} and {string} are matched meeting in the middle with a {int} byte table on a pool of {int} threads")
+    public void names_are_matched_meeting_in_the_middle(int length, String prefix, String suffix,
+                                                        int tableBytes, int threads) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            recovered = MeetInTheMiddleMatcher.forHashTable(hashTable, tableBytes)
+                    .match(prefix, CHARSET, length, suffix, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Then("meeting in the middle with a {int} byte table should find the same names as the dictionary matcher for {int} characters between {string} and {string}")
+    public void meeting_in_the_middle_should_match_the_dictionary_matcher(int tableBytes, int length,
+                                                                        String prefix, String suffix) {
+        List<String> stems = Collections.singletonList("");
+        for (int i = 0; i < length; i++) {
+            List<String> longer = new ArrayList<>();
+            for (String stem : stems) {
+                for (char c : CHARSET.toCharArray()) {
+                    longer.add(stem + c);
+                }
+            }
+            stems = longer;
+        }
+        List<String> expected = DictionaryMatcher.forHashTable(hashTable)
+                .match(Collections.singletonList(prefix), stems, Collections.singletonList(suffix));
+        Assert.assertFalse(expected.isEmpty());
+        Assert.assertEquals(expected, MeetInTheMiddleMatcher.forHashTable(hashTable, tableBytes)
+                .match(prefix, CHARSET, length, suffix));
+    }
+
+    @Then("the recovered names should be:")
+    public void the_recovered_names_should_be(List<String> expected) {
+        Assert.assertEquals(new ArrayList<>(expected), recovered);
+    }
+}
@@ -0,0 +1,116 @@
+package com.github.zachcloud.stepDefs;
+
+import com.github.zachcloud.frost.FrostSecurity;
+import com.github.zachcloud.frost.OffHeapRegion;
+import com.github.zachcloud.frost.OffHeapRegions;
+import io.cucumber.java.After;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.junit.Assert;
+import org.junit.Assume;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+public class OffHeapRegionStepDefs {
+
+    private static final int REGION_OFFSET = 5;
+
+    private FrostSecurity frostSecurity;
+    private OffHeapRegion region;
+    private byte[] plaintext;
+    private Path file;
+
+    @Then("off-heap regions should be available when running on Java 22 or later")
+    public void off_heap_regions_should_be_available_on_java_22() {
+        String version = System.getProperty("java.specification.version");
+        boolean java22 = !version.startsWith("1.") && Integer.parseInt(version) >= 22;
+        Assert.assertEquals(java22, OffHeapRegions.isAvailable());
+    }
+
+    @Given("an off-heap region holding {int} random bytes at offset 5 in {word} order")
+    public void an_off_heap_region_holding_random_bytes(int length, String order) {
+        Assume.assumeTrue(OffHeapRegions.isAvailable());
+        ByteOrder byteOrder = "BIG_ENDIAN".equals(order) ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+        frostSecurity = new FrostSecurity(byteOrder);
+        plaintext = new byte[length];
+        new Random(length).nextBytes(plaintext);
+        region = OffHeapRegions.allocate(REGION_OFFSET + length + REGION_OFFSET, byteOrder);
+        region.put(REGION_OFFSET, plaintext, 0, length);
+    }
+
+    @When("the off-heap bytes are encrypted with key {int}")
+    public void the_off_heap_bytes_are_encrypted(int key) {
+        region.encrypt(REGION_OFFSET, plaintext.length, key);
+    }
+
+    @Then("the off-heap bytes should match encryptBytes with key {int}")
+    public void the_off_heap_bytes_should_match_encrypt_bytes(int key) {
+        Assert.assertArrayEquals(frostSecurity.encryptBytes(plaintext, key), regionBytes());
+    }
+
+    @Then("decrypting the off-heap bytes with key {int} should give back the plaintext")
+    public void decrypting_the_off_heap_bytes_should_give_back_the_plaintext(int key) {
+        region.decrypt(REGION_OFFSET, plaintext.length, key);
+        Assert.assertArrayEquals(plaintext, regionBytes());
+        byte[] edges = new byte[REGION_OFFSET];
+        region.get(0, edges, 0, REGION_OFFSET);
+        Assert.assertArrayEquals(new byte[REGION_OFFSET], edges);
+        region.get(REGION_OFFSET + plaintext.length, edges, 0, REGION_OFFSET);
+        Assert.assertArrayEquals(new byte[REGION_OFFSET], edges);
+    }
+
+    @Given("a sparse file of {int} GB with {int} bytes encrypted with key {int} at offset {long}")
+    public void a_sparse_file_with_encrypted_bytes(int gigabytes, int length, int key, long offset)
+            throws IOException {
+        Assume.assumeTrue(OffHeapRegions.isAvailable());
+        frostSecurity = new FrostSecurity();
+        plaintext = new byte[length];
+        new Random(length).nextBytes(plaintext);
+        file = Files.createTempFile("frost", ".mpq");
+        try (RandomAccessFile out = new RandomAccessFile(file.toFile(), "rw")) {
+            out.setLength((long) gigabytes << 30);
+            out.seek(offset);
+            out.write(frostSecurity.encryptBytes(plaintext, key));
+        }
+    }
+
+    @When("the whole file is mapped and the bytes at offset {long} are decrypted with key {int}")
+    public void the_whole_file_is_mapped_and_decrypted(long offset, int key) throws IOException {
+        try (OffHeapRegion mapped = OffHeapRegions.map(file, 0, Files.size(file), true)) {
+            Assert.assertTrue(mapped.size() > Integer.MAX_VALUE);
+            mapped.decrypt(offset, plaintext.length, key);
+        }
+    }
+
+    @Then("the file should hold the plaintext at offset {long}")
+    public void the_file_should_hold_the_plaintext(long offset) throws IOException {
+        byte[] actual = new byte[plaintext.length];
+        try (RandomAccessFile in = new RandomAccessFile(file.toFile(), "r")) {
+            in.seek(offset);
+            in.readFully(actual);
+        }
+        Assert.assertArrayEquals(plaintext, actual);
+    }
+
+    @After
+    public void closeRegion() throws IOException {
+        if (region != null) {
+            region.close();
+        }
+        if (file != null) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private byte[] regionBytes() {
+        byte[] bytes = new byte[plaintext.length];
+        region.get(REGION_OFFSET, bytes, 0, bytes.length);
+        return bytes;
+    }
+}
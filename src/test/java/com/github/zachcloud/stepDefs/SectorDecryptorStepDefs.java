@@ -0,0 +1,115 @@
+package com.github.zachcloud.stepDefs;
+
+import com.github.zachcloud.exceptions.EncryptionException;
+import com.github.zachcloud.frost.FrostSecurity;
+import com.github.zachcloud.mpq.SectorDecryptor;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.junit.Assert;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+public class SectorDecryptorStepDefs {
+
+    private static final int FILE_OFFSET = 13;
+
+    private final FrostSecurity frostSecurity = new FrostSecurity();
+    private byte[] plaintext;
+    private byte[] encrypted;
+    private int[] sectorOffsets;
+    private int key;
+    private byte[] result;
+
+    @Given("a file of {int} random bytes in sectors of at most {int} encrypted with key {int}")
+    public void a_file_in_sectors_encrypted_with_key(int fileSize, int sectorSize, int key) {
+        this.key = key;
+        Random random = new Random(fileSize);
+        plaintext = new byte[fileSize];
+        random.nextBytes(plaintext);
+        List<Integer> offsets = new ArrayList<>();
+        offsets.add(0);
+        for (int offset = 0; offset < fileSize; ) {
+            offset = Math.min(fileSize, offset + 1 + random.nextInt(sectorSize));
+            offsets.add(offset);
+        }
+        sectorOffsets = offsets.stream().mapToInt(Integer::intValue).toArray();
+        encrypted = new byte[FILE_OFFSET + fileSize];
+        for (int i = 0; i + 1 < sectorOffsets.length; i++) {
+            byte[] sector = frostSecurity.encryptBytes(
+                    Arrays.copyOfRange(plaintext, sectorOffsets[i], sectorOffsets[i + 1]), key + i);
+            System.arraycopy(sector, 0, encrypted, FILE_OFFSET + sectorOffsets[i], sector.length);
+        }
+    }
+
+    @When("the sectors are decrypted on a ForkJoinPool")
+    public void the_sectors_are_decrypted_on_a_fork_join_pool() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            result = new byte[plaintext.length];
+            new SectorDecryptor(frostSecurity, pool).decrypt(encrypted, FILE_OFFSET, sectorOffsets, key, result, 0);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @When("the sectors are decrypted on a fixed thread pool")
+    public void the_sectors_are_decrypted_on_a_fixed_thread_pool() {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            result = new byte[plaintext.length];
+            new SectorDecryptor(frostSecurity, executor, 3).decrypt(encrypted, FILE_OFFSET, sectorOffsets, key,
+                    result, 0);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @When("the sectors are decrypted in place on a direct buffer")
+    public void the_sectors_are_decrypted_in_place_on_a_direct_buffer() {
+        ByteBuffer file = ByteBuffer.allocateDirect(encrypted.length).order(ByteOrder.LITTLE_ENDIAN);
+        file.duplicate().put(encrypted);
+        ByteBuffer view = file.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        ((Buffer) view).position(FILE_OFFSET);
+        new SectorDecryptor(frostSecurity).decryptInPlace(view, sectorOffsets, key);
+        Assert.assertEquals(FILE_OFFSET, view.position());
+        result = new byte[plaintext.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = file.get(FILE_OFFSET + i);
+        }
+    }
+
+    @When("the sectors are decrypted in place in the source array")
+    public void the_sectors_are_decrypted_in_place_in_the_source_array() {
+        new SectorDecryptor(frostSecurity).decrypt(encrypted, FILE_OFFSET, sectorOffsets, key,
+                encrypted, FILE_OFFSET);
+        result = Arrays.copyOfRange(encrypted, FILE_OFFSET, encrypted.length);
+    }
+
+    @Then("the decrypted sectors should match the plaintext")
+    public void the_decrypted_sectors_should_match_the_plaintext() {
+        Assert.assertArrayEquals(plaintext, result);
+    }
+
+    @Then("decrypting with sector 1 ending before it starts should fail")
+    public void decrypting_with_a_backwards_sector_should_fail() {
+        int[] offsets = sectorOffsets.clone();
+        offsets[2] = offsets[1] - 1;
+        try {
+            new SectorDecryptor(frostSecurity).decrypt(encrypted, FILE_OFFSET, offsets, key,
+                    new byte[plaintext.length], 0);
+            Assert.fail("Expected an EncryptionException");
+        } catch (EncryptionException expected) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.github.zachcloud.stepDefs;
+
+import com.github.zachcloud.frost.FrostSecurity;
+import com.github.zachcloud.frost.StormCipher;
+import com.github.zachcloud.io.StormInputStream;
+import com.github.zachcloud.io.StormOutputStream;
+import com.github.zachcloud.io.StormReadableByteChannel;
+import com.github.zachcloud.io.StormWritableByteChannel;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Random;
+
+public class StormCipherStepDefs {
+
+    private final FrostSecurity frostSecurity = new FrostSecurity();
+    private byte[] input;
+    private byte[] result;
+
+    @Given("{int} random bytes with seed {int}")
+    public void random_bytes_with_seed(int length, int seed) {
+        input = new byte[length];
+        new Random(seed).nextBytes(input);
+    }
+
+    @When("the bytes are decrypted in chunks of {int} bytes with key {int}")
+    public void the_bytes_are_decrypted_in_chunks(int chunk, int key) {
+        result = processInChunks(frostSecurity.createDecryptor(key), chunk);
+    }
+
+    @When("the bytes are encrypted in chunks of {int} bytes with key {int}")
+    public void the_bytes_are_encrypted_in_chunks(int chunk, int key) {
+        result = processInChunks(frostSecurity.createEncryptor(key), chunk);
+    }
+
+    @When("the bytes are decrypted in buffer chunks of {int} bytes with key {int}")
+    public void the_bytes_are_decrypted_in_buffer_chunks(int chunk, int key) {
+        StormCipher cipher = frostSecurity.createDecryptor(key);
+        ByteBuffer out = ByteBuffer.allocateDirect(input.length);
+        for (int i = 0; i < input.length; i += chunk) {
+            int length = Math.min(chunk, input.length - i);
+            cipher.update(ByteBuffer.wrap(input, i, length), out);
+        }
+        cipher.finish(out);
+        Assert.assertEquals(input.length, out.position());
+        result = new byte[input.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = out.get(i);
+        }
+    }
+
+    @When("the bytes are decrypted up to offset {int}, checkpointed and resumed with key {int}")
+    public void the_bytes_are_checkpointed_and_resumed(int offset, int key) {
+        StormCipher first = frostSecurity.createDecryptor(key);
+        result = new byte[input.length];
+        first.update(input, 0, offset, result, 0);
+        StormCipher.Checkpoint checkpoint = first.checkpoint();
+        Assert.assertEquals(offset & ~3, checkpoint.getOffset());
+
+        StormCipher resumed = frostSecurity.createDecryptor(
+                new StormCipher.Checkpoint(checkpoint.getKey(), checkpoint.getSeed(),
+                        checkpoint.getOffset()));
+        int start = (int) checkpoint.getOffset();
+        int produced = resumed.update(input, start, input.length - start, result, start);
+        resumed.finish(result, start + produced);
+    }
+
+    @When("the bytes are decrypted through an input stream with key {int}")
+    public void the_bytes_are_decrypted_through_an_input_stream(int key) throws IOException {
+        InputStream in = new StormInputStream(new ByteArrayInputStream(input),
+                frostSecurity.createDecryptor(key), 1000);
+        result = IOUtils.toByteArray(in);
+    }
+
+    @When("the bytes are encrypted through an output stream with key {int}")
+    public void the_bytes_are_encrypted_through_an_output_stream(int key) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new StormOutputStream(bytes, frostSecurity.createEncryptor(key), 1001)) {
+            for (int i = 0; i < input.length; i += 777) {
+                out.write(input, i, Math.min(777, input.length - i));
+            }
+        }
+        result = bytes.toByteArray();
+    }
+
+    @When("the bytes are decrypted through a readable channel with key {int}")
+    public void the_bytes_are_decrypted_through_a_readable_channel(int key) throws IOException {
+        ReadableByteChannel channel = new StormReadableByteChannel(
+                Channels.newChannel(new ByteArrayInputStream(input)),
+                frostSecurity.createDecryptor(key), ByteBuffer.allocateDirect(4099));
+        result = IOUtils.toByteArray(Channels.newInputStream(channel));
+    }
+
+    @When("the bytes are encrypted through a writable channel with key {int}")
+    public void the_bytes_are_encrypted_through_a_writable_channel(int key) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (WritableByteChannel channel = new StormWritableByteChannel(Channels.newChannel(bytes),
+                frostSecurity.createEncryptor(key), ByteBuffer.allocate(513))) {
+            for (int i = 0; i < input.length; i += 1999) {
+                channel.write(ByteBuffer.wrap(input, i, Math.min(1999, input.length - i)));
+            }
+        }
+        result = bytes.toByteArray();
+    }
+
+    @Then("the result should match decryptBytes with key {int}")
+    public void the_result_should_match_decrypt_bytes(int key) {
+        Assert.assertArrayEquals(frostSecurity.decryptBytes(input, key), result);
+    }
+
+    @Then("the result should match encryptBytes with key {int}")
+    public void the_result_should_match_encrypt_bytes(int key) {
+        Assert.assertArrayEquals(frostSecurity.encryptBytes(input, key), result);
+    }
+
+    private byte[] processInChunks(StormCipher cipher, int chunk) {
+        byte[] out = new byte[input.length];
+        // Process in place to check that src == dst is supported
+        System.arraycopy(input, 0, out, 0, input.length);
+        byte[] staged = new byte[chunk + 3];
+        int written = 0;
+        for (int i = 0; i < input.length; i += chunk) {
+            int length = Math.min(chunk, input.length - i);
+            System.arraycopy(input, i, staged, 0, length);
+            int produced = cipher.update(staged, 0, length, staged, 0);
+            System.arraycopy(staged, 0, out, written, produced);
+            written += produced;
+        }
+        written += cipher.finish(out, written);
+        Assert.assertEquals(input.length, written);
+        return out;
+    }
+}
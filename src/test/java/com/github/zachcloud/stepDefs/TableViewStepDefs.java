@@ -0,0 +1,122 @@
+package com.github.zachcloud.stepDefs;
+
+import com.github.zachcloud.frost.FrostSecurity;
+import com.github.zachcloud.helpers.ByteHelper;
+import com.github.zachcloud.mpq.BlockTableView;
+import com.github.zachcloud.mpq.HashTableView;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.junit.Assert;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Random;
+
+public class TableViewStepDefs {
+
+    private final FrostSecurity frostSecurity = new FrostSecurity();
+    private byte[] plaintext;
+    private int entries;
+    private HashTableView hashTable;
+    private BlockTableView blockTable;
+
+    @Given("an encrypted table of {int} random entries with seed {int}")
+    public void an_encrypted_table_of_random_entries(int entries, int seed) {
+        this.entries = entries;
+        plaintext = new byte[entries * 16];
+        new Random(seed).nextBytes(plaintext);
+    }
+
+    @When("the hash table is viewed through a {}")
+    public void the_hash_table_is_viewed_through(String source) {
+        int key = frostSecurity.getFileKey("(hash table)");
+        byte[] encrypted = frostSecurity.encryptBytes(plaintext, key);
+        switch (source) {
+            case "decrypted copy":
+                hashTable = HashTableView.fromEncrypted(frostSecurity, ByteBuffer.wrap(encrypted), entries);
+                break;
+            case "direct buffer in place":
+                hashTable = new HashTableView(decryptDirect(encrypted, key));
+                break;
+            case "decrypted int array":
+                hashTable = new HashTableView(IntBuffer.wrap(decryptInts(encrypted, key)));
+                break;
+            default:
+                throw new IllegalArgumentException(source);
+        }
+    }
+
+    @When("the block table is viewed through a {}")
+    public void the_block_table_is_viewed_through(String source) {
+        int key = frostSecurity.getFileKey("(block table)");
+        byte[] encrypted = frostSecurity.encryptBytes(plaintext, key);
+        switch (source) {
+            case "decrypted copy":
+                blockTable = BlockTableView.fromEncrypted(frostSecurity, ByteBuffer.wrap(encrypted), entries);
+                break;
+            case "direct buffer in place":
+                blockTable = new BlockTableView(decryptDirect(encrypted, key));
+                break;
+            case "decrypted int array":
+                blockTable = new BlockTableView(IntBuffer.wrap(decryptInts(encrypted, key)));
+                break;
+            default:
+                throw new IllegalArgumentException(source);
+        }
+    }
+
+    @Then("every hash table field should match ByteHelper")
+    public void every_hash_table_field_should_match() {
+        Assert.assertEquals(entries, hashTable.size());
+        for (int i = 0; i < entries; i++) {
+            Assert.assertEquals(field(i, 0), hashTable.hashA(i));
+            Assert.assertEquals(field(i, 4), hashTable.hashB(i));
+            Assert.assertEquals(ByteHelper.byteToShort(ByteHelper.extractBytes(plaintext, i * 16 + 8, 2)) & 0xFFFF,
+                    hashTable.locale(i));
+            Assert.assertEquals(ByteHelper.byteToShort(ByteHelper.extractBytes(plaintext, i * 16 + 10, 2)) & 0xFFFF,
+                    hashTable.platform(i));
+            Assert.assertEquals(field(i, 12), hashTable.blockIndex(i));
+        }
+    }
+
+    @Then("every block table field should match ByteHelper")
+    public void every_block_table_field_should_match() {
+        Assert.assertEquals(entries, blockTable.size());
+        for (int i = 0; i < entries; i++) {
+            Assert.assertEquals(field(i, 0) & 0xFFFFFFFFL, blockTable.filePosition(i));
+            Assert.assertEquals(field(i, 4) & 0xFFFFFFFFL, blockTable.compressedSize(i));
+            Assert.assertEquals(field(i, 8) & 0xFFFFFFFFL, blockTable.fileSize(i));
+            Assert.assertEquals(field(i, 12), blockTable.flags(i));
+            Assert.assertEquals(field(i, 12) < 0, blockTable.exists(i));
+        }
+    }
+
+    @Then("reading block table entry {int} should fail")
+    public void reading_block_table_entry_should_fail(int entry) {
+        try {
+            blockTable.flags(entry);
+            Assert.fail("Expected an IndexOutOfBoundsException");
+        } catch (IndexOutOfBoundsException expected) {
+            // expected
+        }
+    }
+
+    private int field(int entry, int offset) {
+        return ByteHelper.byteToInt(ByteHelper.extractBytes(plaintext, entry * 16 + offset, 4));
+    }
+
+    private ByteBuffer decryptDirect(byte[] encrypted, int key) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(encrypted.length).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.duplicate().put(encrypted);
+        frostSecurity.decryptBufferInPlace(buffer, key);
+        return buffer;
+    }
+
+    private int[] decryptInts(byte[] encrypted, int key) {
+        int[] ints = new int[encrypted.length / 4];
+        ByteBuffer.wrap(encrypted).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(ints);
+        return frostSecurity.decrypt(ints, key);
+    }
+}
@@ -0,0 +1,48 @@
+Feature: Test running FrostSecurity asynchronously
+
+  Scenario: Bytes encrypted asynchronously decrypt back to the plaintext
+    Given an async security with 4 internal threads
+    When 100000 random bytes are encrypted and decrypted asynchronously with key 1234
+    Then the asynchronous result should match the plaintext
+
+  Scenario Outline: Sectors modified asynchronously match FrostSecurity
+    Given an async security with 4 internal threads
+    When a file of <fileSize> random bytes in sectors of <sectorSize> is encrypted asynchronously with key <key>
+    Then every encrypted sector should match FrostSecurity
+    And decrypting the sectors asynchronously should give back the file
+
+    Examples:
+      | fileSize | sectorSize | key        |
+      | 1000000  | 4096       | -326913117 |
+      | 3000001  | 65536      | 77         |
+      | 10       | 4096       | 5          |
+      | 0        | 4096       | 5          |
+
+  Scenario: Names hashed asynchronously match hashAsInt
+    Given an async security with 4 internal threads
+    When 10000 names are hashed asynchronously
+    Then every asynchronous hash should match hashAsInt
+
+  Scenario: A job never queues more chunks than its parallelism
+    Given an async security on a manual executor with parallelism 2
+    When 20000 names are hashed for type 1 on the manual executor
+    Then 2 tasks should be queued
+
+  Scenario: Cancelled jobs stop before their next chunk
+    Given an async security on a manual executor with parallelism 1
+    When 20000 names are hashed for type 1 on the manual executor
+    And the job is cancelled
+    And the manual executor runs every queued task
+    Then 1 task should have run
+    And the job should be cancelled
+
+  Scenario: Small jobs are not starved by large jobs
+    Given an async security on a manual executor with parallelism 1
+    When 20000 names are hashed for type 1 on the manual executor
+    And 10 names are hashed for type 1 on the manual executor
+    And the manual executor runs 2 tasks
+    Then the small job should be done and the large job should not
+
+  Scenario: A failing chunk fails the job
+    Given an async security with 4 internal threads
+    Then hashing a null name asynchronously should fail with a HashingException
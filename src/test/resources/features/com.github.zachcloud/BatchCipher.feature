@@ -0,0 +1,21 @@
+Feature: Test encrypting many segments of one array in a single call
+
+  Scenario Outline: A batch gives the same bytes as encrypting each segment with encryptBytes
+    Given <count> random segments of at most <maxLength> bytes with <order> integers
+    When the segments are encrypted as a batch on a pool of <threads> threads
+    Then every segment should match encryptBytes with its key
+    And the bytes between the segments should be unchanged
+    When the segments are decrypted as a batch on a pool of <threads> threads
+    Then the data should match the plaintext
+
+    Examples:
+      | count | maxLength | order         | threads |
+      | 10000 | 68        | LITTLE_ENDIAN | 4       |
+      | 10000 | 68        | BIG_ENDIAN    | 1       |
+      | 500   | 8192      | LITTLE_ENDIAN | 4       |
+      | 3     | 4096      | BIG_ENDIAN    | 2       |
+      | 0     | 16        | LITTLE_ENDIAN | 1       |
+
+  Scenario: A segment outside the array is rejected
+    Given 100 random segments of at most 64 bytes with LITTLE_ENDIAN integers
+    Then encrypting with segment 7 ending past the array should fail
@@ -0,0 +1,15 @@
+Feature: Test hashing many names at once
+
+  Scenario: The Vector API hasher is used on Java 17 and later
+    Then vector hashing should be enabled when running on Java 17 or later
+
+  Scenario: Bulk hashes match hashAsInt for names of different lengths
+    When 1000 random names with seed 5 of up to 40 characters are hashed in bulk
+    Then every bulk hash should match hashAsInt
+
+  Scenario: Bulk hashes match hashAsInt for empty and single character names
+    When the names "", "a", "A", "/" and "Units\Human\Footman.mdx" are hashed in bulk
+    Then every bulk hash should match hashAsInt
+
+  Scenario: Characters above 0xFF cannot be hashed in bulk
+    Then hashing a name with the character 0x100 in bulk should throw
@@ -0,0 +1,38 @@
+Feature: Test caching name hashes
+
+  Scenario Outline: Cached hashes match uncached hashes
+    Given a hash cache of 16 names
+    When "<name>" is hashed through the cache 3 times
+    Then the cached hashes of "<name>" should match FrostSecurity
+    And the cache should report 19 hits and 1 misses
+
+    Examples:
+      | name                 |
+      | war3map.j            |
+      | (listfile)           |
+      | Scripts\Blizzard.j   |
+
+  Scenario: Single pass hashing is served from the cache
+    Given a hash cache of 16 names
+    When "war3map.j" is hashed through the cache 1 times
+    Then hashAll of "war3map.j" through the cache should match FrostSecurity
+    And the cache should report 5 hits and 1 misses
+
+  Scenario: The cache does not grow past its maximum size
+    Given a hash cache of 100 names
+    When 1000 different names are hashed through the cache
+    Then the cache should hold 100 names
+    And the cache should report 900 evictions
+
+  Scenario: Recently used names survive eviction
+    Given a hash cache of 100 names
+    When 99 different names are hashed through the cache
+    And "war3map.j" is hashed through the cache 2 times
+    And 50 different names are hashed through the cache
+    And "war3map.j" is hashed through the cache 1 times
+    Then the cache should report 50 evictions
+    And the cache should report 11 hits and 150 misses
+
+  Scenario: Invalid hash types are still rejected
+    Given a hash cache of 16 names
+    Then hashing "war3map.j" through the cache with type 4 should fail
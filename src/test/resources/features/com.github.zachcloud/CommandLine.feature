@@ -0,0 +1,27 @@
+Feature: Test the command line tool
+
+  Scenario: Hashing a listfile keeps the names in order
+    Given a listfile of 1000 names
+    When the listfile is hashed from standard input with arguments "--threads 4 --batch 7"
+    Then the command should exit with 0
+    And every output line should hold the hashes and file key of its name in listfile order
+
+  Scenario Outline: Encrypting a byte range matches encryptBytes
+    Given an input file of 100003 random bytes
+    When the file is encrypted with arguments "<arguments>"
+    Then the command should exit with 0
+    And the output should match encryptBytes of <length> bytes at offset <offset> with <key>
+    And decrypting the output with the same key should give back the range
+
+    Examples:
+      | arguments                                                                    | offset | length | key                    |
+      | --key 0x1234                                                                 | 0      | 100003 | key 4660               |
+      | --key -326913117 --offset 17 --length 5001 --buffer 64                       | 17     | 5001   | key -326913117         |
+      | --name Units\Human\Footman.mdx --offset 4096                                 | 4096   | 95907  | the file key of Footman.mdx |
+      | --name Footman.mdx --fix-key --block-offset 512 --file-size 9000 --length 99 | 0      | 99     | the fixed file key of Footman.mdx at 512 with size 9000 |
+
+  Scenario: Wrong arguments print the usage
+    Given an input file of 16 random bytes
+    When the file is encrypted with arguments "--key 1 --name war3map.j"
+    Then the command should exit with 2
+    And standard error should contain "Usage:"
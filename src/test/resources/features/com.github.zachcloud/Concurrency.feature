@@ -0,0 +1,15 @@
+Feature: Test sharing FrostSecurity between threads
+
+  Scenario: Shared instances are reused per byte order
+    Then the shared instances should be reused per byte order
+
+  Scenario Outline: A shared instance gives the same results on many threads
+    Given 64 random inputs of up to 4099 bytes
+    When <threads> threads use the shared <order> instance for <rounds> rounds
+    Then every thread should see the single threaded results
+
+    Examples:
+      | threads | order         | rounds |
+      | 8       | little endian | 50     |
+      | 8       | big endian    | 50     |
+      | 32      | little endian | 10     |
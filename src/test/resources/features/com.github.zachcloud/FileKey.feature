@@ -0,0 +1,43 @@
+Feature: Test deriving file keys
+
+  Scenario Outline: The file key is the file key hash of the base name
+    Then the file key of "<name>" should be the file key hash of "<baseName>"
+
+    Examples:
+      | name                                | baseName             |
+      | war3map.j                           | war3map.j            |
+      | Scripts\war3map.j                   | war3map.j            |
+      | Units/Human/Footman/Footman.mdx     | Footman.mdx          |
+      | Units\Human/Footman\Footman.mdx     | Footman.mdx          |
+      | Scripts/                            |                      |
+
+  Scenario Outline: The key is adjusted only when the FIX_KEY flag is set
+    Then the file key of "<name>" at <blockOffset> with size <fileSize> and flags <flags> should be <key>
+
+    Examples:
+      | name                 | blockOffset | fileSize | flags       | key         |
+      | (hash table)         | 0           | 0        | 0           | -1011927184 |
+      | (block table)        | 0           | 0        | 0           | -326913117  |
+      | (listfile)           | 1024        | 3000     | -2147418112 | 758057620   |
+      | (listfile)           | 1024        | 3000     | -2147287040 | 758056236   |
+      | Units\(listfile)     | 1024        | 3000     | -2147287040 | 758056236   |
+
+  Scenario: Sector keys follow the file key
+    Then sector 5 of a file with key 100 should use key 105
+    And the sector offset table of a file with key 100 should use key 99
+
+  Scenario: A key table derives each file's key once
+    Given a file key table for 16 blocks
+    When the key of block 3 is read 5 times as "Units\Footman.mdx" at 4096 with size 777 and flags -2147287040
+    Then the key of block 3 should have been derived 1 time
+    And the key of block 3 should match getFileKey of "Footman.mdx" at 4096 with size 777 and flags -2147287040
+
+  Scenario: A stored key is used without a name
+    Given a file key table for 16 blocks
+    When the key 12345 is stored for block 7
+    And the key of block 7 is read 2 times as "anything" at 0 with size 0 and flags 0
+    Then the key of block 7 should have been derived 0 time
+    And block 7 should have key 12345
+
+  Scenario: The caching security derives the same keys
+    Then a caching security should derive the same file keys as FrostSecurity
@@ -0,0 +1,41 @@
+Feature: Test the Storm cipher through the JCA
+
+  Scenario Outline: doFinal matches encryptBytes and decryptBytes
+    Given <length> random bytes for the "<transformation>" cipher in <order> order
+    When the bytes are encrypted with key <key> through the cipher in chunks of <chunk> bytes
+    Then the cipher output should match encryptBytes with key <key>
+    And decrypting the cipher output with key <key> in chunks of <chunk> bytes should give back the plaintext
+
+    Examples:
+      | transformation       | length | order         | key        | chunk |
+      | Storm                | 0      | LITTLE_ENDIAN | 1          | 1     |
+      | Storm                | 7      | LITTLE_ENDIAN | -326913117 | 3     |
+      | Storm/NONE/NoPadding | 4099   | LITTLE_ENDIAN | -326913117 | 1000  |
+      | Storm                | 4099   | BIG_ENDIAN    | 77         | 5     |
+      | Storm                | 65539  | LITTLE_ENDIAN | 77         | 65539 |
+
+  Scenario Outline: ByteBuffers are processed in chunks without copies
+    Given <length> random bytes for the "Storm" cipher in <order> order
+    When the bytes are encrypted with key <key> through <kind> buffers in chunks of <chunk> bytes
+    Then the cipher output should match encryptBytes with key <key>
+
+    Examples:
+      | length | order         | key        | kind   | chunk |
+      | 4099   | LITTLE_ENDIAN | -326913117 | direct | 5     |
+      | 4099   | BIG_ENDIAN    | -326913117 | direct | 6     |
+      | 4099   | LITTLE_ENDIAN | 77         | heap   | 4096  |
+
+  Scenario: Cipher streams round trip
+    Given 100003 random bytes for the "Storm" cipher in LITTLE_ENDIAN order
+    When the bytes are written to a CipherOutputStream with key 9 in chunks of 7 bytes
+    Then the cipher output should match encryptBytes with key 9
+    And reading the cipher output through a CipherInputStream with key 9 should give back the plaintext
+
+  Scenario: A raw key of 4 little endian bytes is the same as a StormKeySpec
+    Given 1027 random bytes for the "Storm" cipher in LITTLE_ENDIAN order
+    When the bytes are encrypted with the raw key "78 56 34 12"
+    Then the cipher output should match encryptBytes with key 305419896
+
+  Scenario: Other modes and paddings are rejected
+    Then the "Storm/CBC/NoPadding" cipher should not be available
+    And the "Storm/NONE/PKCS5Padding" cipher should not be available
@@ -0,0 +1,59 @@
+Feature: Test choosing a security backend
+
+  Scenario: The pure Java backend is always available
+    Then the "java" provider should be available
+    And the default provider should be native exactly when the native library is loaded
+
+  Scenario Outline: The native backend encrypts direct buffers like the Java backend
+    Given a direct buffer holding <length> random bytes at offset 3 in <order> order
+    When both backends encrypt the buffer with key <key>
+    Then both backends should give the same ciphertext
+    And both backends should decrypt the ciphertext back to the plaintext
+
+    Examples:
+      | length  | order         | key        |
+      | 0       | LITTLE_ENDIAN | 1          |
+      | 255     | LITTLE_ENDIAN | 7          |
+      | 1027    | LITTLE_ENDIAN | -326913117 |
+      | 4194307 | LITTLE_ENDIAN | 77         |
+      | 1027    | BIG_ENDIAN    | -326913117 |
+      | 4194307 | BIG_ENDIAN    | 77         |
+
+  Scenario Outline: The native backend hashes names like the Java backend
+    Given <count> random names of up to 300 characters
+    When both backends hash the names with hash type <hashType>
+    Then both backends should give the same hashes
+
+    Examples:
+      | count | hashType |
+      | 10    | 0        |
+      | 10000 | 0        |
+      | 10000 | 1        |
+      | 10000 | 2        |
+      | 10000 | 3        |
+
+  Scenario Outline: Packed names are hashed like separate names
+    Given the names "war3map.j,(listfile),Units\Human\Footman.mdx" packed in a <kind> buffer
+    When the packed names are hashed with hash type 1
+    Then the packed hashes should match hashAsInt with hash type 1
+
+    Examples:
+      | kind   |
+      | direct |
+      | heap   |
+
+  Scenario Outline: Decorators wrap any IFrostSecurity
+    Given a <decorator> decorator around the <delegate> security in <order> order
+    Then the decorated security should hash "Units\Human\Footman.mdx" like FrostSecurity
+    And the decorated security should encrypt and decrypt 1031 bytes like FrostSecurity
+
+    Examples:
+      | decorator    | delegate | order         |
+      | caching      | provider | LITTLE_ENDIAN |
+      | caching      | provider | BIG_ENDIAN    |
+      | instrumented | provider | LITTLE_ENDIAN |
+      | instrumented | provider | BIG_ENDIAN    |
+      | caching      | original | LITTLE_ENDIAN |
+      | caching      | original | BIG_ENDIAN    |
+      | instrumented | original | LITTLE_ENDIAN |
+      | instrumented | original | BIG_ENDIAN    |
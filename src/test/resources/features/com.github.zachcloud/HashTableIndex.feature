@@ -0,0 +1,45 @@
+Feature: Test looking up names in an MPQ hash table
+
+  Background:
+    Given an encrypted hash table of 8 entries holding:
+      | name                   | locale | block |
+      | war3map.j              | 0      | 0     |
+      | war3map.w3e            | 0      | 1     |
+      | war3map.wts            | 0      | 2     |
+      | war3map.wts            | 1031   | 3     |
+      | (listfile)             | 0      | 4     |
+      | Scripts\Blizzard.j     | 0      | 5     |
+      | (attributes)           | 0      | 6     |
+
+  Scenario Outline: Names resolve to their block
+    When the hash table is indexed
+    Then "<name>" with locale <locale> should resolve to block <block>
+
+    Examples:
+      | name                   | locale | block |
+      | war3map.j              | 0      | 0     |
+      | WAR3MAP.J              | 0      | 0     |
+      | war3map.w3e            | 0      | 1     |
+      | Scripts/Blizzard.j     | 0      | 5     |
+      | (attributes)           | 0      | 6     |
+      | war3map.wts            | 1031   | 3     |
+      | war3map.wts            | 0      | 2     |
+      | war3map.wts            | 1036   | 2     |
+      | war3map.j              | 1036   | 0     |
+      | war3map.doo            | 0      | -1    |
+
+  Scenario: Deleted entries do not end a probe
+    Given every name but "(attributes)" is deleted
+    When the hash table is indexed
+    Then "(attributes)" with locale 0 should resolve to block 6
+    And "war3map.j" with locale 0 should resolve to block -1
+
+  Scenario: A full table without the name does not probe forever
+    Given the hash table is full
+    When the hash table is indexed
+    Then "war3map.doo" with locale 0 should resolve to block -1
+    And "(listfile)" with locale 0 should resolve to block 4
+
+  Scenario: Concurrent lookups agree with single threaded lookups
+    When the hash table is indexed
+    Then 4 threads looking up every name 10000 times should find the same blocks
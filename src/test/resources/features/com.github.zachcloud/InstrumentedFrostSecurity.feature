@@ -0,0 +1,37 @@
+Feature: Test instrumenting FrostSecurity
+
+  Scenario: Encrypted and decrypted bytes are counted
+    Given an instrumented security timing every call
+    When 1024 bytes are encrypted and decrypted through the instrumented security
+    Then the metrics should report 2052 bytes encrypted and 2052 bytes decrypted
+    And the metrics should report 2 encrypt and 2 decrypt latencies
+
+  Scenario: Hashes are counted per hash type
+    Given an instrumented security timing every call
+    When 5 names are hashed for the lookup types through the instrumented security
+    And "war3map.j" is hashed with type 1 through the instrumented security
+    Then the metrics should report 5 table offset, 6 name A, 5 name B and 0 file key hashes
+    And the metrics should report 2 hash latencies
+
+  Scenario: Instrumented hashes match FrostSecurity
+    Given an instrumented security timing every call
+    Then the instrumented hashes of "Units\Human\Footman.mdx" should match FrostSecurity
+
+  Scenario: Nothing is reported while disabled
+    Given an instrumented security timing every call
+    When the instrumented security is disabled
+    And 1024 bytes are encrypted and decrypted through the instrumented security
+    And "war3map.j" is hashed with type 1 through the instrumented security
+    Then the metrics should report 0 bytes encrypted and 0 bytes decrypted
+    And the metrics should report 0 table offset, 0 name A, 0 name B and 0 file key hashes
+
+  Scenario: No metrics means no wrapper
+    Then instrumenting without metrics should return the delegate
+
+  Scenario: Flight Recorder events are available on Java 17 and later
+    Then event recording should be available when running on Java 17 or later
+
+  Scenario: Latency percentiles are within a factor of two
+    Given a latency histogram of durations 1, 100, 1000 and 1000000 nanoseconds
+    Then the 50th percentile should be 127 nanoseconds
+    And the 100th percentile should be 1048575 nanoseconds
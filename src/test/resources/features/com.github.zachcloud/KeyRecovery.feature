@@ -0,0 +1,35 @@
+Feature: Test recovering keys from known plaintext
+
+  Scenario Outline: A key is recovered from known plaintext integers
+    Given 64 random plaintext integers with seed <seed> encrypted with key <key>
+    When keys are recovered from the first <known> plaintext integers
+    Then the only recovered key should be <key>
+
+    Examples:
+      | seed | key         | known |
+      | 1    | -326913117  | 2     |
+      | 2    | 0           | 3     |
+      | 3    | 2147483647  | 4     |
+      | 4    | -1          | 2     |
+
+  Scenario: A key is recovered when the first plaintext integer is only known to lie in a range
+    Given 64 random plaintext integers with seed 5 encrypted with key 1234567
+    And the first plaintext integer is replaced with 11259375
+    When keys are recovered with the first plaintext in [0, 16777215] and the next 3 integers known
+    Then the only recovered key should be 1234567
+
+  Scenario: Wrong plaintext recovers no key
+    Given 64 random plaintext integers with seed 6 encrypted with key 99
+    When keys are recovered from the wrong plaintext
+    Then no key should be recovered
+
+  Scenario Outline: A file key is recovered from an encrypted sector offset table
+    Given a sector offset table for a file of <fileSize> bytes in sectors of <sectorSize> encrypted for file key <fileKey>
+    When file keys are recovered from the first <known> sector offset table integers
+    Then the recovered file keys should include <fileKey>
+
+    Examples:
+      | fileSize | sectorSize | fileKey    | known |
+      | 100000   | 4096       | 1887441287 | 4     |
+      | 5000     | 4096       | -17        | 3     |
+      | 2000000  | 65536      | 305419896  | 8     |
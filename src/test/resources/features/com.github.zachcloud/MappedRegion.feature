@@ -0,0 +1,18 @@
+Feature: Test decrypting memory-mapped file regions
+
+  Scenario Outline: Decrypting a mapped region into a buffer matches decryptBytes
+    Given a file of <fileLength> random bytes
+    When the region at <offset> of length <length> is decrypted into a <bufferType> buffer with window <window> and key -326913117
+    Then the region result should match decryptBytes with key -326913117
+
+    Examples:
+      | fileLength | offset | length | bufferType | window |
+      | 10000      | 0      | 10000  | heap       | 4096   |
+      | 10000      | 13     | 9001   | direct     | 4096   |
+      | 10000      | 100    | 3      | heap       | 8      |
+      | 70000      | 7      | 65539  | direct     | 67108864 |
+
+  Scenario: Decrypting a mapped region into a channel matches decryptBytes
+    Given a file of 3000000 random bytes
+    When the region at 21 of length 2999970 is decrypted into a channel with window 1048576 and key 77
+    Then the region result should match decryptBytes with key 77
@@ -0,0 +1,25 @@
+Feature: Test the precomputed name hash dictionary
+
+  Scenario: Every name of a listfile can be found by its hash pair
+    Given a listfile of 20000 generated names with "war3map.j" and "WAR3MAP.J"
+    When a name hash dictionary is written from the listfile and mapped
+    Then the dictionary should hold 20001 names
+    And every name should be found by its hashA and hashB with its hashes and file key
+    And the pair of "WAR3MAP.J" should give back "war3map.j"
+    And 1000 random pairs should not be found
+
+  Scenario: Names with a path store the file key of their base name
+    Given a listfile of 100 generated names with "Units\Human\Footman.mdx" and "Footman.mdx"
+    When a name hash dictionary is written from the listfile and mapped
+    Then the dictionary should hold 102 names
+    And every name should be found by its hashA and hashB with its hashes and file key
+    And the file key of "Units\Human\Footman.mdx" should be the file key of "Footman.mdx"
+
+  Scenario: An empty dictionary finds nothing
+    Given a listfile of 0 generated names with "" and ""
+    When a name hash dictionary is written from the listfile and mapped
+    Then the dictionary should hold 0 names
+    And 1000 random pairs should not be found
+
+  Scenario: A file that is not a dictionary is rejected
+    Then mapping a file of 40 zero bytes as a dictionary should fail
@@ -0,0 +1,72 @@
+Feature: Test recovering file names with incremental hashing
+
+  Scenario Outline: Extending a prefix state gives the same hash as hashing the whole name
+    Then hashing "<prefix>" then "<suffix>" incrementally should match hashAsInt of the whole name
+
+    Examples:
+      | prefix                   | suffix          |
+      |                          | war3map.j       |
+      | Units\Human/             | Footman.mdx     |
+      | units/human/             | footman.MDX     |
+      | Scripts/                 |                 |
+
+  Scenario: A prefix state can be extended more than once
+    Then the state after "Units\Human/" extended with "Footman.mdx" and "Knight.mdx" should match hashAsInt
+
+  Scenario: A long set holds exactly the values added to it
+    When 100000 random longs with seed 3 and the value 0 are added to a long set
+    Then the long set should contain every added value and none of 100000 others
+
+  Scenario: Names in a hash table are recovered from a dictionary
+    Given a hash table holding the names:
+      | Units\Human\Footman.mdx       |
+      | Units\Orc\Grunt.mdl           |
+      | Scripts\war3map.j             |
+      | war3map.w3e                   |
+      | Units\Human\Knight_portrait.blp |
+    When the dictionary is matched on a pool of 4 threads
+    Then the recovered names should be:
+      | Scripts\war3map.j     |
+      | Units\Human\Footman.mdx |
+      | Units\Orc\Grunt.mdl   |
+      | war3map.w3e           |
+
+  Scenario: Parallel matching finds the same names as a single thread
+    Given a hash table holding the names:
+      | Units\Human\Footman.mdx       |
+      | Units\Orc\Grunt.mdl           |
+    When the dictionary is matched on a pool of 1 threads
+    Then the recovered names should be:
+      | Units\Human\Footman.mdx |
+      | Units\Orc\Grunt.mdl   |
+
+  Scenario: Reversing a hash step gives back the state before it
+    Then reversing 10000 random hash steps with seed 5 should give back the states before them
+
+  Scenario: Names with unknown characters are recovered meeting in the middle
+    Given a hash table holding the names:
+      | Units\Orc\Grunt.mdx |
+      | Units\ghoul.mdx     |
+      | Units\grunt.mdx     |
+      | Units\peon1.mdx     |
+    When names of 5 unknown characters between "Units/" and ".mdx" are matched meeting in the middle with a 65536 byte table on a pool of 4 threads
+    Then the recovered names should be:
+      | Units/ghoul.mdx |
+      | Units/grunt.mdx |
+      | Units/peon1.mdx |
+
+  Scenario: Names without a known suffix are recovered meeting in the middle
+    Given a hash table holding the names:
+      | war3map.j |
+      | abcd      |
+      | x_1       |
+    When names of 4 unknown characters between "" and "" are matched meeting in the middle with a 1024 byte table on a pool of 1 threads
+    Then the recovered names should be:
+      | abcd |
+
+  Scenario: Meeting in the middle finds the same names as trying every name
+    Given a hash table holding the names:
+      | Units\abc.mdx |
+      | Units\z_9.mdx |
+      | Units\ab.mdx  |
+    Then meeting in the middle with a 512 byte table should find the same names as the dictionary matcher for 3 characters between "Units/" and ".mdx"
@@ -0,0 +1,22 @@
+Feature: Test encrypting off-heap regions
+
+  Scenario: Off-heap regions are available on Java 22 and later
+    Then off-heap regions should be available when running on Java 22 or later
+
+  Scenario Outline: Allocated regions match encryptBytes and decryptBytes
+    Given an off-heap region holding <length> random bytes at offset 5 in <order> order
+    When the off-heap bytes are encrypted with key <key>
+    Then the off-heap bytes should match encryptBytes with key <key>
+    And decrypting the off-heap bytes with key <key> should give back the plaintext
+
+    Examples:
+      | length | order         | key        |
+      | 0      | LITTLE_ENDIAN | 1          |
+      | 7      | LITTLE_ENDIAN | -326913117 |
+      | 100003 | LITTLE_ENDIAN | -326913117 |
+      | 100003 | BIG_ENDIAN    | 77         |
+
+  Scenario: Regions past 2 GB of a mapped file are decrypted in place
+    Given a sparse file of 3 GB with 4099 bytes encrypted with key 9 at offset 2147483749
+    When the whole file is mapped and the bytes at offset 2147483749 are decrypted with key 9
+    Then the file should hold the plaintext at offset 2147483749
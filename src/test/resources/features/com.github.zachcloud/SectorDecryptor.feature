@@ -0,0 +1,21 @@
+Feature: Test decrypting the sectors of a file in parallel
+
+  Scenario Outline: Decrypting every sector gives back the plaintext
+    Given a file of <fileSize> random bytes in sectors of at most <sectorSize> encrypted with key <key>
+    When the sectors are decrypted <how>
+    Then the decrypted sectors should match the plaintext
+
+    Examples:
+      | fileSize | sectorSize | key        | how                             |
+      | 1000000  | 4096       | -326913117 | on a ForkJoinPool               |
+      | 1000000  | 4096       | -326913117 | on a fixed thread pool          |
+      | 1000000  | 4096       | -326913117 | in place on a direct buffer     |
+      | 1000000  | 4096       | -326913117 | in place in the source array    |
+      | 3000001  | 65536      | 77         | on a ForkJoinPool               |
+      | 3000001  | 65536      | 77         | on a fixed thread pool          |
+      | 10       | 4096       | 5          | on a ForkJoinPool               |
+      | 0        | 4096       | 5          | on a fixed thread pool          |
+
+  Scenario: Sector offsets that go backwards are rejected
+    Given a file of 10000 random bytes in sectors of at most 4096 encrypted with key 1
+    Then decrypting with sector 1 ending before it starts should fail
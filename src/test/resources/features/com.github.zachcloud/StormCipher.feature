@@ -0,0 +1,55 @@
+Feature: Test chunked and streaming Storm cipher
+
+  Scenario Outline: Chunked decryption matches a single call
+    Given <length> random bytes with seed 7
+    When the bytes are decrypted in chunks of <chunk> bytes with key -326913117
+    Then the result should match decryptBytes with key -326913117
+
+    Examples:
+      | length | chunk |
+      | 1001   | 1     |
+      | 1001   | 3     |
+      | 1002   | 5     |
+      | 1003   | 7     |
+      | 1024   | 64    |
+      | 2      | 1     |
+
+  Scenario Outline: Chunked encryption matches a single call
+    Given <length> random bytes with seed 11
+    When the bytes are encrypted in chunks of <chunk> bytes with key 12345
+    Then the result should match encryptBytes with key 12345
+
+    Examples:
+      | length | chunk |
+      | 999    | 6     |
+      | 4096   | 13    |
+
+  Scenario: Chunked decryption of a byte buffer matches a single call
+    Given 1003 random bytes with seed 3
+    When the bytes are decrypted in buffer chunks of 9 bytes with key -326913117
+    Then the result should match decryptBytes with key -326913117
+
+  Scenario: Resuming from a checkpoint matches a single call
+    Given 2051 random bytes with seed 5
+    When the bytes are decrypted up to offset 1030, checkpointed and resumed with key -326913117
+    Then the result should match decryptBytes with key -326913117
+
+  Scenario: Decrypting through an input stream matches a single call
+    Given 100003 random bytes with seed 13
+    When the bytes are decrypted through an input stream with key -326913117
+    Then the result should match decryptBytes with key -326913117
+
+  Scenario: Encrypting through an output stream matches a single call
+    Given 100002 random bytes with seed 17
+    When the bytes are encrypted through an output stream with key 99
+    Then the result should match encryptBytes with key 99
+
+  Scenario: Decrypting through a readable channel matches a single call
+    Given 200001 random bytes with seed 19
+    When the bytes are decrypted through a readable channel with key -326913117
+    Then the result should match decryptBytes with key -326913117
+
+  Scenario: Encrypting through a writable channel matches a single call
+    Given 200007 random bytes with seed 23
+    When the bytes are encrypted through a writable channel with key 99
+    Then the result should match encryptBytes with key 99
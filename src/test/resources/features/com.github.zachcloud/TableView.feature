@@ -0,0 +1,29 @@
+Feature: Test reading decrypted hash and block tables through views
+
+  Scenario Outline: A hash table view reads the same fields as ByteHelper
+    Given an encrypted table of <entries> random entries with seed <seed>
+    When the hash table is viewed through a <source>
+    Then every hash table field should match ByteHelper
+
+    Examples:
+      | entries | seed | source                    |
+      | 4096    | 1    | decrypted copy            |
+      | 4096    | 2    | direct buffer in place    |
+      | 1024    | 3    | decrypted int array       |
+      | 0       | 4    | decrypted copy            |
+
+  Scenario Outline: A block table view reads the same fields as ByteHelper
+    Given an encrypted table of <entries> random entries with seed <seed>
+    When the block table is viewed through a <source>
+    Then every block table field should match ByteHelper
+
+    Examples:
+      | entries | seed | source                    |
+      | 4096    | 5    | decrypted copy            |
+      | 4096    | 6    | direct buffer in place    |
+      | 1024    | 7    | decrypted int array       |
+
+  Scenario: Reading past the last entry is rejected
+    Given an encrypted table of 16 random entries with seed 8
+    When the block table is viewed through a decrypted copy
+    Then reading block table entry 16 should fail